@@ -3,6 +3,8 @@ import { CommonModule } from '@angular/common';
 import { FormsModule } from '@angular/forms';
 import { Router } from '@angular/router';
 import { PaymentGatewayService } from '../../../service/payment-gateway.service';
+import { PaymentPushService } from '../../../service/payment-push.service';
+import { Subscription } from 'rxjs';
 
 @Component({
   selector: 'app-payment-gateway',
@@ -79,8 +81,8 @@ export class PaymentGateway implements OnInit, OnDestroy {
   failedCount = 0;
   totalFees = 0;
 
-  private pollInterval: any = null;
-  private linkPollInterval: any = null;
+  // Real-time payment push for the selected merchant's account
+  private pushSub: Subscription | null = null;
 
   // Payment Links
   showSendLinkModal = false;
@@ -104,11 +106,9 @@ export class PaymentGateway implements OnInit, OnDestroy {
   isSubmittingUpiPay = false;
   upiPaySuccess = false;
 
-  // Real-time transactions polling
-  private txnPollInterval: any = null;
-
   constructor(
     private pgService: PaymentGatewayService,
+    private paymentPushService: PaymentPushService,
     private router: Router
   ) {}
 
@@ -117,18 +117,8 @@ export class PaymentGateway implements OnInit, OnDestroy {
   }
 
   ngOnDestroy() {
-    if (this.pollInterval) {
-      clearInterval(this.pollInterval);
-      this.pollInterval = null;
-    }
-    if (this.linkPollInterval) {
-      clearInterval(this.linkPollInterval);
-      this.linkPollInterval = null;
-    }
-    if (this.txnPollInterval) {
-      clearInterval(this.txnPollInterval);
-      this.txnPollInterval = null;
-    }
+    this.pushSub?.unsubscribe();
+    this.pushSub = null;
   }
 
   loadMerchants() {
@@ -148,6 +138,24 @@ export class PaymentGateway implements OnInit, OnDestroy {
     this.merchantId = merchant.merchantId;
     this.loadMerchantData();
     this.loadPaymentLinks();
+    this.watchMerchantPayments();
+  }
+
+  // Captures, paid links and settlements are pushed to the account the merchant is credited on;
+  // every push (and every reconnect) reloads orders, transactions and links instead of polling
+  watchMerchantPayments() {
+    this.pushSub?.unsubscribe();
+    this.pushSub = null;
+    const account = this.currentMerchant?.linkedAccountNumber || this.currentMerchant?.accountNumber;
+    if (!account) return;
+    this.pushSub = this.paymentPushService.accountPayments(account).subscribe(() => {
+      this.loadMerchantData();
+      this.loadPaymentLinks();
+    });
+    this.pushSub.add(this.paymentPushService.connected$.subscribe(() => {
+      this.loadMerchantData();
+      this.loadPaymentLinks();
+    }));
   }
 
   loadMerchantData() {
@@ -157,14 +165,6 @@ export class PaymentGateway implements OnInit, OnDestroy {
     this.pgService.getOrdersByMerchant(this.merchantId).subscribe({
       next: (data: any[]) => {
         this.orders = data || [];
-        // Start polling when there are pending orders; stop when all are settled
-        const hasPending = this.orders.some(o => o.status === 'CREATED' || o.status === 'ATTEMPTED');
-        if (hasPending && !this.pollInterval) {
-          this.pollInterval = setInterval(() => this.loadMerchantData(), 5000);
-        } else if (!hasPending && this.pollInterval) {
-          clearInterval(this.pollInterval);
-          this.pollInterval = null;
-        }
       },
       error: () => this.orders = []
     });
@@ -173,8 +173,6 @@ export class PaymentGateway implements OnInit, OnDestroy {
       next: (data: any[]) => {
         this.transactions = data || [];
         this.isLoading = false;
-        // Start real-time polling when there are pending/new transactions
-        this.startTxnPolling();
       },
       error: () => { this.transactions = []; this.isLoading = false; }
     });
@@ -327,24 +325,6 @@ export class PaymentGateway implements OnInit, OnDestroy {
     });
   }
 
-  // ---- Real-time transaction polling ----
-  startTxnPolling() {
-    if (this.txnPollInterval) return;
-    this.txnPollInterval = setInterval(() => {
-      if (!this.merchantId) return;
-      this.pgService.getTransactionsByMerchant(this.merchantId).subscribe({
-        next: (data: any[]) => {
-          const incoming = data || [];
-          if (incoming.length !== this.transactions.length ||
-              (incoming[0] && this.transactions[0] && incoming[0].transactionId !== this.transactions[0].transactionId)) {
-            this.transactions = incoming;
-          }
-        },
-        error: () => {}
-      });
-    }, 4000);
-  }
-
   // ---- Process Payment ----
   processPayment() {
     if (!this.payForm.orderId) return;
@@ -434,14 +414,6 @@ export class PaymentGateway implements OnInit, OnDestroy {
     this.pgService.getMerchantPaymentLinks(this.merchantId).subscribe({
       next: (data: any[]) => {
         this.paymentLinks = data || [];
-        // Poll while any links are PENDING
-        const hasPending = this.paymentLinks.some((l: any) => l.status === 'PENDING');
-        if (hasPending && !this.linkPollInterval) {
-          this.linkPollInterval = setInterval(() => this.loadPaymentLinks(), 5000);
-        } else if (!hasPending && this.linkPollInterval) {
-          clearInterval(this.linkPollInterval);
-          this.linkPollInterval = null;
-        }
       },
       error: () => this.paymentLinks = []
     });
@@ -6,6 +6,8 @@ import { SoundboxService } from '../../../service/soundbox.service';
 import { SoundboxDevice, SoundboxTransaction } from '../../../model/soundbox/soundbox.model';
 import { MerchantOnboardingService } from '../../../service/merchant-onboarding.service';
 import { PaymentGatewayService } from '../../../service/payment-gateway.service';
+import { PaymentPushService, PaymentPushEvent } from '../../../service/payment-push.service';
+import { Subscription } from 'rxjs';
 
 @Component({
   selector: 'app-soundbox-payment',
@@ -59,12 +61,18 @@ export class SoundboxPayment implements OnInit, OnDestroy {
 
   // Voice alert
   voiceSupported = false;
+  // Payments already announced, so a push and the local processPayment response don't both speak
+  private announcedRefs = new Set<string>();
+
+  // Real-time payment push
+  private pushSubs: Subscription[] = [];
 
   constructor(
     private router: Router,
     private soundboxService: SoundboxService,
     private merchantService: MerchantOnboardingService,
     private pgService: PaymentGatewayService,
+    private paymentPushService: PaymentPushService,
     @Inject(PLATFORM_ID) private platformId: Object
   ) {
     this.isBrowser = isPlatformBrowser(this.platformId);
@@ -90,14 +98,39 @@ export class SoundboxPayment implements OnInit, OnDestroy {
       }
 
       this.voiceSupported = 'speechSynthesis' in window;
-      if (this.merchant?.merchantId) {
-        this.loadMerchantPortalData();
-      } else {
-        this.loadStats();
-        this.loadTransactions();
-      }
+      this.refreshData();
+      this.watchPayments();
+    }
+  }
+
+  refreshData() {
+    if (this.merchant?.merchantId) {
+      this.loadMerchantPortalData();
+    } else {
+      this.loadStats();
+      this.loadTransactions();
+    }
+  }
+
+  // Credits to the merchant's own and linked receiving account arrive over the payment push topic;
+  // each (re)connect reloads once to pick up anything that landed while the socket was down
+  watchPayments() {
+    this.pushSubs.forEach(sub => sub.unsubscribe());
+    const accounts = new Set<string>(
+      [this.merchant?.accountNumber, this.merchant?.linkedAccountNumber].filter((a: string) => !!a));
+    this.pushSubs = [...accounts].map(account =>
+      this.paymentPushService.accountPayments(account).subscribe(event => this.onPaymentPushed(event)));
+    this.pushSubs.push(this.paymentPushService.connected$.subscribe(() => this.refreshData()));
+  }
+
+  onPaymentPushed(event: PaymentPushEvent) {
+    if (event.announce && event.voiceMessage && !this.announcedRefs.has(event.reference || '')) {
+      if (event.reference) this.announcedRefs.add(event.reference);
+      this.speak(event.voiceMessage);
     }
+    this.refreshData();
   }
+
   loadMerchantPortalData() {
     if (!this.merchant?.merchantId) return;
     this.loadingStats = true;
@@ -123,7 +156,10 @@ export class SoundboxPayment implements OnInit, OnDestroy {
   }
 
 
-  ngOnDestroy() {}
+  ngOnDestroy() {
+    this.pushSubs.forEach(sub => sub.unsubscribe());
+    this.pushSubs = [];
+  }
 
   // ==================== Data Loading ====================
 
@@ -204,7 +240,11 @@ export class SoundboxPayment implements OnInit, OnDestroy {
         if (res.success) {
           this.paymentSuccess = true;
           this.lastPaymentTxn = res.transaction;
-          this.playVoiceAlert(this.paymentAmount, this.payerName);
+          const ref = res.transaction?.txnId;
+          if (!ref || !this.announcedRefs.has(ref)) {
+            if (ref) this.announcedRefs.add(ref);
+            this.playVoiceAlert(this.paymentAmount, this.payerName);
+          }
           this.loadTransactions();
           this.loadStats();
           // Reset after 5 seconds
@@ -236,6 +276,7 @@ export class SoundboxPayment implements OnInit, OnDestroy {
         if (res.success && res.merchant) {
           this.merchant = { ...this.merchant, ...res.merchant };
           this.receiveAccountNumber = this.merchant.linkedAccountNumber || this.receiveAccountNumber;
+          this.watchPayments();
           this.receiveAccountMessage = 'Account linked successfully for receiving payments.';
           if (this.isBrowser) {
             sessionStorage.setItem('merchantSoundbox', JSON.stringify(this.merchant));
@@ -254,10 +295,12 @@ export class SoundboxPayment implements OnInit, OnDestroy {
   // ==================== Voice Alert ====================
 
   playVoiceAlert(amount: number, payerName: string) {
+    this.speak(`Payment received. ${amount} rupees from ${payerName}`);
+  }
+
+  speak(text: string) {
     if (!this.voiceSupported || !this.settingsForm.voiceEnabled) return;
-    const msg = new SpeechSynthesisUtterance(
-      `Payment received. ${amount} rupees from ${payerName}`
-    );
+    const msg = new SpeechSynthesisUtterance(text);
     msg.lang = this.settingsForm.voiceLanguage || 'en-IN';
     msg.rate = 0.9;
     msg.volume = this.settingsForm.volumeMode === 'LOUD' ? 1.0 :
@@ -27,8 +27,9 @@ import { VirtualCardComponent } from '../virtual-card/virtual-card';
 import { BeneficiaryManagementComponent } from '../beneficiary-management/beneficiary-management';
 import { AtmSimulatorComponent } from '../atm-simulator/atm-simulator';
 import { FasttagUser } from '../fasttag/fasttag-user';
+import { PaymentPushService } from '../../../service/payment-push.service';
 import { timeout, catchError } from 'rxjs/operators';
-import { of } from 'rxjs';
+import { of, Subscription } from 'rxjs';
 // import { UserService } from '../../service/user';
 // import { AccountService } from '../../service/account';
 // import { TransactionService } from '../../service/transaction';
@@ -298,9 +299,9 @@ export class Userdashboard implements OnInit, OnDestroy {
   upiSendSuccess: string = '';
   upiSendTab: string = 'send';
 
-  // Real-time polling
-  upiPollInterval: any = null;
-  upiLastPollMs: number = 0;
+  // Real-time payment push
+  upiPushSubs: Subscription[] = [];
+  upiLastSyncMs: number = 0;
 
   // ── Payment Links (Savings) ────────────────────────────────
   pendingPaymentLinks: any[] = [];
@@ -322,7 +323,8 @@ export class Userdashboard implements OnInit, OnDestroy {
     private http: HttpClient,
     private alertService: AlertService,
     private fasttagService: FasttagService,
-    private currentAccountService: CurrentAccountService
+    private currentAccountService: CurrentAccountService,
+    private paymentPushService: PaymentPushService
   ) {
     const nav = this.router.getCurrentNavigation();
     if (nav?.extras?.state && nav.extras.state['username']) {
@@ -457,9 +459,9 @@ export class Userdashboard implements OnInit, OnDestroy {
       this.loadUpiStatus();
       this.loadUpiTransactions();
       this.loadUserPaymentLinks();
-      this.startUpiPolling();
+      this.startUpiPush();
     } else {
-      this.stopUpiPolling();
+      this.stopUpiPush();
     }
   }
   
@@ -1272,17 +1274,27 @@ export class Userdashboard implements OnInit, OnDestroy {
     });
   }
 
-  startUpiPolling() {
-    this.stopUpiPolling();
-    this.upiLastPollMs = Date.now() - 15000;
-    this.upiPollInterval = setInterval(() => this.pollUpiTransactions(), 5000);
+  startUpiPush() {
+    this.stopUpiPush();
+    if (!this.userAccountNumber) return;
+    this.upiLastSyncMs = Date.now() - 15000;
+    // Credits arrive over the payment push topic; each (re)connect runs one catch-up
+    // fetch for anything that landed while the socket was down
+    this.upiPushSubs = [
+      this.paymentPushService.connected$.subscribe(() => this.syncUpiTransactions()),
+      this.paymentPushService.accountPayments(this.userAccountNumber).subscribe(event => {
+        if (event.source === 'UPI' && event.transaction?.transactionRef) {
+          this.mergeUpiTransactions([event.transaction]);
+        } else {
+          this.loadCurrentBalanceFromMySQL();
+        }
+      })
+    ];
   }
 
-  stopUpiPolling() {
-    if (this.upiPollInterval) {
-      clearInterval(this.upiPollInterval);
-      this.upiPollInterval = null;
-    }
+  stopUpiPush() {
+    this.upiPushSubs.forEach(sub => sub.unsubscribe());
+    this.upiPushSubs = [];
   }
 
   // ─── Payment Links (Savings Dashboard) ────────────────────────────────────
@@ -1378,35 +1390,36 @@ export class Userdashboard implements OnInit, OnDestroy {
     w.print();
   }
 
-  pollUpiTransactions() {
+  syncUpiTransactions() {
     if (!this.userAccountNumber) return;
-    const after = this.upiLastPollMs;
-    this.upiLastPollMs = Date.now();
+    const after = this.upiLastSyncMs;
+    this.upiLastSyncMs = Date.now();
     this.http.get<any[]>(`${environment.apiBaseUrl}/api/savings-upi/latest-transactions/${this.userAccountNumber}?afterEpochMs=${after}`)
       .pipe(catchError(() => of([])))
-      .subscribe((newTxns: any[]) => {
-        if (newTxns && newTxns.length > 0) {
-          // Merge new transactions, avoid duplicates by transactionRef
-          const existingRefs = new Set(this.upiTransactions.map((t: any) => t.transactionRef));
-          const fresh = newTxns.filter((t: any) => !existingRefs.has(t.transactionRef));
-          if (fresh.length > 0) {
-            this.upiTransactions = [...fresh, ...this.upiTransactions];
-            this.loadUpiStatus();            // refresh UPI tab balance
-            this.loadCurrentBalanceFromMySQL(); // refresh main header balance
-            // Check if any are incoming (receiver) transactions
-            const incoming = fresh.filter((t: any) => t.receiverUpiId === this.upiStatus?.upiId);
-            if (incoming.length > 0) {
-              // Switch to history tab so receiver sees incoming payment
-              this.upiSendTab = 'history';
-            }
-          }
-        }
-      });
+      .subscribe((newTxns: any[]) => this.mergeUpiTransactions(newTxns));
+  }
+
+  mergeUpiTransactions(newTxns: any[]) {
+    if (!newTxns || newTxns.length === 0) return;
+    // Merge new transactions, avoid duplicates by transactionRef
+    const existingRefs = new Set(this.upiTransactions.map((t: any) => t.transactionRef));
+    const fresh = newTxns.filter((t: any) => !existingRefs.has(t.transactionRef));
+    if (fresh.length > 0) {
+      this.upiTransactions = [...fresh, ...this.upiTransactions];
+      this.loadUpiStatus();            // refresh UPI tab balance
+      this.loadCurrentBalanceFromMySQL(); // refresh main header balance
+      // Check if any are incoming (receiver) transactions
+      const incoming = fresh.filter((t: any) => t.receiverUpiId === this.upiStatus?.upiId);
+      if (incoming.length > 0) {
+        // Switch to history tab so receiver sees incoming payment
+        this.upiSendTab = 'history';
+      }
+    }
   }
 
   ngOnDestroy() {
     this.stopQrScanner();
-    this.stopUpiPolling();
+    this.stopUpiPush();
     if (this.linkPollInterval) {
       clearInterval(this.linkPollInterval);
       this.linkPollInterval = null;
@@ -0,0 +1,177 @@
+import { Inject, Injectable, NgZone, PLATFORM_ID } from '@angular/core';
+import { isPlatformBrowser } from '@angular/common';
+import { Observable, Subject } from 'rxjs';
+import { environment } from '../../environment/environment';
+
+export interface PaymentPushEvent {
+  type: string;
+  source: 'UPI' | 'SOUNDBOX' | 'PAYMENT_GATEWAY' | 'PG_SETTLEMENT' | string;
+  accountNumber: string;
+  reference?: string;
+  amount?: number;
+  payerName?: string;
+  payerUpi?: string;
+  deviceId?: string;
+  announce?: boolean;
+  voiceMessage?: string;
+  transaction?: any;
+  publishedAt?: string;
+}
+
+/**
+ * Subscribes to the backend payment push topics over STOMP on /ws-payments.
+ *
+ * The app has no STOMP client dependency, so this speaks the few STOMP 1.2 frames it
+ * needs (CONNECT, SUBSCRIBE, UNSUBSCRIBE, MESSAGE) over a native WebSocket. One socket
+ * is shared by every subscriber; it is opened on the first subscription, closed when the
+ * last one goes away and reopened with backoff if the server drops it. Each (re)connect
+ * is reported on connected$ so screens can run one catch-up fetch for anything pushed
+ * while they were offline. Nothing is opened during server-side rendering.
+ */
+@Injectable({
+  providedIn: 'root'
+})
+export class PaymentPushService {
+  private wsUrl = `${environment.apiBaseUrl.replace(/^http/, 'ws')}/ws-payments`;
+  private socket: WebSocket | null = null;
+  private isBrowser: boolean;
+  private stompConnected = false;
+  private reconnectDelayMs = 1000;
+  private reconnectTimer: any = null;
+  private nextId = 0;
+  private topics = new Map<string, { id: string; subject: Subject<PaymentPushEvent>; refs: number }>();
+  private connectedSubject = new Subject<void>();
+  public connected$ = this.connectedSubject.asObservable();
+
+  constructor(private zone: NgZone, @Inject(PLATFORM_ID) platformId: Object) {
+    this.isBrowser = isPlatformBrowser(platformId);
+  }
+
+  /** Payments credited to an account, from any source. */
+  accountPayments(accountNumber: string): Observable<PaymentPushEvent> {
+    return this.watch(`/topic/accounts/${accountNumber}/payments`);
+  }
+
+  /** Payments announced on a soundbox device. */
+  devicePayments(deviceId: string): Observable<PaymentPushEvent> {
+    return this.watch(`/topic/devices/${deviceId}/payments`);
+  }
+
+  private watch(destination: string): Observable<PaymentPushEvent> {
+    return new Observable<PaymentPushEvent>(observer => {
+      if (!this.isBrowser || typeof WebSocket === 'undefined') {
+        return;
+      }
+      let topic = this.topics.get(destination);
+      if (!topic) {
+        topic = { id: `sub-${this.nextId++}`, subject: new Subject<PaymentPushEvent>(), refs: 0 };
+        this.topics.set(destination, topic);
+        if (this.stompConnected) {
+          this.send('SUBSCRIBE', { id: topic.id, destination });
+        }
+      }
+      topic.refs++;
+      const sub = topic.subject.subscribe(observer);
+      this.open();
+
+      return () => {
+        sub.unsubscribe();
+        const current = this.topics.get(destination);
+        if (current && --current.refs <= 0) {
+          this.topics.delete(destination);
+          if (this.stompConnected) {
+            this.send('UNSUBSCRIBE', { id: current.id });
+          }
+          if (this.topics.size === 0) {
+            this.close();
+          }
+        }
+      };
+    });
+  }
+
+  private open() {
+    if (this.socket || this.reconnectTimer) return;
+    // Keep the socket callbacks outside Angular so idle heart-beats don't trigger change detection
+    this.zone.runOutsideAngular(() => {
+      const socket = new WebSocket(this.wsUrl);
+      this.socket = socket;
+      socket.onopen = () => {
+        this.send('CONNECT', { 'accept-version': '1.2', 'heart-beat': '0,0', host: new URL(this.wsUrl).host });
+      };
+      socket.onmessage = event => this.onFrame(String(event.data));
+      socket.onclose = () => this.onClosed(socket);
+      socket.onerror = () => socket.close();
+    });
+  }
+
+  private close() {
+    if (this.reconnectTimer) {
+      clearTimeout(this.reconnectTimer);
+      this.reconnectTimer = null;
+    }
+    const socket = this.socket;
+    this.socket = null;
+    this.stompConnected = false;
+    if (socket) {
+      socket.onclose = null;
+      socket.close();
+    }
+  }
+
+  private onClosed(socket: WebSocket) {
+    if (this.socket !== socket) return;
+    this.socket = null;
+    this.stompConnected = false;
+    if (this.topics.size === 0) return;
+    const delay = this.reconnectDelayMs;
+    this.reconnectDelayMs = Math.min(this.reconnectDelayMs * 2, 30000);
+    this.reconnectTimer = setTimeout(() => {
+      this.reconnectTimer = null;
+      this.open();
+    }, delay);
+  }
+
+  private onFrame(data: string) {
+    // Heart-beats arrive as bare newlines
+    for (const raw of data.split('\0')) {
+      const frame = raw.replace(/^\r?\n+/, '');
+      if (!frame) continue;
+      const headerEnd = frame.indexOf('\n\n');
+      const head = (headerEnd >= 0 ? frame.substring(0, headerEnd) : frame).split('\n');
+      const body = headerEnd >= 0 ? frame.substring(headerEnd + 2) : '';
+      const command = head[0].trim();
+      const headers: { [key: string]: string } = {};
+      for (const line of head.slice(1)) {
+        const idx = line.indexOf(':');
+        if (idx > 0 && !(line.substring(0, idx) in headers)) {
+          headers[line.substring(0, idx)] = line.substring(idx + 1);
+        }
+      }
+
+      if (command === 'CONNECTED') {
+        this.stompConnected = true;
+        this.reconnectDelayMs = 1000;
+        this.topics.forEach((topic, destination) => this.send('SUBSCRIBE', { id: topic.id, destination }));
+        this.zone.run(() => this.connectedSubject.next());
+      } else if (command === 'MESSAGE') {
+        const topic = this.topics.get(headers['destination']);
+        if (!topic) continue;
+        try {
+          const event = JSON.parse(body) as PaymentPushEvent;
+          this.zone.run(() => topic.subject.next(event));
+        } catch (e) {
+          console.error('Unreadable payment push on', headers['destination'], e);
+        }
+      } else if (command === 'ERROR') {
+        console.error('Payment push error:', headers['message'] || body);
+      }
+    }
+  }
+
+  private send(command: string, headers: { [key: string]: string }) {
+    if (!this.socket || this.socket.readyState !== WebSocket.OPEN) return;
+    const lines = Object.keys(headers).map(key => `${key}:${headers[key]}`);
+    this.socket.send(`${command}\n${lines.join('\n')}\n\n\0`);
+  }
+}
@@ -0,0 +1,132 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.SpringappApplication;
+import com.neo.springapp.model.GlobalTransactionSequence;
+import com.neo.springapp.repository.GlobalTransactionSequenceRepository;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * JMH throughput of {@link GlobalTransactionIdGenerator#getNextTransactionId()} against the
+ * synchronized one-row-update-per-ID generator it replaced, at 1 to 64 threads, on the test
+ * profile's H2 database. Opt-in: mvn test -Pbenchmark -Dtest=GlobalTransactionIdGeneratorBenchmark
+ *
+ * Runs in the surefire JVM ({@code @Fork(0)}) so every trial shares one application context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(0)
+public class GlobalTransactionIdGeneratorBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+    private static ConfigurableApplicationContext context;
+
+    @Param({"synchronized", "blocks"})
+    public String generator;
+
+    private Supplier<Long> nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConfigurableApplicationContext ctx = context();
+        if ("blocks".equals(generator)) {
+            GlobalTransactionIdGenerator blocks = ctx.getBean(GlobalTransactionIdGenerator.class);
+            nextId = blocks::getNextTransactionId;
+        } else {
+            SynchronizedIdGenerator synchronizedGenerator = new SynchronizedIdGenerator(
+                    ctx.getBean(GlobalTransactionSequenceRepository.class), ctx.getBean(PlatformTransactionManager.class));
+            nextId = synchronizedGenerator::getNextTransactionId;
+        }
+    }
+
+    @Benchmark
+    public Long nextTransactionId() {
+        return nextId.get();
+    }
+
+    @Test
+    void oneToSixtyFourThreads() throws Exception {
+        List<String> summary = new ArrayList<>();
+        try {
+            for (int threads : THREAD_COUNTS) {
+                for (RunResult result : new Runner(new OptionsBuilder()
+                        .include(GlobalTransactionIdGeneratorBenchmark.class.getName() + ".nextTransactionId")
+                        .threads(threads)
+                        .build()).run()) {
+                    summary.add(String.format("%-12s %2d threads  %12.1f ids/ms",
+                            result.getParams().getParam("generator"), threads,
+                            result.getPrimaryResult().getScore()));
+                }
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+                context = null;
+            }
+        }
+        summary.forEach(System.out::println);
+    }
+
+    private static synchronized ConfigurableApplicationContext context() {
+        if (context == null) {
+            context = new SpringApplicationBuilder(SpringappApplication.class).profiles("test").run();
+        }
+        return context;
+    }
+
+    /** The generator as it was before block allocation: one locked read-modify-write of the sequence row per ID. */
+    static final class SynchronizedIdGenerator {
+
+        private final GlobalTransactionSequenceRepository sequenceRepository;
+        private final TransactionTemplate transaction;
+
+        SynchronizedIdGenerator(GlobalTransactionSequenceRepository sequenceRepository,
+                                PlatformTransactionManager transactionManager) {
+            this.sequenceRepository = sequenceRepository;
+            this.transaction = new TransactionTemplate(transactionManager);
+        }
+
+        synchronized Long getNextTransactionId() {
+            return transaction.execute(status -> {
+                GlobalTransactionSequence sequence = sequenceRepository.getSequence();
+                if (sequence == null) {
+                    sequence = new GlobalTransactionSequence();
+                    sequence.setCurrentSequence(1L);
+                    sequenceRepository.save(sequence);
+                    return 1L;
+                }
+                Long nextId = sequence.getCurrentSequence();
+                sequence.setCurrentSequence(nextId + 1);
+                sequenceRepository.save(sequence);
+                return nextId;
+            });
+        }
+    }
+}
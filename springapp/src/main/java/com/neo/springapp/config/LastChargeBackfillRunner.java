@@ -0,0 +1,84 @@
+package com.neo.springapp.config;
+
+import com.neo.springapp.model.AccountLastCharge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds account_last_charges from the debit card charges already recorded in transactions, so the
+ * first set-based eligibility run after upgrading does not charge accounts a second time within
+ * 6 months. Completion is recorded in the app_migrations table, so the one-off text scan runs once;
+ * the insert itself skips accounts that already have a row. Safe to run on every startup.
+ */
+@Component
+@Order(21)
+@Slf4j
+public class LastChargeBackfillRunner implements ApplicationRunner {
+
+    private static final String MIGRATION = "account_last_charges.debit_card_backfill";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LastChargeBackfillRunner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            ensureMigrationTable();
+            if (!isApplied()) {
+                backfillDebitCardCharges();
+                markApplied();
+            }
+        } catch (Exception e) {
+            log.warn("Last charge backfill skipped: {}", e.getMessage());
+        }
+    }
+
+    private void backfillDebitCardCharges() {
+        int rows = jdbcTemplate.update(
+                """
+                INSERT INTO account_last_charges (account_number, charge_type, last_charged_at)
+                SELECT t.account_number, ?, MAX(t.date)
+                FROM transactions t
+                WHERE t.account_number IS NOT NULL
+                  AND t.date IS NOT NULL
+                  AND LOWER(t.description) LIKE '%debit card charges%'
+                  AND NOT EXISTS (SELECT 1 FROM account_last_charges l
+                                  WHERE l.account_number = t.account_number AND l.charge_type = ?)
+                GROUP BY t.account_number
+                """,
+                AccountLastCharge.DEBIT_CARD, AccountLastCharge.DEBIT_CARD);
+        log.info("Backfilled last debit card charge dates for {} accounts", rows);
+    }
+
+    private void ensureMigrationTable() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS app_migrations (
+                    name VARCHAR(128) NOT NULL PRIMARY KEY,
+                    applied_at TIMESTAMP NOT NULL
+                )
+                """);
+    }
+
+    private boolean isApplied() {
+        Integer applied = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM app_migrations WHERE name = ?", Integer.class, MIGRATION);
+        return applied != null && applied > 0;
+    }
+
+    // Another node may record it first; the backfill is idempotent, so either record will do
+    private void markApplied() {
+        try {
+            jdbcTemplate.update("INSERT INTO app_migrations (name, applied_at) VALUES (?, CURRENT_TIMESTAMP)", MIGRATION);
+        } catch (DuplicateKeyException alreadyRecorded) {
+            log.debug("Migration {} was recorded concurrently", MIGRATION);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.neo.springapp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Types;
+
+/**
+ * Converts legacy DOUBLE money columns on the ledger hot path to DECIMAL(19,2).
+ * The entities declare these columns as DECIMAL(19,2); Hibernate's ddl-auto=update never
+ * changes an existing column type, so older databases are migrated here. Each column is
+ * converted once (values are rounded to the paisa); the column type, nullability and default
+ * are read from the JDBC metadata first and kept, so DECIMAL columns and databases without
+ * these tables are left alone. The ALTER uses MySQL's MODIFY COLUMN, so other databases
+ * (H2 in tests, which creates the columns as DECIMAL already) are skipped. Safe to run on
+ * every startup.
+ *
+ * This is a schema migration, not an ApplicationRunner: the JPA EntityManagerFactory depends on
+ * it (see {@link EntityManagerFactoryDependsOnMoneyColumnMigration}), so the ALTERs finish before
+ * Hibernate, the repositories, the schedulers and the web layer come up.
+ */
+@Component
+@Slf4j
+public class MoneyColumnMigration implements InitializingBean {
+
+    private static final String[][] MONEY_COLUMNS = {
+            {"accounts", "balance"},
+            {"current_accounts", "balance"},
+            {"salary_accounts", "balance"},
+            {"transactions", "amount"},
+            {"transactions", "balance"},
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MoneyColumnMigration(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        String product;
+        try {
+            product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+        } catch (Exception e) {
+            log.warn("Money column migration skipped: {}", e.getMessage());
+            return;
+        }
+        if (product == null || !(product.contains("MySQL") || product.contains("MariaDB"))) {
+            log.debug("Money column migration only runs on MySQL/MariaDB; skipping on {}", product);
+            return;
+        }
+        for (String[] column : MONEY_COLUMNS) {
+            try {
+                convertToDecimal(column[0], column[1]);
+            } catch (Exception e) {
+                log.warn("Money column migration skipped for {}.{}: {}", column[0], column[1], e.getMessage());
+            }
+        }
+    }
+
+    private void convertToDecimal(String tableName, String columnName) {
+        ColumnInfo info = columnInfo(tableName, columnName);
+        if (info == null) {
+            log.debug("Money column {}.{} not found; nothing to convert", tableName, columnName);
+            return;
+        }
+        if (info.sqlType() != Types.DOUBLE && info.sqlType() != Types.FLOAT && info.sqlType() != Types.REAL) {
+            log.debug("Money column {}.{} is already JDBC type {}; nothing to convert", tableName, columnName, info.sqlType());
+            return;
+        }
+        StringBuilder definition = new StringBuilder("DECIMAL(19,2)").append(info.nullable() ? " NULL" : " NOT NULL");
+        if (info.defaultValue() != null) {
+            String value = info.defaultValue().trim();
+            if (value.length() > 1 && value.startsWith("'") && value.endsWith("'")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            try {
+                // Only a plain number can be carried over; anything else is left for a manual migration
+                definition.append(" DEFAULT ").append(new BigDecimal(value).setScale(2, RoundingMode.HALF_UP).toPlainString());
+            } catch (NumberFormatException e) {
+                log.warn("Money column {}.{} has non-numeric default {}; not converting", tableName, columnName, info.defaultValue());
+                return;
+            }
+        }
+        jdbcTemplate.execute("UPDATE " + tableName + " SET " + columnName + " = ROUND(" + columnName + ", 2) WHERE "
+                + columnName + " IS NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE " + tableName + " MODIFY COLUMN " + columnName + " " + definition);
+        log.info("Converted {}.{} to {}", tableName, columnName, definition);
+    }
+
+    // Type, nullability and default of the column in the current catalog, or null when the table or column does not exist
+    private ColumnInfo columnInfo(String tableName, String columnName) {
+        return jdbcTemplate.execute((ConnectionCallback<ColumnInfo>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? tableName.toUpperCase() : tableName;
+            String column = metaData.storesUpperCaseIdentifiers() ? columnName.toUpperCase() : columnName;
+            try (ResultSet rs = metaData.getColumns(connection.getCatalog(), connection.getSchema(), table, column)) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new ColumnInfo(rs.getInt("DATA_TYPE"),
+                        rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls, rs.getString("COLUMN_DEF"));
+            }
+        });
+    }
+
+    private record ColumnInfo(int sqlType, boolean nullable, String defaultValue) {
+    }
+
+    /** Holds back the EntityManagerFactory, and with it everything that reads these tables, until the migration has run. */
+    @Component
+    static class EntityManagerFactoryDependsOnMoneyColumnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOnMoneyColumnMigration() {
+            super(MoneyColumnMigration.class);
+        }
+    }
+}
@@ -25,6 +25,13 @@ import java.util.stream.Collectors;
 @SuppressWarnings("null")
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    /**
+     * /ws-chat serves support chat; /ws-payments serves the payment push topics
+     * (/topic/accounts/{accountNumber}/payments, /topic/devices/{deviceId}/payments).
+     * Both share the same in-memory broker.
+     */
+    private static final String[] ENDPOINTS = {"/ws-chat", "/ws-payments"};
+
     /**
      * Read allowed origins from SPRING_WEB_CORS_ALLOWED_ORIGINS environment variable.
      * Same as CorsConfig to ensure consistency between HTTP and WebSocket CORS.
@@ -52,22 +59,18 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         }
 
         // Register WebSocket endpoints with CORS configuration
-        if (!originPatterns.isEmpty()) {
-            String[] patterns = originPatterns.toArray(new String[0]);
-            // Use setAllowedOriginPatterns for WebSocket (supports wildcards)
-            registry.addEndpoint("/ws-chat")
+        // Use setAllowedOriginPatterns for WebSocket (supports wildcards); allow all if not configured (development only)
+        String[] patterns = originPatterns.isEmpty() ? new String[] {"*"} : originPatterns.toArray(new String[0]);
+        for (String endpoint : ENDPOINTS) {
+            registry.addEndpoint(endpoint)
                     .setAllowedOriginPatterns(patterns)
                     .withSockJS();
-            registry.addEndpoint("/ws-chat")
+            registry.addEndpoint(endpoint)
                     .setAllowedOriginPatterns(patterns);
+        }
+        if (!originPatterns.isEmpty()) {
             System.out.println("✅ WebSocket CORS configured with origins: " + originPatterns);
         } else {
-            // Allow all origins if not configured (development only)
-            registry.addEndpoint("/ws-chat")
-                    .setAllowedOriginPatterns("*")
-                    .withSockJS();
-            registry.addEndpoint("/ws-chat")
-                    .setAllowedOriginPatterns("*");
             System.out.println("⚠️ WebSocket: SPRING_WEB_CORS_ALLOWED_ORIGINS not set - allowing all origins");
         }
     }
@@ -6,6 +6,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -25,28 +26,32 @@ public class AdminBulkExportController {
     }
 
     @PostMapping
-    public ResponseEntity<byte[]> export(@RequestBody Map<String, Object> body) {
+    public ResponseEntity<?> export(@RequestBody Map<String, Object> body) {
         @SuppressWarnings("unchecked")
         List<String> raw = (List<String>) body.get("accountNumbers");
         String adminName = body.get("adminName") != null ? String.valueOf(body.get("adminName")) : "Admin";
         String format = body.get("format") != null ? String.valueOf(body.get("format")).toLowerCase() : "pdf";
+        boolean excel = "excel".equals(format) || "xlsx".equals(format);
 
-        List<String> accountNumbers = adminBulkExportService.sanitizeAccountNumbers(raw);
+        List<String> accountNumbers = excel
+                ? adminBulkExportService.sanitizeAccountNumbersForExcel(raw)
+                : adminBulkExportService.sanitizeAccountNumbers(raw);
         if (accountNumbers.isEmpty()) {
             return ResponseEntity.badRequest().body("No account numbers provided".getBytes(StandardCharsets.UTF_8));
         }
 
         String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        if (excel) {
+            // Written straight to the response as it is produced; errors past this point abort the download
+            StreamingResponseBody stream = out -> adminBulkExportService.writeExcel(accountNumbers, adminName, out);
+            String filename = "NeoBank-users-export-" + stamp + ".xlsx";
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(filename, StandardCharsets.UTF_8).build().toString())
+                    .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                    .body(stream);
+        }
         try {
-            if ("excel".equals(format) || "xlsx".equals(format)) {
-                byte[] data = adminBulkExportService.buildExcel(accountNumbers, adminName);
-                String filename = "NeoBank-users-export-" + stamp + ".xlsx";
-                return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
-                                .filename(filename, StandardCharsets.UTF_8).build().toString())
-                        .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                        .body(data);
-            }
             byte[] pdf = adminBulkExportService.buildPdf(accountNumbers, adminName);
             String filename = "NeoBank-users-export-" + stamp + ".pdf";
             return ResponseEntity.ok()
@@ -74,6 +74,9 @@ public class AdminController {
     @Autowired
     private SalaryAccountService salaryAccountService;
 
+    @Autowired
+    private com.neo.springapp.service.ChargeBatchEngine chargeBatchEngine;
+
     /**
      * Assign mandatory Customer ID (9 digits: PAN 4 + DOB 5) to all existing accounts
      * that don't have one. Call this to migrate existing data.
@@ -343,6 +346,14 @@ public class AdminController {
         return ResponseEntity.ok(branchAccountService.getBranchAccountSummary());
     }
 
+    /**
+     * Progress and throughput of the monthly/debit card charge batches (live runs on this node and recent runs).
+     */
+    @GetMapping("/branch-account/charge-runs")
+    public ResponseEntity<Map<String, Object>> getChargeBatchRuns() {
+        return ResponseEntity.ok(chargeBatchEngine.getProgress());
+    }
+
     /**
      * Get branch account transactions (all credits to branch) with optional date filter and search.
      * Query params: fromDate (yyyy-MM-dd), toDate (yyyy-MM-dd), search, page (default 0), size (default 20).
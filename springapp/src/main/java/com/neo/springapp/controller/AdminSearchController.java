@@ -4,7 +4,9 @@ import com.neo.springapp.service.AdminSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
@@ -30,8 +32,42 @@ public class AdminSearchController {
             return ResponseEntity.internalServerError().body(error);
         }
     }
-}
-
 
+    /**
+     * Streaming variant: one "category" server-sent event per entity type as it completes,
+     * then a "done" event with the total count. If the client goes away, the failed send stops the
+     * search and its unfinished categories are cancelled.
+     */
+    @GetMapping("/stream")
+    public SseEmitter searchAllStream(@RequestParam String q) {
+        SseEmitter emitter = new SseEmitter(adminSearchService.getSearchBudgetMs() + 10_000);
+        Thread.ofVirtual().name("admin-search-stream").start(() -> {
+            try {
+                adminSearchService.searchAllStreaming(q,
+                        category -> send(emitter, "category", category),
+                        summary -> send(emitter, "done", summary));
+                emitter.complete();
+            } catch (SearchStreamClosedException e) {
+                // Client disconnected; the service has already cancelled the remaining categories
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
 
+    private static void send(SseEmitter emitter, String name, Map<String, Object> data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException e) {
+            throw new SearchStreamClosedException(e);
+        }
+    }
 
+    private static final class SearchStreamClosedException extends RuntimeException {
+        SearchStreamClosedException(IOException cause) {
+            super("Search stream closed by client", cause);
+        }
+    }
+}
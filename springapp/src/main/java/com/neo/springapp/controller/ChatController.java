@@ -2,9 +2,10 @@ package com.neo.springapp.controller;
 
 import com.neo.springapp.model.ChatMessage;
 import com.neo.springapp.service.ChatService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -27,24 +28,9 @@ public class ChatController {
     @Autowired
     private ChatService chatService;
     
+    // WebSocket messaging template - resolved lazily, absent when the broker is not configured
     @Autowired
-    private ApplicationContext applicationContext;
-    
-    // WebSocket messaging template - will be retrieved lazily if available
-    private Object getMessagingTemplate() {
-        try {
-            // Try to get SimpMessagingTemplate bean by type name
-            String[] beanNames = applicationContext.getBeanNamesForType(
-                Class.forName("org.springframework.messaging.simp.SimpMessagingTemplate")
-            );
-            if (beanNames.length > 0) {
-                return applicationContext.getBean(beanNames[0]);
-            }
-        } catch (Exception e) {
-            // WebSocket not configured or class not available, return null
-        }
-        return null;
-    }
+    private ObjectProvider<SimpMessagingTemplate> messagingTemplate;
 
     // Health check endpoint
     @GetMapping("/health")
@@ -307,13 +293,10 @@ public class ChatController {
     
     // Helper method to send WebSocket messages safely
     private void sendWebSocketMessage(String destination, Object message) {
-        Object messagingTemplate = getMessagingTemplate();
-        if (messagingTemplate != null) {
+        SimpMessagingTemplate template = messagingTemplate.getIfAvailable();
+        if (template != null) {
             try {
-                // Use reflection to call convertAndSend to avoid compile-time dependency
-                java.lang.reflect.Method method = messagingTemplate.getClass()
-                    .getMethod("convertAndSend", String.class, Object.class);
-                method.invoke(messagingTemplate, destination, message);
+                template.convertAndSend(destination, message);
             } catch (Exception e) {
                 // WebSocket not available or error - silently continue
                 // Chat will work via HTTP polling instead
@@ -171,11 +171,16 @@ public class CreditCardController {
         return ResponseEntity.badRequest().body("Cannot close credit card with outstanding balance");
     }
 
+    // Run the statement cycle for cards due today (admin cron job)
+    @PostMapping("/billing-cycle")
+    public ResponseEntity<?> runBillingCycle() {
+        return ResponseEntity.ok(creditCardService.runBillingCycle());
+    }
+
     // Calculate overdue and penalties (admin cron job)
     @PostMapping("/calculate-overdue")
     public ResponseEntity<?> calculateOverdue() {
-        creditCardService.calculateOverdueAndPenalties();
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(creditCardService.calculateOverdueAndPenalties());
     }
 
     private String generateCardNumber() {
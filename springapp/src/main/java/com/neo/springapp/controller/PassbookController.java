@@ -3,21 +3,20 @@ package com.neo.springapp.controller;
 import com.neo.springapp.model.Account;
 import com.neo.springapp.model.CurrentAccount;
 import com.neo.springapp.model.SalaryAccount;
-import com.neo.springapp.model.Transaction;
 import com.neo.springapp.service.AccountService;
-import com.neo.springapp.service.PdfService;
-import com.neo.springapp.service.TransactionService;
+import com.neo.springapp.service.PassbookStatementService;
 import com.neo.springapp.repository.CurrentAccountRepository;
 import com.neo.springapp.repository.SalaryAccountRepository;
 import com.neo.springapp.repository.AccountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.Optional;
 
@@ -30,10 +29,7 @@ public class PassbookController {
     private AccountService accountService;
 
     @Autowired
-    private PdfService pdfService;
-
-    @Autowired
-    private TransactionService transactionService;
+    private PassbookStatementService passbookStatementService;
 
     @Autowired
     private CurrentAccountRepository currentAccountRepository;
@@ -52,15 +48,21 @@ public class PassbookController {
 
     /**
      * Generate passbook PDF for any account type (Savings, Current, Salary).
-     * Query param: accountType = savings | current | salary
+     * Query params: accountType = savings | current | salary; optional from / to (yyyy-MM-dd, inclusive)
+     * to slice the statement period. The full history is streamed, oldest entry first.
      */
     @GetMapping("/generate/{accountNumber}")
     public ResponseEntity<?> generatePassbook(
             @PathVariable String accountNumber,
-            @RequestParam(defaultValue = "savings") String accountType) {
+            @RequestParam(defaultValue = "savings") String accountType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "'from' must not be after 'to'"));
+        }
 
         Map<String, Object> accountInfo = new HashMap<>();
-        List<Transaction> transactions;
 
         switch (accountType.toLowerCase()) {
             case "current":
@@ -122,22 +124,15 @@ public class PassbookController {
                 break;
         }
 
-        // Fetch transactions (up to 500 most recent)
-        Page<Transaction> txnPage = transactionService.getTransactionsByAccountNumber(accountNumber, 0, 500);
-        transactions = txnPage.getContent();
+        // Written page by page straight to the response; errors past this point abort the download
+        StreamingResponseBody stream = out -> passbookStatementService.writePassbook(accountInfo, from, to, out);
 
-        try {
-            byte[] pdfBytes = pdfService.generatePassbook(accountInfo, transactions);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "Passbook_" + accountNumber + ".pdf");
-            headers.setCacheControl("no-cache, no-store, must-revalidate");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "Passbook_" + accountNumber + ".pdf");
+        headers.setCacheControl("no-cache, no-store, must-revalidate");
 
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().body(Map.of("success", false, "message", "Failed to generate passbook: " + e.getMessage()));
-        }
+        return ResponseEntity.ok().headers(headers).body(stream);
     }
 
     /**
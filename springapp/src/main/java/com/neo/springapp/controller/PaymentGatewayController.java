@@ -1,11 +1,15 @@
 package com.neo.springapp.controller;
 
 import com.neo.springapp.model.*;
+import com.neo.springapp.repository.PgSettlementBatchRepository;
 import com.neo.springapp.service.PaymentGatewayService;
+import com.neo.springapp.service.PgSettlementEngine;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +22,12 @@ public class PaymentGatewayController {
     @Autowired
     private PaymentGatewayService paymentGatewayService;
 
+    @Autowired
+    private PgSettlementEngine settlementEngine;
+
+    @Autowired
+    private PgSettlementBatchRepository settlementBatchRepository;
+
     // ==================== MERCHANT ENDPOINTS ====================
 
     @PostMapping("/merchants/register")
@@ -240,6 +250,15 @@ public class PaymentGatewayController {
         }
     }
 
+    @GetMapping("/analytics/{merchantId}/transactions")
+    public ResponseEntity<Page<PgTransaction>> getMerchantTransactionsPage(
+            @PathVariable String merchantId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(paymentGatewayService.getMerchantTransactionsPage(merchantId, status, page, size));
+    }
+
     // ==================== OTP LOGIN ENDPOINTS ====================
 
     @PostMapping("/login/send-otp")
@@ -369,6 +388,24 @@ public class PaymentGatewayController {
         }
     }
 
+    @PostMapping("/settlement/run")
+    public ResponseEntity<Map<String, Object>> runSettlementCycle(@RequestParam(required = false) String date) {
+        try {
+            LocalDate cycleDate = date != null ? LocalDate.parse(date) : LocalDate.now();
+            return ResponseEntity.ok(settlementEngine.runCycle(cycleDate));
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @GetMapping("/settlement/batches/{merchantId}")
+    public ResponseEntity<List<PgSettlementBatch>> getSettlementBatches(@PathVariable String merchantId) {
+        return ResponseEntity.ok(settlementBatchRepository.findByMerchantIdOrderByCycleDateDesc(merchantId));
+    }
+
     @GetMapping("/ledger/merchant/{merchantId}")
     public ResponseEntity<List<?>> getLedgerByMerchant(@PathVariable String merchantId) {
         return ResponseEntity.ok(paymentGatewayService.getLedgerByMerchant(merchantId));
@@ -160,7 +160,8 @@ public class TransferController {
                     description, 
                     amount, 
                     "Debit", 
-                    newBalance
+                    newBalance,
+                    recipientAccountNumber
                 );
 
                 // Update recipient account balance (credit) if account exists
@@ -209,7 +210,8 @@ public class TransferController {
                     description + " (NEFT - Pending)", 
                     amount, 
                     "Debit", 
-                    newBalance
+                    newBalance,
+                    recipientAccountNumber
                 );
 
                 // Prepare response
@@ -242,7 +244,8 @@ public class TransferController {
                     description, 
                     amount, 
                     "Debit", 
-                    newBalance
+                    newBalance,
+                    recipientAccountNumber
                 );
 
                 // Update recipient account balance (credit) if account exists
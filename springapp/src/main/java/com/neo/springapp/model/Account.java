@@ -1,5 +1,6 @@
 package com.neo.springapp.model;
 
+import com.neo.springapp.service.AdminSearchIndexListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -7,6 +8,7 @@ import java.time.LocalDateTime;
 @Entity
 @Data
 @Table(name = "accounts")
+@EntityListeners(AdminSearchIndexListener.class)
 public class Account {
 
     @Id
@@ -39,6 +41,7 @@ public class Account {
     @Column(unique = true, nullable = true, name = "customer_id")
     private String customerId;
 
+    @Column(columnDefinition = "DECIMAL(19,2)")
     private Double balance = 0.0; // Account balance
     private Double income;
     
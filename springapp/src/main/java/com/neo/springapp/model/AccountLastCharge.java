@@ -0,0 +1,43 @@
+package com.neo.springapp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * When a periodic charge (e.g. the 6-monthly debit card charge) was last applied to an account.
+ * Written in the same transaction as the charge, so eligibility for the next charge is an indexed
+ * lookup instead of a text search over the account's transactions.
+ */
+@Data
+@Entity
+@Table(name = "account_last_charges", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_account_last_charge", columnNames = {"accountNumber", "chargeType"})
+})
+public class AccountLastCharge {
+
+    public static final String DEBIT_CARD = "DEBIT_CARD";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String accountNumber;
+
+    @Column(nullable = false, length = 32)
+    private String chargeType;
+
+    @Column(nullable = false)
+    private LocalDateTime lastChargedAt;
+
+    public AccountLastCharge() {
+    }
+
+    public AccountLastCharge(String accountNumber, String chargeType, LocalDateTime lastChargedAt) {
+        this.accountNumber = accountNumber;
+        this.chargeType = chargeType;
+        this.lastChargedAt = lastChargedAt;
+    }
+}
@@ -1,5 +1,6 @@
 package com.neo.springapp.model;
 
+import com.neo.springapp.service.AdminSearchIndexListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -7,6 +8,7 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "cards")
+@EntityListeners(AdminSearchIndexListener.class)
 public class Card {
 
     @Id
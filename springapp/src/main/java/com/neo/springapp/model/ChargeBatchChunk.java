@@ -0,0 +1,51 @@
+package com.neo.springapp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint for one committed chunk of a {@link ChargeBatchRun}. It is written in the same
+ * transaction as the charges of the accounts with ids in [firstAccountId, lastAccountId],
+ * so on resume exactly those accounts are known to be done.
+ */
+@Data
+@Entity
+@Table(name = "charge_batch_chunks", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_charge_batch_chunk", columnNames = {"runKey", "firstAccountId"})
+}, indexes = {
+    @Index(name = "idx_charge_batch_chunk_run", columnList = "runKey")
+})
+public class ChargeBatchChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String runKey;
+
+    @Column(nullable = false)
+    private Long firstAccountId;
+
+    @Column(nullable = false)
+    private Long lastAccountId;
+
+    private Integer processedCount = 0;
+    private Integer successCount = 0;
+    private Integer failedCount = 0;
+    private Integer skippedCount = 0;
+
+    private LocalDateTime completedAt;
+
+    public ChargeBatchChunk() {
+    }
+
+    public ChargeBatchChunk(String runKey, Long firstAccountId, Long lastAccountId) {
+        this.runKey = runKey;
+        this.firstAccountId = firstAccountId;
+        this.lastAccountId = lastAccountId;
+        this.completedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,59 @@
+package com.neo.springapp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One run of a chunked charges batch job for a billing period, e.g. monthly bank charges for 2026-10.
+ * The run key is unique, so a period is charged at most once; a run that crashed or left failed
+ * chunks is resumed and only the accounts outside its committed {@link ChargeBatchChunk}s are charged.
+ */
+@Data
+@Entity
+@Table(name = "charge_batch_runs", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_charge_batch_run_key", columnNames = {"runKey"})
+})
+public class ChargeBatchRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String runKey; // <jobName>:<period>
+
+    @Column(nullable = false)
+    private String jobName;
+
+    @Column(nullable = false)
+    private String period; // yyyy-MM
+
+    @Column(nullable = false)
+    private String status = "PENDING"; // PENDING, RUNNING, INCOMPLETE, COMPLETED
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    private String owner; // node currently running the job
+
+    private Long processedCount = 0L;
+    private Long successCount = 0L;
+    private Long failedCount = 0L;
+    private Long skippedCount = 0L;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime heartbeatAt;
+    private LocalDateTime completedAt;
+
+    public ChargeBatchRun() {
+    }
+
+    public ChargeBatchRun(String runKey, String jobName, String period) {
+        this.runKey = runKey;
+        this.jobName = jobName;
+        this.period = period;
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "credit_cards")
+@Table(name = "credit_cards", indexes = {
+    @Index(name = "idx_credit_card_billing", columnList = "status, nextBillingDate")
+})
 public class CreditCard {
 
     @Id
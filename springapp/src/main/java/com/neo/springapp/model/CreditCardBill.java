@@ -2,11 +2,16 @@ package com.neo.springapp.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "credit_card_bills")
+@Table(name = "credit_card_bills", indexes = {
+    @Index(name = "idx_cc_bill_status_due", columnList = "status, dueDate")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_cc_bill_cycle", columnNames = {"creditCardId", "billingCycle"})
+})
 public class CreditCardBill {
 
     @Id
@@ -28,9 +33,16 @@ public class CreditCardBill {
     private Double overdueAmount; // Overdue amount
     private Double fine; // Fine charged
     private Double penalty; // Penalty charged
+    private LocalDate penaltyAccruedThrough; // Last day the daily penalty was accrued for
     
     private String status; // Generated, Paid, Overdue, Partial
     private String billingPeriod; // e.g., "Jan 2024"
+    @Column(length = 7)
+    private String billingCycle; // yyyy-MM of the statement date; one bill per card per cycle
+
+    private Double purchaseAmount; // Purchases, interest and fees posted in the cycle
+    private Double paymentAmount; // Payments and refunds posted in the cycle
+    private Integer transactionCount;
     
     public CreditCardBill() {
         this.billGenerationDate = LocalDateTime.now();
@@ -0,0 +1,42 @@
+package com.neo.springapp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency key for the daily overdue accrual on a credit card bill: one row per (bill, day),
+ * written in the same transaction as the bill update. A rerun on the same day, or a second node
+ * running the job, can never charge a bill's penalty twice.
+ */
+@Data
+@Entity
+@Table(name = "credit_card_penalty_accruals", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_cc_penalty_accrual", columnNames = {"billId", "accrualDate"})
+})
+public class CreditCardPenaltyAccrual {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long billId;
+
+    @Column(nullable = false)
+    private LocalDate accrualDate;
+
+    private Long creditCardId;
+
+    private Integer daysAccrued; // Overdue days charged by this accrual (more than one after a missed run)
+
+    @Column(columnDefinition = "DECIMAL(19,2)")
+    private Double penalty;
+
+    @Column(columnDefinition = "DECIMAL(19,2)")
+    private Double fine;
+
+    private LocalDateTime accruedAt;
+}
@@ -57,6 +57,7 @@ public class CurrentAccount {
     private String ifscCode = "EZYV000123";
 
     // Account Details
+    @Column(columnDefinition = "DECIMAL(19,2)")
     private Double balance = 0.0;
     private Double overdraftLimit = 0.0;
     private Boolean overdraftEnabled = false;
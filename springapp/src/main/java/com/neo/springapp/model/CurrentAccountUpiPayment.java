@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "current_account_upi_payments")
+@Table(name = "current_account_upi_payments", indexes = {
+    @Index(name = "idx_ca_upi_payment_created", columnList = "createdAt")
+})
 public class CurrentAccountUpiPayment {
 
     @Id
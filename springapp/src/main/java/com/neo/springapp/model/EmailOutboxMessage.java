@@ -0,0 +1,71 @@
+package com.neo.springapp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One outbound email waiting in (or already through) the outbox drained by EmailOutboxService.
+ *
+ * Status moves PENDING -> SENDING -> SENT, or back to PENDING with a later nextAttemptAt after a
+ * failed attempt, and finally FAILED once out of attempts. While SENDING, nextAttemptAt is the end
+ * of the worker's lease: a row still SENDING after that (the node died mid-send) is picked up again.
+ * Body and attachment are cleared once the message is sent.
+ */
+@Data
+@Entity
+@Table(name = "email_outbox", indexes = {
+    @Index(name = "idx_email_outbox_due", columnList = "lane, status, nextAttemptAt")
+})
+public class EmailOutboxMessage {
+
+    public static final String LANE_OTP = "OTP";
+    public static final String LANE_NORMAL = "NORMAL";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String lane;
+
+    @Column(nullable = false, length = 16)
+    private String status = "PENDING";
+
+    @Column(nullable = false)
+    private String recipient;
+
+    private String subject;
+
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    private Boolean html = false;
+
+    private String attachmentName;
+    private String attachmentType;
+
+    @Lob
+    @Column(columnDefinition = "LONGBLOB")
+    private byte[] attachment;
+
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
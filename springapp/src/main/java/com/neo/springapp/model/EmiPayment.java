@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "emi_payments")
+@Table(name = "emi_payments", indexes = {
+    @Index(name = "idx_emi_status_due", columnList = "status, dueDate")
+})
 public class EmiPayment {
 
     @Id
@@ -57,6 +59,8 @@ public class EmiPayment {
 
     private String pdfPath; // Path to generated PDF receipt
 
+    private LocalDateTime reminderQueuedAt; // When the due-date reminder went to the email outbox
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
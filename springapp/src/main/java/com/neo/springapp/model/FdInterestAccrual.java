@@ -0,0 +1,47 @@
+package com.neo.springapp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency key for a monthly FD interest credit: one row per (FD, month), written in the same
+ * transaction as the credit. A rerun of the monthly accrual, or a manual credit for a single FD,
+ * can therefore never pay the same month twice.
+ */
+@Data
+@Entity
+@Table(name = "fd_interest_accruals", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_fd_interest_accrual", columnNames = {"fdId", "accrualMonth"})
+})
+public class FdInterestAccrual {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long fdId;
+
+    @Column(nullable = false, length = 7)
+    private String accrualMonth; // yyyy-MM
+
+    private String accountNumber;
+
+    @Column(columnDefinition = "DECIMAL(19,2)")
+    private Double amount;
+
+    private LocalDateTime creditedAt;
+
+    public FdInterestAccrual() {
+    }
+
+    public FdInterestAccrual(Long fdId, String accrualMonth, String accountNumber, Double amount) {
+        this.fdId = fdId;
+        this.accrualMonth = accrualMonth;
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+        this.creditedAt = LocalDateTime.now();
+    }
+}
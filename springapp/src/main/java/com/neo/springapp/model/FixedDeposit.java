@@ -7,7 +7,9 @@ import java.time.LocalDate;
 
 @Data
 @Entity
-@Table(name = "fixed_deposits")
+@Table(name = "fixed_deposits", indexes = {
+    @Index(name = "idx_fd_status_id", columnList = "status, id")
+})
 public class FixedDeposit {
 
     @Id
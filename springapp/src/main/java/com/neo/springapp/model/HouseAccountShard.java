@@ -0,0 +1,43 @@
+package com.neo.springapp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One slot of the sharded sub-ledger in front of a house account (branch/NeoBank deposit account).
+ * Charge credits are added to a shard row instead of the single hot accounts row, and
+ * {@code HouseAccountLedgerService} periodically folds the pending amounts into the real balance.
+ */
+@Data
+@Entity
+@Table(name = "house_account_shards", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_house_shard", columnNames = {"accountNumber", "shardIndex"})
+})
+public class HouseAccountShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String accountNumber;
+
+    @Column(nullable = false)
+    private Integer shardIndex;
+
+    @Column(nullable = false, columnDefinition = "DECIMAL(19,2)")
+    private Double pendingAmount = 0.0;
+
+    private LocalDateTime updatedAt;
+
+    public HouseAccountShard() {
+    }
+
+    public HouseAccountShard(String accountNumber, Integer shardIndex) {
+        this.accountNumber = accountNumber;
+        this.shardIndex = shardIndex;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -1,5 +1,6 @@
 package com.neo.springapp.model;
 
+import com.neo.springapp.service.AdminSearchIndexListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -8,6 +9,7 @@ import java.time.LocalDate;
 @Data
 @Entity
 @Table(name = "loans")
+@EntityListeners(AdminSearchIndexListener.class)
 public class Loan {
 
     @Id
@@ -0,0 +1,109 @@
+package com.neo.springapp.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exact money arithmetic on primitive {@code long} paise (1 rupee = 100 paise).
+ *
+ * All operations are static and work on primitives, so the hot posting/fee path
+ * neither boxes {@code Double}s nor allocates {@code BigDecimal}s. Conversions to
+ * and from rupees happen only at the entity/API boundary and always round
+ * HALF_UP to the nearest paisa. Overflow throws {@link ArithmeticException}.
+ */
+public final class Paise {
+
+    public static final long PER_RUPEE = 100L;
+
+    /** Rates are expressed in basis points: 200 = 2%, 1800 = 18%. */
+    public static final long BASIS_POINTS = 10_000L;
+
+    private Paise() {
+    }
+
+    public static long ofRupees(double rupees) {
+        if (Double.isNaN(rupees) || Double.isInfinite(rupees)) {
+            throw new ArithmeticException("Not a finite amount: " + rupees);
+        }
+        return Math.round(rupees * PER_RUPEE);
+    }
+
+    public static long ofRupees(Double rupees) {
+        return rupees == null ? 0L : ofRupees(rupees.doubleValue());
+    }
+
+    public static long ofRupees(BigDecimal rupees) {
+        if (rupees == null) {
+            return 0L;
+        }
+        return rupees.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static double toRupees(long paise) {
+        return paise / (double) PER_RUPEE;
+    }
+
+    public static BigDecimal toBigDecimal(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    public static long multiply(long paise, long quantity) {
+        return Math.multiplyExact(paise, quantity);
+    }
+
+    /**
+     * {@code paise * basisPoints / 10000}, rounded HALF_UP (away from zero on a tie),
+     * matching {@code BigDecimal.multiply(rate).setScale(2, HALF_UP)}.
+     */
+    public static long applyRate(long paise, long basisPoints) {
+        return applyRate(paise, basisPoints, 1);
+    }
+
+    /**
+     * An annual rate for one of {@code periodsPerYear} periods, e.g. monthly interest with 12:
+     * {@code paise * basisPoints / (10000 * periodsPerYear)}, rounded HALF_UP.
+     */
+    public static long applyRate(long paise, long basisPoints, long periodsPerYear) {
+        long product = Math.multiplyExact(paise, basisPoints);
+        long divisor = Math.multiplyExact(BASIS_POINTS, periodsPerYear);
+        long quotient = product / divisor;
+        long remainder = product % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+
+    /** A percentage rate such as 6.5 as basis points (650), rounded to the nearest basis point. */
+    public static long basisPoints(double percent) {
+        if (Double.isNaN(percent) || Double.isInfinite(percent)) {
+            throw new ArithmeticException("Not a finite rate: " + percent);
+        }
+        return Math.round(percent * 100);
+    }
+
+    /**
+     * Format as a plain rupee string with two decimals, e.g. 12345 -> "123.45".
+     */
+    public static String format(long paise) {
+        StringBuilder sb = new StringBuilder(24);
+        if (paise < 0) {
+            sb.append('-');
+        }
+        long abs = Math.abs(paise);
+        long fraction = abs % PER_RUPEE;
+        sb.append(abs / PER_RUPEE).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction).toString();
+    }
+}
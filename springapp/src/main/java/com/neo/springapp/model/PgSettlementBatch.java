@@ -0,0 +1,70 @@
+package com.neo.springapp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One settlement credit to a merchant for one cycle: the captured transactions it covers are marked
+ * with its batchId and each gets a ledger row referencing it. The unique (merchant, cycle date) key is
+ * written in the same transaction as the credit, so a merchant is paid at most once per cycle however
+ * often the cycle is rerun.
+ */
+@Data
+@Entity
+@Table(name = "pg_settlement_batches", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_pg_settlement_batch_cycle", columnNames = {"merchantId", "cycleDate"})
+})
+public class PgSettlementBatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false, length = 64)
+    private String batchId;
+
+    @Column(nullable = false)
+    private String merchantId;
+
+    @Column(nullable = false)
+    private LocalDate cycleDate;
+
+    // Transactions captured before this instant are in the batch
+    @Column(nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(nullable = false)
+    private String creditAccount;
+
+    @Column(length = 10)
+    private String accountType; // SAVINGS, CURRENT, SALARY
+
+    private Integer transactionCount;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal grossAmount;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal feeAmount;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal taxAmount;
+
+    // Refunded before settlement, taken out of the net
+    @Column(precision = 19, scale = 2)
+    private BigDecimal refundAmount;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal netAmount;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal balanceAfter;
+
+    private String status = "CREDITED";
+
+    private LocalDateTime creditedAt;
+}
@@ -46,6 +46,7 @@ public class PgSettlementLedger {
     private BigDecimal balanceBefore;
     private BigDecimal balanceAfter;
     private String referenceNote;
+    private String batchId;
     private LocalDateTime createdAt;
 
     @PrePersist
@@ -7,7 +7,10 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "pg_transactions")
+@Table(name = "pg_transactions", indexes = {
+    @Index(name = "idx_pg_txn_unsettled", columnList = "status, settled, merchantId"),
+    @Index(name = "idx_pg_txn_merchant_created", columnList = "merchantId, createdAt")
+})
 public class PgTransaction {
 
     @Id
@@ -55,6 +58,7 @@ public class PgTransaction {
 
     private Boolean settled = false;
     private LocalDateTime settledAt;
+    private String settlementBatchId;
 
     private String refundStatus;
     private BigDecimal refundedAmount = BigDecimal.ZERO;
@@ -74,6 +74,7 @@ public class SalaryAccount {
     @Column(name = "ifsc_code")
     private String ifscCode;
 
+    @Column(columnDefinition = "DECIMAL(19,2)")
     private Double balance = 0.0;
 
     private String status = "Active";
@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "salary_upi_transactions")
+@Table(name = "salary_upi_transactions", indexes = {
+    @Index(name = "idx_salary_upi_created", columnList = "created_at")
+})
 public class SalaryUpiTransaction {
 
     @Id
@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "savings_upi_transactions")
+@Table(name = "savings_upi_transactions", indexes = {
+    @Index(name = "idx_savings_upi_created", columnList = "created_at")
+})
 public class SavingsUpiTransaction {
 
     @Id
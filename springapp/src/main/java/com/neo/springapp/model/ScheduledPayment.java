@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "scheduled_payments")
+@Table(name = "scheduled_payments", indexes = {
+    @Index(name = "idx_scheduled_payment_due", columnList = "status, nextPaymentDate")
+})
 public class ScheduledPayment {
 
     @Id
@@ -56,6 +58,9 @@ public class ScheduledPayment {
 
     private String failureReason;
 
+    private String leaseOwner; // Executor instance currently running this instruction
+    private LocalDateTime leaseUntil;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -0,0 +1,64 @@
+package com.neo.springapp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency key for one standing-instruction installment: one row per (instruction, due date),
+ * written in the same transaction as the debit. Whatever happens to leases or reruns, an installment
+ * is debited at most once; a FAILED row records an installment skipped for insufficient funds.
+ */
+@Data
+@Entity
+@Table(name = "standing_instruction_executions", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_standing_instruction_execution",
+            columnNames = {"instructionType", "instructionId", "dueDate"})
+})
+public class StandingInstructionExecution {
+
+    public static final String SCHEDULED_PAYMENT = "SCHEDULED_PAYMENT";
+    public static final String SUBSCRIPTION = "SUBSCRIPTION";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String instructionType; // SCHEDULED_PAYMENT, SUBSCRIPTION
+
+    @Column(nullable = false)
+    private Long instructionId;
+
+    @Column(nullable = false)
+    private LocalDate dueDate;
+
+    private String accountNumber;
+
+    @Column(columnDefinition = "DECIMAL(19,2)")
+    private Double amount;
+
+    @Column(nullable = false, length = 10)
+    private String status = "SUCCESS"; // SUCCESS, FAILED
+
+    private String failureReason;
+
+    private String transactionId;
+
+    private LocalDateTime executedAt;
+
+    public StandingInstructionExecution() {
+    }
+
+    public StandingInstructionExecution(String instructionType, Long instructionId, LocalDate dueDate,
+                                        String accountNumber, Double amount) {
+        this.instructionType = instructionType;
+        this.instructionId = instructionId;
+        this.dueDate = dueDate;
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+        this.executedAt = LocalDateTime.now();
+    }
+}
@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "subscription_payments")
+@Table(name = "subscription_payments", indexes = {
+    @Index(name = "idx_subscription_payment_due", columnList = "status, nextBillingDate")
+})
 public class SubscriptionPayment {
 
     @Id
@@ -57,6 +59,11 @@ public class SubscriptionPayment {
 
     private String merchantId;
 
+    private String failureReason;
+
+    private String leaseOwner; // Executor instance currently billing this subscription
+    private LocalDateTime leaseUntil;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    @Index(name = "idx_txn_account_date", columnList = "accountNumber, date, id")
+})
 public class Transaction {
 
     @Id
@@ -16,9 +18,11 @@ public class Transaction {
     private Long globalTransactionSequence; // Global unique transaction sequence across entire bank
     private String transactionId; // Custom transaction ID like TXN123456
     private String merchant;
+    @Column(columnDefinition = "DECIMAL(19,2)")
     private Double amount;
     private String type; // Debit / Credit / Deposit / Withdraw / Transfer / Loan Credit
     private String description; // Detailed description of the transaction
+    @Column(columnDefinition = "DECIMAL(19,2)")
     private Double balance;
     private LocalDateTime date;
     private String status = "Completed"; // Completed / Pending / Failed
@@ -0,0 +1,33 @@
+package com.neo.springapp.repository;
+
+import com.neo.springapp.model.AccountLastCharge;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AccountLastChargeRepository extends JpaRepository<AccountLastCharge, Long> {
+
+    @Modifying
+    @Query("UPDATE AccountLastCharge l SET l.lastChargedAt = :chargedAt " +
+           "WHERE l.accountNumber = :accountNumber AND l.chargeType = :chargeType")
+    int updateLastChargedAt(@Param("accountNumber") String accountNumber, @Param("chargeType") String chargeType,
+                            @Param("chargedAt") LocalDateTime chargedAt);
+
+    // Keyset page of ACTIVE accounts holding a debit card whose last charge of this type is not after the cutoff
+    @Query("SELECT a.id FROM Account a WHERE a.status = 'ACTIVE' AND a.id > :afterId " +
+           "AND EXISTS (SELECT 1 FROM Card c WHERE c.accountNumber = a.accountNumber AND LOWER(c.cardType) = 'debit') " +
+           "AND NOT EXISTS (SELECT 1 FROM AccountLastCharge l WHERE l.accountNumber = a.accountNumber " +
+           "AND l.chargeType = :chargeType AND l.lastChargedAt > :cutoff) " +
+           "ORDER BY a.id")
+    List<Long> findDebitCardHolderIdsDueAfter(@Param("chargeType") String chargeType,
+                                              @Param("cutoff") LocalDateTime cutoff,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+}
@@ -4,11 +4,13 @@ import com.neo.springapp.model.Account;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,6 +20,7 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     Account findByName(String name);
     Account findByPan(String pan);
     Account findByAccountNumber(String accountNumber);
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
     Account findByCustomerId(String customerId);
     Account findByAadharNumber(String aadharNumber);
     List<Account> findByPhone(String phone);
@@ -26,6 +29,10 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     // Status-based queries
     List<Account> findByStatus(String status);
     Page<Account> findByStatus(String status, Pageable pageable);
+
+    // Keyset page of ids for batch jobs: pass the last id of the previous page
+    @Query("SELECT a.id FROM Account a WHERE a.status = :status AND a.id > :afterId ORDER BY a.id")
+    List<Long> findIdsByStatusAfter(@Param("status") String status, @Param("afterId") Long afterId, Pageable pageable);
     
     // Account type queries
     List<Account> findByAccountType(String accountType);
@@ -96,4 +103,23 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     @Query("SELECT COUNT(a) FROM Account a WHERE a.customerId IS NULL OR a.customerId = ''")
     long countAccountsWithoutCustomerId();
+
+    // Atomic balance posting (see BalancePostingService) - single conditional UPDATE, no entity load
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount, a.lastUpdated = :now " +
+           "WHERE a.accountNumber = :accountNumber AND a.balance >= :amount AND UPPER(a.status) = 'ACTIVE'")
+    int debitIfSufficient(@Param("accountNumber") String accountNumber, @Param("amount") Double amount,
+                          @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = COALESCE(a.balance, 0) + :amount, a.lastUpdated = :now " +
+           "WHERE a.accountNumber = :accountNumber AND UPPER(a.status) = 'ACTIVE'")
+    int creditBalance(@Param("accountNumber") String accountNumber, @Param("amount") Double amount,
+                      @Param("now") LocalDateTime now);
+
+    @Query("SELECT a.balance FROM Account a WHERE a.accountNumber = :accountNumber")
+    Double findBalanceByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Query("SELECT a.status FROM Account a WHERE a.accountNumber = :accountNumber")
+    String findStatusByAccountNumber(@Param("accountNumber") String accountNumber);
 }
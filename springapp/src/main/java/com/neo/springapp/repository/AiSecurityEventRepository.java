@@ -54,6 +54,11 @@ public interface AiSecurityEventRepository extends JpaRepository<AiSecurityEvent
 
     List<AiSecurityEvent> findBySourceEntityIdOrderByCreatedAtDesc(String sourceEntityId);
 
+    /** Keyset page of (id, sourceEntityId, eventType, location, createdAt) for replaying recent events. */
+    @Query("SELECT e.id, e.sourceEntityId, e.eventType, e.location, e.createdAt FROM AiSecurityEvent e " +
+           "WHERE e.createdAt >= :since AND e.id > :afterId ORDER BY e.id")
+    List<Object[]> findWindowEventsSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId, Pageable pageable);
+
     @Query("SELECT e FROM AiSecurityEvent e WHERE e.severity IN ('HIGH', 'CRITICAL') AND e.status = 'DETECTED' ORDER BY e.createdAt DESC")
     List<AiSecurityEvent> findActiveHighSeverityEvents();
 
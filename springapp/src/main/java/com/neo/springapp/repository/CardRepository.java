@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,6 +17,8 @@ public interface CardRepository extends JpaRepository<Card, Long> {
     // JPQL Query to find cards by account number
     @Query("SELECT c FROM Card c WHERE c.accountNumber = :accountNumber")
     List<Card> findByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    List<Card> findByAccountNumberIn(Collection<String> accountNumbers);
     
     // JPQL Query to find cards by user email
     @Query("SELECT c FROM Card c WHERE c.userEmail = :userEmail")
@@ -0,0 +1,13 @@
+package com.neo.springapp.repository;
+
+import com.neo.springapp.model.ChargeBatchChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ChargeBatchChunkRepository extends JpaRepository<ChargeBatchChunk, Long> {
+
+    List<ChargeBatchChunk> findByRunKeyOrderByFirstAccountId(String runKey);
+}
@@ -0,0 +1,37 @@
+package com.neo.springapp.repository;
+
+import com.neo.springapp.model.ChargeBatchRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChargeBatchRunRepository extends JpaRepository<ChargeBatchRun, Long> {
+
+    ChargeBatchRun findByRunKey(String runKey);
+
+    // Take ownership unless the run is done, out of attempts, or still heartbeating on another node
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ChargeBatchRun r SET r.status = 'RUNNING', r.owner = :owner, r.heartbeatAt = :now, " +
+           "r.attempts = r.attempts + 1 " +
+           "WHERE r.runKey = :runKey AND r.status <> 'COMPLETED' AND r.attempts < :maxAttempts " +
+           "AND (r.status <> 'RUNNING' OR r.heartbeatAt IS NULL OR r.heartbeatAt < :staleBefore)")
+    int claim(@Param("runKey") String runKey, @Param("owner") String owner, @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore, @Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("UPDATE ChargeBatchRun r SET r.heartbeatAt = :now WHERE r.runKey = :runKey AND r.owner = :owner")
+    int heartbeat(@Param("runKey") String runKey, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    @Query("SELECT r FROM ChargeBatchRun r WHERE r.status <> 'COMPLETED' AND r.attempts < :maxAttempts " +
+           "AND (r.status <> 'RUNNING' OR r.heartbeatAt IS NULL OR r.heartbeatAt < :staleBefore) ORDER BY r.createdAt")
+    List<ChargeBatchRun> findResumable(@Param("staleBefore") LocalDateTime staleBefore,
+                                       @Param("maxAttempts") int maxAttempts);
+
+    List<ChargeBatchRun> findTop20ByOrderByCreatedAtDesc();
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +17,7 @@ public interface ChequeRepository extends JpaRepository<Cheque, Long> {
     
     // Find by account number
     List<Cheque> findByAccountNumber(String accountNumber);
+    List<Cheque> findByAccountNumberIn(Collection<String> accountNumbers);
     Page<Cheque> findByAccountNumber(String accountNumber, Pageable pageable);
     
     // Find by status
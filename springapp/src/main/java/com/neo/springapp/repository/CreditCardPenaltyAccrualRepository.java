@@ -0,0 +1,16 @@
+package com.neo.springapp.repository;
+
+import com.neo.springapp.model.CreditCardPenaltyAccrual;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CreditCardPenaltyAccrualRepository extends JpaRepository<CreditCardPenaltyAccrual, Long> {
+
+    List<CreditCardPenaltyAccrual> findByBillIdOrderByAccrualDateDesc(Long billId);
+
+    long countByAccrualDate(LocalDate accrualDate);
+}
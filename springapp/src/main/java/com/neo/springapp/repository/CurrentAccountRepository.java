@@ -4,10 +4,13 @@ import com.neo.springapp.model.CurrentAccount;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +19,8 @@ public interface CurrentAccountRepository extends JpaRepository<CurrentAccount,
 
     Optional<CurrentAccount> findByAccountNumber(String accountNumber);
 
+    List<CurrentAccount> findByAccountNumberIn(Collection<String> accountNumbers);
+
     Optional<CurrentAccount> findByCustomerId(String customerId);
 
     Optional<CurrentAccount> findByGstNumber(String gstNumber);
@@ -65,4 +70,20 @@ public interface CurrentAccountRepository extends JpaRepository<CurrentAccount,
     Optional<CurrentAccount> findByEmail(String email);
 
     Optional<CurrentAccount> findByUpiId(String upiId);
+
+    // Atomic balance posting (see BalancePostingService) - single conditional UPDATE, no entity load
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CurrentAccount c SET c.balance = c.balance - :amount, c.lastUpdated = :now " +
+           "WHERE c.accountNumber = :accountNumber AND c.balance >= :amount")
+    int debitIfSufficient(@Param("accountNumber") String accountNumber, @Param("amount") Double amount,
+                          @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CurrentAccount c SET c.balance = COALESCE(c.balance, 0) + :amount, c.lastUpdated = :now " +
+           "WHERE c.accountNumber = :accountNumber")
+    int creditBalance(@Param("accountNumber") String accountNumber, @Param("amount") Double amount,
+                      @Param("now") LocalDateTime now);
+
+    @Query("SELECT c.balance FROM CurrentAccount c WHERE c.accountNumber = :accountNumber")
+    Double findBalanceByAccountNumber(@Param("accountNumber") String accountNumber);
 }
@@ -5,6 +5,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -46,4 +47,13 @@ public interface CurrentAccountUpiPaymentRepository extends JpaRepository<Curren
     Double getTodayTotalVolume(LocalDateTime startOfDay);
 
     List<CurrentAccountUpiPayment> findTop50ByOrderByCreatedAtDesc();
+
+    /**
+     * Keyset page of (id, payer account number, amount, createdAt) of account-to-account transfers for
+     * replaying UPI velocity windows. Payments are stored on the receiver side, so the payer is
+     * resolved through its UPI ID.
+     */
+    @Query("SELECT p.id, a.accountNumber, p.amount, p.createdAt FROM CurrentAccountUpiPayment p, CurrentAccount a " +
+           "WHERE a.upiId = p.payerUpi AND p.qrGenerated = false AND p.createdAt >= :since AND p.id > :afterId ORDER BY p.id")
+    List<Object[]> findVelocityRowsSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId, Pageable pageable);
 }
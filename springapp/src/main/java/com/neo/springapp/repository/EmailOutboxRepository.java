@@ -0,0 +1,45 @@
+package com.neo.springapp.repository;
+
+import com.neo.springapp.model.EmailOutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    // Pending messages that are due, plus SENDING ones whose worker lease ran out
+    @Query("SELECT m.id FROM EmailOutboxMessage m WHERE m.lane = :lane AND m.status IN ('PENDING', 'SENDING') " +
+           "AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt, m.id")
+    List<Long> findDueIds(@Param("lane") String lane, @Param("now") LocalDateTime now, Pageable pageable);
+
+    // Take the message for one send attempt; fails if another worker or node got there first
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE EmailOutboxMessage m SET m.status = 'SENDING', m.nextAttemptAt = :leaseUntil " +
+           "WHERE m.id = :id AND m.status IN ('PENDING', 'SENDING') AND m.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = 'SENT', m.sentAt = :now, m.attempts = m.attempts + 1, " +
+           "m.body = NULL, m.attachment = NULL, m.lastError = NULL WHERE m.id = :id")
+    int markSent(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = :status, m.attempts = m.attempts + 1, " +
+           "m.nextAttemptAt = :nextAttemptAt, m.lastError = :error WHERE m.id = :id")
+    int markAttemptFailed(@Param("id") Long id, @Param("status") String status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    // Put back without counting an attempt (recipient over its rate limit)
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = 'PENDING', m.nextAttemptAt = :nextAttemptAt WHERE m.id = :id")
+    int defer(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    long countByStatus(String status);
+}
@@ -1,12 +1,15 @@
 package com.neo.springapp.repository;
 
 import com.neo.springapp.model.EmiPayment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,6 +39,23 @@ public interface EmiPaymentRepository extends JpaRepository<EmiPayment, Long> {
     @Query("SELECT e FROM EmiPayment e WHERE e.dueDate BETWEEN :today AND :nextWeek AND e.status = 'Pending'")
     List<EmiPayment> findUpcomingEmis(@Param("today") LocalDate today, @Param("nextWeek") LocalDate nextWeek);
     
+    // Reminder batch: un-reminded pending EMIs due in [from, to] joined with the borrower's loan,
+    // keyset-paged by (borrower email, EMI id) so each borrower's EMIs arrive together.
+    // Columns: emi id, emi number, due date, total amount, loan account number, user email, user name
+    @Query("SELECT e.id, e.emiNumber, e.dueDate, e.totalAmount, e.loanAccountNumber, l.userEmail, l.userName " +
+           "FROM EmiPayment e, Loan l WHERE l.id = e.loanId AND e.status = 'Pending' " +
+           "AND e.dueDate BETWEEN :from AND :to AND e.reminderQueuedAt IS NULL AND l.userEmail IS NOT NULL " +
+           "AND (l.userEmail > :afterEmail OR (l.userEmail = :afterEmail AND e.id > :afterId)) " +
+           "ORDER BY l.userEmail, e.id")
+    List<Object[]> findReminderBatch(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                     @Param("afterEmail") String afterEmail, @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+    // Claim EMIs for this reminder run; a short count means another node got some of them first
+    @Modifying
+    @Query("UPDATE EmiPayment e SET e.reminderQueuedAt = :now WHERE e.id IN :ids AND e.reminderQueuedAt IS NULL")
+    int markReminderQueued(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
     // Find specific EMI by loan ID and EMI number
     Optional<EmiPayment> findByLoanIdAndEmiNumber(Long loanId, Integer emiNumber);
     
@@ -0,0 +1,13 @@
+package com.neo.springapp.repository;
+
+import com.neo.springapp.model.FdInterestAccrual;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FdInterestAccrualRepository extends JpaRepository<FdInterestAccrual, Long> {
+
+    boolean existsByFdIdAndAccrualMonth(Long fdId, String accrualMonth);
+
+    long countByAccrualMonth(String accrualMonth);
+}
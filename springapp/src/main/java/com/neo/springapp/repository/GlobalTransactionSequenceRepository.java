@@ -2,7 +2,9 @@ package com.neo.springapp.repository;
 
 import com.neo.springapp.model.GlobalTransactionSequence;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -17,4 +19,17 @@ public interface GlobalTransactionSequenceRepository extends JpaRepository<Globa
      */
     @Query(value = "SELECT * FROM global_transaction_sequence LIMIT 1", nativeQuery = true)
     GlobalTransactionSequence getSequence();
+
+    /**
+     * Reserve a block of IDs by advancing the high-water mark in a single UPDATE.
+     * The row stays locked until the surrounding transaction commits, so the value
+     * read back with {@link #findCurrentSequenceById(Long)} belongs to this caller.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE global_transaction_sequence SET current_sequence = current_sequence + :blockSize, " +
+                   "last_updated = CURRENT_TIMESTAMP WHERE id = :id", nativeQuery = true)
+    int advanceSequence(@Param("id") Long id, @Param("blockSize") long blockSize);
+
+    @Query(value = "SELECT current_sequence FROM global_transaction_sequence WHERE id = :id", nativeQuery = true)
+    Long findCurrentSequenceById(@Param("id") Long id);
 }
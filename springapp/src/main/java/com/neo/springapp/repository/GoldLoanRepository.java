@@ -4,12 +4,14 @@ import com.neo.springapp.model.GoldLoan;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GoldLoanRepository extends JpaRepository<GoldLoan, Long> {
     List<GoldLoan> findByAccountNumber(String accountNumber);
+    List<GoldLoan> findByAccountNumberIn(Collection<String> accountNumbers);
     Optional<GoldLoan> findByLoanAccountNumber(String loanAccountNumber);
     List<GoldLoan> findByStatus(String status);
 }
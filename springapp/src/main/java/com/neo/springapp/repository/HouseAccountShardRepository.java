@@ -0,0 +1,45 @@
+package com.neo.springapp.repository;
+
+import com.neo.springapp.model.HouseAccountShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface HouseAccountShardRepository extends JpaRepository<HouseAccountShard, Long> {
+
+    @Query("SELECT s.shardIndex FROM HouseAccountShard s WHERE s.accountNumber = :accountNumber")
+    List<Integer> findShardIndexes(@Param("accountNumber") String accountNumber);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE HouseAccountShard s SET s.pendingAmount = s.pendingAmount + :amount, s.updatedAt = :now " +
+           "WHERE s.accountNumber = :accountNumber AND s.shardIndex = :shardIndex")
+    int addToShard(@Param("accountNumber") String accountNumber, @Param("shardIndex") Integer shardIndex,
+                   @Param("amount") Double amount, @Param("now") LocalDateTime now);
+
+    // One statement, so a fold committing between two separate reads cannot count a credit twice or miss it
+    @Query(value = "SELECT a.balance + COALESCE((SELECT SUM(s.pending_amount) FROM house_account_shards s " +
+                   "WHERE s.account_number = a.account_number), 0) FROM accounts a WHERE a.account_number = :accountNumber",
+           nativeQuery = true)
+    BigDecimal findEffectiveBalance(@Param("accountNumber") String accountNumber);
+
+    // Locks every shard of the account so no credit lands between the fold's read and reset
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM HouseAccountShard s WHERE s.accountNumber = :accountNumber ORDER BY s.shardIndex")
+    List<HouseAccountShard> findForFold(@Param("accountNumber") String accountNumber);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE HouseAccountShard s SET s.pendingAmount = 0, s.updatedAt = :now WHERE s.accountNumber = :accountNumber")
+    int resetPending(@Param("accountNumber") String accountNumber, @Param("now") LocalDateTime now);
+
+    @Query("SELECT DISTINCT s.accountNumber FROM HouseAccountShard s")
+    List<String> findHouseAccountNumbers();
+}
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,6 +17,7 @@ public interface LoanRepository extends JpaRepository<Loan, Long> {
     
     // Basic queries
     List<Loan> findByAccountNumber(String accountNumber);
+    List<Loan> findByAccountNumberIn(Collection<String> accountNumbers);
     List<Loan> findByChildAccountNumber(String childAccountNumber);
     List<Loan> findByUserEmail(String userEmail);
     List<Loan> findByStatus(String status);
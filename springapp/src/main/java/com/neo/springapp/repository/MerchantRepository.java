@@ -1,6 +1,7 @@
 package com.neo.springapp.repository;
 
 import com.neo.springapp.model.Merchant;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -17,6 +18,7 @@ public interface MerchantRepository extends JpaRepository<Merchant, Long> {
     List<Merchant> findByStatusOrderByCreatedAtDesc(String status);
     List<Merchant> findByAgentIdAndStatusOrderByCreatedAtDesc(String agentId, String status);
     List<Merchant> findAllByOrderByCreatedAtDesc();
+    List<Merchant> findByMerchantIdContainingIgnoreCaseOrBusinessNameContainingIgnoreCase(String merchantId, String businessName, Pageable pageable);
 
     @Query("SELECT COUNT(m) FROM Merchant m WHERE m.status = :status")
     long countByStatus(String status);
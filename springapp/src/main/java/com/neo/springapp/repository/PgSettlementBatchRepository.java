@@ -0,0 +1,21 @@
+package com.neo.springapp.repository;
+
+import com.neo.springapp.model.PgSettlementBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PgSettlementBatchRepository extends JpaRepository<PgSettlementBatch, Long> {
+
+    Optional<PgSettlementBatch> findByBatchId(String batchId);
+
+    boolean existsByMerchantIdAndCycleDate(String merchantId, LocalDate cycleDate);
+
+    List<PgSettlementBatch> findByMerchantIdOrderByCycleDateDesc(String merchantId);
+
+    List<PgSettlementBatch> findByCycleDate(LocalDate cycleDate);
+}
@@ -4,7 +4,9 @@ import com.neo.springapp.model.PgTransaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
@@ -43,4 +45,28 @@ public interface PgTransactionRepository extends JpaRepository<PgTransaction, Lo
     List<PgTransaction> findByTransactionIdContainingIgnoreCase(String transactionId);
 
     List<PgTransaction> findByOrderIdContainingIgnoreCase(String orderId);
+
+    // Claims an unsettled capture for settlement; 0 means another settlement got there first
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PgTransaction t SET t.settled = true, t.settledAt = :now " +
+           "WHERE t.id = :id AND (t.settled = false OR t.settled IS NULL)")
+    int markSettled(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Adds a refund without writing the rest of the row, so a settlement committed after the caller loaded the
+    // transaction keeps its settled flag. refundStatus is assigned first: MySQL evaluates SET left to right.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PgTransaction t SET " +
+           "t.refundStatus = CASE WHEN COALESCE(t.refundedAmount, 0) + :amount >= t.amount THEN 'FULL' ELSE 'PARTIAL' END, " +
+           "t.refundedAmount = COALESCE(t.refundedAmount, 0) + :amount, t.updatedAt = :now " +
+           "WHERE t.id = :id")
+    int addRefund(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    // addRefund for a capture not yet settled; 0 means it was settled first and the refund must be recovered
+    // from the merchant. Takes the row lock, so a settlement cycle reading the capture waits and nets the refund.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PgTransaction t SET " +
+           "t.refundStatus = CASE WHEN COALESCE(t.refundedAmount, 0) + :amount >= t.amount THEN 'FULL' ELSE 'PARTIAL' END, " +
+           "t.refundedAmount = COALESCE(t.refundedAmount, 0) + :amount, t.updatedAt = :now " +
+           "WHERE t.id = :id AND (t.settled = false OR t.settled IS NULL)")
+    int addRefundIfUnsettled(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
 }
@@ -2,10 +2,13 @@ package com.neo.springapp.repository;
 
 import com.neo.springapp.model.SalaryAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,6 +16,8 @@ public interface SalaryAccountRepository extends JpaRepository<SalaryAccount, Lo
 
     SalaryAccount findByAccountNumber(String accountNumber);
 
+    List<SalaryAccount> findByAccountNumberIn(Collection<String> accountNumbers);
+
     SalaryAccount findByCustomerId(String customerId);
 
     SalaryAccount findByAadharNumber(String aadharNumber);
@@ -50,4 +55,20 @@ public interface SalaryAccountRepository extends JpaRepository<SalaryAccount, Lo
     SalaryAccount findByUpiId(String upiId);
 
     List<SalaryAccount> findByAccountLockedTrue();
+
+    // Atomic balance posting (see BalancePostingService) - single conditional UPDATE, no entity load
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE SalaryAccount s SET s.balance = s.balance - :amount, s.updatedAt = :now " +
+           "WHERE s.accountNumber = :accountNumber AND s.balance >= :amount")
+    int debitIfSufficient(@Param("accountNumber") String accountNumber, @Param("amount") Double amount,
+                          @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE SalaryAccount s SET s.balance = COALESCE(s.balance, 0) + :amount, s.updatedAt = :now " +
+           "WHERE s.accountNumber = :accountNumber")
+    int creditBalance(@Param("accountNumber") String accountNumber, @Param("amount") Double amount,
+                      @Param("now") LocalDateTime now);
+
+    @Query("SELECT s.balance FROM SalaryAccount s WHERE s.accountNumber = :accountNumber")
+    Double findBalanceByAccountNumber(@Param("accountNumber") String accountNumber);
 }
@@ -1,9 +1,13 @@
 package com.neo.springapp.repository;
 
 import com.neo.springapp.model.SalaryUpiTransaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -12,4 +16,9 @@ public interface SalaryUpiTransactionRepository extends JpaRepository<SalaryUpiT
     List<SalaryUpiTransaction> findBySalaryAccountIdOrderByCreatedAtDesc(Long salaryAccountId);
 
     List<SalaryUpiTransaction> findByAccountNumberOrderByCreatedAtDesc(String accountNumber);
+
+    /** Keyset page of (id, accountNumber, amount, createdAt) of outgoing payments for replaying UPI velocity windows. */
+    @Query("SELECT t.id, t.accountNumber, t.amount, t.createdAt FROM SalaryUpiTransaction t " +
+           "WHERE t.type = 'DEBIT' AND t.createdAt >= :since AND t.id > :afterId ORDER BY t.id")
+    List<Object[]> findVelocityRowsSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId, Pageable pageable);
 }
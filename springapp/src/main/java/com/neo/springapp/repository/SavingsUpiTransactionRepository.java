@@ -1,8 +1,10 @@
 package com.neo.springapp.repository;
 
 import com.neo.springapp.model.SavingsUpiTransaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -26,4 +28,9 @@ public interface SavingsUpiTransactionRepository extends JpaRepository<SavingsUp
 
     @Query("SELECT t FROM SavingsUpiTransaction t WHERE (t.senderUpiId = :upiId OR t.receiverUpiId = :upiId) AND t.createdAt > :after ORDER BY t.createdAt DESC")
     List<SavingsUpiTransaction> findRecentAfter(String upiId, LocalDateTime after);
+
+    /** Keyset page of (id, senderAccount, amount, createdAt) for replaying UPI velocity windows. */
+    @Query("SELECT t.id, t.senderAccount, t.amount, t.createdAt FROM SavingsUpiTransaction t " +
+           "WHERE t.createdAt >= :since AND t.id > :afterId ORDER BY t.id")
+    List<Object[]> findVelocityRowsSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId, Pageable pageable);
 }
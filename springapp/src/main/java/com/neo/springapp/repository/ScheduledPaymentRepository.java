@@ -1,10 +1,15 @@
 package com.neo.springapp.repository;
 
 import com.neo.springapp.model.ScheduledPayment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -17,4 +22,20 @@ public interface ScheduledPaymentRepository extends JpaRepository<ScheduledPayme
     List<ScheduledPayment> findByStatusAndNextPaymentDateLessThanEqual(String status, LocalDate date);
 
     List<ScheduledPayment> findByStatus(String status);
+
+    // Due on or before today and not leased by a live executor, oldest due date first
+    @Query("SELECT p.id FROM ScheduledPayment p WHERE p.status = 'ACTIVE' AND p.nextPaymentDate <= :today " +
+           "AND (p.leaseUntil IS NULL OR p.leaseUntil < :now) ORDER BY p.nextPaymentDate, p.id")
+    List<Long> findDueIds(@Param("today") LocalDate today, @Param("now") LocalDateTime now, Pageable pageable);
+
+    // Lease the rows to one executor; rows another instance leased in the meantime are left alone
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ScheduledPayment p SET p.leaseOwner = :owner, p.leaseUntil = :leaseUntil " +
+           "WHERE p.id IN :ids AND p.status = 'ACTIVE' AND (p.leaseUntil IS NULL OR p.leaseUntil < :now)")
+    int lease(@Param("ids") List<Long> ids, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Query("SELECT p.id FROM ScheduledPayment p WHERE p.id IN :ids AND p.leaseOwner = :owner AND p.leaseUntil = :leaseUntil")
+    List<Long> findLeasedIds(@Param("ids") List<Long> ids, @Param("owner") String owner,
+                             @Param("leaseUntil") LocalDateTime leaseUntil);
 }
@@ -0,0 +1,16 @@
+package com.neo.springapp.repository;
+
+import com.neo.springapp.model.StandingInstructionExecution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StandingInstructionExecutionRepository extends JpaRepository<StandingInstructionExecution, Long> {
+
+    boolean existsByInstructionTypeAndInstructionIdAndDueDate(String instructionType, Long instructionId, LocalDate dueDate);
+
+    List<StandingInstructionExecution> findByInstructionTypeAndInstructionIdOrderByDueDateDesc(String instructionType, Long instructionId);
+}
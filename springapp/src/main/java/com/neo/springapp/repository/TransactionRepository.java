@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -83,4 +84,26 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     // Find latest transaction by account and description containing keyword (for charge scheduling)
     @Query("SELECT t FROM Transaction t WHERE t.accountNumber = :accountNumber AND LOWER(t.description) LIKE LOWER(CONCAT('%', :keyword, '%')) ORDER BY t.date DESC")
     List<Transaction> findByAccountNumberAndDescriptionContainingOrderByDateDesc(@Param("accountNumber") String accountNumber, @Param("keyword") String keyword, Pageable pageable);
+
+    // Keyset page of an account's transactions, oldest first, starting after (afterDate, afterId) and before endDate
+    @Query("SELECT t FROM Transaction t WHERE t.accountNumber = :accountNumber AND t.date < :endDate " +
+           "AND (t.date > :afterDate OR (t.date = :afterDate AND t.id > :afterId)) ORDER BY t.date ASC, t.id ASC")
+    List<Transaction> findPassbookPage(@Param("accountNumber") String accountNumber,
+                                       @Param("afterDate") LocalDateTime afterDate,
+                                       @Param("afterId") Long afterId,
+                                       @Param("endDate") LocalDateTime endDate,
+                                       Pageable pageable);
+
+    // Most recent transaction of an account before a point in time (brought-forward balance of a statement period)
+    @Query("SELECT t FROM Transaction t WHERE t.accountNumber = :accountNumber AND t.date < :before ORDER BY t.date DESC, t.id DESC")
+    List<Transaction> findLatestBefore(@Param("accountNumber") String accountNumber, @Param("before") LocalDateTime before, Pageable pageable);
+
+    // The latest perAccount transactions of each account in one query (bulk export), newest first per account
+    @Query(value = "SELECT t.* FROM transactions t JOIN (" +
+                   "SELECT r.id, ROW_NUMBER() OVER (PARTITION BY r.account_number ORDER BY r.date DESC, r.id DESC) AS rn " +
+                   "FROM transactions r WHERE r.account_number IN (:accountNumbers)) ranked ON ranked.id = t.id " +
+                   "WHERE ranked.rn <= :perAccount ORDER BY t.account_number, ranked.rn",
+           nativeQuery = true)
+    List<Transaction> findLatestPerAccount(@Param("accountNumbers") Collection<String> accountNumbers,
+                                           @Param("perAccount") int perAccount);
 }
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,8 +23,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Basic queries
     Optional<User> findByUsername(String username);
     Optional<User> findByAccountNumber(String accountNumber);
+
+    List<User> findByAccountNumberIn(Collection<String> accountNumbers);
+
     Optional<User> findByEmail(String email);
 
+    List<User> findByUpiIdContainingIgnoreCase(String upiId, Pageable pageable);
+
     Optional<User> findByEmailIgnoreCase(String email);
     
     // PAN and Aadhar queries through account relationship
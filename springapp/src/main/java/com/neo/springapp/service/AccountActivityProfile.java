@@ -0,0 +1,148 @@
+package com.neo.springapp.service;
+
+/**
+ * Compact behavioural profile of one account's outgoing payments, maintained incrementally.
+ *
+ * <ul>
+ *   <li>Known recipients: open-addressing set of 32-bit fingerprints (capped at
+ *       {@link #MAX_RECIPIENTS}; a full set stops learning rather than evicting).</li>
+ *   <li>Debit sums: 96 quarter-hour buckets for the last 24h and 90 daily buckets for 7d/90d,
+ *       in paise. A window sum covers whole buckets, so it can include up to one bucket more.</li>
+ *   <li>Debit amount mean and variance, updated with Welford's algorithm.</li>
+ * </ul>
+ * All methods are synchronized on the profile; each is O(1) or O(buckets).
+ */
+public final class AccountActivityProfile {
+
+    static final int MAX_RECIPIENTS = 1024;
+
+    private static final long QUARTER_HOUR_MS = 15 * 60 * 1000L;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final int QUARTER_HOURS = 96;
+    private static final int DAYS = 90;
+
+    private int[] recipients = new int[16];
+    private int recipientCount;
+
+    private final long[] quarterHourSums = new long[QUARTER_HOURS];
+    private final long[] quarterHourIds = new long[QUARTER_HOURS];
+    private final long[] daySums = new long[DAYS];
+    private final long[] dayIds = new long[DAYS];
+
+    private long debitCount;
+    private double mean;
+    private double m2;
+
+    private volatile long lastAccessMillis = System.currentTimeMillis();
+
+    public synchronized void recordDebit(long paise, long atMillis) {
+        add(quarterHourSums, quarterHourIds, Math.floorDiv(atMillis, QUARTER_HOUR_MS), paise);
+        add(daySums, dayIds, Math.floorDiv(atMillis, DAY_MS), paise);
+        debitCount++;
+        double delta = paise - mean;
+        mean += delta / debitCount;
+        m2 += delta * (paise - mean);
+    }
+
+    /** Debits in the last 24 hours, in paise. */
+    public synchronized long debitsLast24h(long nowMillis) {
+        return sum(quarterHourSums, quarterHourIds, Math.floorDiv(nowMillis, QUARTER_HOUR_MS), QUARTER_HOURS);
+    }
+
+    /** Debits in the last {@code days} days (1..90), in paise. */
+    public synchronized long debitsLastDays(int days, long nowMillis) {
+        return sum(daySums, dayIds, Math.floorDiv(nowMillis, DAY_MS), Math.min(days, DAYS));
+    }
+
+    public synchronized boolean knowsRecipient(String recipient) {
+        int fingerprint = fingerprint(recipient);
+        int mask = recipients.length - 1;
+        for (int i = fingerprint & mask; recipients[i] != 0; i = (i + 1) & mask) {
+            if (recipients[i] == fingerprint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void addRecipient(String recipient) {
+        if (recipient == null || recipientCount >= MAX_RECIPIENTS) {
+            return;
+        }
+        if (recipientCount * 2 >= recipients.length) {
+            int[] old = recipients;
+            recipients = new int[old.length * 2];
+            for (int fingerprint : old) {
+                if (fingerprint != 0) {
+                    insert(fingerprint);
+                }
+            }
+        }
+        insert(fingerprint(recipient));
+    }
+
+    public synchronized long getDebitCount() {
+        return debitCount;
+    }
+
+    /** Mean debit amount in paise (0 before the first debit). */
+    public synchronized double getMeanDebit() {
+        return mean;
+    }
+
+    /** Sample standard deviation of debit amounts in paise (0 with fewer than two debits). */
+    public synchronized double getDebitStdDev() {
+        return debitCount < 2 ? 0.0 : Math.sqrt(m2 / (debitCount - 1));
+    }
+
+    long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    private void insert(int fingerprint) {
+        int mask = recipients.length - 1;
+        int i = fingerprint & mask;
+        while (recipients[i] != 0) {
+            if (recipients[i] == fingerprint) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        recipients[i] = fingerprint;
+        recipientCount++;
+    }
+
+    // 0 marks an empty slot, so it is never used as a fingerprint
+    private static int fingerprint(String recipient) {
+        int h = recipient == null ? 0 : recipient.hashCode() * 0x9E3779B9;
+        h ^= h >>> 16;
+        return h == 0 ? 1 : h;
+    }
+
+    private static void add(long[] sums, long[] ids, long bucket, long paise) {
+        int slot = (int) Math.floorMod(bucket, (long) sums.length);
+        if (ids[slot] != bucket) {
+            if (ids[slot] > bucket && ids[slot] != 0) {
+                return; // older than the ring
+            }
+            ids[slot] = bucket;
+            sums[slot] = 0;
+        }
+        sums[slot] += paise;
+    }
+
+    private static long sum(long[] sums, long[] ids, long nowBucket, int span) {
+        long total = 0;
+        for (int slot = 0; slot < sums.length; slot++) {
+            long bucket = ids[slot];
+            if (bucket > nowBucket - span && bucket <= nowBucket) {
+                total += sums[slot];
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,192 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Paise;
+import com.neo.springapp.model.Transaction;
+import com.neo.springapp.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory cache of {@link AccountActivityProfile}s used for real-time fraud scoring.
+ *
+ * Profiles are kept for savings accounts, the senders {@link FraudDetectionService} scores. A profile
+ * is built once per account from its last 90 days of debits (one query, on first use) and from then on
+ * is updated by every committed savings debit posted through {@link BalancePostingService} and every
+ * recorded transfer debit's recipient, so scoring a transfer reads no transactions. Updates that
+ * commit while the baseline query runs are buffered and replayed onto the new profile, so none is lost
+ * between the query and the profile being published. Profiles live only in this node's
+ * memory: at most {@code app.fraud.profile.max-accounts} are kept, and an evicted or restarted
+ * profile is simply rebuilt from the database on next use.
+ */
+@Service
+@Slf4j
+public class AccountProfileService {
+
+    private static final int BASELINE_DAYS = 90;
+    private static final int BASELINE_MAX_TRANSACTIONS = 500;
+
+    private final TransactionRepository transactionRepository;
+    private final int maxAccounts;
+    private final ConcurrentHashMap<String, AccountActivityProfile> profiles = new ConcurrentHashMap<>();
+    // Accounts whose baseline is being read, with the updates committed meanwhile
+    private final ConcurrentHashMap<String, PendingUpdates> loading = new ConcurrentHashMap<>();
+
+    public AccountProfileService(TransactionRepository transactionRepository,
+                                 @Value("${app.fraud.profile.max-accounts:10000}") int maxAccounts) {
+        this.transactionRepository = transactionRepository;
+        this.maxAccounts = Math.max(1, maxAccounts);
+    }
+
+    /**
+     * The account's profile, loading its 90-day baseline on first use.
+     */
+    public AccountActivityProfile profileFor(String accountNumber) {
+        AccountActivityProfile profile = profiles.get(accountNumber);
+        if (profile == null) {
+            profile = load(accountNumber);
+        }
+        profile.touch();
+        return profile;
+    }
+
+    private AccountActivityProfile load(String accountNumber) {
+        // Registered before the query, so a debit committing after the query's snapshot is buffered
+        PendingUpdates pending = loading.computeIfAbsent(accountNumber, k -> new PendingUpdates());
+        AccountActivityProfile profile;
+        boolean added = false;
+        try {
+            // Built outside the map so the baseline query never runs under a map lock
+            AccountActivityProfile loaded = loadBaseline(accountNumber);
+            synchronized (pending) {
+                profile = profiles.putIfAbsent(accountNumber, loaded);
+                if (profile == null) {
+                    profile = loaded;
+                    added = true;
+                    pending.replayOnto(loaded);
+                }
+                pending.published = true;
+            }
+        } finally {
+            loading.remove(accountNumber, pending);
+        }
+        if (added) {
+            evictIfFull();
+        }
+        return profile;
+    }
+
+    /**
+     * Record a savings debit once the surrounding transaction commits. Accounts without a cached or
+     * loading profile are ignored; their baseline query will see the committed row.
+     */
+    public void recordDebit(String accountNumber, double amount) {
+        recordDebitPaise(accountNumber, Paise.ofRupees(amount));
+    }
+
+    /** {@link #recordDebit(String, double)} for an amount already in paise. */
+    public void recordDebitPaise(String accountNumber, long paise) {
+        if (accountNumber == null) {
+            return;
+        }
+        long at = System.currentTimeMillis();
+        afterCommit(() -> apply(accountNumber, profile -> profile.recordDebit(paise, at)));
+    }
+
+    /**
+     * Remember, once the surrounding transaction commits, that the account has now paid this
+     * recipient. Call it with the debit, not when scoring: a transfer that fails stays first-time.
+     */
+    public void recordRecipient(String accountNumber, String recipient) {
+        if (accountNumber == null || recipient == null) {
+            return;
+        }
+        afterCommit(() -> apply(accountNumber, profile -> profile.addRecipient(recipient)));
+    }
+
+    // Applies a committed update to the cached profile, or buffers it while the baseline is loading
+    private void apply(String accountNumber, Consumer<AccountActivityProfile> update) {
+        AccountActivityProfile profile = profiles.get(accountNumber);
+        if (profile == null) {
+            PendingUpdates pending = loading.get(accountNumber);
+            if (pending == null) {
+                return;
+            }
+            synchronized (pending) {
+                if (!pending.published) {
+                    pending.updates.add(update);
+                    return;
+                }
+            }
+            profile = profiles.get(accountNumber);
+            if (profile == null) {
+                return;
+            }
+        }
+        update.accept(profile);
+    }
+
+    private void afterCommit(Runnable apply) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    public int getCachedProfileCount() {
+        return profiles.size();
+    }
+
+    private AccountActivityProfile loadBaseline(String accountNumber) {
+        AccountActivityProfile profile = new AccountActivityProfile();
+        LocalDateTime now = LocalDateTime.now();
+        ZoneId zone = ZoneId.systemDefault();
+        for (Transaction t : transactionRepository.findByAccountNumberAndDateBetweenOrderByDateDesc(
+                accountNumber, now.minusDays(BASELINE_DAYS), now, PageRequest.of(0, BASELINE_MAX_TRANSACTIONS))) {
+            if (!"Debit".equalsIgnoreCase(t.getType()) && !"Transfer".equalsIgnoreCase(t.getType())) {
+                continue;
+            }
+            if (t.getAmount() != null && t.getDate() != null) {
+                profile.recordDebit(Paise.ofRupees(t.getAmount()), t.getDate().atZone(zone).toInstant().toEpochMilli());
+            }
+            if (t.getRecipientAccountNumber() != null) {
+                profile.addRecipient(t.getRecipientAccountNumber());
+            }
+        }
+        return profile;
+    }
+
+    /** Updates committed while an account's baseline was being read; guarded by its own monitor. */
+    private static final class PendingUpdates {
+        final List<Consumer<AccountActivityProfile>> updates = new ArrayList<>();
+        boolean published;
+
+        void replayOnto(AccountActivityProfile profile) {
+            updates.forEach(update -> update.accept(profile));
+            updates.clear();
+        }
+    }
+
+    // Drop the least recently used tenth once the cache is full
+    private void evictIfFull() {
+        if (StoreEviction.evictIfFull(profiles, maxAccounts, AccountActivityProfile::getLastAccessMillis, null, null) > 0) {
+            log.debug("Evicted account profiles; {} cached", profiles.size());
+        }
+    }
+}
@@ -29,6 +29,12 @@ public class AccountService {
     @Autowired
     private SalaryAccountRepository salaryAccountRepository;
 
+    @Autowired
+    private BalancePostingService balancePostingService;
+
+    @Autowired
+    private HouseAccountLedgerService houseAccountLedgerService;
+
     // Basic CRUD operations
     public Account saveAccount(Account account) {
         if (account.getAccountNumber() == null) {
@@ -138,51 +144,20 @@ public class AccountService {
     }
 
     public Double getBalanceByAccountNumber(String accountNumber) {
+        // A house account's balance includes credits still pending in its shards
+        if (houseAccountLedgerService.isHouseAccount(accountNumber)) {
+            return houseAccountLedgerService.getEffectiveBalance(accountNumber);
+        }
         Account account = getAccountByNumber(accountNumber);
         return account != null ? account.getBalance() : null;
     }
 
     public Double debitBalance(String accountNumber, Double amount) {
-        Account account = getAccountByNumber(accountNumber);
-        if (account == null) {
-            return null;
-        }
-        // Check if account is active
-        if (!"ACTIVE".equalsIgnoreCase(account.getStatus())) {
-            throw new RuntimeException("Cannot perform withdrawal: account is not active. Account number: " + accountNumber + " | status=" + account.getStatus());
-        }
-        
-        if (account.getBalance() >= amount) {
-            account.setBalance(account.getBalance() - amount);
-            account.setLastUpdated(LocalDateTime.now());
-            accountRepository.save(account);
-            return account.getBalance();
-        }
-        return null;
+        return balancePostingService.debit(BalancePostingService.SAVINGS, accountNumber, amount);
     }
 
     public Double creditBalance(String accountNumber, Double amount) {
-        System.out.println("=== ACCOUNT SERVICE - CREDIT BALANCE ===");
-        System.out.println("Looking for account: " + accountNumber);
-        
-        Account account = getAccountByNumber(accountNumber);
-        if (account == null) {
-            System.out.println("❌ Account not found: " + accountNumber);
-            return null;
-        }
-        // Check if account is active
-        if (!"ACTIVE".equalsIgnoreCase(account.getStatus())) {
-            System.out.println("❌ Cannot deposit to inactive account: " + accountNumber + " | status=" + account.getStatus());
-            throw new RuntimeException("Cannot perform deposit: account is not active. Account number: " + accountNumber + " | status=" + account.getStatus());
-        }
-        
-        System.out.println("✅ Account found: " + account.getAccountNumber());
-        System.out.println("Current balance: " + account.getBalance());
-        System.out.println("Amount to add: " + amount);
-        account.setBalance(account.getBalance() + amount);
-        account.setLastUpdated(LocalDateTime.now());
-        accountRepository.save(account);
-        return account.getBalance();
+        return balancePostingService.credit(BalancePostingService.SAVINGS, accountNumber, amount);
     }
 
     // Statistics operations
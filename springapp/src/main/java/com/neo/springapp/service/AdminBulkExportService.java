@@ -3,14 +3,19 @@ package com.neo.springapp.service;
 import com.itextpdf.html2pdf.HtmlConverter;
 import com.neo.springapp.model.*;
 import com.neo.springapp.repository.*;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -26,6 +31,8 @@ public class AdminBulkExportService {
 
     private static final int MAX_USERS = 200;
     private static final int TXN_PAGE_SIZE = 50;
+    private static final int EXPORT_BATCH_SIZE = 100;
+    private static final int SXSSF_ROW_WINDOW = 100;
 
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
@@ -36,6 +43,9 @@ public class AdminBulkExportService {
     private final CardRepository cardRepository;
     private final GoldLoanRepository goldLoanRepository;
     private final TransactionRepository transactionRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final int excelMaxUsers;
+    private final int sheetMaxRows;
 
     public AdminBulkExportService(
             UserRepository userRepository,
@@ -46,7 +56,10 @@ public class AdminBulkExportService {
             ChequeRepository chequeRepository,
             CardRepository cardRepository,
             GoldLoanRepository goldLoanRepository,
-            TransactionRepository transactionRepository) {
+            TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.bulk-export.excel-max-users:50000}") int excelMaxUsers,
+            @Value("${app.bulk-export.excel-sheet-rows:1048576}") int sheetMaxRows) {
         this.userRepository = userRepository;
         this.accountRepository = accountRepository;
         this.salaryAccountRepository = salaryAccountRepository;
@@ -56,6 +69,11 @@ public class AdminBulkExportService {
         this.cardRepository = cardRepository;
         this.goldLoanRepository = goldLoanRepository;
         this.transactionRepository = transactionRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.excelMaxUsers = Math.max(1, excelMaxUsers);
+        // At least a header and one data row; never past what Excel can open
+        this.sheetMaxRows = Math.max(2, Math.min(sheetMaxRows, SpreadsheetVersion.EXCEL2007.getMaxRows()));
     }
 
     @Transactional(readOnly = true)
@@ -66,13 +84,24 @@ public class AdminBulkExportService {
         return out.toByteArray();
     }
 
-    @Transactional(readOnly = true)
+    /** Excel export as bytes; prefer {@link #writeExcel} for anything large. */
     public byte[] buildExcel(List<String> accountNumbers, String adminName) throws IOException {
-        Map<String, UserBundle> cache = new LinkedHashMap<>();
-        for (String acc : accountNumbers) {
-            cache.put(acc, loadBundle(acc));
-        }
-        try (Workbook wb = new XSSFWorkbook()) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        writeExcel(accountNumbers, adminName, bos);
+        return bos.toByteArray();
+    }
+
+    /**
+     * Streams the Excel export to {@code out}. Bundles are loaded {@link #EXPORT_BATCH_SIZE} accounts at
+     * a time (one read-only transaction and a handful of IN queries per batch) and written through
+     * POI's SXSSF writer, which keeps only a window of rows per sheet in memory and spills the rest
+     * to compressed temp files, so memory stays flat regardless of the number of accounts. A sheet that
+     * reaches Excel's row limit continues on "Name (2)", "Name (3)", ... with the same header row.
+     */
+    public void writeExcel(List<String> accountNumbers, String adminName, OutputStream out) throws IOException {
+        SXSSFWorkbook wb = new SXSSFWorkbook(SXSSF_ROW_WINDOW);
+        wb.setCompressTempFiles(true);
+        try {
             CellStyle headerStyle = wb.createCellStyle();
             Font hf = wb.createFont();
             hf.setBold(true);
@@ -88,73 +117,86 @@ public class AdminBulkExportService {
             meta.createCell(1).setCellValue(adminName != null ? adminName : "");
 
             String[] sumHeaders = {"Account #", "Name", "Email", "Savings Balance", "Salary (Y/N)", "Current (Y/N)", "Loans", "Cheques", "Cards", "Gold Loans"};
-            Row hrow = summary.createRow(r++);
-            for (int i = 0; i < sumHeaders.length; i++) {
-                Cell c = hrow.createCell(i);
-                c.setCellValue(sumHeaders[i]);
-                c.setCellStyle(headerStyle);
-            }
-
-            for (String acc : accountNumbers) {
-                UserBundle b = cache.get(acc);
-                Row row = summary.createRow(r++);
-                row.createCell(0).setCellValue(safe(b.accountNumber));
-                row.createCell(1).setCellValue(safe(b.displayName));
-                row.createCell(2).setCellValue(safe(b.userEmail));
-                row.createCell(3).setCellValue(b.savingsBalance != null ? b.savingsBalance : 0);
-                row.createCell(4).setCellValue(b.salary != null ? "Y" : "N");
-                row.createCell(5).setCellValue(b.current != null ? "Y" : "N");
-                row.createCell(6).setCellValue(b.loans.size());
-                row.createCell(7).setCellValue(b.cheques.size());
-                row.createCell(8).setCellValue(b.cards.size());
-                row.createCell(9).setCellValue(b.goldLoans.size());
+            SheetAppender summaryRows = new SheetAppender(wb, summary, "Users Summary", sumHeaders, headerStyle, r, sheetMaxRows);
+            SheetAppender loans = new SheetAppender(wb, "Loans", new String[]{"Account #", "Loan #", "Type", "Amount", "Status", "Tenure", "Rate"}, sheetMaxRows);
+            SheetAppender cheques = new SheetAppender(wb, "Cheques", new String[]{"Account #", "Cheque #", "Amount", "Status", "Request Status"}, sheetMaxRows);
+            SheetAppender cards = new SheetAppender(wb, "Cards", new String[]{"Account #", "Type", "Last4", "Status", "Blocked"}, sheetMaxRows);
+            SheetAppender goldLoans = new SheetAppender(wb, "Gold Loans", new String[]{"Account #", "Loan Acc #", "Amount", "Status"}, sheetMaxRows);
+            SheetAppender transactions = new SheetAppender(wb, "Transactions", new String[]{"Account #", "Date", "Type", "Amount", "Description", "Balance"}, sheetMaxRows);
+
+            for (int from = 0; from < accountNumbers.size(); from += EXPORT_BATCH_SIZE) {
+                List<String> batch = accountNumbers.subList(from, Math.min(from + EXPORT_BATCH_SIZE, accountNumbers.size()));
+                Map<String, UserBundle> bundles = readOnlyTx.execute(status -> loadBundles(batch));
+                for (String a : batch) {
+                    UserBundle b = bundles.get(a);
+                    summaryRows.append(safe(b.accountNumber), safe(b.displayName), safe(b.userEmail),
+                            b.savingsBalance != null ? b.savingsBalance : 0,
+                            b.salary != null ? "Y" : "N", b.current != null ? "Y" : "N",
+                            b.loans.size(), b.cheques.size(), b.cards.size(), b.goldLoans.size());
+                    for (Loan l : b.loans) {
+                        loans.append(a, l.getLoanAccountNumber(), l.getType(), l.getAmount(), l.getStatus(), l.getTenure(), l.getInterestRate());
+                    }
+                    for (Cheque c : b.cheques) {
+                        cheques.append(a, c.getChequeNumber(), c.getAmount(), c.getStatus(), c.getRequestStatus());
+                    }
+                    for (Card card : b.cards) {
+                        cards.append(a, card.getCardType(), maskLast4(card.getCardNumber()), card.getStatus(), card.isBlocked());
+                    }
+                    for (GoldLoan g : b.goldLoans) {
+                        goldLoans.append(a, g.getLoanAccountNumber(), g.getLoanAmount(), g.getStatus());
+                    }
+                    for (Transaction t : b.recentTxns) {
+                        transactions.append(a, t.getDate() != null ? t.getDate().toString() : "",
+                                t.getType(), t.getAmount(), t.getDescription(), t.getBalance());
+                    }
+                }
             }
 
-            appendSheet(wb, "Loans", new String[]{"Account #", "Loan #", "Type", "Amount", "Status", "Tenure", "Rate"},
-                    accountNumbers.stream().flatMap(a -> cache.get(a).loans.stream().map(l -> new Object[]{
-                            a, l.getLoanAccountNumber(), l.getType(), l.getAmount(), l.getStatus(), l.getTenure(), l.getInterestRate()
-                    })).collect(Collectors.toList()));
-
-            appendSheet(wb, "Cheques", new String[]{"Account #", "Cheque #", "Amount", "Status", "Request Status"},
-                    accountNumbers.stream().flatMap(a -> cache.get(a).cheques.stream().map(c -> new Object[]{
-                            a, c.getChequeNumber(), c.getAmount(), c.getStatus(), c.getRequestStatus()
-                    })).collect(Collectors.toList()));
-
-            appendSheet(wb, "Cards", new String[]{"Account #", "Type", "Last4", "Status", "Blocked"},
-                    accountNumbers.stream().flatMap(a -> cache.get(a).cards.stream().map(card -> new Object[]{
-                            a, card.getCardType(), maskLast4(card.getCardNumber()), card.getStatus(), card.isBlocked()
-                    })).collect(Collectors.toList()));
-
-            appendSheet(wb, "Gold Loans", new String[]{"Account #", "Loan Acc #", "Amount", "Status"},
-                    accountNumbers.stream().flatMap(a -> cache.get(a).goldLoans.stream().map(g -> new Object[]{
-                            a, g.getLoanAccountNumber(), g.getLoanAmount(), g.getStatus()
-                    })).collect(Collectors.toList()));
-
-            appendSheet(wb, "Transactions", new String[]{"Account #", "Date", "Type", "Amount", "Description", "Balance"},
-                    accountNumbers.stream().flatMap(a -> cache.get(a).recentTxns.stream().map(t -> new Object[]{
-                            a,
-                            t.getDate() != null ? t.getDate().toString() : "",
-                            t.getType(),
-                            t.getAmount(),
-                            t.getDescription(),
-                            t.getBalance()
-                    })).collect(Collectors.toList()));
-
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            wb.write(bos);
-            return bos.toByteArray();
+            wb.write(out);
+            out.flush();
+        } finally {
+            wb.dispose();
+            wb.close();
         }
     }
 
-    private void appendSheet(Workbook wb, String name, String[] headers, List<Object[]> rows) {
-        Sheet sh = wb.createSheet(name);
-        Row hr = sh.createRow(0);
-        for (int i = 0; i < headers.length; i++) {
-            hr.createCell(i).setCellValue(headers[i]);
+    /**
+     * Appends rows to one sheet, converting values the same way for every sheet. When the sheet is full
+     * the rows continue on a new sheet named "name (n)" that starts with the same header row.
+     */
+    private static final class SheetAppender {
+        private final Workbook wb;
+        private final String name;
+        private final String[] headers;
+        private final CellStyle headerStyle;
+        private final int maxRows;
+        private Sheet sheet;
+        private int sheets = 1;
+        private int next;
+
+        SheetAppender(Workbook wb, String name, String[] headers, int maxRows) {
+            this(wb, wb.createSheet(name), name, headers, null, 0, maxRows);
+        }
+
+        // Continues a sheet whose rows up to firstRow - 1 are already written, starting with the header row
+        SheetAppender(Workbook wb, Sheet sheet, String name, String[] headers, CellStyle headerStyle, int firstRow, int maxRows) {
+            this.wb = wb;
+            this.sheet = sheet;
+            this.name = name;
+            this.headers = headers;
+            this.headerStyle = headerStyle;
+            this.maxRows = maxRows;
+            this.next = firstRow;
+            writeHeader();
         }
-        int rr = 1;
-        for (Object[] row : rows) {
-            Row xr = sh.createRow(rr++);
+
+        void append(Object... row) {
+            if (next >= maxRows) {
+                sheet = wb.createSheet(name + " (" + ++sheets + ")");
+                next = 0;
+                writeHeader();
+            }
+            Row xr = sheet.createRow(next++);
             for (int c = 0; c < row.length; c++) {
                 Object v = row[c];
                 if (v == null) xr.createCell(c).setCellValue("");
@@ -163,6 +205,17 @@ public class AdminBulkExportService {
                 else xr.createCell(c).setCellValue(String.valueOf(v));
             }
         }
+
+        private void writeHeader() {
+            Row hr = sheet.createRow(next++);
+            for (int c = 0; c < headers.length; c++) {
+                Cell cell = hr.createCell(c);
+                cell.setCellValue(headers[c]);
+                if (headerStyle != null) {
+                    cell.setCellStyle(headerStyle);
+                }
+            }
+        }
     }
 
     private String buildHtmlReport(List<String> accountNumbers, String adminName) {
@@ -335,14 +388,88 @@ public class AdminBulkExportService {
         return b;
     }
 
+    // Same content as loadBundle, for a batch of accounts with one query per related table
+    private Map<String, UserBundle> loadBundles(List<String> accountNumbers) {
+        Map<String, UserBundle> bundles = new LinkedHashMap<>();
+        for (String accountNumber : accountNumbers) {
+            UserBundle b = new UserBundle();
+            b.accountNumber = accountNumber;
+            bundles.put(accountNumber, b);
+        }
+        for (User u : userRepository.findByAccountNumberIn(accountNumbers)) {
+            UserBundle b = bundles.get(u.getAccountNumber());
+            if (b == null || b.userEmail != null) continue;
+            b.userEmail = u.getEmail();
+            if (u.getAccount() != null) {
+                b.account = u.getAccount();
+                b.displayName = u.getAccount().getName();
+                b.savingsBalance = u.getAccount().getBalance();
+            } else {
+                b.displayName = u.getUsername();
+            }
+        }
+        List<String> withoutAccount = bundles.values().stream()
+                .filter(b -> b.account == null)
+                .map(b -> b.accountNumber)
+                .collect(Collectors.toList());
+        if (!withoutAccount.isEmpty()) {
+            for (Account acc : accountRepository.findByAccountNumberIn(withoutAccount)) {
+                UserBundle b = bundles.get(acc.getAccountNumber());
+                if (b != null && b.account == null) {
+                    b.account = acc;
+                    b.displayName = acc.getName();
+                    b.savingsBalance = acc.getBalance();
+                }
+            }
+        }
+        for (SalaryAccount sa : salaryAccountRepository.findByAccountNumberIn(accountNumbers)) {
+            UserBundle b = bundles.get(sa.getAccountNumber());
+            if (b != null && b.salary == null) b.salary = sa;
+        }
+        for (CurrentAccount ca : currentAccountRepository.findByAccountNumberIn(accountNumbers)) {
+            UserBundle b = bundles.get(ca.getAccountNumber());
+            if (b != null && b.current == null) b.current = ca;
+        }
+        Map<String, List<Loan>> loans = loanRepository.findByAccountNumberIn(accountNumbers).stream()
+                .collect(Collectors.groupingBy(Loan::getAccountNumber));
+        Map<String, List<Cheque>> cheques = chequeRepository.findByAccountNumberIn(accountNumbers).stream()
+                .collect(Collectors.groupingBy(Cheque::getAccountNumber));
+        Map<String, List<Card>> cards = cardRepository.findByAccountNumberIn(accountNumbers).stream()
+                .collect(Collectors.groupingBy(Card::getAccountNumber));
+        Map<String, List<GoldLoan>> goldLoans = goldLoanRepository.findByAccountNumberIn(accountNumbers).stream()
+                .collect(Collectors.groupingBy(GoldLoan::getAccountNumber));
+        Map<String, List<Transaction>> recentTxns = transactionRepository.findLatestPerAccount(accountNumbers, TXN_PAGE_SIZE).stream()
+                .collect(Collectors.groupingBy(Transaction::getAccountNumber));
+        for (UserBundle b : bundles.values()) {
+            if (b.displayName == null || b.displayName.isBlank()) {
+                b.displayName = b.accountNumber;
+            }
+            b.loans = loans.getOrDefault(b.accountNumber, List.of());
+            b.cheques = cheques.getOrDefault(b.accountNumber, List.of());
+            b.cards = cards.getOrDefault(b.accountNumber, List.of());
+            b.goldLoans = goldLoans.getOrDefault(b.accountNumber, List.of());
+            b.recentTxns = recentTxns.getOrDefault(b.accountNumber, List.of());
+        }
+        return bundles;
+    }
+
     public List<String> sanitizeAccountNumbers(List<String> raw) {
+        return sanitizeAccountNumbers(raw, MAX_USERS);
+    }
+
+    /** Account numbers for the streaming Excel export, up to {@code app.bulk-export.excel-max-users}. */
+    public List<String> sanitizeAccountNumbersForExcel(List<String> raw) {
+        return sanitizeAccountNumbers(raw, excelMaxUsers);
+    }
+
+    private List<String> sanitizeAccountNumbers(List<String> raw, int limit) {
         if (raw == null) return List.of();
         return raw.stream()
                 .filter(Objects::nonNull)
                 .map(String::trim)
                 .filter(s -> !s.isEmpty())
                 .distinct()
-                .limit(MAX_USERS)
+                .limit(limit)
                 .collect(Collectors.toList());
     }
 
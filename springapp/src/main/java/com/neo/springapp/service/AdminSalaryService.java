@@ -30,6 +30,8 @@ public class AdminSalaryService {
     private TransactionService transactionService;
     @Autowired(required = false)
     private BranchAccountService branchAccountService;
+    @Autowired
+    private HouseAccountLedgerService houseAccountLedgerService;
 
     /** Create a NeoBank salary account for the admin if not already present, and return the account number. */
     private String ensureSalaryAccountForAdmin(Admin admin) {
@@ -259,6 +261,8 @@ public class AdminSalaryService {
                 continue;
             }
 
+            // Pending charge credits sit in the house account shards until folded
+            houseAccountLedgerService.fold(managerAccountNumber);
             Double managerNewBalance = accountService.debitBalance(managerAccountNumber, DAILY_SALARY_RS);
             if (managerNewBalance == null) {
                 failed++;
@@ -374,6 +378,8 @@ public class AdminSalaryService {
                 continue;
             }
 
+            // Pending charge credits sit in the house account shards until folded
+            houseAccountLedgerService.fold(managerAccountNumber);
             Double managerNewBalance = accountService.debitBalance(managerAccountNumber, DAILY_SALARY_RS);
             if (managerNewBalance == null) {
                 failed++;
@@ -0,0 +1,571 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Account;
+import com.neo.springapp.model.Card;
+import com.neo.springapp.model.Loan;
+import com.neo.springapp.model.Merchant;
+import com.neo.springapp.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process trigram index over the identifier and name fields admin search matches partially:
+ * account name, phone, Aadhaar, PAN and account number; loan account numbers; card numbers;
+ * merchant IDs and business names; and UPI IDs.
+ *
+ * Every lower-cased field contributes its 3-character grams to posting lists of document ordinals.
+ * A query of 3+ characters intersects the lists of its own grams, which yields a small superset of
+ * the records containing it; {@link AdminSearchService} loads those by id and checks the actual
+ * match. Each field's leading gram and a hash of its whole value are posted as well, so candidates
+ * come back likely-exact first, then likely-prefix, then the rest, and the candidate cap never cuts
+ * off an exact or prefix hit in favour of a substring one. The index holds no field values, only ids,
+ * hashes and postings (roughly 200-300 bytes per account).
+ *
+ * It is built from the database on a background thread at startup and kept current by
+ * {@link AdminSearchIndexListener}, which applies entity inserts, updates and deletes after commit.
+ * An update that leaves the indexed fields as they are (a balance change, say) is ignored; any other
+ * update retires the old ordinal and appends a new one, and once enough ordinals are retired the
+ * index is rebuilt in the background. Until the first build completes {@link #isReady()} is false.
+ */
+@Service
+@Slf4j
+public class AdminSearchIndex {
+
+    public enum DocType {
+        ACCOUNT("accounts", "name", "phone", "aadhar_number", "pan", "account_number"),
+        LOAN("loans", "loan_account_number"),
+        CARD("cards", "card_number"),
+        MERCHANT("merchants", "merchant_id", "business_name"),
+        USER("users", "upi_id");
+
+        private final String table;
+        private final String[] columns;
+
+        DocType(String table, String... columns) {
+            this.table = table;
+            this.columns = columns;
+        }
+    }
+
+    private static final int REBUILD_PAGE_SIZE = 5000;
+    private static final int MIN_DEAD_FOR_COMPACTION = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxCandidates;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment current;
+    // Changes applied while a rebuild is reading the tables, replayed onto the new segment
+    private List<Change> missedDuringRebuild;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Documents with an index change registered but not yet committed or rolled back
+    private final ConcurrentHashMap<Long, Integer> pendingChanges = new ConcurrentHashMap<>();
+
+    public AdminSearchIndex(JdbcTemplate jdbcTemplate,
+                            @Value("${app.admin-search.index.max-candidates:200}") int maxCandidates) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxCandidates = Math.max(1, maxCandidates);
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return current != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of records of the given type whose indexed fields may contain {@code term}
+     * (case-insensitive), at most {@code app.admin-search.index.max-candidates}: likely exact matches
+     * first, then likely prefix matches, then other candidates, oldest first within each group.
+     * Empty for terms under 3 characters or while the index is not ready.
+     */
+    public List<Long> candidates(DocType type, String term) {
+        String query = normalize(term);
+        if (query == null || query.length() < 3) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return current == null ? List.of() : current.search(type, query, maxCandidates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index an inserted or updated entity once the surrounding transaction commits. Saves that leave
+     * every indexed field unchanged are skipped without touching the index.
+     */
+    public void onSaved(Object entity) {
+        Change change = Change.of(entity, false);
+        if (change != null && !isAlreadyIndexed(change)) {
+            afterCommit(change);
+        }
+    }
+
+    /** Drop a deleted entity once the surrounding transaction commits. */
+    public void onRemoved(Object entity) {
+        Change change = Change.of(entity, true);
+        if (change != null) {
+            afterCommit(change);
+        }
+    }
+
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return current == null ? 0 : current.liveCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread builder = new Thread(this::rebuildQuietly, "admin-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /** Rebuild the whole index from the database, then swap it in. Concurrent calls are skipped. */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lock.writeLock().lock();
+            try {
+                missedDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            long started = System.currentTimeMillis();
+            Segment next = new Segment();
+            for (DocType type : DocType.values()) {
+                load(type, next);
+            }
+            lock.writeLock().lock();
+            try {
+                for (Change change : missedDuringRebuild) {
+                    next.apply(change);
+                }
+                missedDuringRebuild = null;
+                current = next;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Admin search index built: {} records in {} ms", next.liveCount(), System.currentTimeMillis() - started);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                missedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Admin search index build failed; partial matches are unavailable until it succeeds: {}", e.getMessage());
+        }
+    }
+
+    private void load(DocType type, Segment into) {
+        String sql = "SELECT id, " + String.join(", ", type.columns) + " FROM " + type.table +
+                " WHERE id > ? ORDER BY id LIMIT " + REBUILD_PAGE_SIZE;
+        long afterId = 0;
+        while (true) {
+            long[] last = {afterId};
+            int[] rows = {0};
+            jdbcTemplate.query(sql, rs -> {
+                long id = rs.getLong(1);
+                String[] fields = new String[type.columns.length];
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = rs.getString(i + 2);
+                }
+                into.apply(new Change(type, id, fields));
+                last[0] = id;
+                rows[0]++;
+            }, afterId);
+            if (rows[0] < REBUILD_PAGE_SIZE) {
+                return;
+            }
+            afterId = last[0];
+        }
+    }
+
+    // Unchanged only if no other change of the document is still waiting for its transaction to finish
+    private boolean isAlreadyIndexed(Change change) {
+        if (pendingChanges.containsKey(change.key())) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return current != null && missedDuringRebuild == null && current.isIndexed(change);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void afterCommit(Change change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            long key = change.key();
+            pendingChanges.merge(key, 1, Integer::sum);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    pendingChanges.computeIfPresent(key, (k, n) -> n == 1 ? null : n - 1);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Change change) {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            if (missedDuringRebuild != null) {
+                missedDuringRebuild.add(change);
+            }
+            if (current == null) {
+                return;
+            }
+            current.apply(change);
+            compact = current.deadCount > MIN_DEAD_FOR_COMPACTION && current.deadCount > current.size / 4;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact && !rebuilding.get()) {
+            Thread compactor = new Thread(this::rebuildQuietly, "admin-search-index");
+            compactor.setDaemon(true);
+            compactor.start();
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long gram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    // FNV-1a over the characters; used for whole-value postings and change detection
+    private static long hash(long h, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001B3L;
+        }
+        return h;
+    }
+
+    private static long hash(String s) {
+        return hash(0xCBF29CE484222325L, s);
+    }
+
+    /** An insert/update (fields set) or delete (fields null) of one record. */
+    private record Change(DocType type, long id, String[] fields) {
+
+        long key() {
+            return ((long) type.ordinal() << 56) | id;
+        }
+
+        long fingerprint() {
+            long h = 0xCBF29CE484222325L;
+            for (String field : fields) {
+                String value = normalize(field);
+                h = hash(h, value == null ? "\u0000" : value);
+                h = (h ^ 0x1F) * 0x100000001B3L;
+            }
+            return h;
+        }
+
+        static Change of(Object entity, boolean removed) {
+            if (entity instanceof Account a && a.getId() != null) {
+                return new Change(DocType.ACCOUNT, a.getId(), removed ? null : new String[]{
+                        a.getName(), a.getPhone(), a.getAadharNumber(), a.getPan(), a.getAccountNumber()});
+            }
+            if (entity instanceof Loan l && l.getId() != null) {
+                return new Change(DocType.LOAN, l.getId(), removed ? null : new String[]{l.getLoanAccountNumber()});
+            }
+            if (entity instanceof Card c && c.getId() != null) {
+                return new Change(DocType.CARD, c.getId(), removed ? null : new String[]{c.getCardNumber()});
+            }
+            if (entity instanceof Merchant m && m.getId() != null) {
+                return new Change(DocType.MERCHANT, m.getId(), removed ? null : new String[]{m.getMerchantId(), m.getBusinessName()});
+            }
+            if (entity instanceof User u && u.getId() != null) {
+                return new Change(DocType.USER, u.getId(), removed ? null : new String[]{u.getUpiId()});
+            }
+            return null;
+        }
+    }
+
+    /** Postings plus the ordinal -> (type, id) table. Guarded by the index lock. */
+    private static final class Segment {
+
+        private final HashMap<Long, Postings> postings = new HashMap<>();
+        // Leading gram of each field, and hash of each whole field value
+        private final HashMap<Long, Postings> prefixes = new HashMap<>();
+        private final HashMap<Long, Postings> values = new HashMap<>();
+        private final LongIntMap ordinals = new LongIntMap();
+        private final BitSet dead = new BitSet();
+        private byte[] types = new byte[1024];
+        private long[] ids = new long[1024];
+        private long[] fingerprints = new long[1024];
+        private int size;
+        private int deadCount;
+
+        boolean isIndexed(Change change) {
+            int ordinal = ordinals.get(change.key());
+            return ordinal >= 0 && fingerprints[ordinal] == change.fingerprint();
+        }
+
+        void apply(Change change) {
+            long key = change.key();
+            if (change.fields() != null && isIndexed(change)) {
+                return;
+            }
+            int old = ordinals.remove(key);
+            if (old >= 0) {
+                dead.set(old);
+                deadCount++;
+            }
+            if (change.fields() == null) {
+                return;
+            }
+            Set<Long> grams = new HashSet<>();
+            Set<Long> leading = new HashSet<>();
+            Set<Long> whole = new HashSet<>();
+            for (String field : change.fields()) {
+                String value = normalize(field);
+                if (value != null && value.length() >= 3) {
+                    for (int i = 0; i + 3 <= value.length(); i++) {
+                        grams.add(gram(value, i));
+                    }
+                    leading.add(gram(value, 0));
+                    whole.add(hash(value));
+                }
+            }
+            if (grams.isEmpty()) {
+                return;
+            }
+            int ordinal = size++;
+            if (ordinal == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+                types = Arrays.copyOf(types, types.length * 2);
+                fingerprints = Arrays.copyOf(fingerprints, fingerprints.length * 2);
+            }
+            ids[ordinal] = change.id();
+            types[ordinal] = (byte) change.type().ordinal();
+            fingerprints[ordinal] = change.fingerprint();
+            ordinals.put(key, ordinal);
+            for (Long g : grams) {
+                postings.computeIfAbsent(g, k -> new Postings()).add(ordinal);
+            }
+            for (Long g : leading) {
+                prefixes.computeIfAbsent(g, k -> new Postings()).add(ordinal);
+            }
+            for (Long h : whole) {
+                values.computeIfAbsent(h, k -> new Postings()).add(ordinal);
+            }
+        }
+
+        List<Long> search(DocType type, String query, int limit) {
+            Set<Long> seen = new HashSet<>();
+            List<Postings> lists = new ArrayList<>();
+            for (int i = 0; i + 3 <= query.length(); i++) {
+                long g = gram(query, i);
+                if (seen.add(g)) {
+                    Postings p = postings.get(g);
+                    if (p == null) {
+                        return List.of();
+                    }
+                    lists.add(p);
+                }
+            }
+            List<Long> result = new ArrayList<>();
+            BitSet taken = new BitSet();
+            // Likely exact, then likely prefix, then any match of every gram; each tier is a subset of the last
+            Postings exact = values.get(hash(query));
+            if (exact != null) {
+                collect(type, withList(lists, exact), limit, result, taken);
+            }
+            Postings prefix = prefixes.get(gram(query, 0));
+            if (prefix != null) {
+                collect(type, withList(lists, prefix), limit, result, taken);
+            }
+            collect(type, lists, limit, result, taken);
+            return result;
+        }
+
+        private static List<Postings> withList(List<Postings> lists, Postings extra) {
+            List<Postings> all = new ArrayList<>(lists.size() + 1);
+            all.addAll(lists);
+            all.add(extra);
+            return all;
+        }
+
+        // Append live ordinals of the type present in every list, skipping those already taken
+        private void collect(DocType type, List<Postings> lists, int limit, List<Long> result, BitSet taken) {
+            List<Postings> sorted = new ArrayList<>(lists);
+            sorted.sort((a, b) -> Integer.compare(a.size, b.size));
+            Postings smallest = sorted.get(0);
+            int[] cursors = new int[sorted.size()];
+            outer:
+            for (int i = 0; i < smallest.size && result.size() < limit; i++) {
+                int ordinal = smallest.ordinals[i];
+                if (types[ordinal] != type.ordinal() || dead.get(ordinal) || taken.get(ordinal)) {
+                    continue;
+                }
+                for (int l = 1; l < sorted.size(); l++) {
+                    Postings other = sorted.get(l);
+                    int at = Arrays.binarySearch(other.ordinals, cursors[l], other.size, ordinal);
+                    if (at < 0) {
+                        cursors[l] = -at - 1;
+                        continue outer;
+                    }
+                    cursors[l] = at + 1;
+                }
+                taken.set(ordinal);
+                result.add(ids[ordinal]);
+            }
+        }
+
+        int liveCount() {
+            return size - deadCount;
+        }
+    }
+
+    /** Ascending ordinals; ordinals are only ever appended in increasing order. */
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size + (size >> 1) + 1);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+
+    /** Open-addressing long -> int map (values >= 0) with backward-shift deletion. */
+    private static final class LongIntMap {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys = newKeys(1024);
+        private int[] values = new int[1024];
+        private int count;
+
+        void put(long key, int value) {
+            if ((count + 1) * 4 > keys.length * 3) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                count++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        /** The value, or -1 if absent. */
+        int get(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) {
+                    return -1;
+                }
+                i = (i + 1) & mask;
+            }
+            return values[i];
+        }
+
+        /** Remove and return the value, or -1 if absent. */
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) {
+                    return -1;
+                }
+                i = (i + 1) & mask;
+            }
+            int removed = values[i];
+            count--;
+            // Shift later entries of the probe run back so lookups never stop early
+            int gap = i;
+            for (int j = (gap + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = EMPTY;
+            return removed;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] k = new long[capacity];
+            Arrays.fill(k, EMPTY);
+            return k;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.neo.springapp.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA entity listener that keeps {@link AdminSearchIndex} current. Hibernate creates it through
+ * Spring's bean container; the index is looked up lazily because entity listeners are instantiated
+ * while the EntityManagerFactory is still being built.
+ */
+public class AdminSearchIndexListener {
+
+    @Autowired
+    private ObjectProvider<AdminSearchIndex> adminSearchIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Object entity) {
+        if (adminSearchIndex != null) {
+            adminSearchIndex.ifAvailable(index -> index.onSaved(entity));
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (adminSearchIndex != null) {
+            adminSearchIndex.ifAvailable(index -> index.onRemoved(entity));
+        }
+    }
+}
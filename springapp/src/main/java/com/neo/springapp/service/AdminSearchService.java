@@ -2,15 +2,25 @@ package com.neo.springapp.service;
 
 import com.neo.springapp.model.*;
 import com.neo.springapp.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
+@Slf4j
 public class AdminSearchService {
 
     @Autowired
@@ -94,8 +104,88 @@ public class AdminSearchService {
     @Autowired(required = false)
     private ChequeRequestRepository chequeRequestRepository;
 
+    @Autowired
+    private AdminSearchIndex adminSearchIndex;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.admin-search.parallelism:2}")
+    private int parallelism;
+
+    @Value("${app.admin-search.category-timeout-ms:3000}")
+    private long categoryTimeoutMs;
+
+    private ThreadPoolExecutor searchExecutor;
+
+    /** One per-entity search: where its hits and count go in the response, and how to run it. */
+    private record SearchCategory(String resultKey, String countKey, Function<String, List<Map<String, Object>>> search) {
+    }
+
+    /**
+     * Outcome of one category: OK, TIMEOUT (over budget, cancelled), ERROR or UNAVAILABLE (the search
+     * pool's queue was full, so it never ran). Elapsed time counts from when the category's task started
+     * running, not from when it was queued.
+     */
+    private record CategoryResult(SearchCategory category, List<Map<String, Object>> results, long elapsedMs, String status) {
+    }
+
+    // Submitted in this order; each runs as its own task
+    private final List<SearchCategory> categories = List.of(
+            new SearchCategory("accounts", "accountCount", this::searchAccounts),
+            new SearchCategory("users", "userCount", this::searchUsers),
+            new SearchCategory("loans", "loanCount", this::searchLoans),
+            new SearchCategory("cheques", "chequeCount", this::searchCheques),
+            new SearchCategory("transactions", "transactionCount", this::searchTransactions),
+            new SearchCategory("cards", "cardCount", this::searchCards),
+            new SearchCategory("creditCards", "creditCardCount", this::searchCreditCards),
+            new SearchCategory("fixedDeposits", "fixedDepositCount", this::searchFixedDeposits),
+            new SearchCategory("investments", "investmentCount", this::searchInvestments),
+            new SearchCategory("emis", "emiCount", this::searchEmis),
+            new SearchCategory("insurance", "insuranceCount", this::searchInsurance),
+            new SearchCategory("fastags", "fastagCount", this::searchFastags),
+            new SearchCategory("salaryAccounts", "salaryAccountCount", this::searchSalaryAccounts),
+            new SearchCategory("currentAccounts", "currentAccountCount", this::searchCurrentAccounts),
+            new SearchCategory("soundboxes", "soundboxCount", this::searchSoundboxDevices),
+            new SearchCategory("videoKyc", "videoKycCount", this::searchVideoKyc),
+            new SearchCategory("merchants", "merchantCount", this::searchMerchants),
+            new SearchCategory("agents", "agentCount", this::searchAgents),
+            new SearchCategory("goldLoans", "goldLoanCount", this::searchGoldLoans),
+            new SearchCategory("educationLoans", "educationLoanCount", this::searchEducationLoans),
+            new SearchCategory("subsidyClaims", "subsidyClaimCount", this::searchSubsidyClaims),
+            new SearchCategory("kycRequests", "kycCount", this::searchKyc),
+            new SearchCategory("supportTickets", "supportTicketCount", this::searchSupportTickets),
+            new SearchCategory("onboardingApplications", "onboardingCount", this::searchMerchantOnboarding),
+            new SearchCategory("pgPayments", "pgPaymentCount", this::searchPgPayments),
+            new SearchCategory("accountApplications", "accountApplicationCount", this::searchAccountApplications)
+    );
+
+    @PostConstruct
+    void startSearchExecutor() {
+        // Few threads on purpose: every category holds a pooled DB connection while it runs
+        int threads = Math.max(1, parallelism);
+        AtomicInteger seq = new AtomicInteger();
+        searchExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(categories.size() * 8),
+                r -> {
+                    Thread t = new Thread(r, "admin-search-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                // Never run a category on the request thread, where its deadline could not be enforced
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stopSearchExecutor() {
+        searchExecutor.shutdownNow();
+    }
+
     /**
-     * Comprehensive search across ALL entities - A to Z
+     * Comprehensive search across ALL entities - A to Z.
+     * Categories run in parallel on a small pool, each within {@code app.admin-search.category-timeout-ms}
+     * of starting; a category over budget or failing comes back empty and is listed in
+     * {@code incompleteCategories}.
      */
     public Map<String, Object> searchAll(String searchTerm) {
         Map<String, Object> results = new HashMap<>();
@@ -110,228 +200,233 @@ public class AdminSearchService {
         results.put("searchTerm", term);
         results.put("success", true);
 
-        // Search Accounts
-        List<Map<String, Object>> accounts = searchAccounts(term);
-        results.put("accounts", accounts);
-        results.put("accountCount", accounts.size());
-
-        // Search Users
-        List<Map<String, Object>> users = searchUsers(term);
-        results.put("users", users);
-        results.put("userCount", users.size());
-
-        // Search Loans
-        List<Map<String, Object>> loans = searchLoans(term);
-        results.put("loans", loans);
-        results.put("loanCount", loans.size());
-
-        // Search Cheques
-        List<Map<String, Object>> cheques = searchCheques(term);
-        results.put("cheques", cheques);
-        results.put("chequeCount", cheques.size());
-
-        // Search Transactions
-        List<Map<String, Object>> transactions = searchTransactions(term);
-        results.put("transactions", transactions);
-        results.put("transactionCount", transactions.size());
-
-        // Search Cards (Debit)
-        List<Map<String, Object>> cards = searchCards(term);
-        results.put("cards", cards);
-        results.put("cardCount", cards.size());
-
-        // Search Credit Cards
-        List<Map<String, Object>> creditCards = searchCreditCards(term);
-        results.put("creditCards", creditCards);
-        results.put("creditCardCount", creditCards.size());
-
-        // Search Fixed Deposits
-        List<Map<String, Object>> fixedDeposits = searchFixedDeposits(term);
-        results.put("fixedDeposits", fixedDeposits);
-        results.put("fixedDepositCount", fixedDeposits.size());
-
-        // Search Investments
-        List<Map<String, Object>> investments = searchInvestments(term);
-        results.put("investments", investments);
-        results.put("investmentCount", investments.size());
-
-        // Search EMIs
-        List<Map<String, Object>> emis = searchEmis(term);
-        results.put("emis", emis);
-        results.put("emiCount", emis.size());
-
-        // Search Insurance
-        List<Map<String, Object>> insurance = searchInsurance(term);
-        results.put("insurance", insurance);
-        results.put("insuranceCount", insurance.size());
-
-        // Search FASTag
-        List<Map<String, Object>> fastags = searchFastags(term);
-        results.put("fastags", fastags);
-        results.put("fastagCount", fastags.size());
-
-        // Search Salary Accounts
-        List<Map<String, Object>> salaryAccounts = searchSalaryAccounts(term);
-        results.put("salaryAccounts", salaryAccounts);
-        results.put("salaryAccountCount", salaryAccounts.size());
-
-        // Search Current Accounts
-        List<Map<String, Object>> currentAccounts = searchCurrentAccounts(term);
-        results.put("currentAccounts", currentAccounts);
-        results.put("currentAccountCount", currentAccounts.size());
-
-        // Search Soundbox Devices
-        List<Map<String, Object>> soundboxes = searchSoundboxDevices(term);
-        results.put("soundboxes", soundboxes);
-        results.put("soundboxCount", soundboxes.size());
-
-        // Search Video KYC
-        List<Map<String, Object>> videoKyc = searchVideoKyc(term);
-        results.put("videoKyc", videoKyc);
-        results.put("videoKycCount", videoKyc.size());
-
-        // Search Merchants
-        List<Map<String, Object>> merchants = searchMerchants(term);
-        results.put("merchants", merchants);
-        results.put("merchantCount", merchants.size());
-
-        // Search Agents
-        List<Map<String, Object>> agents = searchAgents(term);
-        results.put("agents", agents);
-        results.put("agentCount", agents.size());
-
-        // Search Gold Loans
-        List<Map<String, Object>> goldLoans = searchGoldLoans(term);
-        results.put("goldLoans", goldLoans);
-        results.put("goldLoanCount", goldLoans.size());
-
-        // Search Education Loans
-        List<Map<String, Object>> educationLoans = searchEducationLoans(term);
-        results.put("educationLoans", educationLoans);
-        results.put("educationLoanCount", educationLoans.size());
-
-        // Search Subsidy Claims
-        List<Map<String, Object>> subsidyClaims = searchSubsidyClaims(term);
-        results.put("subsidyClaims", subsidyClaims);
-        results.put("subsidyClaimCount", subsidyClaims.size());
-
-        // Search KYC
-        List<Map<String, Object>> kycRequests = searchKyc(term);
-        results.put("kycRequests", kycRequests);
-        results.put("kycCount", kycRequests.size());
-
-        // Search Support Tickets
-        List<Map<String, Object>> supportTickets = searchSupportTickets(term);
-        results.put("supportTickets", supportTickets);
-        results.put("supportTicketCount", supportTickets.size());
-
-        // Search Merchant Onboarding Applications
-        List<Map<String, Object>> onboardingApps = searchMerchantOnboarding(term);
-        results.put("onboardingApplications", onboardingApps);
-        results.put("onboardingCount", onboardingApps.size());
-
-        // Search PG Payments
-        List<Map<String, Object>> pgPayments = searchPgPayments(term);
-        results.put("pgPayments", pgPayments);
-        results.put("pgPaymentCount", pgPayments.size());
-
-        // Search Account Opening Applications
-        List<Map<String, Object>> accountApplications = searchAccountApplications(term);
-        results.put("accountApplications", accountApplications);
-        results.put("accountApplicationCount", accountApplications.size());
-
-        // Total results
-        int totalCount = accounts.size() + users.size() + loans.size() + 
-                        cheques.size() + transactions.size() + cards.size() +
-                        creditCards.size() + fixedDeposits.size() + investments.size() +
-                        emis.size() + insurance.size() + fastags.size() +
-                        salaryAccounts.size() + currentAccounts.size() + soundboxes.size() +
-                        videoKyc.size() + merchants.size() + agents.size() +
-                        goldLoans.size() + educationLoans.size() + subsidyClaims.size() +
-                        kycRequests.size() + supportTickets.size() + onboardingApps.size() +
-                        pgPayments.size() + accountApplications.size();
-        results.put("totalCount", totalCount);
+        Map<String, Long> timings = new LinkedHashMap<>();
+        List<String> incomplete = new ArrayList<>();
+        int[] totalCount = {0};
+        fanOut(term, r -> {
+            results.put(r.category().resultKey(), r.results());
+            results.put(r.category().countKey(), r.results().size());
+            timings.put(r.category().resultKey(), r.elapsedMs());
+            if (!"OK".equals(r.status())) {
+                incomplete.add(r.category().resultKey());
+            }
+            totalCount[0] += r.results().size();
+        });
+        results.put("categoryTimingsMs", timings);
+        results.put("incompleteCategories", incomplete);
+        results.put("totalCount", totalCount[0]);
 
         return results;
     }
 
+    /**
+     * Same search as {@link #searchAll}, handing each category to {@code onCategory} as soon as it
+     * completes (or runs out of budget), then a final summary. Callbacks run on the calling thread.
+     */
+    public void searchAllStreaming(String searchTerm, Consumer<Map<String, Object>> onCategory,
+                                   Consumer<Map<String, Object>> onDone) {
+        Map<String, Object> summary = new HashMap<>();
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            summary.put("success", false);
+            summary.put("message", "Search term cannot be empty");
+            onDone.accept(summary);
+            return;
+        }
+        String term = searchTerm.trim();
+        long started = System.currentTimeMillis();
+        int[] totalCount = {0};
+        fanOut(term, r -> {
+            Map<String, Object> event = new HashMap<>();
+            event.put("category", r.category().resultKey());
+            event.put("countKey", r.category().countKey());
+            event.put("results", r.results());
+            event.put("count", r.results().size());
+            event.put("elapsedMs", r.elapsedMs());
+            event.put("status", r.status());
+            totalCount[0] += r.results().size();
+            onCategory.accept(event);
+        });
+        summary.put("success", true);
+        summary.put("searchTerm", term);
+        summary.put("totalCount", totalCount[0]);
+        summary.put("elapsedMs", System.currentTimeMillis() - started);
+        onDone.accept(summary);
+    }
+
+    /**
+     * Upper bound on a whole search: every category gets its own budget once a pool thread picks it up,
+     * so the last wave of queued categories can finish this long after the search starts.
+     */
+    public long getSearchBudgetMs() {
+        int threads = Math.max(1, parallelism);
+        int waves = (categories.size() + threads - 1) / threads;
+        return categoryTimeoutMs * (waves + 1);
+    }
+
+    // Runs every category, delivering results in completion order. Each category is cancelled once it has
+    // run for the category timeout, and one the saturated pool rejects is reported UNAVAILABLE; if the sink
+    // throws (stream closed), everything still pending is cancelled
+    private void fanOut(String term, Consumer<CategoryResult> sink) {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(categoryTimeoutMs);
+        long searchDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(getSearchBudgetMs());
+        Map<SearchCategory, Long> startedAt = new ConcurrentHashMap<>();
+        CompletionService<CategoryResult> completion = new ExecutorCompletionService<>(searchExecutor);
+        Map<Future<CategoryResult>, SearchCategory> pending = new LinkedHashMap<>();
+        List<SearchCategory> rejected = new ArrayList<>();
+        for (SearchCategory category : categories) {
+            try {
+                pending.put(completion.submit(() -> runCategory(category, term, startedAt)), category);
+            } catch (RejectedExecutionException e) {
+                rejected.add(category);
+            }
+        }
+        try {
+            if (!rejected.isEmpty()) {
+                log.warn("Admin search pool saturated; {} categories not run", rejected.size());
+            }
+            for (SearchCategory category : rejected) {
+                sink.accept(recordTiming(new CategoryResult(category, List.of(), 0, "UNAVAILABLE")));
+            }
+            while (!pending.isEmpty()) {
+                long now = System.nanoTime();
+                // A category that has not started yet cannot expire before now + timeout
+                long next = Math.min(searchDeadline, now + timeoutNanos);
+                for (SearchCategory category : pending.values()) {
+                    Long started = startedAt.get(category);
+                    if (started != null) {
+                        next = Math.min(next, started + timeoutNanos);
+                    }
+                }
+                Future<CategoryResult> done = next > now ? completion.poll(next - now, TimeUnit.NANOSECONDS) : null;
+                if (done != null) {
+                    SearchCategory category = pending.remove(done);
+                    if (category == null) {
+                        continue; // already reported as TIMEOUT
+                    }
+                    try {
+                        sink.accept(recordTiming(done.get()));
+                    } catch (ExecutionException e) {
+                        log.warn("Admin search category {} failed", category.resultKey(), e.getCause());
+                        sink.accept(recordTiming(new CategoryResult(category, List.of(),
+                                elapsedMs(startedAt.get(category)), "ERROR")));
+                    }
+                    continue;
+                }
+                now = System.nanoTime();
+                boolean searchOver = now - searchDeadline >= 0;
+                Iterator<Map.Entry<Future<CategoryResult>, SearchCategory>> it = pending.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<Future<CategoryResult>, SearchCategory> left = it.next();
+                    Long started = startedAt.get(left.getValue());
+                    if (searchOver || (started != null && now - (started + timeoutNanos) >= 0)) {
+                        it.remove();
+                        left.getKey().cancel(true);
+                        sink.accept(recordTiming(new CategoryResult(left.getValue(), List.of(), elapsedMs(started), "TIMEOUT")));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Map.Entry<Future<CategoryResult>, SearchCategory> left : new ArrayList<>(pending.entrySet())) {
+                pending.remove(left.getKey());
+                left.getKey().cancel(true);
+                sink.accept(recordTiming(new CategoryResult(left.getValue(), List.of(),
+                        elapsedMs(startedAt.get(left.getValue())), "TIMEOUT")));
+            }
+        } finally {
+            pending.keySet().forEach(f -> f.cancel(true));
+        }
+    }
+
+    private CategoryResult runCategory(SearchCategory category, String term, Map<SearchCategory, Long> startedAt) {
+        long startedNanos = System.nanoTime();
+        startedAt.put(category, startedNanos);
+        List<Map<String, Object>> hits = category.search().apply(term);
+        return new CategoryResult(category, hits != null ? hits : List.of(), elapsedMs(startedNanos), "OK");
+    }
+
+    private CategoryResult recordTiming(CategoryResult result) {
+        if (meterRegistry != null) {
+            meterRegistry.timer("admin.search.category",
+                            "category", result.category().resultKey(), "status", result.status())
+                    .record(result.elapsedMs(), TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    // 0 for a category that never started
+    private static long elapsedMs(Long startedNanos) {
+        return startedNanos == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+
     /**
      * Search accounts by name, phone, aadhar, PAN, account number
      */
     private List<Map<String, Object>> searchAccounts(String term) {
         List<Map<String, Object>> results = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
         
         // Search by account number
         Account accountByNumber = accountRepository.findByAccountNumber(term);
         if (accountByNumber != null) {
+            seen.add(accountByNumber.getAccountNumber());
             results.add(createAccountResult(accountByNumber, "Account Number"));
         }
 
+        // Partial matches of 3+ characters come from the index once it is built; until then,
+        // and for shorter terms, fall back to the (table-scanning) LIKE query
+        boolean useIndex = term.length() >= 3 && adminSearchIndex.isReady();
+
         // Search by name using search query
-        Pageable pageable = PageRequest.of(0, 100);
-        Page<Account> accountsByName = accountRepository.searchAccounts(term, pageable);
-        for (Account account : accountsByName.getContent()) {
-            if (!results.stream().anyMatch(r -> r.get("accountNumber").equals(account.getAccountNumber()))) {
-                results.add(createAccountResult(account, "Name"));
+        if (!useIndex) {
+            Pageable pageable = PageRequest.of(0, 100);
+            Page<Account> accountsByName = accountRepository.searchAccounts(term, pageable);
+            for (Account account : accountsByName.getContent()) {
+                if (seen.add(account.getAccountNumber())) {
+                    results.add(createAccountResult(account, "Name"));
+                }
             }
         }
 
         // Search by phone
         List<Account> accountsByPhone = accountRepository.findByPhone(term);
         for (Account account : accountsByPhone) {
-            if (!results.stream().anyMatch(r -> r.get("accountNumber").equals(account.getAccountNumber()))) {
+            if (seen.add(account.getAccountNumber())) {
                 results.add(createAccountResult(account, "Phone"));
             }
         }
 
         // Search by Aadhar
         Account accountByAadhar = accountRepository.findByAadharNumber(term);
-        if (accountByAadhar != null) {
-            if (!results.stream().anyMatch(r -> r.get("accountNumber").equals(accountByAadhar.getAccountNumber()))) {
-                results.add(createAccountResult(accountByAadhar, "Aadhar Number"));
-            }
+        if (accountByAadhar != null && seen.add(accountByAadhar.getAccountNumber())) {
+            results.add(createAccountResult(accountByAadhar, "Aadhar Number"));
         }
 
         // Search by PAN
         Account accountByPan = accountRepository.findByPan(term);
-        if (accountByPan != null) {
-            if (!results.stream().anyMatch(r -> r.get("accountNumber").equals(accountByPan.getAccountNumber()))) {
-                results.add(createAccountResult(accountByPan, "PAN Number"));
-            }
+        if (accountByPan != null && seen.add(accountByPan.getAccountNumber())) {
+            results.add(createAccountResult(accountByPan, "PAN Number"));
         }
 
-        // Search by partial matches
-        if (term.length() >= 3) {
-            List<Account> allAccounts = accountRepository.findAll();
-            for (Account account : allAccounts) {
-                if (results.stream().anyMatch(r -> r.get("accountNumber").equals(account.getAccountNumber()))) {
+        // Search by partial matches: index candidates, confirmed against the loaded rows
+        if (useIndex) {
+            List<RankedHit> hits = new ArrayList<>();
+            for (Account account : accountRepository.findAllById(
+                    adminSearchIndex.candidates(AdminSearchIndex.DocType.ACCOUNT, term))) {
+                if (seen.contains(account.getAccountNumber())) {
                     continue;
                 }
-                
-                boolean matches = false;
-                String matchType = "";
-                
-                if (account.getName() != null && account.getName().toLowerCase().contains(term.toLowerCase())) {
-                    matches = true;
-                    matchType = "Name (Partial)";
-                } else if (account.getPhone() != null && account.getPhone().contains(term)) {
-                    matches = true;
-                    matchType = "Phone (Partial)";
-                } else if (account.getAadharNumber() != null && account.getAadharNumber().contains(term)) {
-                    matches = true;
-                    matchType = "Aadhar (Partial)";
-                } else if (account.getPan() != null && account.getPan().toLowerCase().contains(term.toLowerCase())) {
-                    matches = true;
-                    matchType = "PAN (Partial)";
-                } else if (account.getAccountNumber() != null && account.getAccountNumber().contains(term)) {
-                    matches = true;
-                    matchType = "Account Number (Partial)";
-                }
-                
-                if (matches) {
-                    results.add(createAccountResult(account, matchType));
+                RankedHit hit = bestMatch(term,
+                        account.getName(), "Name (Partial)",
+                        account.getPhone(), "Phone (Partial)",
+                        account.getAadharNumber(), "Aadhar (Partial)",
+                        account.getPan(), "PAN (Partial)",
+                        account.getAccountNumber(), "Account Number (Partial)");
+                if (hit != null && seen.add(account.getAccountNumber())) {
+                    hits.add(hit.with(createAccountResult(account, hit.matchType())));
                 }
             }
+            addRanked(results, hits);
         }
 
         return results;
@@ -357,43 +452,51 @@ public class AdminSearchService {
      */
     private List<Map<String, Object>> searchUsers(String term) {
         List<Map<String, Object>> results = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
         
         // Search by account number
         Optional<User> userByAccount = userRepository.findByAccountNumber(term);
-        if (userByAccount.isPresent()) {
+        if (userByAccount.isPresent() && seen.add(userByAccount.get().getId())) {
             results.add(createUserResult(userByAccount.get(), "Account Number"));
         }
 
         // Search by email
         Optional<User> userByEmail = userRepository.findByEmail(term);
-        if (userByEmail.isPresent()) {
-            if (!results.stream().anyMatch(r -> r.get("userId").equals(userByEmail.get().getId()))) {
-                results.add(createUserResult(userByEmail.get(), "Email"));
-            }
+        if (userByEmail.isPresent() && seen.add(userByEmail.get().getId())) {
+            results.add(createUserResult(userByEmail.get(), "Email"));
         }
 
         // Search by username
         Optional<User> userByUsername = userRepository.findByUsername(term);
-        if (userByUsername.isPresent()) {
-            if (!results.stream().anyMatch(r -> r.get("userId").equals(userByUsername.get().getId()))) {
-                results.add(createUserResult(userByUsername.get(), "Username"));
-            }
+        if (userByUsername.isPresent() && seen.add(userByUsername.get().getId())) {
+            results.add(createUserResult(userByUsername.get(), "Username"));
         }
 
         // Search by PAN (through account)
         Optional<User> userByPan = userRepository.findByPan(term);
-        if (userByPan.isPresent()) {
-            if (!results.stream().anyMatch(r -> r.get("userId").equals(userByPan.get().getId()))) {
-                results.add(createUserResult(userByPan.get(), "PAN Number"));
-            }
+        if (userByPan.isPresent() && seen.add(userByPan.get().getId())) {
+            results.add(createUserResult(userByPan.get(), "PAN Number"));
         }
 
         // Search by Aadhar (through account)
         Optional<User> userByAadhar = userRepository.findByAadhar(term);
-        if (userByAadhar.isPresent()) {
-            if (!results.stream().anyMatch(r -> r.get("userId").equals(userByAadhar.get().getId()))) {
-                results.add(createUserResult(userByAadhar.get(), "Aadhar Number"));
+        if (userByAadhar.isPresent() && seen.add(userByAadhar.get().getId())) {
+            results.add(createUserResult(userByAadhar.get(), "Aadhar Number"));
+        }
+
+        // Search by UPI ID (full or partial); LIKE query until the index is built
+        if (term.length() >= 3) {
+            List<User> partial = adminSearchIndex.isReady()
+                    ? userRepository.findAllById(adminSearchIndex.candidates(AdminSearchIndex.DocType.USER, term))
+                    : userRepository.findByUpiIdContainingIgnoreCase(term, PageRequest.of(0, 100));
+            List<RankedHit> hits = new ArrayList<>();
+            for (User user : partial) {
+                RankedHit hit = bestMatch(term, user.getUpiId(), "UPI ID");
+                if (hit != null && seen.add(user.getId())) {
+                    hits.add(hit.with(createUserResult(user, hit.rank() == EXACT ? "UPI ID" : "UPI ID (Partial)")));
+                }
             }
+            addRanked(results, hits);
         }
 
         return results;
@@ -421,10 +524,12 @@ public class AdminSearchService {
      */
     private List<Map<String, Object>> searchLoans(String term) {
         List<Map<String, Object>> results = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
         
         // Search by loan account number
         Optional<Loan> loanByAccountNumber = loanRepository.findByLoanAccountNumber(term);
         if (loanByAccountNumber.isPresent()) {
+            seen.add(loanByAccountNumber.get().getId());
             results.add(createLoanResult(loanByAccountNumber.get(), "Loan Account Number"));
         }
 
@@ -432,10 +537,8 @@ public class AdminSearchService {
         try {
             Long loanId = Long.parseLong(term);
             Optional<Loan> loanById = loanRepository.findById(loanId);
-            if (loanById.isPresent()) {
-                if (!results.stream().anyMatch(r -> r.get("loanId").equals(loanId))) {
-                    results.add(createLoanResult(loanById.get(), "Loan ID"));
-                }
+            if (loanById.isPresent() && seen.add(loanId)) {
+                results.add(createLoanResult(loanById.get(), "Loan ID"));
             }
         } catch (NumberFormatException e) {
             // Not a number, skip
@@ -444,7 +547,7 @@ public class AdminSearchService {
         // Search by account number
         List<Loan> loansByAccount = loanRepository.findByAccountNumber(term);
         for (Loan loan : loansByAccount) {
-            if (!results.stream().anyMatch(r -> r.get("loanId").equals(loan.getId()))) {
+            if (seen.add(loan.getId())) {
                 results.add(createLoanResult(loan, "Account Number"));
             }
         }
@@ -452,24 +555,24 @@ public class AdminSearchService {
         // Search by child account number (for education loans)
         List<Loan> loansByChildAccount = loanRepository.findByChildAccountNumber(term);
         for (Loan loan : loansByChildAccount) {
-            if (!results.stream().anyMatch(r -> r.get("loanId").equals(loan.getId()))) {
+            if (seen.add(loan.getId())) {
                 results.add(createLoanResult(loan, "Child Account Number"));
             }
         }
 
-        // Partial search on loan account number
+        // Partial search on loan account number; LIKE query until the index is built
         if (term.length() >= 4) {
-            List<Loan> allLoans = loanRepository.findAll();
-            for (Loan loan : allLoans) {
-                if (results.stream().anyMatch(r -> r.get("loanId").equals(loan.getId()))) {
-                    continue;
-                }
-                
-                if (loan.getLoanAccountNumber() != null && 
-                    loan.getLoanAccountNumber().toLowerCase().contains(term.toLowerCase())) {
-                    results.add(createLoanResult(loan, "Loan Account Number (Partial)"));
+            List<Loan> partial = adminSearchIndex.isReady()
+                    ? loanRepository.findAllById(adminSearchIndex.candidates(AdminSearchIndex.DocType.LOAN, term))
+                    : loanRepository.searchLoans(term, PageRequest.of(0, 100)).getContent();
+            List<RankedHit> hits = new ArrayList<>();
+            for (Loan loan : partial) {
+                RankedHit hit = bestMatch(term, loan.getLoanAccountNumber(), "Loan Account Number (Partial)");
+                if (hit != null && seen.add(loan.getId())) {
+                    hits.add(hit.with(createLoanResult(loan, hit.matchType())));
                 }
             }
+            addRanked(results, hits);
         }
 
         return results;
@@ -499,17 +602,19 @@ public class AdminSearchService {
      */
     private List<Map<String, Object>> searchCheques(String term) {
         List<Map<String, Object>> results = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
         
         // Search by cheque number
         Optional<Cheque> chequeByNumber = chequeRepository.findByChequeNumber(term);
         if (chequeByNumber.isPresent()) {
+            seen.add(chequeByNumber.get().getId());
             results.add(createChequeResult(chequeByNumber.get(), "Cheque Number"));
         }
 
         // Search by account number
         List<Cheque> chequesByAccount = chequeRepository.findByAccountNumber(term);
         for (Cheque cheque : chequesByAccount) {
-            if (!results.stream().anyMatch(r -> r.get("chequeId").equals(cheque.getId()))) {
+            if (seen.add(cheque.getId())) {
                 results.add(createChequeResult(cheque, "Account Number"));
             }
         }
@@ -519,7 +624,7 @@ public class AdminSearchService {
             Pageable pageable = PageRequest.of(0, 50);
             Page<Cheque> cheques = chequeRepository.findByChequeNumberContaining(term, pageable);
             for (Cheque cheque : cheques.getContent()) {
-                if (!results.stream().anyMatch(r -> r.get("chequeId").equals(cheque.getId()))) {
+                if (seen.add(cheque.getId())) {
                     results.add(createChequeResult(cheque, "Cheque Number (Partial)"));
                 }
             }
@@ -618,25 +723,28 @@ public class AdminSearchService {
             if (seenCardIds.add(card.getId())) results.add(createCardResult(card, "Account Number"));
         }
 
-        Pageable cardPage = PageRequest.of(0, 50);
-        Page<Card> cardPageResult = cardRepository.findAll(cardPage);
-        for (Card card : cardPageResult.getContent()) {
-            if (card.getCardNumber() != null) {
-                String cardNumber = card.getCardNumber();
-                if (cardNumber.contains(term) || cardNumber.endsWith(term)) {
-                    if (seenCardIds.add(card.getId())) results.add(createCardResult(card, "Card Number"));
-                }
+        List<Card> partialCards = adminSearchIndex.isReady()
+                ? cardRepository.findAllById(adminSearchIndex.candidates(AdminSearchIndex.DocType.CARD, term))
+                : cardRepository.searchCards(term, PageRequest.of(0, 100)).getContent();
+        List<RankedHit> cardHits = new ArrayList<>();
+        for (Card card : partialCards) {
+            RankedHit hit = bestMatch(term, card.getCardNumber(), "Card Number");
+            if (hit != null && seenCardIds.add(card.getId())) {
+                cardHits.add(hit.with(createCardResult(card, "Card Number")));
             }
         }
+        addRanked(results, cardHits);
 
         if (salaryAccountRepository != null) {
             SalaryAccount byCard = salaryAccountRepository.findByDebitCardNumber(term);
-            if (byCard != null) results.add(createSalaryDebitCardResult(byCard, "Salary Debit Card Number"));
+            Set<Long> seenSalaryIds = new HashSet<>();
+            if (byCard != null) {
+                seenSalaryIds.add(byCard.getId());
+                results.add(createSalaryDebitCardResult(byCard, "Salary Debit Card Number"));
+            }
             for (SalaryAccount sa : salaryAccountRepository.search(term)) {
                 if (sa.getDebitCardNumber() != null && sa.getDebitCardNumber().contains(term)) {
-                    boolean alreadyAdded = results.stream().anyMatch(r ->
-                            "SalaryDebitCard".equals(r.get("type")) && sa.getId().equals(r.get("cardId")));
-                    if (!alreadyAdded) results.add(createSalaryDebitCardResult(sa, "Salary Debit Card (Partial)"));
+                    if (seenSalaryIds.add(sa.getId())) results.add(createSalaryDebitCardResult(sa, "Salary Debit Card (Partial)"));
                 }
             }
         }
@@ -1177,6 +1285,22 @@ public class AdminSearchService {
                     results.add(createMerchantResult(m, "Email"));
                 }
             });
+
+            Set<Object> seen = new HashSet<>();
+            results.forEach(r -> seen.add(r.get("merchantId")));
+            List<Merchant> partial = adminSearchIndex.isReady()
+                    ? merchantRepository.findAllById(adminSearchIndex.candidates(AdminSearchIndex.DocType.MERCHANT, term))
+                    : merchantRepository.findByMerchantIdContainingIgnoreCaseOrBusinessNameContainingIgnoreCase(term, term, PageRequest.of(0, 100));
+            List<RankedHit> hits = new ArrayList<>();
+            for (Merchant m : partial) {
+                RankedHit hit = bestMatch(term,
+                        m.getMerchantId(), "Merchant ID (Partial)",
+                        m.getBusinessName(), "Business Name");
+                if (hit != null && seen.add(m.getMerchantId())) {
+                    hits.add(hit.with(createMerchantResult(m, hit.matchType())));
+                }
+            }
+            addRanked(results, hits);
         } catch (Exception e) { /* skip on error */ }
         return results;
     }
@@ -1446,5 +1570,44 @@ public class AdminSearchService {
         result.put("matchType", matchType);
         return result;
     }
-}
 
+    // ==================== PARTIAL MATCH RANKING ====================
+    private static final int CONTAINS = 1;
+    private static final int PREFIX = 2;
+    private static final int EXACT = 3;
+
+    /** A confirmed partial hit: how well it matched, which field, and (once built) its result row. */
+    private record RankedHit(int rank, String matchType, Map<String, Object> result) {
+        RankedHit with(Map<String, Object> row) {
+            return new RankedHit(rank, matchType, row);
+        }
+    }
+
+    /**
+     * Best case-insensitive match of {@code term} among (value, matchType) pairs: exact beats prefix
+     * beats substring, earlier fields win ties. Null if no field contains the term.
+     */
+    private static RankedHit bestMatch(String term, String... valuesAndTypes) {
+        String lower = term.toLowerCase(Locale.ROOT);
+        RankedHit best = null;
+        for (int i = 0; i + 1 < valuesAndTypes.length; i += 2) {
+            String value = valuesAndTypes[i];
+            if (value == null) {
+                continue;
+            }
+            String v = value.toLowerCase(Locale.ROOT);
+            int rank = v.equals(lower) ? EXACT : v.startsWith(lower) ? PREFIX : v.contains(lower) ? CONTAINS : 0;
+            if (rank > 0 && (best == null || rank > best.rank())) {
+                best = new RankedHit(rank, valuesAndTypes[i + 1], null);
+            }
+        }
+        return best;
+    }
+
+    private static void addRanked(List<Map<String, Object>> results, List<RankedHit> hits) {
+        hits.sort((a, b) -> Integer.compare(b.rank(), a.rank()));
+        for (RankedHit hit : hits) {
+            results.add(hit.result());
+        }
+    }
+}
@@ -13,7 +13,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -32,6 +31,8 @@ public class AiSecurityService {
     private final AiDeviceFingerprintRepository deviceFingerprintRepository;
     private final AiSecurityRuleRepository ruleRepository;
     private final TransactionRepository transactionRepository;
+    private final SecurityEventWindowStore windowStore;
+    private final SecurityTelemetryWriter telemetryWriter;
 
     // AI Model thresholds
     private static final double HIGH_RISK_THRESHOLD = 70.0;
@@ -45,12 +46,16 @@ public class AiSecurityService {
                              AiThreatScoreRepository threatScoreRepository,
                              AiDeviceFingerprintRepository deviceFingerprintRepository,
                              AiSecurityRuleRepository ruleRepository,
-                             TransactionRepository transactionRepository) {
+                             TransactionRepository transactionRepository,
+                             SecurityEventWindowStore windowStore,
+                             SecurityTelemetryWriter telemetryWriter) {
         this.eventRepository = eventRepository;
         this.threatScoreRepository = threatScoreRepository;
         this.deviceFingerprintRepository = deviceFingerprintRepository;
         this.ruleRepository = ruleRepository;
         this.transactionRepository = transactionRepository;
+        this.windowStore = windowStore;
+        this.telemetryWriter = telemetryWriter;
     }
 
     // ========================= REAL-TIME THREAT ANALYSIS =========================
@@ -85,10 +90,7 @@ public class AiSecurityService {
                     "Login attempt from previously unseen device: " + deviceInfo,
                     clientIp, location, deviceHash, userAgent);
         } else {
-            knownDevice.setLoginCount(knownDevice.getLoginCount() + 1);
-            knownDevice.setLastSeenAt(LocalDateTime.now());
-            knownDevice.setIpAddress(clientIp);
-            deviceFingerprintRepository.save(knownDevice);
+            telemetryWriter.touchDevice(entityId, deviceHash, clientIp);
             if (Boolean.TRUE.equals(knownDevice.getIsTrusted())) {
                 riskScore -= 10.0; // Bonus for trusted device
             }
@@ -96,16 +98,12 @@ public class AiSecurityService {
 
         // 2. Failed login pattern analysis (brute force detection)
         if (!loginSuccess) {
-            List<AiSecurityEvent> recentFailedLogins = eventRepository
-                    .findBySourceEntityIdOrderByCreatedAtDesc(entityId).stream()
-                    .filter(e -> e.getEventType() == AiSecurityEvent.EventType.SUSPICIOUS_LOGIN
-                            || e.getEventType() == AiSecurityEvent.EventType.BRUTE_FORCE_ATTACK)
-                    .filter(e -> e.getCreatedAt().isAfter(LocalDateTime.now().minusMinutes(15)))
-                    .collect(Collectors.toList());
-
-            if (recentFailedLogins.size() >= MAX_FAILED_LOGINS) {
+            int recentFailedLogins = windowStore.count(entityId, 15, System.currentTimeMillis(),
+                    AiSecurityEvent.EventType.SUSPICIOUS_LOGIN, AiSecurityEvent.EventType.BRUTE_FORCE_ATTACK);
+
+            if (recentFailedLogins >= MAX_FAILED_LOGINS) {
                 riskScore += 40.0;
-                riskFactors.add("Brute force pattern detected: " + recentFailedLogins.size() + " failed attempts in 15 min");
+                riskFactors.add("Brute force pattern detected: " + recentFailedLogins + " failed attempts in 15 min");
                 createSecurityEvent(AiSecurityEvent.EventType.BRUTE_FORCE_ATTACK,
                         AiSecurityEvent.Channel.WEB, AiSecurityEvent.Severity.CRITICAL,
                         riskScore, entityId, entityType,
@@ -125,26 +123,23 @@ public class AiSecurityService {
         }
 
         // 3. Geo-anomaly detection (impossible travel)
-        List<AiSecurityEvent> recentLogins = eventRepository
-                .findBySourceEntityIdOrderByCreatedAtDesc(entityId).stream()
-                .filter(e -> e.getLocation() != null && !e.getLocation().isEmpty())
-                .filter(e -> e.getCreatedAt().isAfter(LocalDateTime.now().minusHours(2)))
-                .limit(5)
-                .collect(Collectors.toList());
+        long nowMillis = System.currentTimeMillis();
+        List<SecurityEventWindowStore.RecentLocation> recentLogins =
+                windowStore.recentLocations(entityId, nowMillis - 2 * 60 * 60_000L);
 
         if (!recentLogins.isEmpty() && location != null) {
-            for (AiSecurityEvent recent : recentLogins) {
-                if (recent.getLocation() != null && !recent.getLocation().equals(location)) {
-                    long minutesDiff = ChronoUnit.MINUTES.between(recent.getCreatedAt(), LocalDateTime.now());
+            for (SecurityEventWindowStore.RecentLocation recent : recentLogins) {
+                if (!recent.location().equals(location)) {
+                    long minutesDiff = (nowMillis - recent.atMillis()) / 60_000L;
                     if (minutesDiff < 120) { // Different location within 2 hours
                         riskScore += 35.0;
                         riskFactors.add("Impossible travel: location changed from " +
-                                recent.getLocation() + " to " + location + " in " + minutesDiff + " min");
+                                recent.location() + " to " + location + " in " + minutesDiff + " min");
                         createSecurityEvent(AiSecurityEvent.EventType.IMPOSSIBLE_TRAVEL,
                                 AiSecurityEvent.Channel.WEB, AiSecurityEvent.Severity.HIGH,
                                 riskScore, entityId, entityType,
                                 "Impossible travel detected",
-                                "Location changed impossibly fast between " + recent.getLocation() + " and " + location,
+                                "Location changed impossibly fast between " + recent.location() + " and " + location,
                                 clientIp, location, deviceHash, userAgent);
                         break;
                     }
@@ -204,17 +199,12 @@ public class AiSecurityService {
         }
 
         // 2. Rapid-fire transaction detection
-        LocalDateTime windowStart = LocalDateTime.now().minusMinutes(RAPID_TRANSACTION_WINDOW_MINUTES);
-        List<AiSecurityEvent> recentTxEvents = eventRepository
-                .findBySourceEntityIdOrderByCreatedAtDesc(accountNumber).stream()
-                .filter(e -> e.getEventType() == AiSecurityEvent.EventType.ANOMALOUS_TRANSACTION
-                        || e.getEventType() == AiSecurityEvent.EventType.RAPID_FIRE_TRANSACTIONS)
-                .filter(e -> e.getCreatedAt().isAfter(windowStart))
-                .collect(Collectors.toList());
-
-        if (recentTxEvents.size() >= RAPID_TRANSACTION_THRESHOLD) {
+        int recentTxEvents = windowStore.count(accountNumber, RAPID_TRANSACTION_WINDOW_MINUTES, System.currentTimeMillis(),
+                AiSecurityEvent.EventType.ANOMALOUS_TRANSACTION, AiSecurityEvent.EventType.RAPID_FIRE_TRANSACTIONS);
+
+        if (recentTxEvents >= RAPID_TRANSACTION_THRESHOLD) {
             riskScore += 35.0;
-            riskFactors.add("Rapid-fire transactions: " + recentTxEvents.size() + " events in " + RAPID_TRANSACTION_WINDOW_MINUTES + " min");
+            riskFactors.add("Rapid-fire transactions: " + recentTxEvents + " events in " + RAPID_TRANSACTION_WINDOW_MINUTES + " min");
             createSecurityEvent(AiSecurityEvent.EventType.RAPID_FIRE_TRANSACTIONS,
                     channel, AiSecurityEvent.Severity.CRITICAL,
                     riskScore, accountNumber, "USER",
@@ -618,50 +608,14 @@ public class AiSecurityService {
             event.setActionTaken(AiSecurityEvent.ActionTaken.ALERT_SENT);
         }
 
-        eventRepository.save(event);
+        telemetryWriter.submitEvent(event);
+        windowStore.record(sourceId, type, location, System.currentTimeMillis());
     }
 
-    @Transactional
     private void updateThreatScore(String entityId, String entityType, double newScore,
                                     String dimension, List<String> factors) {
-        AiThreatScore score = threatScoreRepository.findByEntityIdAndEntityType(entityId, entityType)
-                .orElse(new AiThreatScore());
-
-        score.setEntityId(entityId);
-        score.setEntityType(entityType);
-        score.setTotalEvents(score.getTotalEvents() + 1);
-
-        // Update dimension-specific scores with exponential moving average
-        double alpha = 0.3; // EMA smoothing factor
-        switch (dimension) {
-            case "login":
-                score.setLoginRiskScore(ema(score.getLoginRiskScore(), newScore, alpha));
-                break;
-            case "transaction":
-                score.setTransactionRiskScore(ema(score.getTransactionRiskScore(), newScore, alpha));
-                break;
-            case "behavioral":
-                score.setBehavioralRiskScore(ema(score.getBehavioralRiskScore(), newScore, alpha));
-                break;
-            default:
-                break;
-        }
-
-        // Weighted composite risk score
-        double composite = score.getLoginRiskScore() * 0.3 +
-                score.getTransactionRiskScore() * 0.35 +
-                score.getBehavioralRiskScore() * 0.2 +
-                score.getDeviceRiskScore() * 0.1 +
-                score.getNetworkRiskScore() * 0.05;
-
-        score.setOverallRiskScore(Math.max(0, Math.min(100, composite)));
-        score.setRiskLevel(AiThreatScore.RiskLevel.valueOf(getRiskLevel(composite)));
-        score.setRiskFactors(String.join("; ", factors));
-        score.setLastActivity(dimension + " analysis");
-        score.setLastEvaluatedAt(LocalDateTime.now());
-        score.setUpdatedAt(LocalDateTime.now());
-
-        threatScoreRepository.save(score);
+        // Coalesced per entity and applied as exponential moving averages by the telemetry writer
+        telemetryWriter.observeThreat(entityId, entityType, dimension, newScore, factors);
     }
 
     private void registerDevice(String entityId, String entityType, String deviceHash,
@@ -715,11 +669,6 @@ public class AiSecurityService {
         return Math.min(0.95, 0.5 + (riskScore / 200.0));
     }
 
-    private double ema(Double oldValue, double newValue, double alpha) {
-        if (oldValue == null || oldValue == 0) return newValue;
-        return alpha * newValue + (1 - alpha) * oldValue;
-    }
-
     private double calculateStdDev(double[] values) {
         if (values.length == 0) return 0;
         double mean = Arrays.stream(values).average().orElse(0);
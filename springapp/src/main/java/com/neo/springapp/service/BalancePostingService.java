@@ -0,0 +1,202 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Account;
+import com.neo.springapp.model.CurrentAccount;
+import com.neo.springapp.model.Paise;
+import com.neo.springapp.model.SalaryAccount;
+import com.neo.springapp.repository.AccountRepository;
+import com.neo.springapp.repository.CurrentAccountRepository;
+import com.neo.springapp.repository.SalaryAccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Single posting path for balances held in the accounts, current_accounts and
+ * salary_accounts tables.
+ *
+ * Every debit/credit is one conditional UPDATE
+ * ({@code balance = balance - :amt WHERE balance >= :amt}) followed by a scalar
+ * read of the new balance while the row lock is still held, so concurrent
+ * postings to the same account can never lose an update. Amounts are rounded to
+ * the paisa before posting and the balance columns are DECIMAL(19,2), so the
+ * stored balance stays exact; the {@code *Paise} variants let callers that already
+ * hold paise post and read balances as primitives.
+ *
+ * Callers must not save a copy of the account entity loaded before the posting:
+ * that copy still carries the old balance and would overwrite the result.
+ */
+@Service
+@Slf4j
+public class BalancePostingService {
+
+    public static final String SAVINGS = "SAVINGS";
+    public static final String CURRENT = "CURRENT";
+    public static final String SALARY = "SALARY";
+
+    /** Returned by the paise postings when nothing was posted. */
+    public static final long NOT_POSTED = Long.MIN_VALUE;
+
+    private final AccountRepository accountRepository;
+    private final CurrentAccountRepository currentAccountRepository;
+    private final SalaryAccountRepository salaryAccountRepository;
+    private final AccountProfileService accountProfileService;
+
+    public BalancePostingService(AccountRepository accountRepository,
+                                 CurrentAccountRepository currentAccountRepository,
+                                 SalaryAccountRepository salaryAccountRepository,
+                                 AccountProfileService accountProfileService) {
+        this.accountRepository = accountRepository;
+        this.currentAccountRepository = currentAccountRepository;
+        this.salaryAccountRepository = salaryAccountRepository;
+        this.accountProfileService = accountProfileService;
+    }
+
+    /**
+     * Debit an account if it holds enough funds.
+     * Savings accounts must also be ACTIVE; an inactive savings account is rejected with an exception.
+     *
+     * @param accountType SAVINGS, CURRENT or SALARY
+     * @return the new balance, or null if the account does not exist or has insufficient funds
+     */
+    @Transactional
+    public Double debit(String accountType, String accountNumber, double amount) {
+        validateAmount(amount);
+        long balance = debitPaise(accountType, accountNumber, Paise.ofRupees(amount));
+        return balance == NOT_POSTED ? null : Paise.toRupees(balance);
+    }
+
+    /**
+     * {@link #debit} in paise, without boxing.
+     *
+     * @return the new balance in paise, or {@link #NOT_POSTED} if the account does not exist or has insufficient funds
+     */
+    @Transactional
+    public long debitPaise(String accountType, String accountNumber, long amountPaise) {
+        validateAmount(amountPaise);
+        double amount = Paise.toRupees(amountPaise);
+        LocalDateTime now = LocalDateTime.now();
+        int updated = switch (accountType) {
+            case SAVINGS -> accountRepository.debitIfSufficient(accountNumber, amount, now);
+            case CURRENT -> currentAccountRepository.debitIfSufficient(accountNumber, amount, now);
+            case SALARY -> salaryAccountRepository.debitIfSufficient(accountNumber, amount, now);
+            default -> throw new IllegalArgumentException("Unsupported account type: " + accountType);
+        };
+        if (updated == 0) {
+            rejectInactiveSavings(accountType, accountNumber, "withdrawal");
+            log.debug("Debit of {} rejected for {} account {}: not found or insufficient funds",
+                    Paise.format(amountPaise), accountType, accountNumber);
+            return NOT_POSTED;
+        }
+        if (SAVINGS.equals(accountType)) {
+            // Applied after commit; feeds the fraud velocity counters, which only score savings senders
+            accountProfileService.recordDebitPaise(accountNumber, amountPaise);
+        }
+        return balancePaise(accountType, accountNumber);
+    }
+
+    /**
+     * Credit an account. Savings accounts must be ACTIVE; an inactive savings account is rejected with an exception.
+     *
+     * @param accountType SAVINGS, CURRENT or SALARY
+     * @return the new balance, or null if the account does not exist
+     */
+    @Transactional
+    public Double credit(String accountType, String accountNumber, double amount) {
+        validateAmount(amount);
+        long balance = creditPaise(accountType, accountNumber, Paise.ofRupees(amount));
+        return balance == NOT_POSTED ? null : Paise.toRupees(balance);
+    }
+
+    /**
+     * {@link #credit} in paise, without boxing.
+     *
+     * @return the new balance in paise, or {@link #NOT_POSTED} if the account does not exist
+     */
+    @Transactional
+    public long creditPaise(String accountType, String accountNumber, long amountPaise) {
+        validateAmount(amountPaise);
+        double amount = Paise.toRupees(amountPaise);
+        LocalDateTime now = LocalDateTime.now();
+        int updated = switch (accountType) {
+            case SAVINGS -> accountRepository.creditBalance(accountNumber, amount, now);
+            case CURRENT -> currentAccountRepository.creditBalance(accountNumber, amount, now);
+            case SALARY -> salaryAccountRepository.creditBalance(accountNumber, amount, now);
+            default -> throw new IllegalArgumentException("Unsupported account type: " + accountType);
+        };
+        if (updated == 0) {
+            rejectInactiveSavings(accountType, accountNumber, "deposit");
+            log.debug("Credit of {} rejected for {} account {}: not found", Paise.format(amountPaise), accountType, accountNumber);
+            return NOT_POSTED;
+        }
+        return balancePaise(accountType, accountNumber);
+    }
+
+    /**
+     * Find the table that holds an account: current first, then savings, then salary.
+     *
+     * @return {account type, holder name}, or null if no table has the account
+     */
+    @Transactional(readOnly = true)
+    public String[] resolveAccount(String accountNumber) {
+        Optional<CurrentAccount> current = currentAccountRepository.findByAccountNumber(accountNumber);
+        if (current.isPresent()) {
+            return new String[]{CURRENT, current.get().getOwnerName()};
+        }
+        Account savings = accountRepository.findByAccountNumber(accountNumber);
+        if (savings != null) {
+            return new String[]{SAVINGS, savings.getName()};
+        }
+        SalaryAccount salary = salaryAccountRepository.findByAccountNumber(accountNumber);
+        if (salary != null) {
+            return new String[]{SALARY, salary.getEmployeeName()};
+        }
+        return null;
+    }
+
+    /**
+     * Read the balance without loading the entity.
+     */
+    @Transactional(readOnly = true)
+    public Double currentBalance(String accountType, String accountNumber) {
+        return switch (accountType) {
+            case SAVINGS -> accountRepository.findBalanceByAccountNumber(accountNumber);
+            case CURRENT -> currentAccountRepository.findBalanceByAccountNumber(accountNumber);
+            case SALARY -> salaryAccountRepository.findBalanceByAccountNumber(accountNumber);
+            default -> throw new IllegalArgumentException("Unsupported account type: " + accountType);
+        };
+    }
+
+    // The balance column is DECIMAL(19,2), so the value read back is already a whole number of paise
+    private long balancePaise(String accountType, String accountNumber) {
+        Double balance = currentBalance(accountType, accountNumber);
+        return balance == null ? NOT_POSTED : Paise.ofRupees(balance.doubleValue());
+    }
+
+    private void validateAmount(long amountPaise) {
+        if (amountPaise < 0) {
+            throw new IllegalArgumentException("Posting amount must be non-negative: " + Paise.format(amountPaise));
+        }
+    }
+
+    private void validateAmount(double amount) {
+        if (!(amount >= 0) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Posting amount must be a non-negative number: " + amount);
+        }
+    }
+
+    // Only runs on the rejection path, so a successful posting never loads the account
+    private void rejectInactiveSavings(String accountType, String accountNumber, String operation) {
+        if (!SAVINGS.equals(accountType)) {
+            return;
+        }
+        String status = accountRepository.findStatusByAccountNumber(accountNumber);
+        if (status != null && !"ACTIVE".equalsIgnoreCase(status)) {
+            throw new RuntimeException("Cannot perform " + operation + ": account is not active. Account number: "
+                    + accountNumber + " | status=" + status);
+        }
+    }
+}
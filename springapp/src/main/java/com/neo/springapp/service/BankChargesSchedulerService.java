@@ -1,16 +1,19 @@
 package com.neo.springapp.service;
 
+import com.neo.springapp.model.ChargeBatchRun;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Map;
 
 /**
  * Scheduled run for automatic bank charges:
  * - 1st of every month: monthly bank charges (Rs 496) and debit card charges (Rs 596 every 6 months).
+ * - Periodically: resume runs that crashed or left failed chunks (see {@link ChargeBatchEngine}).
+ * No surrounding transaction: each chunk of accounts commits on its own.
  */
 @Service
 public class BankChargesSchedulerService {
@@ -18,8 +21,10 @@ public class BankChargesSchedulerService {
     @Autowired
     private BankChargesService bankChargesService;
 
+    @Autowired
+    private ChargeBatchEngine chargeBatchEngine;
+
     @Scheduled(cron = "0 0 3 1 * ?")
-    @Transactional
     public void processMonthlyAndDebitCardCharges() {
         try {
             System.out.println("🔄 Starting automatic bank charges at " + LocalDate.now());
@@ -33,4 +38,25 @@ public class BankChargesSchedulerService {
             e.printStackTrace();
         }
     }
+
+    @Scheduled(initialDelayString = "${app.batch.charges.resume-initial-delay-ms:120000}",
+               fixedDelayString = "${app.batch.charges.resume-interval-ms:900000}")
+    public void resumeUnfinishedCharges() {
+        for (ChargeBatchRun run : chargeBatchEngine.findResumableRuns()) {
+            try {
+                YearMonth period = YearMonth.parse(run.getPeriod());
+                Map<String, Object> result;
+                if (BankChargesService.JOB_MONTHLY_BANK_CHARGES.equals(run.getJobName())) {
+                    result = bankChargesService.processMonthlyBankCharges(period);
+                } else if (BankChargesService.JOB_DEBIT_CARD_CHARGES.equals(run.getJobName())) {
+                    result = bankChargesService.processDebitCardChargesEvery6Months(period);
+                } else {
+                    continue;
+                }
+                System.out.println("🔁 Resumed " + run.getRunKey() + ": " + result.get("message"));
+            } catch (Exception e) {
+                System.err.println("❌ Error resuming " + run.getRunKey() + ": " + e.getMessage());
+            }
+        }
+    }
 }
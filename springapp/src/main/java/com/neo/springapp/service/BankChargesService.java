@@ -1,18 +1,17 @@
 package com.neo.springapp.service;
 
 import com.neo.springapp.model.Account;
+import com.neo.springapp.model.AccountLastCharge;
 import com.neo.springapp.model.Transaction;
-import com.neo.springapp.repository.AccountRepository;
-import com.neo.springapp.repository.CardRepository;
-import com.neo.springapp.repository.TransactionRepository;
+import com.neo.springapp.repository.AccountLastChargeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.time.YearMonth;
+import java.util.function.Supplier;
 
 /**
  * Automatic bank charges: monthly bank charges, loan charges, debit card charges (6 months), CIBIL at loan apply, KYC verification.
@@ -36,16 +35,19 @@ public class BankChargesService {
     private static final String MERCHANT_CIBIL = "NeoBank - CIBIL Report Charge";
     private static final String MERCHANT_KYC = "NeoBank - KYC Verification Charge";
 
+    public static final String JOB_MONTHLY_BANK_CHARGES = "MONTHLY_BANK_CHARGES";
+    public static final String JOB_DEBIT_CARD_CHARGES = "DEBIT_CARD_CHARGES";
+
     @Autowired
     private AccountService accountService;
     @Autowired
     private TransactionService transactionService;
     @Autowired
-    private AccountRepository accountRepository;
+    private AccountLastChargeRepository accountLastChargeRepository;
     @Autowired
-    private TransactionRepository transactionRepository;
+    private HouseAccountLedgerService houseAccountLedgerService;
     @Autowired
-    private CardRepository cardRepository;
+    private ChargeBatchEngine chargeBatchEngine;
 
     @Autowired(required = false)
     private BranchAccountService branchAccountService;
@@ -72,12 +74,24 @@ public class BankChargesService {
             System.err.println("Branch/NeoBank account " + depositAccount + " not found. Charge not applied.");
             return false;
         }
+        // Sharded credit: the house account row is only touched when the shards are folded
+        return charge(userAccount, depositAccount, amount, merchant, description, userName,
+            () -> houseAccountLedgerService.credit(depositAccount, amount, accountNumber));
+    }
+
+    /**
+     * Debit an already loaded account and record both legs; {@code houseCredit} credits the deposit account
+     * once the debit succeeded and returns the balance shown on the bank's credit entry.
+     */
+    private boolean charge(Account userAccount, String depositAccount, double amount, String merchant,
+                           String description, String userName, Supplier<Double> houseCredit) {
+        String accountNumber = userAccount.getAccountNumber();
         Double newBalance = accountService.debitBalance(accountNumber, amount);
         if (newBalance == null) {
             System.err.println("Insufficient balance or debit failed for " + accountNumber + " amount " + amount);
             return false;
         }
-        accountService.creditBalance(depositAccount, amount);
+        Double bankBalance = houseCredit.get();
 
         String name = userName != null && !userName.trim().isEmpty() ? userName : userAccount.getName();
 
@@ -93,7 +107,6 @@ public class BankChargesService {
         debitTxn.setStatus("Completed");
         transactionService.saveTransaction(debitTxn);
 
-        Double bankBalance = accountService.getBalanceByAccountNumber(depositAccount);
         Transaction creditTxn = new Transaction();
         creditTxn.setMerchant(merchant + " - " + accountNumber);
         creditTxn.setAmount(amount);
@@ -110,6 +123,69 @@ public class BankChargesService {
         return true;
     }
 
+    /**
+     * One chunk of a periodic charge job. Accounts come loaded from the engine; their house credits are
+     * collected in memory and posted once per shard when the chunk completes, so parallel chunks do not
+     * hold house shard locks for the length of a chunk.
+     */
+    private final class PeriodicChargeChunk implements ChargeBatchEngine.ChunkStep {
+        private final String depositAccount;
+        private final double amount;
+        private final String merchant;
+        private final String description;
+        private final String lastChargeType;
+        private final HouseAccountLedgerService.PendingCredits houseCredits = houseAccountLedgerService.newPendingCredits();
+        private Boolean depositAccountExists;
+        private Double houseBalance;
+
+        PeriodicChargeChunk(String depositAccount, double amount, String merchant, String description, String lastChargeType) {
+            this.depositAccount = depositAccount;
+            this.amount = amount;
+            this.merchant = merchant;
+            this.description = description;
+            this.lastChargeType = lastChargeType;
+        }
+
+        @Override
+        public ChargeBatchEngine.Outcome apply(Account acc) {
+            String an = acc.getAccountNumber();
+            if (an == null || depositAccount.equals(an)) return ChargeBatchEngine.Outcome.SKIPPED;
+            if (depositAccountExists == null) {
+                depositAccountExists = accountService.getAccountByNumber(depositAccount) != null;
+                if (!depositAccountExists) {
+                    System.err.println("Branch/NeoBank account " + depositAccount + " not found. Charge not applied.");
+                }
+            }
+            if (!depositAccountExists) return ChargeBatchEngine.Outcome.FAILED;
+            boolean ok = charge(acc, depositAccount, amount, merchant, description, acc.getName(), () -> {
+                if (houseBalance == null) {
+                    houseBalance = houseAccountLedgerService.getEffectiveBalance(depositAccount);
+                }
+                houseCredits.add(depositAccount, amount, an);
+                houseBalance = houseBalance != null ? houseBalance + amount : null;
+                return houseBalance;
+            });
+            if (!ok) return ChargeBatchEngine.Outcome.FAILED;
+            if (lastChargeType != null) {
+                recordLastCharge(an, lastChargeType);
+            }
+            return ChargeBatchEngine.Outcome.SUCCESS;
+        }
+
+        @Override
+        public void complete() {
+            houseAccountLedgerService.post(houseCredits);
+        }
+    }
+
+    /** Remember when a periodic charge was applied; runs inside the charge's transaction. */
+    private void recordLastCharge(String accountNumber, String chargeType) {
+        LocalDateTime now = LocalDateTime.now();
+        if (accountLastChargeRepository.updateLastChargedAt(accountNumber, chargeType, now) == 0) {
+            accountLastChargeRepository.save(new AccountLastCharge(accountNumber, chargeType, now));
+        }
+    }
+
     /** CIBIL charge when user applies for a loan - Rs 118 every time. */
     public boolean applyCibilChargeAtLoanApply(String accountNumber, String userName) {
         return applyCharge(
@@ -144,52 +220,46 @@ public class BankChargesService {
     }
 
     /** Monthly bank charges - Rs 496 per active account. Run on 1st of every month. */
-    @Transactional
     public java.util.Map<String, Object> processMonthlyBankCharges() {
-        List<Account> active = accountRepository.findByStatus("ACTIVE");
-        int success = 0, failed = 0;
-        for (Account acc : active) {
-            String an = acc.getAccountNumber();
-            if (an == null || getDepositAccountNumber().equals(an)) continue;
-            boolean ok = applyCharge(an, MONTHLY_BANK_CHARGE_RS, MERCHANT_BANK_CHARGES,
-                "Monthly bank charges - Rs " + (int) MONTHLY_BANK_CHARGE_RS, acc.getName());
-            if (ok) success++; else failed++;
+        return processMonthlyBankCharges(YearMonth.now());
+    }
+
+    /**
+     * Monthly bank charges for a period, chunked and resumable: accounts already charged for
+     * this period (by an earlier or crashed run) are not charged again.
+     */
+    public java.util.Map<String, Object> processMonthlyBankCharges(YearMonth period) {
+        String depositAccount = getDepositAccountNumber();
+        java.util.Map<String, Object> result = chargeBatchEngine.runChunked(JOB_MONTHLY_BANK_CHARGES, period,
+            () -> new PeriodicChargeChunk(depositAccount, MONTHLY_BANK_CHARGE_RS, MERCHANT_BANK_CHARGES,
+                "Monthly bank charges - Rs " + (int) MONTHLY_BANK_CHARGE_RS, null));
+        if (!result.containsKey("message")) {
+            result.put("message", "Monthly bank charges: " + result.get("successCount") + " applied, "
+                + result.get("failureCount") + " failed (" + result.get("status") + ").");
         }
-        java.util.Map<String, Object> result = new java.util.HashMap<>();
-        result.put("success", true);
-        result.put("successCount", success);
-        result.put("failureCount", failed);
-        result.put("message", "Monthly bank charges: " + success + " applied, " + failed + " failed.");
         return result;
     }
 
     /** Debit card charges Rs 596 every 6 months for accounts that have a debit card. */
-    @Transactional
     public java.util.Map<String, Object> processDebitCardChargesEvery6Months() {
-        List<Account> active = accountRepository.findByStatus("ACTIVE");
-        int success = 0, failed = 0, skipped = 0;
-        for (Account acc : active) {
-            String an = acc.getAccountNumber();
-            if (an == null || getDepositAccountNumber().equals(an)) continue;
-            List<com.neo.springapp.model.Card> cards = cardRepository.findByAccountNumber(an);
-            boolean hasDebit = cards.stream().anyMatch(c -> "Debit".equalsIgnoreCase(c.getCardType()));
-            if (!hasDebit) { skipped++; continue; }
-            List<Transaction> lastCharge = transactionRepository.findByAccountNumberAndDescriptionContainingOrderByDateDesc(
-                an, "Debit Card Charges", PageRequest.of(0, 1));
-            if (!lastCharge.isEmpty()) {
-                long months = ChronoUnit.MONTHS.between(lastCharge.get(0).getDate(), LocalDateTime.now());
-                if (months < 6) { skipped++; continue; }
-            }
-            boolean ok = applyCharge(an, DEBIT_CARD_CHARGE_6MONTHS_RS, MERCHANT_DEBIT_CARD,
-                "Debit card charges (6 months) - Rs " + (int) DEBIT_CARD_CHARGE_6MONTHS_RS, acc.getName());
-            if (ok) success++; else failed++;
+        return processDebitCardChargesEvery6Months(YearMonth.now());
+    }
+
+    /** Debit card charges for a period, chunked and resumable like {@link #processMonthlyBankCharges(YearMonth)}. */
+    public java.util.Map<String, Object> processDebitCardChargesEvery6Months(YearMonth period) {
+        String depositAccount = getDepositAccountNumber();
+        // Eligibility is resolved set-based per page: debit card holders not charged in the last 6 months
+        LocalDateTime cutoff = LocalDateTime.now().minusMonths(6);
+        java.util.Map<String, Object> result = chargeBatchEngine.runChunked(JOB_DEBIT_CARD_CHARGES, period,
+            (afterId, limit) -> accountLastChargeRepository.findDebitCardHolderIdsDueAfter(
+                AccountLastCharge.DEBIT_CARD, cutoff, afterId, PageRequest.of(0, limit)),
+            () -> new PeriodicChargeChunk(depositAccount, DEBIT_CARD_CHARGE_6MONTHS_RS, MERCHANT_DEBIT_CARD,
+                "Debit card charges (6 months) - Rs " + (int) DEBIT_CARD_CHARGE_6MONTHS_RS, AccountLastCharge.DEBIT_CARD));
+        if (!result.containsKey("message")) {
+            result.put("message", "Debit card charges: " + result.get("successCount") + " applied, "
+                + result.get("failureCount") + " failed, " + result.get("skippedCount") + " skipped ("
+                + result.get("status") + ").");
         }
-        java.util.Map<String, Object> result = new java.util.HashMap<>();
-        result.put("success", true);
-        result.put("successCount", success);
-        result.put("failureCount", failed);
-        result.put("skippedCount", skipped);
-        result.put("message", "Debit card charges: " + success + " applied, " + failed + " failed, " + skipped + " skipped.");
         return result;
     }
 }
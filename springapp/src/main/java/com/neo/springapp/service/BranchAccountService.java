@@ -43,6 +43,8 @@ public class BranchAccountService {
     private AccountService accountService;
     @Autowired
     private TransactionRepository transactionRepository;
+    @Autowired
+    private HouseAccountLedgerService houseAccountLedgerService;
 
     /** Get the account number to use for depositing charges/interest. Falls back to NEOBANK000001 if not set. */
     public String getDepositAccountNumber() {
@@ -128,7 +130,7 @@ public class BranchAccountService {
         Map<String, Object> summary = new HashMap<>();
         BranchAccount b = getBranchAccount();
         String depositAccountNumber = getDepositAccountNumber();
-        Double balance = accountService.getBalanceByAccountNumber(depositAccountNumber);
+        Double balance = houseAccountLedgerService.getEffectiveBalance(depositAccountNumber);
         summary.put("accountNumber", depositAccountNumber);
         summary.put("accountName", b != null && b.getAccountName() != null ? b.getAccountName() : "NeoBank Branch");
         summary.put("ifscCode", b != null ? b.getIfscCode() : null);
@@ -0,0 +1,465 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Account;
+import com.neo.springapp.model.ChargeBatchChunk;
+import com.neo.springapp.model.ChargeBatchRun;
+import com.neo.springapp.repository.AccountRepository;
+import com.neo.springapp.repository.ChargeBatchChunkRepository;
+import com.neo.springapp.repository.ChargeBatchRunRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chunked, resumable batch runner for per-account charge jobs (monthly bank charges, debit card charges).
+ *
+ * Account ids (all ACTIVE accounts, or a job's own eligibility query) are streamed by keyset pagination
+ * ({@code app.batch.charges.chunk-size} per page) and each page is charged as one chunk on a bounded pool of {@code app.batch.charges.workers} threads. A chunk
+ * commits its charges together with a {@link ChargeBatchChunk} checkpoint, so after a crash or a failed
+ * chunk the next attempt for the same period skips every account that was already charged. A chunk that
+ * fails is retried one account per transaction; accounts that still fail leave the run INCOMPLETE, and
+ * {@link #findResumableRuns()} hands it back to the scheduler.
+ *
+ * Each worker holds one pooled connection for the length of a chunk, and the reader briefly takes
+ * another per page, so keep the worker count below the connection pool size.
+ */
+@Service
+@Slf4j
+public class ChargeBatchEngine {
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_INCOMPLETE = "INCOMPLETE";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    public enum Outcome { SUCCESS, FAILED, SKIPPED }
+
+    /** Charges one account inside the chunk transaction. Throwing rolls back the whole chunk. */
+    @FunctionalInterface
+    public interface AccountStep {
+        Outcome apply(Account account);
+    }
+
+    /**
+     * Charges the accounts of one chunk; {@link #complete()} runs after the last account and before the
+     * checkpoint, still inside the chunk transaction, for work collected over the chunk.
+     */
+    public interface ChunkStep extends AccountStep {
+        void complete();
+    }
+
+    /** Creates a fresh {@link ChunkStep} for every chunk transaction (and every per-account retry). */
+    @FunctionalInterface
+    public interface ChunkStepFactory {
+        ChunkStep newChunk();
+    }
+
+    /** Keyset page of account ids to charge: ids greater than {@code afterId}, ascending, at most {@code limit}. */
+    @FunctionalInterface
+    public interface AccountIdSource {
+        List<Long> nextIds(Long afterId, int limit);
+    }
+
+    private static final int LOG_EVERY_CHUNKS = 20;
+
+    private final AccountRepository accountRepository;
+    private final ChargeBatchRunRepository runRepository;
+    private final ChargeBatchChunkRepository chunkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int workers;
+    private final Duration staleAfter;
+    private final int maxAttempts;
+    private final String nodeId;
+
+    private final Map<String, RunProgress> progress = new ConcurrentHashMap<>();
+
+    public ChargeBatchEngine(AccountRepository accountRepository,
+                             ChargeBatchRunRepository runRepository,
+                             ChargeBatchChunkRepository chunkRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.batch.charges.chunk-size:200}") int chunkSize,
+                             @Value("${app.batch.charges.workers:2}") int workers,
+                             @Value("${app.batch.charges.stale-after-ms:600000}") long staleAfterMs,
+                             @Value("${app.batch.charges.max-attempts:5}") int maxAttempts) {
+        this.accountRepository = accountRepository;
+        this.runRepository = runRepository;
+        this.chunkRepository = chunkRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.workers = Math.max(1, workers);
+        this.staleAfter = Duration.ofMillis(staleAfterMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.nodeId = resolveNodeId();
+    }
+
+    /**
+     * Run (or resume) a job for a period over all ACTIVE accounts.
+     *
+     * @return counts for the whole run (including earlier attempts) plus this attempt's throughput
+     */
+    public Map<String, Object> run(String jobName, YearMonth period, AccountStep step) {
+        return run(jobName, period,
+                (afterId, limit) -> accountRepository.findIdsByStatusAfter("ACTIVE", afterId, PageRequest.of(0, limit)),
+                step);
+    }
+
+    /**
+     * Run (or resume) a job over the accounts returned by {@code source}, e.g. only those eligible for a charge.
+     */
+    public Map<String, Object> run(String jobName, YearMonth period, AccountIdSource source, AccountStep step) {
+        return runChunked(jobName, period, source, () -> new ChunkStep() {
+            @Override
+            public Outcome apply(Account account) {
+                return step.apply(account);
+            }
+
+            @Override
+            public void complete() {
+            }
+        });
+    }
+
+    /** Run a job with per-chunk state over all ACTIVE accounts. */
+    public Map<String, Object> runChunked(String jobName, YearMonth period, ChunkStepFactory steps) {
+        return runChunked(jobName, period,
+                (afterId, limit) -> accountRepository.findIdsByStatusAfter("ACTIVE", afterId, PageRequest.of(0, limit)),
+                steps);
+    }
+
+    /** Run a job whose step keeps per-chunk state, e.g. credits posted once per chunk. */
+    public Map<String, Object> runChunked(String jobName, YearMonth period, AccountIdSource source, ChunkStepFactory steps) {
+        String runKey = jobName + ":" + period;
+        if (!claim(runKey, jobName, period)) {
+            return notClaimedResult(runKey);
+        }
+
+        TreeMap<Long, Long> done = committedRanges(runKey);
+        RunProgress run = new RunProgress(runKey);
+        progress.put(runKey, run);
+        log.info("Charge batch {} started on {} ({} ranges already committed)", runKey, nodeId, done.size());
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "charge-batch-" + jobName.toLowerCase());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // At most two chunks queued per worker, so the reader never runs far ahead of the charges
+        Semaphore inFlight = new Semaphore(workers * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            long afterId = 0L;
+            while (true) {
+                List<Long> ids = source.nextIds(afterId, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                afterId = ids.get(ids.size() - 1);
+                List<Long> pending = new ArrayList<>(ids.size());
+                for (Long id : ids) {
+                    if (!isCommitted(done, id)) {
+                        pending.add(id);
+                    }
+                }
+                if (pending.isEmpty()) {
+                    continue;
+                }
+                inFlight.acquire();
+                futures.add(pool.submit(() -> {
+                    try {
+                        processChunk(runKey, pending, steps, run);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.chunksFailed.incrementAndGet();
+        } catch (Exception e) {
+            log.error("Charge batch {} aborted", runKey, e);
+            run.chunksFailed.incrementAndGet();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return finish(runKey, run);
+    }
+
+    /** Runs that crashed, stopped heartbeating or left failed chunks, and still have attempts left. */
+    public List<ChargeBatchRun> findResumableRuns() {
+        return runRepository.findResumable(LocalDateTime.now().minus(staleAfter), maxAttempts);
+    }
+
+    /**
+     * Live progress of runs started on this node, and the latest persisted runs.
+     */
+    public Map<String, Object> getProgress() {
+        List<Map<String, Object>> live = new ArrayList<>();
+        for (RunProgress run : progress.values()) {
+            live.add(run.toMap());
+        }
+        List<Map<String, Object>> recent = new ArrayList<>();
+        for (ChargeBatchRun run : runRepository.findTop20ByOrderByCreatedAtDesc()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("runKey", run.getRunKey());
+            entry.put("status", run.getStatus());
+            entry.put("attempts", run.getAttempts());
+            entry.put("processed", run.getProcessedCount());
+            entry.put("success", run.getSuccessCount());
+            entry.put("failed", run.getFailedCount());
+            entry.put("skipped", run.getSkippedCount());
+            entry.put("heartbeatAt", run.getHeartbeatAt());
+            entry.put("completedAt", run.getCompletedAt());
+            recent.add(entry);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("node", nodeId);
+        result.put("chunkSize", chunkSize);
+        result.put("workers", workers);
+        result.put("live", live);
+        result.put("runs", recent);
+        return result;
+    }
+
+    private boolean claim(String runKey, String jobName, YearMonth period) {
+        if (runRepository.findByRunKey(runKey) == null) {
+            try {
+                runRepository.save(new ChargeBatchRun(runKey, jobName, period.toString()));
+            } catch (DataIntegrityViolationException createdConcurrently) {
+                log.debug("Charge batch run {} was created concurrently", runKey);
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status ->
+                runRepository.claim(runKey, nodeId, now, now.minus(staleAfter), maxAttempts));
+        return claimed != null && claimed == 1;
+    }
+
+    private Map<String, Object> notClaimedResult(String runKey) {
+        ChargeBatchRun existing = runRepository.findByRunKey(runKey);
+        Map<String, Object> result = runResult(existing);
+        if (existing != null && STATUS_COMPLETED.equals(existing.getStatus())) {
+            result.put("success", true);
+            result.put("message", runKey + " already completed: " + existing.getSuccessCount() + " applied, "
+                    + existing.getFailedCount() + " failed.");
+        } else {
+            result.put("success", false);
+            result.put("message", runKey + " is running on " + (existing != null ? existing.getOwner() : "another node")
+                    + " or has no attempts left.");
+        }
+        return result;
+    }
+
+    private void processChunk(String runKey, List<Long> ids, ChunkStepFactory steps, RunProgress run) {
+        try {
+            run.add(transactionTemplate.execute(status -> chargeChunk(runKey, ids, steps.newChunk())));
+        } catch (Exception chunkError) {
+            log.warn("Charge batch {} chunk [{}..{}] failed, retrying per account: {}",
+                    runKey, ids.get(0), ids.get(ids.size() - 1), chunkError.getMessage());
+            boolean allRecovered = true;
+            for (Long id : ids) {
+                try {
+                    run.add(transactionTemplate.execute(status -> chargeChunk(runKey, List.of(id), steps.newChunk())));
+                } catch (Exception accountError) {
+                    allRecovered = false;
+                    log.error("Charge batch {} failed for account id {}: {}", runKey, id, accountError.getMessage());
+                }
+            }
+            if (!allRecovered) {
+                run.chunksFailed.incrementAndGet();
+            }
+        }
+        int completed = run.chunksCompleted.get();
+        if (completed > 0 && completed % LOG_EVERY_CHUNKS == 0) {
+            log.info("Charge batch {}: {} accounts in {} chunks, {}/s", runKey, run.processed.get(), completed,
+                    String.format("%.1f", run.accountsPerSecond()));
+        }
+    }
+
+    private ChargeBatchChunk chargeChunk(String runKey, List<Long> ids, ChunkStep step) {
+        List<Account> accounts = accountRepository.findAllById(ids);
+        accounts.sort(Comparator.comparing(Account::getId));
+        ChargeBatchChunk chunk = new ChargeBatchChunk(runKey, ids.get(0), ids.get(ids.size() - 1));
+        int success = 0, failed = 0, skipped = 0;
+        for (Account account : accounts) {
+            switch (step.apply(account)) {
+                case SUCCESS -> success++;
+                case FAILED -> failed++;
+                default -> skipped++;
+            }
+        }
+        step.complete();
+        chunk.setProcessedCount(accounts.size());
+        chunk.setSuccessCount(success);
+        chunk.setFailedCount(failed);
+        chunk.setSkippedCount(skipped);
+        // Unique (runKey, firstAccountId): a chunk committed twice would fail here and roll its charges back
+        chunk = chunkRepository.save(chunk);
+        runRepository.heartbeat(runKey, nodeId, LocalDateTime.now());
+        return chunk;
+    }
+
+    private Map<String, Object> finish(String runKey, RunProgress run) {
+        long processed = 0, success = 0, failed = 0, skipped = 0;
+        for (ChargeBatchChunk chunk : chunkRepository.findByRunKeyOrderByFirstAccountId(runKey)) {
+            processed += chunk.getProcessedCount();
+            success += chunk.getSuccessCount();
+            failed += chunk.getFailedCount();
+            skipped += chunk.getSkippedCount();
+        }
+        ChargeBatchRun entity = runRepository.findByRunKey(runKey);
+        entity.setStatus(run.chunksFailed.get() == 0 ? STATUS_COMPLETED : STATUS_INCOMPLETE);
+        entity.setProcessedCount(processed);
+        entity.setSuccessCount(success);
+        entity.setFailedCount(failed);
+        entity.setSkippedCount(skipped);
+        entity.setHeartbeatAt(LocalDateTime.now());
+        if (STATUS_COMPLETED.equals(entity.getStatus())) {
+            entity.setCompletedAt(LocalDateTime.now());
+        }
+        entity = runRepository.save(entity);
+        run.status = entity.getStatus();
+        run.finishedAtNanos = System.nanoTime();
+
+        Map<String, Object> result = runResult(entity);
+        result.put("success", true);
+        result.put("chunksFailed", run.chunksFailed.get());
+        result.put("accountsPerSecond", Math.round(run.accountsPerSecond() * 10) / 10.0);
+        result.put("elapsedMs", run.elapsedMillis());
+        log.info("Charge batch {} {}: {} applied, {} failed, {} skipped in {} ms ({}/s this attempt)", runKey,
+                entity.getStatus(), success, failed, skipped, run.elapsedMillis(),
+                String.format("%.1f", run.accountsPerSecond()));
+        return result;
+    }
+
+    private Map<String, Object> runResult(ChargeBatchRun run) {
+        Map<String, Object> result = new HashMap<>();
+        if (run == null) {
+            return result;
+        }
+        result.put("runKey", run.getRunKey());
+        result.put("status", run.getStatus());
+        result.put("attempts", run.getAttempts());
+        result.put("successCount", run.getSuccessCount());
+        result.put("failureCount", run.getFailedCount());
+        result.put("skippedCount", run.getSkippedCount());
+        result.put("processedCount", run.getProcessedCount());
+        return result;
+    }
+
+    // Chunk ranges may nest (a per-account retry inside a later chunk), so merge them before lookups
+    private TreeMap<Long, Long> committedRanges(String runKey) {
+        TreeMap<Long, Long> merged = new TreeMap<>();
+        Long from = null, to = null;
+        for (ChargeBatchChunk chunk : chunkRepository.findByRunKeyOrderByFirstAccountId(runKey)) {
+            if (from != null && chunk.getFirstAccountId() <= to) {
+                to = Math.max(to, chunk.getLastAccountId());
+                continue;
+            }
+            if (from != null) {
+                merged.put(from, to);
+            }
+            from = chunk.getFirstAccountId();
+            to = chunk.getLastAccountId();
+        }
+        if (from != null) {
+            merged.put(from, to);
+        }
+        return merged;
+    }
+
+    private static boolean isCommitted(TreeMap<Long, Long> done, long id) {
+        Map.Entry<Long, Long> range = done.floorEntry(id);
+        return range != null && id <= range.getValue();
+    }
+
+    private static String resolveNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /** In-memory counters for one attempt; the chunk table is the source of truth across attempts. */
+    private static final class RunProgress {
+        final String runKey;
+        final long startedAtNanos = System.nanoTime();
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong success = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicInteger chunksCompleted = new AtomicInteger();
+        final AtomicInteger chunksFailed = new AtomicInteger();
+        volatile String status = STATUS_RUNNING;
+        volatile long finishedAtNanos;
+
+        RunProgress(String runKey) {
+            this.runKey = runKey;
+        }
+
+        void add(ChargeBatchChunk chunk) {
+            processed.addAndGet(chunk.getProcessedCount());
+            success.addAndGet(chunk.getSuccessCount());
+            failed.addAndGet(chunk.getFailedCount());
+            skipped.addAndGet(chunk.getSkippedCount());
+            chunksCompleted.incrementAndGet();
+        }
+
+        long elapsedMillis() {
+            long end = finishedAtNanos != 0 ? finishedAtNanos : System.nanoTime();
+            return (end - startedAtNanos) / 1_000_000;
+        }
+
+        double accountsPerSecond() {
+            long millis = elapsedMillis();
+            return millis == 0 ? 0.0 : processed.get() * 1000.0 / millis;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("runKey", runKey);
+            map.put("status", status);
+            map.put("startedAt", startedAt);
+            map.put("processed", processed.get());
+            map.put("success", success.get());
+            map.put("failed", failed.get());
+            map.put("skipped", skipped.get());
+            map.put("chunksCompleted", chunksCompleted.get());
+            map.put("chunksFailed", chunksFailed.get());
+            map.put("elapsedMs", elapsedMillis());
+            map.put("accountsPerSecond", Math.round(accountsPerSecond() * 10) / 10.0);
+            return map;
+        }
+    }
+}
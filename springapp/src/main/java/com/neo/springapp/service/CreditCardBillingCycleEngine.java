@@ -0,0 +1,338 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Paise;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Monthly statement (bill) cycle for credit cards.
+ *
+ * Every active card carries its next statement date in {@code nextBillingDate}. Cards whose statement
+ * date has come are streamed by keyset pagination in chunks of {@code app.credit-card.billing.chunk-size}
+ * and chunks run on {@code app.credit-card.billing.workers} threads. Within a chunk, the cycle's
+ * purchases and payments for all cards are summed by one grouped query per statement date, the bills
+ * are written with one JDBC batch and the cards' statement dates are moved on a month with another;
+ * the chunk commits as a whole. The unique (card, cycle) key on the bills makes a rerun after a crash,
+ * or a second node, skip cards that were already billed, and a card several cycles behind is billed
+ * one cycle per run. Cards issued before statement dates existed are given one on the next run.
+ */
+@Service
+@Slf4j
+public class CreditCardBillingCycleEngine {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String SELECT_DUE_CARDS =
+            "SELECT id, card_number, account_number, user_name, current_balance, overdue_amount, fine, penalty, " +
+            "next_billing_date FROM credit_cards " +
+            "WHERE status = 'Active' AND next_billing_date < ? AND id > ? ORDER BY id LIMIT ?";
+
+    private static final String SELECT_UNSCHEDULED_CARDS =
+            "SELECT id, approval_date, issue_date FROM credit_cards " +
+            "WHERE status = 'Active' AND next_billing_date IS NULL AND id > ? ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int workers;
+    private final int paymentDueDays;
+    private final long minimumDueBasisPoints;
+
+    public CreditCardBillingCycleEngine(JdbcTemplate jdbcTemplate,
+                                        NamedParameterJdbcTemplate namedJdbcTemplate,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${app.credit-card.billing.chunk-size:500}") int chunkSize,
+                                        @Value("${app.credit-card.billing.workers:2}") int workers,
+                                        @Value("${app.credit-card.billing.payment-due-days:21}") int paymentDueDays,
+                                        @Value("${app.credit-card.billing.minimum-due-percent:5.0}") double minimumDuePercent) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.workers = Math.max(1, workers);
+        this.paymentDueDays = Math.max(0, paymentDueDays);
+        this.minimumDueBasisPoints = Paise.basisPoints(minimumDuePercent);
+    }
+
+    @Scheduled(cron = "${app.credit-card.billing.cron:0 0 1 * * ?}")
+    public void runDaily() {
+        try {
+            Map<String, Object> result = runCycle(LocalDate.now());
+            log.info("Credit card billing cycle: {}", result);
+        } catch (RuntimeException e) {
+            log.warn("Credit card billing cycle stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Generate a bill for every active card whose statement date is on or before {@code today}.
+     *
+     * @return billsGenerated, alreadyBilled, failureCount, errors (first 100) and billsPerSecond
+     */
+    public Map<String, Object> runCycle(LocalDate today) {
+        long started = System.nanoTime();
+        int scheduled = scheduleUnscheduledCards(today);
+        Cycle totals = new Cycle();
+        Timestamp dueBefore = Timestamp.valueOf(today.plusDays(1).atStartOfDay());
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "credit-card-billing");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(workers * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        boolean aborted = false;
+        try {
+            long afterId = 0L;
+            while (true) {
+                List<CardRow> page = jdbcTemplate.query(SELECT_DUE_CARDS,
+                        (rs, i) -> new CardRow(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                                rs.getObject(5, Double.class), rs.getObject(6, Double.class), rs.getObject(7, Double.class),
+                                rs.getObject(8, Double.class), rs.getTimestamp(9).toLocalDateTime()),
+                        dueBefore, afterId, chunkSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).id;
+                inFlight.acquire();
+                futures.add(pool.submit(() -> {
+                    try {
+                        totals.add(chunkTransaction.execute(status -> billChunk(page)));
+                    } catch (Exception e) {
+                        log.error("Credit card billing chunk [{}..{}] rolled back: {}", page.get(0).id,
+                                page.get(page.size() - 1).id, e.getMessage());
+                        totals.chunkFailed(page, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+                if (page.size() < chunkSize) {
+                    break;
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborted = true;
+        } catch (Exception e) {
+            log.error("Credit card billing cycle for {} aborted", today, e);
+            aborted = true;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        double perSecond = elapsedMs == 0 ? totals.billed : totals.billed * 1000.0 / elapsedMs;
+        log.info("Credit card billing {}: {} bills, {} already billed, {} failed in {} ms ({}/s)", today, totals.billed,
+                totals.alreadyBilled, totals.failure, elapsedMs, String.format("%.1f", perSecond));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", !aborted);
+        response.put("message", "Generated " + totals.billed + " credit card bills"
+                + (aborted ? " (run aborted; rerun to continue)" : ""));
+        response.put("date", today.toString());
+        response.put("billsGenerated", totals.billed);
+        response.put("alreadyBilled", totals.alreadyBilled);
+        response.put("cardsScheduled", scheduled);
+        response.put("failureCount", totals.failure);
+        response.put("errors", totals.errors);
+        response.put("elapsedMs", elapsedMs);
+        response.put("billsPerSecond", Math.round(perSecond * 10) / 10.0);
+        return response;
+    }
+
+    private Cycle billChunk(List<CardRow> page) {
+        Cycle result = new Cycle();
+        Set<String> billed = alreadyBilled(page);
+
+        // One grouped query per statement date in the chunk (normally just one)
+        TreeMap<LocalDate, List<Long>> cardsByStatementDate = new TreeMap<>();
+        for (CardRow card : page) {
+            if (!billed.contains(card.id + "|" + card.cycle())) {
+                cardsByStatementDate.computeIfAbsent(card.statementDate(), d -> new ArrayList<>()).add(card.id);
+            }
+        }
+        Map<Long, long[]> activity = new HashMap<>();
+        for (Map.Entry<LocalDate, List<Long>> statement : cardsByStatementDate.entrySet()) {
+            namedJdbcTemplate.query(
+                    "SELECT credit_card_id, " +
+                    "COALESCE(SUM(CASE WHEN transaction_type IN ('Payment', 'Refund') THEN 0 ELSE amount END), 0), " +
+                    "COALESCE(SUM(CASE WHEN transaction_type IN ('Payment', 'Refund') THEN amount ELSE 0 END), 0), " +
+                    "COUNT(*) FROM credit_card_transactions " +
+                    "WHERE credit_card_id IN (:ids) AND transaction_date >= :from AND transaction_date < :to " +
+                    "AND (status IS NULL OR status = 'Completed') GROUP BY credit_card_id",
+                    new MapSqlParameterSource("ids", statement.getValue())
+                            .addValue("from", Timestamp.valueOf(statement.getKey().minusMonths(1).atStartOfDay()))
+                            .addValue("to", Timestamp.valueOf(statement.getKey().atStartOfDay())),
+                    rs -> {
+                        activity.put(rs.getLong(1), new long[]{
+                                Paise.ofRupees(rs.getBigDecimal(2)), Paise.ofRupees(rs.getBigDecimal(3)), rs.getLong(4)});
+                    });
+        }
+
+        List<CardRow> toBill = new ArrayList<>(page.size());
+        for (CardRow card : page) {
+            if (billed.contains(card.id + "|" + card.cycle())) {
+                result.alreadyBilled++;
+            } else {
+                toBill.add(card);
+            }
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (!toBill.isEmpty()) {
+            // Unique (credit_card_id, billing_cycle): a concurrent bill for the cycle fails here and rolls the chunk back
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO credit_card_bills (credit_card_id, card_number, account_number, user_name, " +
+                    "bill_generation_date, due_date, total_amount, minimum_due, overdue_amount, fine, penalty, status, " +
+                    "billing_period, billing_cycle, purchase_amount, payment_amount, transaction_count) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'Generated', ?, ?, ?, ?, ?)",
+                    toBill, toBill.size(), (ps, card) -> {
+                        long balance = Paise.ofRupees(card.currentBalance);
+                        long[] cycle = activity.getOrDefault(card.id, new long[3]);
+                        LocalDate statementDate = card.statementDate();
+                        ps.setLong(1, card.id);
+                        ps.setString(2, card.cardNumber);
+                        ps.setString(3, card.accountNumber);
+                        ps.setString(4, card.userName);
+                        ps.setTimestamp(5, now);
+                        ps.setTimestamp(6, Timestamp.valueOf(statementDate.plusDays(paymentDueDays).atStartOfDay()));
+                        ps.setDouble(7, Paise.toRupees(balance));
+                        ps.setDouble(8, Paise.toRupees(Paise.applyRate(balance, minimumDueBasisPoints)));
+                        ps.setDouble(9, card.overdueAmount != null ? card.overdueAmount : 0.0);
+                        ps.setDouble(10, card.fine != null ? card.fine : 0.0);
+                        ps.setDouble(11, card.penalty != null ? card.penalty : 0.0);
+                        ps.setString(12, statementDate.getMonth() + " " + statementDate.getYear());
+                        ps.setString(13, card.cycle());
+                        ps.setDouble(14, Paise.toRupees(cycle[0]));
+                        ps.setDouble(15, Paise.toRupees(cycle[1]));
+                        ps.setInt(16, (int) cycle[2]);
+                    });
+        }
+
+        // Already-billed cards move on too, so they stop coming due
+        int[] moved = jdbcTemplate.batchUpdate(
+                "UPDATE credit_cards SET next_billing_date = ? WHERE id = ? AND next_billing_date = ?",
+                page, page.size(), (ps, card) -> {
+                    ps.setTimestamp(1, Timestamp.valueOf(card.nextBillingDate.plusMonths(1)));
+                    ps.setLong(2, card.id);
+                    ps.setTimestamp(3, Timestamp.valueOf(card.nextBillingDate));
+                })[0];
+        for (int count : moved) {
+            if (count == 0) {
+                throw new IllegalStateException("Cards in this chunk were billed concurrently");
+            }
+        }
+        result.billed = toBill.size();
+        return result;
+    }
+
+    private Set<String> alreadyBilled(List<CardRow> page) {
+        List<Long> ids = new ArrayList<>(page.size());
+        Set<String> cycles = new HashSet<>();
+        for (CardRow card : page) {
+            ids.add(card.id);
+            cycles.add(card.cycle());
+        }
+        Set<String> billed = new HashSet<>();
+        namedJdbcTemplate.query(
+                "SELECT credit_card_id, billing_cycle FROM credit_card_bills " +
+                "WHERE credit_card_id IN (:ids) AND billing_cycle IN (:cycles)",
+                new MapSqlParameterSource("ids", ids).addValue("cycles", cycles),
+                rs -> {
+                    billed.add(rs.getLong(1) + "|" + rs.getString(2));
+                });
+        return billed;
+    }
+
+    /**
+     * Cards issued before statement dates were tracked get the monthly anniversary of their approval
+     * that falls in the last month, so they are billed on this run and monthly after that.
+     */
+    private int scheduleUnscheduledCards(LocalDate today) {
+        int scheduled = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> page = jdbcTemplate.query(SELECT_UNSCHEDULED_CARDS,
+                    (rs, i) -> new Object[]{rs.getLong(1), rs.getTimestamp(2), rs.getTimestamp(3)},
+                    afterId, chunkSize);
+            if (page.isEmpty()) {
+                return scheduled;
+            }
+            afterId = (Long) page.get(page.size() - 1)[0];
+            jdbcTemplate.batchUpdate(
+                    "UPDATE credit_cards SET next_billing_date = ? WHERE id = ? AND next_billing_date IS NULL",
+                    page, page.size(), (ps, card) -> {
+                        Timestamp anchor = card[1] != null ? (Timestamp) card[1] : (Timestamp) card[2];
+                        LocalDate issued = anchor != null ? anchor.toLocalDateTime().toLocalDate() : today;
+                        long months = Math.max(1, ChronoUnit.MONTHS.between(issued, today));
+                        ps.setTimestamp(1, Timestamp.valueOf(issued.plusMonths(months).atStartOfDay()));
+                        ps.setLong(2, (Long) card[0]);
+                    });
+            scheduled += page.size();
+            if (page.size() < chunkSize) {
+                return scheduled;
+            }
+        }
+    }
+
+    private record CardRow(long id, String cardNumber, String accountNumber, String userName, Double currentBalance,
+                           Double overdueAmount, Double fine, Double penalty, LocalDateTime nextBillingDate) {
+
+        LocalDate statementDate() {
+            return nextBillingDate.toLocalDate();
+        }
+
+        String cycle() {
+            return YearMonth.from(nextBillingDate).toString();
+        }
+    }
+
+    /** Per-chunk result; merged into the run totals under the lock. */
+    private static final class Cycle {
+        int billed;
+        int alreadyBilled;
+        int failure;
+        final List<String> errors = new ArrayList<>();
+
+        synchronized void add(Cycle chunk) {
+            billed += chunk.billed;
+            alreadyBilled += chunk.alreadyBilled;
+        }
+
+        synchronized void chunkFailed(List<CardRow> page, Exception e) {
+            failure += page.size();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Cards #" + page.get(0).id + "..#" + page.get(page.size() - 1).id
+                        + " rolled back: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Paise;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Daily overdue accrual for credit card bills.
+ *
+ * Unpaid bills past their due date that have not been accrued for today are read with one query on
+ * the (status, dueDate) index, keyset-paged by id in chunks of {@code app.credit-card.penalty.chunk-size}.
+ * For each chunk the penalty ({@code daily-rate-percent} of the outstanding amount per overdue day,
+ * in paise) and the one-off late fine are computed in one pass, then the bill updates, the (bill, day)
+ * idempotency keys in {@code credit_card_penalty_accruals} and the per-card overdue/penalty/fine
+ * roll-up are written with batched statements and the chunk commits as a whole. A rerun the same day
+ * finds nothing to do; after a missed day the next run charges every day since the last accrual.
+ * Bills processed per second are published as the {@code credit_card.penalty.bills_per_second} gauge.
+ */
+@Service
+@Slf4j
+public class CreditCardPenaltyAccrualEngine {
+
+    private static final String SELECT_PAST_DUE_BILLS =
+            "SELECT id, credit_card_id, total_amount, paid_amount, due_date, penalty_accrued_through FROM credit_card_bills " +
+            "WHERE status IN ('Generated', 'Partial', 'Overdue') AND due_date < ? " +
+            "AND (penalty_accrued_through IS NULL OR penalty_accrued_through < ?) AND id > ? " +
+            "ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final long dailyRateBasisPoints;
+    private final long finePaise;
+    private final AtomicLong lastBillsPerSecond = new AtomicLong();
+
+    public CreditCardPenaltyAccrualEngine(JdbcTemplate jdbcTemplate,
+                                          NamedParameterJdbcTemplate namedJdbcTemplate,
+                                          PlatformTransactionManager transactionManager,
+                                          ObjectProvider<MeterRegistry> meterRegistry,
+                                          @Value("${app.credit-card.penalty.chunk-size:500}") int chunkSize,
+                                          @Value("${app.credit-card.penalty.daily-rate-percent:2.0}") double dailyRatePercent,
+                                          @Value("${app.credit-card.penalty.fine:500.0}") double fine) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry.getIfAvailable();
+        this.chunkSize = Math.max(1, chunkSize);
+        this.dailyRateBasisPoints = Paise.basisPoints(dailyRatePercent);
+        this.finePaise = Paise.ofRupees(fine);
+        if (this.meterRegistry != null) {
+            this.meterRegistry.gauge("credit_card.penalty.bills_per_second", lastBillsPerSecond);
+        }
+    }
+
+    @Scheduled(cron = "${app.credit-card.penalty.cron:0 30 1 * * ?}")
+    public void accrueDaily() {
+        try {
+            Map<String, Object> result = accrue(LocalDate.now());
+            log.info("Credit card overdue accrual: {}", result);
+        } catch (RuntimeException e) {
+            log.warn("Credit card overdue accrual stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Accrue overdue penalties on every unpaid bill whose due date is before {@code today}.
+     *
+     * @return billsAccrued, newlyOverdue, penaltyAccrued, chunks and billsPerSecond
+     */
+    public Map<String, Object> accrue(LocalDate today) {
+        long started = System.nanoTime();
+        Timestamp startOfToday = Timestamp.valueOf(today.atStartOfDay());
+        Date accrualDate = Date.valueOf(today);
+        int bills = 0;
+        int newlyOverdue = 0;
+        int chunks = 0;
+        long penaltyPaise = 0;
+        String error = null;
+
+        long afterId = 0L;
+        while (true) {
+            List<BillRow> page = jdbcTemplate.query(SELECT_PAST_DUE_BILLS,
+                    (rs, i) -> new BillRow(rs.getLong(1), rs.getObject(2, Long.class), rs.getObject(3, Double.class),
+                            rs.getObject(4, Double.class), rs.getTimestamp(5).toLocalDateTime().toLocalDate(),
+                            rs.getDate(6) == null ? null : rs.getDate(6).toLocalDate()),
+                    startOfToday, accrualDate, afterId, chunkSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            afterId = page.get(page.size() - 1).id;
+            try {
+                Accrual chunk = chunkTransaction.execute(status -> accrueChunk(page, today));
+                bills += chunk.bills;
+                newlyOverdue += chunk.newlyOverdue;
+                penaltyPaise = Paise.add(penaltyPaise, chunk.penaltyPaise);
+                chunks++;
+            } catch (RuntimeException e) {
+                // Rolled back as a whole; the next run picks these bills up again
+                log.error("Credit card overdue chunk [{}..{}] rolled back: {}", page.get(0).id, afterId, e.getMessage());
+                error = e.getMessage();
+            }
+            if (page.size() < chunkSize) {
+                break;
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        long elapsedMs = elapsedNanos / 1_000_000;
+        double perSecond = elapsedMs == 0 ? bills : bills * 1000.0 / elapsedMs;
+        lastBillsPerSecond.set(Math.round(perSecond));
+        if (meterRegistry != null) {
+            meterRegistry.counter("credit_card.penalty.bills").increment(bills);
+            meterRegistry.timer("credit_card.penalty.run").record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+        log.info("Credit card overdue accrual {}: {} bills ({} newly overdue), penalty {} in {} ms ({}/s)", today, bills,
+                newlyOverdue, Paise.format(penaltyPaise), elapsedMs, String.format("%.1f", perSecond));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", error == null);
+        response.put("message", error == null ? "Accrued overdue penalties on " + bills + " bills"
+                : "Some bills were not accrued; rerun to continue: " + error);
+        response.put("date", today.toString());
+        response.put("billsAccrued", bills);
+        response.put("newlyOverdue", newlyOverdue);
+        response.put("penaltyAccrued", Paise.toRupees(penaltyPaise));
+        response.put("chunks", chunks);
+        response.put("elapsedMs", elapsedMs);
+        response.put("billsPerSecond", Math.round(perSecond * 10) / 10.0);
+        return response;
+    }
+
+    private Accrual accrueChunk(List<BillRow> page, LocalDate today) {
+        Accrual result = new Accrual();
+        int n = page.size();
+        long[] outstanding = new long[n];
+        long[] penalty = new long[n];
+        long[] fine = new long[n];
+        int[] days = new int[n];
+        for (int i = 0; i < n; i++) {
+            BillRow bill = page.get(i);
+            outstanding[i] = Math.max(0L, Paise.subtract(Paise.ofRupees(bill.totalAmount), Paise.ofRupees(bill.paidAmount)));
+            LocalDate from = bill.accruedThrough != null ? bill.accruedThrough : bill.dueDate;
+            days[i] = (int) Math.max(1, ChronoUnit.DAYS.between(from, today));
+            penalty[i] = Paise.multiply(Paise.applyRate(outstanding[i], dailyRateBasisPoints), days[i]);
+            // The late fine is charged once, when the bill first goes overdue
+            fine[i] = bill.accruedThrough == null ? finePaise : 0L;
+            result.penaltyPaise = Paise.add(result.penaltyPaise, penalty[i]);
+            if (bill.accruedThrough == null) {
+                result.newlyOverdue++;
+            }
+        }
+
+        List<Integer> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            rows.add(i);
+        }
+        Date accrualDate = Date.valueOf(today);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE credit_card_bills SET status = 'Overdue', overdue_amount = ?, " +
+                "penalty = COALESCE(penalty, 0) + ?, fine = COALESCE(?, fine), penalty_accrued_through = ? " +
+                "WHERE id = ? AND (penalty_accrued_through IS NULL OR penalty_accrued_through < ?)",
+                rows, n, (ps, i) -> {
+                    ps.setDouble(1, Paise.toRupees(outstanding[i]));
+                    ps.setDouble(2, Paise.toRupees(penalty[i]));
+                    if (fine[i] > 0) {
+                        ps.setDouble(3, Paise.toRupees(fine[i]));
+                    } else {
+                        ps.setNull(3, Types.DOUBLE);
+                    }
+                    ps.setDate(4, accrualDate);
+                    ps.setLong(5, page.get(i).id);
+                    ps.setDate(6, accrualDate);
+                })[0];
+        for (int count : updated) {
+            if (count == 0) {
+                throw new IllegalStateException("Bills in this chunk were accrued concurrently");
+            }
+        }
+        // Unique (bill_id, accrual_date): a repeated accrual for the day fails here and rolls the chunk back
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO credit_card_penalty_accruals (bill_id, accrual_date, credit_card_id, days_accrued, penalty, fine, accrued_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                rows, n, (ps, i) -> {
+                    BillRow bill = page.get(i);
+                    ps.setLong(1, bill.id);
+                    ps.setDate(2, accrualDate);
+                    ps.setObject(3, bill.creditCardId);
+                    ps.setInt(4, days[i]);
+                    ps.setBigDecimal(5, Paise.toBigDecimal(penalty[i]));
+                    ps.setBigDecimal(6, Paise.toBigDecimal(fine[i]));
+                    ps.setTimestamp(7, now);
+                });
+
+        // Card totals are the sums over the card's overdue bills, recomputed in one statement
+        TreeSet<Long> cards = new TreeSet<>();
+        for (BillRow bill : page) {
+            if (bill.creditCardId != null) {
+                cards.add(bill.creditCardId);
+            }
+        }
+        if (!cards.isEmpty()) {
+            namedJdbcTemplate.update(
+                    "UPDATE credit_cards SET " +
+                    "overdue_amount = (SELECT COALESCE(SUM(b.overdue_amount), 0) FROM credit_card_bills b WHERE b.credit_card_id = credit_cards.id AND b.status = 'Overdue'), " +
+                    "penalty = (SELECT COALESCE(SUM(b.penalty), 0) FROM credit_card_bills b WHERE b.credit_card_id = credit_cards.id AND b.status = 'Overdue'), " +
+                    "fine = (SELECT COALESCE(SUM(b.fine), 0) FROM credit_card_bills b WHERE b.credit_card_id = credit_cards.id AND b.status = 'Overdue') " +
+                    "WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", new ArrayList<>(cards)));
+        }
+        result.bills = n;
+        return result;
+    }
+
+    private record BillRow(long id, Long creditCardId, Double totalAmount, Double paidAmount,
+                           LocalDate dueDate, LocalDate accruedThrough) {
+    }
+
+    private static final class Accrual {
+        int bills;
+        int newlyOverdue;
+        long penaltyPaise;
+    }
+}
@@ -5,8 +5,11 @@ import com.neo.springapp.repository.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -16,14 +19,20 @@ public class CreditCardService {
     private final CreditCardRepository creditCardRepository;
     private final CreditCardTransactionRepository transactionRepository;
     private final CreditCardBillRepository billRepository;
+    private final CreditCardPenaltyAccrualEngine penaltyAccrualEngine;
+    private final CreditCardBillingCycleEngine billingCycleEngine;
 
     public CreditCardService(
             CreditCardRepository creditCardRepository,
             CreditCardTransactionRepository transactionRepository,
-            CreditCardBillRepository billRepository) {
+            CreditCardBillRepository billRepository,
+            CreditCardPenaltyAccrualEngine penaltyAccrualEngine,
+            CreditCardBillingCycleEngine billingCycleEngine) {
         this.creditCardRepository = creditCardRepository;
         this.transactionRepository = transactionRepository;
         this.billRepository = billRepository;
+        this.penaltyAccrualEngine = penaltyAccrualEngine;
+        this.billingCycleEngine = billingCycleEngine;
     }
 
     // Get all credit cards (for admin)
@@ -53,6 +62,7 @@ public class CreditCardService {
         creditCard.setUserEmail(request.getUserEmail());
         creditCard.setAppliedDate(request.getRequestDate());
         creditCard.setApprovalDate(LocalDateTime.now());
+        creditCard.setNextBillingDate(LocalDate.now().plusMonths(1).atStartOfDay()); // First statement date
         creditCard.setApprovedLimit(request.getSuggestedLimit() != null ? request.getSuggestedLimit() : 50000.0);
         creditCard.setCurrentBalance(0.0);
         creditCard.calculateAvailableLimit();
@@ -151,10 +161,16 @@ public class CreditCardService {
         bill.setPenalty(card.getPenalty());
         bill.setStatus("Generated");
         bill.setBillingPeriod(LocalDateTime.now().getMonth().toString() + " " + LocalDateTime.now().getYear());
+        bill.setBillingCycle(YearMonth.now().toString());
         
         return billRepository.save(bill);
     }
 
+    // Bill every card whose statement date has come (also runs daily; safe to rerun)
+    public Map<String, Object> runBillingCycle() {
+        return billingCycleEngine.runCycle(LocalDate.now());
+    }
+
     // Get bills
     public List<CreditCardBill> getBillsByCardId(Long creditCardId) {
         return billRepository.findByCreditCardId(creditCardId);
@@ -236,28 +252,8 @@ public class CreditCardService {
         return false;
     }
 
-    // Calculate overdue and penalties
-    @Transactional
-    public void calculateOverdueAndPenalties() {
-        List<CreditCardBill> overdueBills = billRepository.findByStatus("Overdue");
-        for (CreditCardBill bill : overdueBills) {
-            if (bill.getDueDate().isBefore(LocalDateTime.now()) && bill.getStatus().equals("Generated")) {
-                bill.setStatus("Overdue");
-                Optional<CreditCard> cardOpt = creditCardRepository.findById(bill.getCreditCardId());
-                if (cardOpt.isPresent()) {
-                    CreditCard card = cardOpt.get();
-                    long daysOverdue = java.time.temporal.ChronoUnit.DAYS.between(bill.getDueDate(), LocalDateTime.now());
-                    double penalty = bill.getTotalAmount() * 0.02 * daysOverdue; // 2% per day
-                    double fine = 500.0; // Fixed fine
-                    card.setOverdueAmount(bill.getTotalAmount());
-                    card.setPenalty(penalty);
-                    card.setFine(fine);
-                    bill.setPenalty(penalty);
-                    bill.setFine(fine);
-                    creditCardRepository.save(card);
-                    billRepository.save(bill);
-                }
-            }
-        }
+    // Calculate overdue and penalties (also runs daily; commits chunk by chunk and is safe to rerun)
+    public Map<String, Object> calculateOverdueAndPenalties() {
+        return penaltyAccrualEngine.accrue(LocalDate.now());
     }
 }
@@ -54,6 +54,7 @@ public class CurrentAccountService {
     private final LinkedAccountRepository linkedAccountRepository;
     private final AccountRepository savingsAccountRepository;
     private final SalaryAccountRepository salaryAccountRepository;
+    private final UpiDirectory upiDirectory;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(10);
 
     public CurrentAccountService(CurrentAccountRepository accountRepository,
@@ -67,7 +68,8 @@ public class CurrentAccountService {
                                   CurrentAccountBusinessUserRepository businessUserRepository,
                                   LinkedAccountRepository linkedAccountRepository,
                                   AccountRepository savingsAccountRepository,
-                                  SalaryAccountRepository salaryAccountRepository) {
+                                  SalaryAccountRepository salaryAccountRepository,
+                                  UpiDirectory upiDirectory) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
         this.editHistoryRepository = editHistoryRepository;
@@ -80,6 +82,7 @@ public class CurrentAccountService {
         this.linkedAccountRepository = linkedAccountRepository;
         this.savingsAccountRepository = savingsAccountRepository;
         this.salaryAccountRepository = salaryAccountRepository;
+        this.upiDirectory = upiDirectory;
     }
 
     // ==================== Account CRUD ====================
@@ -129,6 +132,7 @@ public class CurrentAccountService {
             account.setStatus("ACTIVE");
             account.setApprovedAt(LocalDateTime.now());
             account.setApprovedBy(approvedBy);
+            upiDirectory.invalidateAccount(account.getAccountNumber());
             return accountRepository.save(account);
         }
         return null;
@@ -165,6 +169,7 @@ public class CurrentAccountService {
             account.setFrozenBy(frozenBy);
             account.setFrozenDate(LocalDateTime.now());
             account.setStatus("FROZEN");
+            upiDirectory.invalidateAccount(account.getAccountNumber());
             return accountRepository.save(account);
         }
         return null;
@@ -179,6 +184,7 @@ public class CurrentAccountService {
             account.setFrozenBy(null);
             account.setFrozenDate(null);
             account.setStatus("ACTIVE");
+            upiDirectory.invalidateAccount(account.getAccountNumber());
             return accountRepository.save(account);
         }
         return null;
@@ -209,7 +215,9 @@ public class CurrentAccountService {
             if (details.getCity() != null) account.setCity(details.getCity());
             if (details.getState() != null) account.setState(details.getState());
             if (details.getPincode() != null) account.setPincode(details.getPincode());
-            return accountRepository.save(account);
+            CurrentAccount saved = accountRepository.save(account);
+            upiDirectory.invalidateAccount(saved.getAccountNumber());
+            return saved;
         }
         return null;
     }
@@ -511,6 +519,7 @@ public class CurrentAccountService {
         }
 
         accountRepository.save(account);
+        upiDirectory.invalidateAccount(account.getAccountNumber());
 
         // Save edit history
         CurrentAccountEditHistory history = new CurrentAccountEditHistory();
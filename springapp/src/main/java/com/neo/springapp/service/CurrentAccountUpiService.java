@@ -25,17 +25,23 @@ public class CurrentAccountUpiService {
     private final QrCodeService qrCodeService;
     private final UserRepository userRepository;
     private final SalaryAccountRepository salaryAccountRepository;
+    private final UpiVelocityWindowStore velocityStore;
+    private final UpiDirectory upiDirectory;
 
     public CurrentAccountUpiService(CurrentAccountRepository accountRepository,
                                      CurrentAccountUpiPaymentRepository upiPaymentRepository,
                                      QrCodeService qrCodeService,
                                      UserRepository userRepository,
-                                     SalaryAccountRepository salaryAccountRepository) {
+                                     SalaryAccountRepository salaryAccountRepository,
+                                     UpiVelocityWindowStore velocityStore,
+                                     UpiDirectory upiDirectory) {
         this.accountRepository = accountRepository;
         this.upiPaymentRepository = upiPaymentRepository;
         this.qrCodeService = qrCodeService;
         this.userRepository = userRepository;
         this.salaryAccountRepository = salaryAccountRepository;
+        this.velocityStore = velocityStore;
+        this.upiDirectory = upiDirectory;
     }
 
     // ==================== UPI ID Management ====================
@@ -80,6 +86,7 @@ public class CurrentAccountUpiService {
         account.setUpiId(finalUpiId);
         account.setUpiEnabled(true);
         accountRepository.save(account);
+        upiDirectory.invalidateAccount(accountNumber);
         result.put("success", true);
         result.put("upiId", finalUpiId);
         return result;
@@ -110,6 +117,7 @@ public class CurrentAccountUpiService {
         }
         account.setUpiId(finalUpiId);
         accountRepository.save(account);
+        upiDirectory.invalidateAccount(accountNumber);
         result.put("success", true);
         result.put("upiId", finalUpiId);
         return result;
@@ -120,6 +128,7 @@ public class CurrentAccountUpiService {
         CurrentAccount account = accountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new RuntimeException("Account not found: " + accountNumber));
         account.setUpiEnabled(!Boolean.TRUE.equals(account.getUpiEnabled()));
+        upiDirectory.invalidateAccount(accountNumber);
         return accountRepository.save(account);
     }
 
@@ -407,6 +416,7 @@ public class CurrentAccountUpiService {
         payment.setNote(note != null ? note : "UPI Transfer from " + sender.getOwnerName());
         payment.setQrGenerated(false);
         CurrentAccountUpiPayment saved = upiPaymentRepository.save(payment);
+        velocityStore.record(senderAccountNumber, amount, System.currentTimeMillis());
 
         String receiverName = receiver.getBusinessName() != null ? receiver.getBusinessName() : receiver.getOwnerName();
 
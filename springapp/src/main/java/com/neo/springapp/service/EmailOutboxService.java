@@ -0,0 +1,428 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.EmailOutboxMessage;
+import com.neo.springapp.repository.EmailOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Database-backed outbox for outbound email, drained by a small worker pool.
+ *
+ * EmailService writes each message to {@code email_outbox} (in the caller's transaction when there
+ * is one, so a rolled-back request sends nothing) and returns; SMTP and Gmail API calls happen on
+ * the {@code app.email.outbox.workers} threads instead of request threads. A committed message is
+ * handed to the pool straight away and a poller picks up anything due that was missed (retries,
+ * messages left by a restart, workers whose lease ran out).
+ *
+ * OTP mails travel in their own lane: they jump the worker queue, are polled first, are not rate
+ * limited, and are dropped once older than {@code app.email.outbox.otp-ttl-ms} since the code would
+ * have expired anyway. Other mails are limited to {@code app.email.outbox.recipient-limit-per-minute}
+ * per recipient on this node; the excess waits for the next minute without using up an attempt.
+ * A failed send is retried with exponential backoff until {@code app.email.outbox.max-attempts}.
+ * Workers hold a database connection only to claim a message and record the outcome, never while
+ * talking to the mail server. When a poll finds a full page due, the workers poll again as soon as
+ * their queue runs dry instead of waiting for the next tick, so bulk runs drain at sending speed.
+ */
+@Service
+@Slf4j
+public class EmailOutboxService {
+
+    private static final List<String> LANES = List.of(EmailOutboxMessage.LANE_OTP, EmailOutboxMessage.LANE_NORMAL);
+    private static final long RATE_WINDOW_MS = 60_000L;
+    private static final String DEFAULT_FROM = "noreply@neobank.com";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO email_outbox (lane, status, recipient, subject, body, html, attempts, next_attempt_at, created_at) " +
+            "VALUES (?, 'PENDING', ?, ?, ?, ?, 0, ?, ?)";
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<JavaMailSender> mailSender;
+    private final ObjectProvider<GmailApiOtpService> gmailApiOtpService;
+    private final Environment environment;
+
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBaseMs;
+    private final long retryMaxMs;
+    private final long leaseMs;
+    private final long otpTtlMs;
+    private final int recipientLimitPerMinute;
+
+    // Message ids queued or running on this node, so the poller does not hand them out twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, RecipientWindow> recipientWindows = new ConcurrentHashMap<>();
+    private final AtomicLong deliverySeq = new AtomicLong();
+    // Last poll left due messages behind; set until a poll comes back short
+    private final AtomicBoolean backlogged = new AtomicBoolean();
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private ThreadPoolExecutor workerPool;
+
+    public EmailOutboxService(EmailOutboxRepository outboxRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ObjectProvider<JavaMailSender> mailSender,
+                              ObjectProvider<GmailApiOtpService> gmailApiOtpService,
+                              Environment environment,
+                              @Value("${app.email.outbox.workers:2}") int workers,
+                              @Value("${app.email.outbox.batch-size:50}") int batchSize,
+                              @Value("${app.email.outbox.max-attempts:6}") int maxAttempts,
+                              @Value("${app.email.outbox.retry-base-ms:30000}") long retryBaseMs,
+                              @Value("${app.email.outbox.retry-max-ms:3600000}") long retryMaxMs,
+                              @Value("${app.email.outbox.lease-ms:120000}") long leaseMs,
+                              @Value("${app.email.outbox.otp-ttl-ms:120000}") long otpTtlMs,
+                              @Value("${app.email.outbox.recipient-limit-per-minute:6}") int recipientLimitPerMinute) {
+        this.outboxRepository = outboxRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mailSender = mailSender;
+        this.gmailApiOtpService = gmailApiOtpService;
+        this.environment = environment;
+        this.workers = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBaseMs = Math.max(1, retryBaseMs);
+        this.retryMaxMs = Math.max(this.retryBaseMs, retryMaxMs);
+        this.leaseMs = Math.max(1000, leaseMs);
+        this.otpTtlMs = otpTtlMs;
+        this.recipientLimitPerMinute = recipientLimitPerMinute;
+    }
+
+    @PostConstruct
+    void startWorkers() {
+        AtomicInteger seq = new AtomicInteger();
+        // Unbounded on purpose: the poller only queues ids it is not already holding, one per message
+        workerPool = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "email-outbox-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        // Messages still SENDING are resent by whichever node sees their lease run out
+        workerPool.shutdownNow();
+    }
+
+    public EmailOutboxMessage enqueue(String lane, String recipient, String subject, String body, boolean html) {
+        return enqueue(lane, recipient, subject, body, html, null, null, null);
+    }
+
+    /**
+     * Stores a message for sending and returns without touching the mail server. Inside a
+     * transaction the message is handed to the workers only once that transaction commits.
+     */
+    public EmailOutboxMessage enqueue(String lane, String recipient, String subject, String body, boolean html,
+                                      String attachmentName, String attachmentType, byte[] attachment) {
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setLane(lane);
+        message.setRecipient(recipient.trim());
+        message.setSubject(subject);
+        message.setBody(body);
+        message.setHtml(html);
+        message.setAttachmentName(attachmentName);
+        message.setAttachmentType(attachmentType);
+        message.setAttachment(attachment);
+        EmailOutboxMessage saved = outboxRepository.save(message);
+
+        Long id = saved.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(id, lane);
+                }
+            });
+        } else {
+            dispatch(id, lane);
+        }
+        return saved;
+    }
+
+    /**
+     * Stores plain-text messages of one lane with a single JDBC batch, for bulk runs such as EMI
+     * reminders. Joins the caller's transaction; the workers start on them once it commits.
+     */
+    public int enqueueBatch(String lane, List<EmailOutboxMessage> messages) {
+        if (messages.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, m) -> {
+            ps.setString(1, lane);
+            ps.setString(2, m.getRecipient().trim());
+            ps.setString(3, m.getSubject());
+            ps.setString(4, m.getBody());
+            ps.setBoolean(5, false);
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+        });
+        backlogged.set(true);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pollSoon();
+                }
+            });
+        } else {
+            pollSoon();
+        }
+        return messages.size();
+    }
+
+    /** Hands every due message to the workers, OTP lane first. */
+    @Scheduled(initialDelayString = "${app.email.outbox.poll-interval-ms:5000}",
+               fixedDelayString = "${app.email.outbox.poll-interval-ms:5000}")
+    public void pollDue() {
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            boolean full = false;
+            for (String lane : LANES) {
+                List<Long> due = outboxRepository.findDueIds(lane, now, PageRequest.of(0, batchSize));
+                full |= due.size() == batchSize;
+                for (Long id : due) {
+                    dispatch(id, lane);
+                }
+            }
+            backlogged.set(full);
+        } catch (RuntimeException e) {
+            log.warn("Email outbox poll failed, will retry: {}", e.getMessage());
+        } finally {
+            polling.set(false);
+        }
+        long cutoff = System.currentTimeMillis() - RATE_WINDOW_MS;
+        recipientWindows.values().removeIf(w -> w.startedAt < cutoff);
+    }
+
+    public Map<String, Object> getBacklog() {
+        Map<String, Object> backlog = new HashMap<>();
+        backlog.put("pending", outboxRepository.countByStatus("PENDING"));
+        backlog.put("sending", outboxRepository.countByStatus("SENDING"));
+        backlog.put("failed", outboxRepository.countByStatus("FAILED"));
+        backlog.put("queuedOnThisNode", workerPool.getQueue().size());
+        return backlog;
+    }
+
+    private void pollSoon() {
+        try {
+            workerPool.execute(new Delivery(null, 2, deliverySeq.incrementAndGet()));
+        } catch (RejectedExecutionException e) {
+            // shutting down; the next node to poll picks the messages up
+        }
+    }
+
+    private void dispatch(Long id, String lane) {
+        if (!inFlight.add(id)) {
+            return;
+        }
+        try {
+            workerPool.execute(new Delivery(id, EmailOutboxMessage.LANE_OTP.equals(lane) ? 0 : 1, deliverySeq.incrementAndGet()));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(id);
+        }
+    }
+
+    private void process(Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status ->
+                outboxRepository.claim(id, now, now.plusNanos(leaseMs * 1_000_000L)));
+        if (claimed == null || claimed != 1) {
+            return;
+        }
+        EmailOutboxMessage message = outboxRepository.findById(id).orElse(null);
+        if (message == null) {
+            return;
+        }
+
+        boolean otp = EmailOutboxMessage.LANE_OTP.equals(message.getLane());
+        if (otp && otpTtlMs > 0 && message.getCreatedAt() != null
+                && message.getCreatedAt().plusNanos(otpTtlMs * 1_000_000L).isBefore(now)) {
+            recordFailure(message, "FAILED", now, "OTP expired before it could be delivered");
+            return;
+        }
+        if (!otp) {
+            long retryAt = reserveRecipientSlot(message.getRecipient());
+            if (retryAt > 0) {
+                LocalDateTime next = now.plusNanos((retryAt - System.currentTimeMillis()) * 1_000_000L);
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.defer(id, next));
+                return;
+            }
+        }
+
+        try {
+            deliver(message);
+        } catch (Exception e) {
+            int attempt = (message.getAttempts() != null ? message.getAttempts() : 0) + 1;
+            if (attempt >= maxAttempts) {
+                log.error("Email {} to {} failed for good after {} attempts: {}", id, message.getRecipient(), attempt, e.getMessage());
+                recordFailure(message, "FAILED", LocalDateTime.now(), e.getMessage());
+            } else {
+                long delay = Math.min(retryMaxMs, retryBaseMs << Math.min(attempt - 1, 20));
+                log.warn("Email {} to {} failed (attempt {}), retrying in {} ms: {}", id, message.getRecipient(), attempt, delay, e.getMessage());
+                recordFailure(message, "PENDING", LocalDateTime.now().plusNanos(delay * 1_000_000L), e.getMessage());
+            }
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.markSent(id, LocalDateTime.now()));
+        log.info("Email {} ({}) sent to {}", id, message.getLane(), message.getRecipient());
+    }
+
+    private void recordFailure(EmailOutboxMessage message, String status, LocalDateTime nextAttemptAt, String error) {
+        String trimmed = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        transactionTemplate.executeWithoutResult(s ->
+                outboxRepository.markAttemptFailed(message.getId(), status, nextAttemptAt, trimmed));
+    }
+
+    /**
+     * Counts one mail against the recipient's current one-minute window. Returns 0 if it may be sent
+     * now, otherwise the epoch millis at which the window ends.
+     */
+    private long reserveRecipientSlot(String recipient) {
+        if (recipientLimitPerMinute <= 0) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        long[] retryAt = {0};
+        recipientWindows.compute(recipient.toLowerCase(), (key, window) -> {
+            RecipientWindow w = window == null || now - window.startedAt >= RATE_WINDOW_MS ? new RecipientWindow(now) : window;
+            if (w.sent >= recipientLimitPerMinute) {
+                retryAt[0] = w.startedAt + RATE_WINDOW_MS;
+            } else {
+                w.sent++;
+            }
+            return w;
+        });
+        return retryAt[0];
+    }
+
+    private void deliver(EmailOutboxMessage message) throws MessagingException {
+        JavaMailSender sender = mailSender.getIfAvailable();
+        GmailApiOtpService gmail = gmailApiOtpService.getIfAvailable();
+        if (EmailOutboxMessage.LANE_OTP.equals(message.getLane()) && gmail != null && gmail.isConfigured()) {
+            try {
+                gmail.sendPlainTextEmail(message.getRecipient(), message.getSubject(), message.getBody());
+                return;
+            } catch (GmailApiException e) {
+                if (sender == null) {
+                    throw e;
+                }
+                log.warn("Gmail API OTP send failed [{}] for email {}, falling back to SMTP: {}",
+                        e.getOAuthError(), message.getId(), e.getMessage());
+            }
+        }
+        if (sender == null) {
+            throw new IllegalStateException("No JavaMailSender configured");
+        }
+
+        String from = fromAddress();
+        if (message.getAttachment() == null && !Boolean.TRUE.equals(message.getHtml())) {
+            SimpleMailMessage simple = new SimpleMailMessage();
+            simple.setFrom(from);
+            simple.setTo(message.getRecipient());
+            simple.setSubject(message.getSubject());
+            simple.setText(message.getBody());
+            sender.send(simple);
+            return;
+        }
+        MimeMessage mime = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mime, message.getAttachment() != null, "UTF-8");
+        helper.setFrom(from);
+        helper.setTo(message.getRecipient());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getBody(), Boolean.TRUE.equals(message.getHtml()));
+        if (message.getAttachment() != null) {
+            helper.addAttachment(message.getAttachmentName(), new ByteArrayResource(message.getAttachment()),
+                    message.getAttachmentType() != null ? message.getAttachmentType() : "application/octet-stream");
+        }
+        sender.send(mime);
+    }
+
+    private String fromAddress() {
+        String from = environment.getProperty("spring.mail.username");
+        return from != null && !from.isBlank() ? from : DEFAULT_FROM;
+    }
+
+    private static final class RecipientWindow {
+        private final long startedAt;
+        private int sent;
+
+        RecipientWindow(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
+    /** Worker task; OTP lane (0) before the normal lane, then oldest first. A null id (2) is a poll. */
+    private final class Delivery implements Runnable, Comparable<Delivery> {
+        private final Long id;
+        private final int priority;
+        private final long seq;
+
+        Delivery(Long id, int priority, long seq) {
+            this.id = id;
+            this.priority = priority;
+            this.seq = seq;
+        }
+
+        @Override
+        public void run() {
+            if (id == null) {
+                pollDue();
+                return;
+            }
+            try {
+                process(id);
+            } catch (RuntimeException e) {
+                log.warn("Email outbox worker failed on email {}: {}", id, e.getMessage());
+            } finally {
+                inFlight.remove(id);
+            }
+            if (backlogged.get() && workerPool.getQueue().isEmpty()) {
+                pollDue();
+            }
+        }
+
+        @Override
+        public int compareTo(Delivery other) {
+            int byPriority = Integer.compare(priority, other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+}
@@ -1,17 +1,14 @@
 package com.neo.springapp.service;
 
 import com.neo.springapp.model.Loan;
+import com.neo.springapp.model.EmailOutboxMessage;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.core.env.Environment;
-import org.springframework.mail.MailAuthenticationException;
-import org.springframework.mail.MailSendException;
-import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
-import jakarta.mail.AuthenticationFailedException;
 
-import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 
 @Service
 @SuppressWarnings("null")
@@ -26,64 +23,9 @@ public class EmailService {
     @Autowired(required = false)
     private Environment environment;
 
-    private Object mailSender;
-    private boolean mailAvailable = false;
-    
-    @Autowired(required = false)
-    private ApplicationContext applicationContext;
-    
-    /**
-     * Initialize mail sender if available
-     */
-    private void initializeMailSender() {
-        if (mailAvailable) {
-            return; // Already initialized
-        }
-
-        if (javaMailSender != null) {
-            this.mailSender = javaMailSender;
-            this.mailAvailable = true;
-            System.out.println("✅ Email service initialized with JavaMailSender bean");
-            return;
-        }
-        
-        System.out.println("==========================================");
-        System.out.println("Initializing Email Service...");
-        System.out.println("ApplicationContext available: " + (applicationContext != null));
-        
-        try {
-            // Try to get JavaMailSender bean from context
-            Class<?> mailSenderClass = Class.forName("org.springframework.mail.javamail.JavaMailSender");
-            System.out.println("JavaMailSender class found");
-            
-            if (applicationContext != null) {
-                try {
-                    Object bean = applicationContext.getBean(mailSenderClass);
-                    if (bean != null) {
-                        this.mailSender = bean;
-                        this.mailAvailable = true;
-                        System.out.println("✅ Email service initialized with JavaMailSender");
-                        System.out.println("Mail sender bean type: " + bean.getClass().getName());
-                    }
-                } catch (Exception e) {
-                    // Bean not found, mail not configured
-                    System.out.println("❌ JavaMailSender bean not found in context");
-                    System.out.println("Error: " + e.getMessage());
-                    this.mailAvailable = false;
-                }
-            } else {
-                System.out.println("❌ ApplicationContext is null");
-                this.mailAvailable = false;
-            }
-        } catch (ClassNotFoundException e) {
-            // Mail dependency not available
-            System.out.println("❌ JavaMailSender class not found - mail dependency missing");
-            this.mailAvailable = false;
-        }
-        
-        System.out.println("Mail available: " + this.mailAvailable);
-        System.out.println("==========================================");
-    }
+    // Every send* method only queues the message; EmailOutboxService delivers it off the request thread
+    @Autowired
+    private EmailOutboxService outboxService;
 
     /**
      * Exchanges {@code GMAIL_REFRESH_TOKEN} for a short-lived access token (Gmail API).
@@ -97,37 +39,12 @@ public class EmailService {
         return gmailApiOtpService.fetchAccessToken();
     }
 
-    private boolean sendOtpViaGmailApi(String toEmail, String subject, String body) {
-        if (gmailApiOtpService == null || !gmailApiOtpService.isConfigured()) {
-            return false;
-        }
-        try {
-            gmailApiOtpService.sendPlainTextEmail(toEmail.trim(), subject, body);
-            System.out.println("✅ OTP email sent via Gmail API to " + toEmail);
-            return true;
-        } catch (GmailApiException e) {
-            System.err.println("❌ Gmail API OTP send failed [" + e.getOAuthError() + "]: " + e.getMessage());
-            return false;
-        }
-    }
-    
     /**
      * Send OTP email to user
      */
     public boolean sendOtpEmail(String toEmail, String otp) {
-        if (gmailApiOtpService != null && gmailApiOtpService.isConfigured()) {
-            boolean gmailSent = sendOtpViaGmailApi(toEmail, "NeoBank - Login OTP Verification", buildOtpEmailBody(otp));
-            if (gmailSent) {
-                return true;
-            }
-            System.err.println("⚠️ Gmail API OTP failed; falling back to SMTP/console for: " + toEmail);
-        }
-
-        // Initialize mail sender if not already done
-        initializeMailSender();
-        
         try {
-            if (!mailAvailable || mailSender == null || !isSmtpCredentialsConfigured()) {
+            if (!otpDeliveryReady()) {
                 System.out.println("==========================================");
                 System.out.println("LOGIN OTP EMAIL (SMTP credentials not set — console fallback)");
                 System.out.println("To: " + toEmail);
@@ -137,39 +54,14 @@ public class EmailService {
                 return true;
             }
 
-            String fromEmail = getFromEmail();
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(toEmail);
-            message.setFrom(fromEmail);
-            message.setSubject("NeoBank - Login OTP Verification");
-            message.setText(buildOtpEmailBody(otp));
-
             // OTP value is masked in logs to avoid leaking sensitive data.
-            System.out.println("📧 OTP generated for: " + toEmail + " | length=" + (otp != null ? otp.length() : 0));
-            System.out.println("📨 Sending OTP email via SMTP host: " + getMailHostForLogs() + " as user: " + fromEmail);
-            javaMailSender.send(message);
-            
-            System.out.println("==========================================");
-            System.out.println("✅ OTP email sent successfully!");
-            System.out.println("To: " + toEmail);
-            System.out.println("From: " + fromEmail);
-            System.out.println("==========================================");
+            outboxService.enqueue(EmailOutboxMessage.LANE_OTP, toEmail, "NeoBank - Login OTP Verification",
+                    buildOtpEmailBody(otp), false);
+            System.out.println("📨 OTP email queued for: " + toEmail + " | length=" + (otp != null ? otp.length() : 0));
             return true;
-        } catch (MailAuthenticationException e) {
-            System.err.println("❌ SMTP authentication failed while sending OTP email: " + e.getMessage());
-            Throwable cause = e.getCause();
-            if (cause instanceof AuthenticationFailedException) {
-                System.err.println("❌ Root cause: Gmail authentication failed (check App Password).");
-            } else if (cause != null) {
-                System.err.println("❌ Authentication cause: " + cause.getMessage());
-            }
-            return false;
-        } catch (MailSendException e) {
-            System.err.println("❌ MailSendException while sending OTP email: " + e.getMessage());
-            return false;
         } catch (Exception e) {
             System.err.println("==========================================");
-            System.err.println("FAILED TO SEND OTP EMAIL");
+            System.err.println("FAILED TO QUEUE OTP EMAIL");
             System.err.println("To: " + toEmail);
             System.err.println("Error: " + e.getMessage());
             System.err.println("Error Type: " + e.getClass().getName());
@@ -182,29 +74,10 @@ public class EmailService {
             return false;
         }
     }
-    
-    /**
-     * Get the 'from' email address from configuration
-     */
-    private String getFromEmail() {
-        if (environment != null) {
-            String fromEmail = environment.getProperty("spring.mail.username");
-            if (fromEmail != null && !fromEmail.isBlank()) {
-                return fromEmail;
-            }
-        }
-        return "noreply@neobank.com";
-    }
-
-    private String getMailHostForLogs() {
-        if (environment == null) return "unknown";
-        String host = environment.getProperty("spring.mail.host");
-        return host != null ? host : "unknown";
-    }
 
     /**
      * Spring Boot may still expose a {@link JavaMailSender} bean when only host/port defaults are set.
-     * Login OTP must not attempt SMTP without real credentials (always fails on hosts like Render).
+     * Mail must not be attempted over SMTP without real credentials (always fails on hosts like Render).
      */
     private boolean isSmtpCredentialsConfigured() {
         if (environment == null) {
@@ -214,17 +87,32 @@ public class EmailService {
         String pass = environment.getProperty("spring.mail.password");
         return user != null && !user.isBlank() && pass != null && !pass.isBlank();
     }
+
+    /** True when non-OTP mail will actually be sent; otherwise send* methods only log it. */
+    public boolean isMailConfigured() {
+        return smtpReady();
+    }
+
+    private boolean smtpReady() {
+        return javaMailSender != null && isSmtpCredentialsConfigured();
+    }
+
+    // OTPs can also go out through the Gmail API
+    private boolean otpDeliveryReady() {
+        return (gmailApiOtpService != null && gmailApiOtpService.isConfigured()) || smtpReady();
+    }
+
+    private static String pdfFileName(String prefix, String number) {
+        return prefix + number + "_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".pdf";
+    }
     
     /**
      * Send password reset OTP email to user
      */
     public boolean sendPasswordResetOtpEmail(String toEmail, String otp) {
-        // Initialize mail sender if not already done
-        initializeMailSender();
-        
         try {
             // If mail sender is not configured, log OTP to console (for development)
-            if (!mailAvailable || mailSender == null) {
+            if (!otpDeliveryReady()) {
                 System.out.println("==========================================");
                 System.out.println("PASSWORD RESET OTP EMAIL (Mail not configured - Development Mode)");
                 System.out.println("To: " + toEmail);
@@ -233,46 +121,9 @@ public class EmailService {
                 return true; // Return true for development
             }
             
-            // Use reflection to send email if mail dependency is available
-            Class<?> simpleMailMessageClass = Class.forName("org.springframework.mail.SimpleMailMessage");
-            Object message = simpleMailMessageClass.getDeclaredConstructor().newInstance();
-            
-            Method setToMethod = simpleMailMessageClass.getMethod("setTo", String.class);
-            Method setSubjectMethod = simpleMailMessageClass.getMethod("setSubject", String.class);
-            Method setTextMethod = simpleMailMessageClass.getMethod("setText", String.class);
-            Method setFromMethod = simpleMailMessageClass.getMethod("setFrom", String.class);
-            
-            setToMethod.invoke(message, toEmail);
-            setSubjectMethod.invoke(message, "NeoBank - Password Reset OTP");
-            setTextMethod.invoke(message, buildPasswordResetOtpEmailBody(otp));
-            // Use the configured email username as the "from" address
-            String fromEmail = getFromEmail();
-            setFromMethod.invoke(message, fromEmail);
-            System.out.println("Email 'From' address set to: " + fromEmail);
-            
-            System.out.println("Attempting to send password reset OTP email...");
-            System.out.println("Mail sender available: " + (mailSender != null));
-            
-            // Try to find the send method
-            Method sendMethod = null;
-            try {
-                sendMethod = mailSender.getClass().getMethod("send", Object.class);
-            } catch (NoSuchMethodException e) {
-                try {
-                    sendMethod = mailSender.getClass().getMethod("send", simpleMailMessageClass);
-                } catch (Exception e2) {
-                    throw new RuntimeException("Could not find send method", e2);
-                }
-            }
-            
-            System.out.println("Invoking send method...");
-            sendMethod.invoke(mailSender, message);
-            
-            System.out.println("==========================================");
-            System.out.println("✅ Password reset OTP email sent successfully!");
-            System.out.println("To: " + toEmail);
-            System.out.println("From: " + (applicationContext != null ? getFromEmail() : "noreply@neobank.com"));
-            System.out.println("==========================================");
+            outboxService.enqueue(EmailOutboxMessage.LANE_OTP, toEmail, "NeoBank - Password Reset OTP",
+                    buildPasswordResetOtpEmailBody(otp), false);
+            System.out.println("📨 Password reset OTP email queued for: " + toEmail);
             return true;
         } catch (Exception e) {
             System.err.println("==========================================");
@@ -328,12 +179,9 @@ public class EmailService {
      * Send KYC update OTP email to user
      */
     public boolean sendKycUpdateOtpEmail(String toEmail, String otp) {
-        // Initialize mail sender if not already done
-        initializeMailSender();
-        
         try {
             // If mail sender is not configured, log OTP to console (for development)
-            if (!mailAvailable || mailSender == null) {
+            if (!otpDeliveryReady()) {
                 System.out.println("==========================================");
                 System.out.println("KYC UPDATE OTP EMAIL (Mail not configured - Development Mode)");
                 System.out.println("To: " + toEmail);
@@ -342,46 +190,9 @@ public class EmailService {
                 return true; // Return true for development
             }
             
-            // Use reflection to send email if mail dependency is available
-            Class<?> simpleMailMessageClass = Class.forName("org.springframework.mail.SimpleMailMessage");
-            Object message = simpleMailMessageClass.getDeclaredConstructor().newInstance();
-            
-            Method setToMethod = simpleMailMessageClass.getMethod("setTo", String.class);
-            Method setSubjectMethod = simpleMailMessageClass.getMethod("setSubject", String.class);
-            Method setTextMethod = simpleMailMessageClass.getMethod("setText", String.class);
-            Method setFromMethod = simpleMailMessageClass.getMethod("setFrom", String.class);
-            
-            setToMethod.invoke(message, toEmail);
-            setSubjectMethod.invoke(message, "NeoBank - KYC Update OTP");
-            setTextMethod.invoke(message, buildKycUpdateOtpEmailBody(otp));
-            // Use the configured email username as the "from" address
-            String fromEmail = getFromEmail();
-            setFromMethod.invoke(message, fromEmail);
-            System.out.println("Email 'From' address set to: " + fromEmail);
-            
-            System.out.println("Attempting to send KYC update OTP email...");
-            System.out.println("Mail sender available: " + (mailSender != null));
-            
-            // Try to find the send method
-            Method sendMethod = null;
-            try {
-                sendMethod = mailSender.getClass().getMethod("send", Object.class);
-            } catch (NoSuchMethodException e) {
-                try {
-                    sendMethod = mailSender.getClass().getMethod("send", simpleMailMessageClass);
-                } catch (Exception e2) {
-                    throw new RuntimeException("Could not find send method", e2);
-                }
-            }
-            
-            System.out.println("Invoking send method...");
-            sendMethod.invoke(mailSender, message);
-            
-            System.out.println("==========================================");
-            System.out.println("✅ KYC update OTP email sent successfully!");
-            System.out.println("To: " + toEmail);
-            System.out.println("From: " + (applicationContext != null ? getFromEmail() : "noreply@neobank.com"));
-            System.out.println("==========================================");
+            outboxService.enqueue(EmailOutboxMessage.LANE_OTP, toEmail, "NeoBank - KYC Update OTP",
+                    buildKycUpdateOtpEmailBody(otp), false);
+            System.out.println("📨 KYC update OTP email queued for: " + toEmail);
             return true;
         } catch (Exception e) {
             System.err.println("==========================================");
@@ -423,13 +234,8 @@ public class EmailService {
      * The reason is included in subject and body so the user knows what the OTP is for.
      */
     public boolean sendOtpEmailWithReason(String toEmail, String otp, String reason) {
-        if (gmailApiOtpService != null && gmailApiOtpService.isConfigured()) {
-            return sendOtpViaGmailApi(toEmail, "NeoBank - OTP for " + reason, buildOtpEmailBodyWithReason(otp, reason));
-        }
-
-        initializeMailSender();
         try {
-            if (!mailAvailable || mailSender == null) {
+            if (!otpDeliveryReady()) {
                 System.out.println("==========================================");
                 System.out.println("OTP EMAIL - " + reason + " (Mail not configured - Development Mode)");
                 System.out.println("To: " + toEmail);
@@ -438,23 +244,9 @@ public class EmailService {
                 System.out.println("==========================================");
                 return true;
             }
-            Class<?> simpleMailMessageClass = Class.forName("org.springframework.mail.SimpleMailMessage");
-            Object message = simpleMailMessageClass.getDeclaredConstructor().newInstance();
-            Method setToMethod = simpleMailMessageClass.getMethod("setTo", String.class);
-            Method setSubjectMethod = simpleMailMessageClass.getMethod("setSubject", String.class);
-            Method setTextMethod = simpleMailMessageClass.getMethod("setText", String.class);
-            Method setFromMethod = simpleMailMessageClass.getMethod("setFrom", String.class);
-            setToMethod.invoke(message, toEmail);
-            setSubjectMethod.invoke(message, "NeoBank - OTP for " + reason);
-            setTextMethod.invoke(message, buildOtpEmailBodyWithReason(otp, reason));
-            String fromEmail = getFromEmail();
-            setFromMethod.invoke(message, fromEmail);
-            Method sendMethod = null;
-            try { sendMethod = mailSender.getClass().getMethod("send", Object.class); } catch (NoSuchMethodException e) {
-                sendMethod = mailSender.getClass().getMethod("send", simpleMailMessageClass);
-            }
-            sendMethod.invoke(mailSender, message);
-            System.out.println("✅ OTP email sent for " + reason + " to " + toEmail);
+            outboxService.enqueue(EmailOutboxMessage.LANE_OTP, toEmail, "NeoBank - OTP for " + reason,
+                    buildOtpEmailBodyWithReason(otp, reason), false);
+            System.out.println("📨 OTP email for " + reason + " queued for: " + toEmail);
             return true;
         } catch (Exception e) {
             System.err.println("FAILED TO SEND OTP EMAIL (" + reason + "): " + e.getMessage());
@@ -479,12 +271,9 @@ public class EmailService {
      * Send login notification email to user for security purposes
      */
     public boolean sendLoginNotificationEmail(String toEmail, String username, String loginTimestamp) {
-        // Initialize mail sender if not already done
-        initializeMailSender();
-        
         try {
             // If mail sender is not configured, log to console (for development)
-            if (!mailAvailable || mailSender == null) {
+            if (!smtpReady()) {
                 System.out.println("==========================================");
                 System.out.println("LOGIN NOTIFICATION EMAIL (Mail not configured - Development Mode)");
                 System.out.println("To: " + toEmail);
@@ -494,46 +283,9 @@ public class EmailService {
                 return true; // Return true for development
             }
             
-            // Use reflection to send email if mail dependency is available
-            Class<?> simpleMailMessageClass = Class.forName("org.springframework.mail.SimpleMailMessage");
-            Object message = simpleMailMessageClass.getDeclaredConstructor().newInstance();
-            
-            Method setToMethod = simpleMailMessageClass.getMethod("setTo", String.class);
-            Method setSubjectMethod = simpleMailMessageClass.getMethod("setSubject", String.class);
-            Method setTextMethod = simpleMailMessageClass.getMethod("setText", String.class);
-            Method setFromMethod = simpleMailMessageClass.getMethod("setFrom", String.class);
-            
-            setToMethod.invoke(message, toEmail);
-            setSubjectMethod.invoke(message, "NeoBank - Account Login Notification");
-            setTextMethod.invoke(message, buildLoginNotificationEmailBody(username, loginTimestamp));
-            // Use the configured email username as the "from" address
-            String fromEmail = getFromEmail();
-            setFromMethod.invoke(message, fromEmail);
-            System.out.println("Email 'From' address set to: " + fromEmail);
-            
-            System.out.println("Attempting to send login notification email...");
-            System.out.println("Mail sender available: " + (mailSender != null));
-            
-            // Try to find the send method
-            Method sendMethod = null;
-            try {
-                sendMethod = mailSender.getClass().getMethod("send", Object.class);
-            } catch (NoSuchMethodException e) {
-                try {
-                    sendMethod = mailSender.getClass().getMethod("send", simpleMailMessageClass);
-                } catch (Exception e2) {
-                    throw new RuntimeException("Could not find send method", e2);
-                }
-            }
-            
-            System.out.println("Invoking send method...");
-            sendMethod.invoke(mailSender, message);
-            
-            System.out.println("==========================================");
-            System.out.println("✅ Login notification email sent successfully!");
-            System.out.println("To: " + toEmail);
-            System.out.println("From: " + (applicationContext != null ? getFromEmail() : "noreply@neobank.com"));
-            System.out.println("==========================================");
+            outboxService.enqueue(EmailOutboxMessage.LANE_NORMAL, toEmail, "NeoBank - Account Login Notification",
+                    buildLoginNotificationEmailBody(username, loginTimestamp), false);
+            System.out.println("📨 Login notification email queued for: " + toEmail);
             return true;
         } catch (Exception e) {
             System.err.println("==========================================");
@@ -583,12 +335,9 @@ public class EmailService {
      * Send account tracking email to user with tracking ID and status
      */
     public boolean sendAccountTrackingEmail(String toEmail, String username, String trackingId, String aadharNumber, String status) {
-        // Initialize mail sender if not already done
-        initializeMailSender();
-        
         try {
             // If mail sender is not configured, log to console (for development)
-            if (!mailAvailable || mailSender == null) {
+            if (!smtpReady()) {
                 System.out.println("==========================================");
                 System.out.println("ACCOUNT TRACKING EMAIL (Mail not configured - Development Mode)");
                 System.out.println("To: " + toEmail);
@@ -600,47 +349,9 @@ public class EmailService {
                 return true; // Return true for development
             }
             
-            // Use reflection to send email if mail dependency is available
-            Class<?> simpleMailMessageClass = Class.forName("org.springframework.mail.SimpleMailMessage");
-            Object message = simpleMailMessageClass.getDeclaredConstructor().newInstance();
-            
-            Method setToMethod = simpleMailMessageClass.getMethod("setTo", String.class);
-            Method setSubjectMethod = simpleMailMessageClass.getMethod("setSubject", String.class);
-            Method setTextMethod = simpleMailMessageClass.getMethod("setText", String.class);
-            Method setFromMethod = simpleMailMessageClass.getMethod("setFrom", String.class);
-            
-            setToMethod.invoke(message, toEmail);
-            setSubjectMethod.invoke(message, "NeoBank - Account Creation Tracking ID");
-            setTextMethod.invoke(message, buildAccountTrackingEmailBody(username, trackingId, aadharNumber, status));
-            // Use the configured email username as the "from" address
-            String fromEmail = getFromEmail();
-            setFromMethod.invoke(message, fromEmail);
-            System.out.println("Email 'From' address set to: " + fromEmail);
-            
-            System.out.println("Attempting to send account tracking email...");
-            System.out.println("Mail sender available: " + (mailSender != null));
-            
-            // Try to find the send method
-            Method sendMethod = null;
-            try {
-                sendMethod = mailSender.getClass().getMethod("send", Object.class);
-            } catch (NoSuchMethodException e) {
-                try {
-                    sendMethod = mailSender.getClass().getMethod("send", simpleMailMessageClass);
-                } catch (Exception e2) {
-                    throw new RuntimeException("Could not find send method", e2);
-                }
-            }
-            
-            System.out.println("Invoking send method...");
-            sendMethod.invoke(mailSender, message);
-            
-            System.out.println("==========================================");
-            System.out.println("✅ Account tracking email sent successfully!");
-            System.out.println("To: " + toEmail);
-            System.out.println("From: " + (applicationContext != null ? getFromEmail() : "noreply@neobank.com"));
-            System.out.println("Tracking ID: " + trackingId);
-            System.out.println("==========================================");
+            outboxService.enqueue(EmailOutboxMessage.LANE_NORMAL, toEmail, "NeoBank - Account Creation Tracking ID",
+                    buildAccountTrackingEmailBody(username, trackingId, aadharNumber, status), false);
+            System.out.println("📨 Account tracking email queued for: " + toEmail);
             return true;
         } catch (Exception e) {
             System.err.println("==========================================");
@@ -714,12 +425,9 @@ public class EmailService {
      * Send bank statement PDF via email
      */
     public boolean sendBankStatementEmail(String toEmail, String accountNumber, String userName, byte[] pdfBytes) {
-        // Initialize mail sender if not already done
-        initializeMailSender();
-        
         try {
             // If mail sender is not configured, log to console (for development)
-            if (!mailAvailable || mailSender == null) {
+            if (!smtpReady()) {
                 System.out.println("==========================================");
                 System.out.println("BANK STATEMENT EMAIL (Mail not configured - Development Mode)");
                 System.out.println("To: " + toEmail);
@@ -731,91 +439,11 @@ public class EmailService {
                 return true; // Return true for development
             }
             
-            System.out.println("Attempting to send bank statement email with attachment...");
-            System.out.println("Mail sender class: " + mailSender.getClass().getName());
-            
-            // Use reflection to send email with attachment if mail dependency is available
-            Class<?> mimeMessageClass = Class.forName("javax.mail.internet.MimeMessage");
-            Class<?> mimeMessageHelperClass = Class.forName("org.springframework.mail.javamail.MimeMessageHelper");
-            Class<?> dataSourceClass = Class.forName("javax.activation.DataSource");
-            
-            // Try Spring's ByteArrayDataSource first, then fall back to javax.activation
-            Class<?> byteArrayDataSourceClass = null;
-            try {
-                byteArrayDataSourceClass = Class.forName("org.springframework.mail.javamail.ByteArrayDataSource");
-                System.out.println("Using Spring's ByteArrayDataSource");
-            } catch (ClassNotFoundException e) {
-                // Fall back to javax.activation.ByteArrayDataSource
-                try {
-                    byteArrayDataSourceClass = Class.forName("javax.activation.ByteArrayDataSource");
-                    System.out.println("Using javax.activation.ByteArrayDataSource");
-                } catch (ClassNotFoundException e2) {
-                    System.err.println("Could not find ByteArrayDataSource class");
-                    throw new RuntimeException("ByteArrayDataSource not found", e2);
-                }
-            }
-            
-            // Create MimeMessage
-            Method createMimeMessageMethod = mailSender.getClass().getMethod("createMimeMessage");
-            Object mimeMessage = createMimeMessageMethod.invoke(mailSender);
-            System.out.println("MimeMessage created successfully");
-            
-            // Create MimeMessageHelper
-            Object helper = mimeMessageHelperClass.getConstructor(mimeMessageClass, boolean.class)
-                .newInstance(mimeMessage, true);
-            System.out.println("MimeMessageHelper created successfully");
-            
-            // Set email properties
-            Method setToMethod = mimeMessageHelperClass.getMethod("setTo", String.class);
-            Method setSubjectMethod = mimeMessageHelperClass.getMethod("setSubject", String.class);
-            Method setTextMethod = mimeMessageHelperClass.getMethod("setText", String.class, boolean.class);
-            Method setFromMethod = mimeMessageHelperClass.getMethod("setFrom", String.class);
-            Method addAttachmentMethod = mimeMessageHelperClass.getMethod("addAttachment", String.class, dataSourceClass);
-            
-            String fromEmail = getFromEmail();
-            setFromMethod.invoke(helper, fromEmail);
-            setToMethod.invoke(helper, toEmail);
-            setSubjectMethod.invoke(helper, "NeoBank - Account Statement");
-            setTextMethod.invoke(helper, buildBankStatementEmailBody(userName, accountNumber), true);
-            System.out.println("Email properties set: From=" + fromEmail + ", To=" + toEmail);
-            
-            // Create DataSource for PDF attachment
-            Object dataSource = byteArrayDataSourceClass.getConstructor(byte[].class, String.class)
-                .newInstance(pdfBytes, "application/pdf");
-            
-            String fileName = "Bank_Statement_" + accountNumber + "_" + 
-                            java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd")) + ".pdf";
-            addAttachmentMethod.invoke(helper, fileName, dataSource);
-            System.out.println("PDF attachment added: " + fileName + " (" + pdfBytes.length + " bytes)");
-            
-            // Send the email
-            Method sendMimeMessageMethod = mailSender.getClass().getMethod("send", mimeMessageClass);
-            System.out.println("Sending email...");
-            
-            try {
-                sendMimeMessageMethod.invoke(mailSender, mimeMessage);
-                
-                System.out.println("==========================================");
-                System.out.println("✅ Bank statement email sent successfully!");
-                System.out.println("To: " + toEmail);
-                System.out.println("From: " + fromEmail);
-                System.out.println("Attachment: " + fileName);
-                System.out.println("==========================================");
-                return true;
-            } catch (Exception sendException) {
-                // Catch sending errors specifically
-                System.err.println("==========================================");
-                System.err.println("EMAIL SENDING FAILED (Exception during send)");
-                System.err.println("To: " + toEmail);
-                System.err.println("Error: " + sendException.getMessage());
-                if (sendException.getCause() != null) {
-                    System.err.println("Cause: " + sendException.getCause().getMessage());
-                    System.err.println("Cause Type: " + sendException.getCause().getClass().getName());
-                }
-                sendException.printStackTrace();
-                System.err.println("==========================================");
-                throw sendException; // Re-throw to be caught by outer catch
-            }
+            outboxService.enqueue(EmailOutboxMessage.LANE_NORMAL, toEmail, "NeoBank - Account Statement",
+                    buildBankStatementEmailBody(userName, accountNumber), true,
+                    pdfFileName("Bank_Statement_", accountNumber), "application/pdf", pdfBytes);
+            System.out.println("📨 Bank statement email queued for: " + toEmail + " (" + (pdfBytes != null ? pdfBytes.length : 0) + " bytes)");
+            return true;
         } catch (Exception e) {
             System.err.println("==========================================");
             System.err.println("FAILED TO SEND BANK STATEMENT EMAIL");
@@ -885,12 +513,9 @@ public class EmailService {
      * Send loan foreclosure PDF via email
      */
     public boolean sendForeclosureEmail(String toEmail, String loanAccountNumber, String userName, byte[] pdfBytes) {
-        // Initialize mail sender if not already done
-        initializeMailSender();
-        
         try {
             // If mail sender is not configured, log to console (for development)
-            if (!mailAvailable || mailSender == null) {
+            if (!smtpReady()) {
                 System.out.println("==========================================");
                 System.out.println("FORECLOSURE EMAIL (Mail not configured - Development Mode)");
                 System.out.println("To: " + toEmail);
@@ -901,88 +526,11 @@ public class EmailService {
                 return true; // Return true for development
             }
             
-            System.out.println("Attempting to send foreclosure email with attachment...");
-            System.out.println("Mail sender class: " + mailSender.getClass().getName());
-            
-            // Use reflection to send email with attachment
-            Class<?> mimeMessageClass = Class.forName("javax.mail.internet.MimeMessage");
-            Class<?> mimeMessageHelperClass = Class.forName("org.springframework.mail.javamail.MimeMessageHelper");
-            Class<?> dataSourceClass = Class.forName("javax.activation.DataSource");
-            
-            // Try Spring's ByteArrayDataSource first, then fall back to javax.activation
-            Class<?> byteArrayDataSourceClass = null;
-            try {
-                byteArrayDataSourceClass = Class.forName("org.springframework.mail.javamail.ByteArrayDataSource");
-                System.out.println("Using Spring's ByteArrayDataSource");
-            } catch (ClassNotFoundException e) {
-                try {
-                    byteArrayDataSourceClass = Class.forName("javax.activation.ByteArrayDataSource");
-                    System.out.println("Using javax.activation.ByteArrayDataSource");
-                } catch (ClassNotFoundException e2) {
-                    System.err.println("Could not find ByteArrayDataSource class");
-                    throw new RuntimeException("ByteArrayDataSource not found", e2);
-                }
-            }
-            
-            // Create MimeMessage
-            Method createMimeMessageMethod = mailSender.getClass().getMethod("createMimeMessage");
-            Object mimeMessage = createMimeMessageMethod.invoke(mailSender);
-            System.out.println("MimeMessage created successfully");
-            
-            // Create MimeMessageHelper
-            Object helper = mimeMessageHelperClass.getConstructor(mimeMessageClass, boolean.class)
-                .newInstance(mimeMessage, true);
-            System.out.println("MimeMessageHelper created successfully");
-            
-            // Set email properties
-            Method setToMethod = mimeMessageHelperClass.getMethod("setTo", String.class);
-            Method setSubjectMethod = mimeMessageHelperClass.getMethod("setSubject", String.class);
-            Method setTextMethod = mimeMessageHelperClass.getMethod("setText", String.class, boolean.class);
-            Method setFromMethod = mimeMessageHelperClass.getMethod("setFrom", String.class);
-            Method addAttachmentMethod = mimeMessageHelperClass.getMethod("addAttachment", String.class, dataSourceClass);
-            
-            String fromEmail = getFromEmail();
-            setFromMethod.invoke(helper, fromEmail);
-            setToMethod.invoke(helper, toEmail);
-            setSubjectMethod.invoke(helper, "NeoBank - Loan Foreclosure Statement");
-            setTextMethod.invoke(helper, buildForeclosureEmailBody(userName, loanAccountNumber), true);
-            System.out.println("Email properties set: From=" + fromEmail + ", To=" + toEmail);
-            
-            // Create DataSource for PDF attachment
-            Object dataSource = byteArrayDataSourceClass.getConstructor(byte[].class, String.class)
-                .newInstance(pdfBytes, "application/pdf");
-            
-            String fileName = "Foreclosure_Statement_" + loanAccountNumber + "_" + 
-                            java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd")) + ".pdf";
-            addAttachmentMethod.invoke(helper, fileName, dataSource);
-            System.out.println("PDF attachment added: " + fileName + " (" + pdfBytes.length + " bytes)");
-            
-            // Send the email
-            Method sendMimeMessageMethod = mailSender.getClass().getMethod("send", mimeMessageClass);
-            System.out.println("Sending email...");
-            
-            try {
-                sendMimeMessageMethod.invoke(mailSender, mimeMessage);
-                
-                System.out.println("==========================================");
-                System.out.println("✅ Foreclosure email sent successfully!");
-                System.out.println("To: " + toEmail);
-                System.out.println("From: " + fromEmail);
-                System.out.println("Attachment: " + fileName);
-                System.out.println("==========================================");
-                return true;
-            } catch (Exception sendException) {
-                System.err.println("==========================================");
-                System.err.println("EMAIL SENDING FAILED (Exception during send)");
-                System.err.println("To: " + toEmail);
-                System.err.println("Error: " + sendException.getMessage());
-                if (sendException.getCause() != null) {
-                    System.err.println("Cause: " + sendException.getCause().getMessage());
-                }
-                sendException.printStackTrace();
-                System.err.println("==========================================");
-                throw sendException;
-            }
+            outboxService.enqueue(EmailOutboxMessage.LANE_NORMAL, toEmail, "NeoBank - Loan Foreclosure Statement",
+                    buildForeclosureEmailBody(userName, loanAccountNumber), true,
+                    pdfFileName("Foreclosure_Statement_", loanAccountNumber), "application/pdf", pdfBytes);
+            System.out.println("📨 Foreclosure email queued for: " + toEmail + " (" + (pdfBytes != null ? pdfBytes.length : 0) + " bytes)");
+            return true;
         } catch (Exception e) {
             System.err.println("==========================================");
             System.err.println("FAILED TO SEND FORECLOSURE EMAIL");
@@ -1049,10 +597,8 @@ public class EmailService {
      */
     public boolean sendEmiReminderEmail(String toEmail, String userName, String loanAccountNumber, 
                                        java.time.LocalDate dueDate, Double emiAmount, Integer emiNumber) {
-        initializeMailSender();
-        
         try {
-            if (!mailAvailable || mailSender == null) {
+            if (!smtpReady()) {
                 System.out.println("==========================================");
                 System.out.println("EMI REMINDER EMAIL (Mail not configured - Development Mode)");
                 System.out.println("To: " + toEmail);
@@ -1064,24 +610,9 @@ public class EmailService {
                 return true;
             }
             
-            Class<?> simpleMailMessageClass = Class.forName("org.springframework.mail.SimpleMailMessage");
-            Object message = simpleMailMessageClass.getDeclaredConstructor().newInstance();
-            
-            Method setToMethod = simpleMailMessageClass.getMethod("setTo", String.class);
-            Method setSubjectMethod = simpleMailMessageClass.getMethod("setSubject", String.class);
-            Method setTextMethod = simpleMailMessageClass.getMethod("setText", String.class);
-            Method setFromMethod = simpleMailMessageClass.getMethod("setFrom", String.class);
-            
-            setToMethod.invoke(message, toEmail);
-            setSubjectMethod.invoke(message, "NeoBank - EMI Payment Reminder");
-            setTextMethod.invoke(message, buildEmiReminderEmailBody(userName, loanAccountNumber, dueDate, emiAmount, emiNumber));
-            String fromEmail = getFromEmail();
-            setFromMethod.invoke(message, fromEmail);
-            
-            Method sendMethod = mailSender.getClass().getMethod("send", Object.class);
-            sendMethod.invoke(mailSender, message);
-            
-            System.out.println("✅ EMI reminder email sent successfully to: " + toEmail);
+            outboxService.enqueue(EmailOutboxMessage.LANE_NORMAL, toEmail, "NeoBank - EMI Payment Reminder",
+                    buildEmiReminderEmailBody(userName, loanAccountNumber, dueDate, emiAmount, emiNumber), false);
+            System.out.println("📨 EMI reminder email queued for: " + toEmail);
             return true;
         } catch (Exception e) {
             System.err.println("Error sending EMI reminder email: " + e.getMessage());
@@ -1112,10 +643,8 @@ public class EmailService {
      * Send passbook PDF via email
      */
     public boolean sendPassbookEmail(String toEmail, String accountNumber, String userName, byte[] pdfBytes) {
-        initializeMailSender();
-        
         try {
-            if (!mailAvailable || mailSender == null) {
+            if (!smtpReady()) {
                 System.out.println("==========================================");
                 System.out.println("PASSBOOK EMAIL (Mail not configured - Development Mode)");
                 System.out.println("To: " + toEmail);
@@ -1126,48 +655,10 @@ public class EmailService {
                 return true;
             }
             
-            System.out.println("Attempting to send passbook email with attachment...");
-            
-            Class<?> mimeMessageClass = Class.forName("javax.mail.internet.MimeMessage");
-            Class<?> mimeMessageHelperClass = Class.forName("org.springframework.mail.javamail.MimeMessageHelper");
-            Class<?> dataSourceClass = Class.forName("javax.activation.DataSource");
-            
-            Class<?> byteArrayDataSourceClass = null;
-            try {
-                byteArrayDataSourceClass = Class.forName("org.springframework.mail.javamail.ByteArrayDataSource");
-            } catch (ClassNotFoundException e) {
-                byteArrayDataSourceClass = Class.forName("javax.activation.ByteArrayDataSource");
-            }
-            
-            Method createMimeMessageMethod = mailSender.getClass().getMethod("createMimeMessage");
-            Object mimeMessage = createMimeMessageMethod.invoke(mailSender);
-            
-            Object helper = mimeMessageHelperClass.getConstructor(mimeMessageClass, boolean.class)
-                .newInstance(mimeMessage, true);
-            
-            Method setToMethod = mimeMessageHelperClass.getMethod("setTo", String.class);
-            Method setSubjectMethod = mimeMessageHelperClass.getMethod("setSubject", String.class);
-            Method setTextMethod = mimeMessageHelperClass.getMethod("setText", String.class, boolean.class);
-            Method setFromMethod = mimeMessageHelperClass.getMethod("setFrom", String.class);
-            Method addAttachmentMethod = mimeMessageHelperClass.getMethod("addAttachment", String.class, dataSourceClass);
-            
-            String fromEmail = getFromEmail();
-            setFromMethod.invoke(helper, fromEmail);
-            setToMethod.invoke(helper, toEmail);
-            setSubjectMethod.invoke(helper, "NeoBank - Account Passbook");
-            setTextMethod.invoke(helper, buildPassbookEmailBody(userName, accountNumber), true);
-            
-            Object dataSource = byteArrayDataSourceClass.getConstructor(byte[].class, String.class)
-                .newInstance(pdfBytes, "application/pdf");
-            
-            String fileName = "NeoBank_Passbook_" + accountNumber + "_" + 
-                            java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd")) + ".pdf";
-            addAttachmentMethod.invoke(helper, fileName, dataSource);
-            
-            Method sendMimeMessageMethod = mailSender.getClass().getMethod("send", mimeMessageClass);
-            sendMimeMessageMethod.invoke(mailSender, mimeMessage);
-            
-            System.out.println("✅ Passbook email sent successfully to: " + toEmail);
+            outboxService.enqueue(EmailOutboxMessage.LANE_NORMAL, toEmail, "NeoBank - Account Passbook",
+                    buildPassbookEmailBody(userName, accountNumber), true,
+                    pdfFileName("NeoBank_Passbook_", accountNumber), "application/pdf", pdfBytes);
+            System.out.println("📨 Passbook email queued for: " + toEmail + " (" + (pdfBytes != null ? pdfBytes.length : 0) + " bytes)");
             return true;
         } catch (Exception e) {
             System.err.println("Error sending passbook email: " + e.getMessage());
@@ -1215,10 +706,8 @@ public class EmailService {
      * Send gold loan receipt PDF via email
      */
     public boolean sendGoldLoanReceiptEmail(String toEmail, String loanAccountNumber, String userName, byte[] pdfBytes) {
-        initializeMailSender();
-        
         try {
-            if (!mailAvailable || mailSender == null) {
+            if (!smtpReady()) {
                 System.out.println("==========================================");
                 System.out.println("GOLD LOAN RECEIPT EMAIL (Mail not configured - Development Mode)");
                 System.out.println("To: " + toEmail);
@@ -1229,46 +718,10 @@ public class EmailService {
                 return true;
             }
             
-            Class<?> mimeMessageClass = Class.forName("javax.mail.internet.MimeMessage");
-            Class<?> mimeMessageHelperClass = Class.forName("org.springframework.mail.javamail.MimeMessageHelper");
-            Class<?> dataSourceClass = Class.forName("javax.activation.DataSource");
-            
-            Class<?> byteArrayDataSourceClass = null;
-            try {
-                byteArrayDataSourceClass = Class.forName("org.springframework.mail.javamail.ByteArrayDataSource");
-            } catch (ClassNotFoundException e) {
-                byteArrayDataSourceClass = Class.forName("javax.activation.ByteArrayDataSource");
-            }
-            
-            Method createMimeMessageMethod = mailSender.getClass().getMethod("createMimeMessage");
-            Object mimeMessage = createMimeMessageMethod.invoke(mailSender);
-            
-            Object helper = mimeMessageHelperClass.getConstructor(mimeMessageClass, boolean.class)
-                .newInstance(mimeMessage, true);
-            
-            Method setToMethod = mimeMessageHelperClass.getMethod("setTo", String.class);
-            Method setSubjectMethod = mimeMessageHelperClass.getMethod("setSubject", String.class);
-            Method setTextMethod = mimeMessageHelperClass.getMethod("setText", String.class, boolean.class);
-            Method setFromMethod = mimeMessageHelperClass.getMethod("setFrom", String.class);
-            Method addAttachmentMethod = mimeMessageHelperClass.getMethod("addAttachment", String.class, dataSourceClass);
-            
-            String fromEmail = getFromEmail();
-            setFromMethod.invoke(helper, fromEmail);
-            setToMethod.invoke(helper, toEmail);
-            setSubjectMethod.invoke(helper, "NeoBank - Gold Loan Receipt");
-            setTextMethod.invoke(helper, buildGoldLoanReceiptEmailBody(userName, loanAccountNumber), true);
-            
-            Object dataSource = byteArrayDataSourceClass.getConstructor(byte[].class, String.class)
-                .newInstance(pdfBytes, "application/pdf");
-            
-            String fileName = "Gold_Loan_Receipt_" + loanAccountNumber + "_" + 
-                            java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd")) + ".pdf";
-            addAttachmentMethod.invoke(helper, fileName, dataSource);
-            
-            Method sendMimeMessageMethod = mailSender.getClass().getMethod("send", mimeMessageClass);
-            sendMimeMessageMethod.invoke(mailSender, mimeMessage);
-            
-            System.out.println("✅ Gold loan receipt email sent successfully to: " + toEmail);
+            outboxService.enqueue(EmailOutboxMessage.LANE_NORMAL, toEmail, "NeoBank - Gold Loan Receipt",
+                    buildGoldLoanReceiptEmailBody(userName, loanAccountNumber), true,
+                    pdfFileName("Gold_Loan_Receipt_", loanAccountNumber), "application/pdf", pdfBytes);
+            System.out.println("📨 Gold loan receipt email queued for: " + toEmail + " (" + (pdfBytes != null ? pdfBytes.length : 0) + " bytes)");
             return true;
         } catch (Exception e) {
             System.err.println("Error sending gold loan receipt email: " + e.getMessage());
@@ -1318,10 +771,8 @@ public class EmailService {
      * Send personal loan receipt PDF via email
      */
     public boolean sendPersonalLoanReceiptEmail(String toEmail, String loanAccountNumber, String userName, byte[] pdfBytes) {
-        initializeMailSender();
-        
         try {
-            if (!mailAvailable || mailSender == null) {
+            if (!smtpReady()) {
                 System.out.println("==========================================");
                 System.out.println("PERSONAL LOAN RECEIPT EMAIL (Mail not configured - Development Mode)");
                 System.out.println("To: " + toEmail);
@@ -1332,46 +783,10 @@ public class EmailService {
                 return true;
             }
             
-            Class<?> mimeMessageClass = Class.forName("javax.mail.internet.MimeMessage");
-            Class<?> mimeMessageHelperClass = Class.forName("org.springframework.mail.javamail.MimeMessageHelper");
-            Class<?> dataSourceClass = Class.forName("javax.activation.DataSource");
-            
-            Class<?> byteArrayDataSourceClass = null;
-            try {
-                byteArrayDataSourceClass = Class.forName("org.springframework.mail.javamail.ByteArrayDataSource");
-            } catch (ClassNotFoundException e) {
-                byteArrayDataSourceClass = Class.forName("javax.activation.ByteArrayDataSource");
-            }
-            
-            Method createMimeMessageMethod = mailSender.getClass().getMethod("createMimeMessage");
-            Object mimeMessage = createMimeMessageMethod.invoke(mailSender);
-            
-            Object helper = mimeMessageHelperClass.getConstructor(mimeMessageClass, boolean.class)
-                .newInstance(mimeMessage, true);
-            
-            Method setToMethod = mimeMessageHelperClass.getMethod("setTo", String.class);
-            Method setSubjectMethod = mimeMessageHelperClass.getMethod("setSubject", String.class);
-            Method setTextMethod = mimeMessageHelperClass.getMethod("setText", String.class, boolean.class);
-            Method setFromMethod = mimeMessageHelperClass.getMethod("setFrom", String.class);
-            Method addAttachmentMethod = mimeMessageHelperClass.getMethod("addAttachment", String.class, dataSourceClass);
-            
-            String fromEmail = getFromEmail();
-            setFromMethod.invoke(helper, fromEmail);
-            setToMethod.invoke(helper, toEmail);
-            setSubjectMethod.invoke(helper, "NeoBank - Personal Loan Receipt");
-            setTextMethod.invoke(helper, buildPersonalLoanReceiptEmailBody(userName, loanAccountNumber), true);
-            
-            Object dataSource = byteArrayDataSourceClass.getConstructor(byte[].class, String.class)
-                .newInstance(pdfBytes, "application/pdf");
-            
-            String fileName = "Personal_Loan_Receipt_" + loanAccountNumber + "_" + 
-                            java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd")) + ".pdf";
-            addAttachmentMethod.invoke(helper, fileName, dataSource);
-            
-            Method sendMimeMessageMethod = mailSender.getClass().getMethod("send", mimeMessageClass);
-            sendMimeMessageMethod.invoke(mailSender, mimeMessage);
-            
-            System.out.println("✅ Personal loan receipt email sent successfully to: " + toEmail);
+            outboxService.enqueue(EmailOutboxMessage.LANE_NORMAL, toEmail, "NeoBank - Personal Loan Receipt",
+                    buildPersonalLoanReceiptEmailBody(userName, loanAccountNumber), true,
+                    pdfFileName("Personal_Loan_Receipt_", loanAccountNumber), "application/pdf", pdfBytes);
+            System.out.println("📨 Personal loan receipt email queued for: " + toEmail + " (" + (pdfBytes != null ? pdfBytes.length : 0) + " bytes)");
             return true;
         } catch (Exception e) {
             System.err.println("Error sending personal loan receipt email: " + e.getMessage());
@@ -1422,9 +837,8 @@ public class EmailService {
      * Used when PDF generation fails or as fallback so user always receives loan details.
      */
     public boolean sendPersonalLoanDetailsEmail(Loan loan, String toEmail, String userName) {
-        initializeMailSender();
         try {
-            if (!mailAvailable || mailSender == null) {
+            if (!smtpReady()) {
                 System.out.println("==========================================");
                 System.out.println("PERSONAL LOAN DETAILS EMAIL (Mail not configured - Development Mode)");
                 System.out.println("To: " + toEmail);
@@ -1432,20 +846,9 @@ public class EmailService {
                 System.out.println("==========================================");
                 return true;
             }
-            Class<?> simpleMailMessageClass = Class.forName("org.springframework.mail.SimpleMailMessage");
-            Object message = simpleMailMessageClass.getDeclaredConstructor().newInstance();
-            Method setToMethod = simpleMailMessageClass.getMethod("setTo", String.class);
-            Method setSubjectMethod = simpleMailMessageClass.getMethod("setSubject", String.class);
-            Method setTextMethod = simpleMailMessageClass.getMethod("setText", String.class);
-            Method setFromMethod = simpleMailMessageClass.getMethod("setFrom", String.class);
-            setToMethod.invoke(message, toEmail);
-            setSubjectMethod.invoke(message, "NeoBank - Personal Loan Approved");
-            String body = buildPersonalLoanDetailsTextBody(loan, userName);
-            setTextMethod.invoke(message, body);
-            setFromMethod.invoke(message, getFromEmail());
-            Method sendMethod = mailSender.getClass().getMethod("send", Object.class);
-            sendMethod.invoke(mailSender, message);
-            System.out.println("✅ Personal loan details email sent to: " + toEmail);
+            outboxService.enqueue(EmailOutboxMessage.LANE_NORMAL, toEmail, "NeoBank - Personal Loan Approved",
+                    buildPersonalLoanDetailsTextBody(loan, userName), false);
+            System.out.println("📨 Personal loan details email queued for: " + toEmail);
             return true;
         } catch (Exception e) {
             System.err.println("Error sending personal loan details email: " + e.getMessage());
@@ -1477,9 +880,8 @@ public class EmailService {
      */
     public boolean sendEducationSubsidyCreditedEmail(String toEmail, String userName, String loanAccountNumber,
                                                      Double creditedAmount, String accountNumber) {
-        initializeMailSender();
         try {
-            if (!mailAvailable || mailSender == null) {
+            if (!smtpReady()) {
                 System.out.println("==========================================");
                 System.out.println("EDUCATION SUBSIDY CREDITED EMAIL (Mail not configured - Development Mode)");
                 System.out.println("To: " + toEmail);
@@ -1487,25 +889,15 @@ public class EmailService {
                 System.out.println("==========================================");
                 return true;
             }
-            Class<?> simpleMailMessageClass = Class.forName("org.springframework.mail.SimpleMailMessage");
-            Object message = simpleMailMessageClass.getDeclaredConstructor().newInstance();
-            Method setToMethod = simpleMailMessageClass.getMethod("setTo", String.class);
-            Method setSubjectMethod = simpleMailMessageClass.getMethod("setSubject", String.class);
-            Method setTextMethod = simpleMailMessageClass.getMethod("setText", String.class);
-            Method setFromMethod = simpleMailMessageClass.getMethod("setFrom", String.class);
-            setToMethod.invoke(message, toEmail);
-            setSubjectMethod.invoke(message, "NeoBank - Education Loan Interest Subsidy Credited");
             String body = "Dear " + (userName != null ? userName : "Customer") + ",\n\n"
                     + "Your education loan interest subsidy has been credited to your account.\n\n"
                     + "Loan Account Number: " + (loanAccountNumber != null ? loanAccountNumber : "N/A") + "\n"
                     + "Subsidy Amount Credited: Rs. " + (creditedAmount != null ? String.format("%.2f", creditedAmount) : "0.00") + "\n"
                     + "Credited to Account: " + (accountNumber != null ? accountNumber : "N/A") + "\n\n"
                     + "Thank you for banking with NeoBank.\n\nBest regards,\nNeoBank Team";
-            setTextMethod.invoke(message, body);
-            setFromMethod.invoke(message, getFromEmail());
-            Method sendMethod = mailSender.getClass().getMethod("send", Object.class);
-            sendMethod.invoke(mailSender, message);
-            System.out.println("✅ Education subsidy credited email sent to: " + toEmail);
+            outboxService.enqueue(EmailOutboxMessage.LANE_NORMAL, toEmail, "NeoBank - Education Loan Interest Subsidy Credited",
+                    body, false);
+            System.out.println("📨 Education subsidy credited email queued for: " + toEmail);
             return true;
         } catch (Exception e) {
             System.err.println("Error sending education subsidy credited email: " + e.getMessage());
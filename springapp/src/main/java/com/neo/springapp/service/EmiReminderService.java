@@ -0,0 +1,181 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.EmailOutboxMessage;
+import com.neo.springapp.repository.EmiPaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily EMI due-date reminders.
+ *
+ * Pending EMIs due within {@code app.emi.reminders.days-ahead} days that have not been reminded yet
+ * are read together with their loan's borrower in keyset pages of {@code app.emi.reminders.chunk-size},
+ * ordered by borrower email, so a borrower with several loans or instalments due gets one email
+ * listing all of them. Each page is committed in one transaction that stamps the EMIs'
+ * reminderQueuedAt and writes the emails to the outbox with a single JDBC batch; the outbox workers
+ * then send them at their own pace with retries. A rerun (or another node) skips EMIs already
+ * stamped, and the outbox row records whether the email was actually delivered. Reminders are
+ * queued even when mail is not configured, so a stamped EMI always has its email in the outbox.
+ */
+@Service
+@Slf4j
+public class EmiReminderService {
+
+    private static final DateTimeFormatter DUE_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final String SUBJECT = "NeoBank - EMI Payment Reminder";
+    private static final String INTRO_ONE = ",\n\nThis is a friendly reminder from NeoBank regarding your upcoming EMI payment.\n\n";
+    private static final String INTRO_MANY = ",\n\nThis is a friendly reminder from NeoBank regarding your upcoming EMI payments.\n\n";
+    private static final String CLOSING =
+            "Please ensure sufficient balance in your savings account for the EMI payment to be processed automatically.\n\n" +
+            "If you have already made the payment, please ignore this reminder.\n\n" +
+            "Best regards,\n" +
+            "NeoBank Customer Service Team\n\n" +
+            "For any queries, contact us at: 1800 103 1906 | support@neobank.in";
+
+    // findReminderBatch columns
+    private static final int EMI_ID = 0, EMI_NUMBER = 1, DUE = 2, AMOUNT = 3, LOAN_ACCOUNT = 4, EMAIL = 5, NAME = 6;
+
+    private final EmiPaymentRepository emiPaymentRepository;
+    private final EmailOutboxService outboxService;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final int daysAhead;
+    private final int chunkSize;
+
+    public EmiReminderService(EmiPaymentRepository emiPaymentRepository,
+                              EmailOutboxService outboxService,
+                              EmailService emailService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.emi.reminders.days-ahead:7}") int daysAhead,
+                              @Value("${app.emi.reminders.chunk-size:500}") int chunkSize) {
+        this.emiPaymentRepository = emiPaymentRepository;
+        this.outboxService = outboxService;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.daysAhead = Math.max(0, daysAhead);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Scheduled(cron = "${app.emi.reminders.cron:0 0 9 * * ?}")
+    public void sendDailyReminders() {
+        try {
+            Map<String, Object> result = sendReminders(LocalDate.now());
+            log.info("EMI reminders queued: {}", result);
+        } catch (RuntimeException e) {
+            log.warn("EMI reminder run stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Queues reminders for every un-reminded pending EMI due between {@code today} and
+     * {@code today + days-ahead}. Returns counts of emails, EMIs and committed chunks.
+     */
+    public Map<String, Object> sendReminders(LocalDate today) {
+        long started = System.currentTimeMillis();
+        LocalDate until = today.plusDays(daysAhead);
+        boolean mailConfigured = emailService.isMailConfigured();
+
+        String afterEmail = "";
+        Long afterId = 0L;
+        int emails = 0;
+        int emis = 0;
+        int chunks = 0;
+        while (true) {
+            List<Object[]> rows = emiPaymentRepository.findReminderBatch(today, until, afterEmail, afterId,
+                    PageRequest.of(0, chunkSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            boolean fullPage = rows.size() == chunkSize;
+            List<List<Object[]>> borrowers = groupByBorrower(rows);
+            // A full page may stop part-way through its last borrower: leave them for the next page
+            if (fullPage && borrowers.size() > 1) {
+                borrowers.remove(borrowers.size() - 1);
+            }
+
+            List<Long> ids = new ArrayList<>();
+            List<EmailOutboxMessage> messages = new ArrayList<>(borrowers.size());
+            for (List<Object[]> borrower : borrowers) {
+                for (Object[] row : borrower) {
+                    ids.add((Long) row[EMI_ID]);
+                }
+                EmailOutboxMessage message = new EmailOutboxMessage();
+                message.setRecipient((String) borrower.get(0)[EMAIL]);
+                message.setSubject(SUBJECT);
+                message.setBody(renderReminder(borrower));
+                messages.add(message);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> {
+                if (emiPaymentRepository.markReminderQueued(ids, now) != ids.size()) {
+                    throw new IllegalStateException("EMI reminders for these EMIs are already being sent elsewhere");
+                }
+                outboxService.enqueueBatch(EmailOutboxMessage.LANE_NORMAL, messages);
+            });
+
+            List<Object[]> lastBorrower = borrowers.get(borrowers.size() - 1);
+            Object[] last = lastBorrower.get(lastBorrower.size() - 1);
+            afterEmail = (String) last[EMAIL];
+            afterId = (Long) last[EMI_ID];
+            emails += messages.size();
+            emis += ids.size();
+            chunks++;
+            if (!fullPage) {
+                break;
+            }
+        }
+
+        if (!mailConfigured && emails > 0) {
+            log.warn("Mail not configured: {} EMI reminders covering {} EMIs due by {} were queued to the outbox, "
+                    + "which will retry and then mark them failed", emails, emis, until);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("emails", emails);
+        result.put("emis", emis);
+        result.put("chunks", chunks);
+        result.put("mailConfigured", mailConfigured);
+        result.put("elapsedMs", System.currentTimeMillis() - started);
+        return result;
+    }
+
+    private static List<List<Object[]>> groupByBorrower(List<Object[]> rows) {
+        List<List<Object[]>> groups = new ArrayList<>();
+        List<Object[]> current = null;
+        for (Object[] row : rows) {
+            if (current == null || !row[EMAIL].equals(current.get(0)[EMAIL])) {
+                current = new ArrayList<>();
+                groups.add(current);
+            }
+            current.add(row);
+        }
+        return groups;
+    }
+
+    /** One borrower's reminder; with a single EMI it reads exactly like the per-EMI reminder email. */
+    static String renderReminder(List<Object[]> borrowerRows) {
+        Object name = borrowerRows.get(0)[NAME];
+        StringBuilder body = new StringBuilder(512 + borrowerRows.size() * 128);
+        body.append("Dear ").append(name).append(borrowerRows.size() == 1 ? INTRO_ONE : INTRO_MANY);
+        for (Object[] row : borrowerRows) {
+            body.append("Loan Account Number: ").append(row[LOAN_ACCOUNT]).append('\n')
+                .append("EMI Installment: #").append(row[EMI_NUMBER]).append('\n')
+                .append("Due Date: ").append(((LocalDate) row[DUE]).format(DUE_DATE)).append('\n')
+                .append("EMI Amount: ₹").append(String.format("%.2f", (Double) row[AMOUNT])).append("\n\n");
+        }
+        return body.append(CLOSING).toString();
+    }
+}
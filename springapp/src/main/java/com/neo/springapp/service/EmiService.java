@@ -46,11 +46,14 @@ public class EmiService {
     private PdfService pdfService;
 
     @Autowired
-    private EmailService emailService;
+    private EmiReminderService emiReminderService;
 
     @Autowired(required = false)
     private BranchAccountService branchAccountService;
 
+    @Autowired
+    private HouseAccountLedgerService houseAccountLedgerService;
+
     @Autowired
     private SalaryAccountRepository salaryAccountRepository;
 
@@ -216,8 +219,7 @@ public class EmiService {
             String depositAccount = branchAccountService.getDepositAccountNumber();
             Account branchAccount = accountService.getAccountByNumber(depositAccount);
             if (branchAccount != null) {
-                accountService.creditBalance(depositAccount, interestAmount);
-                Double branchBalance = accountService.getBalanceByAccountNumber(depositAccount);
+                Double branchBalance = houseAccountLedgerService.credit(depositAccount, interestAmount, accountNumber);
                 Transaction creditTxn = new Transaction();
                 creditTxn.setMerchant("Loan EMI Interest - " + accountNumber);
                 creditTxn.setAmount(interestAmount);
@@ -419,28 +421,10 @@ public class EmiService {
     }
 
     /**
-     * Send reminder for upcoming EMIs
+     * Send reminder for upcoming EMIs (one email per borrower, queued in batches - see EmiReminderService)
      */
     public void sendEmiReminders() {
-        List<EmiPayment> upcomingEmis = getUpcomingEmis();
-        
-        for (EmiPayment emi : upcomingEmis) {
-            Loan loan = getLoanByLoanId(emi.getLoanId());
-            if (loan != null && loan.getUserEmail() != null) {
-                try {
-                    emailService.sendEmiReminderEmail(
-                        loan.getUserEmail(),
-                        loan.getUserName(),
-                        loan.getLoanAccountNumber(),
-                        emi.getDueDate(),
-                        emi.getTotalAmount(),
-                        emi.getEmiNumber()
-                    );
-                } catch (Exception e) {
-                    System.err.println("Error sending EMI reminder: " + e.getMessage());
-                }
-            }
-        }
+        emiReminderService.sendReminders(LocalDate.now());
     }
 
     /**
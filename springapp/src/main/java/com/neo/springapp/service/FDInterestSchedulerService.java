@@ -3,7 +3,6 @@ package com.neo.springapp.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.Map;
@@ -11,6 +10,7 @@ import java.util.Map;
 /**
  * Scheduled service for processing monthly FD interest credits
  * Runs on the 1st day of every month at 2:00 AM
+ * No surrounding transaction: the accrual commits chunk by chunk and is safe to rerun.
  */
 @Service
 public class FDInterestSchedulerService {
@@ -24,7 +24,6 @@ public class FDInterestSchedulerService {
      * Cron expression: "0 0 2 1 * ?" = second, minute, hour, day of month, month, day of week
      */
     @Scheduled(cron = "0 0 2 1 * ?")
-    @Transactional
     public void processMonthlyFDInterest() {
         try {
             System.out.println("🔄 Starting monthly FD interest credit process at " + LocalDate.now());
@@ -49,7 +48,6 @@ public class FDInterestSchedulerService {
      */
     /*
     @Scheduled(cron = "0 0 23 L * ?")
-    @Transactional
     public void processMonthlyFDInterestEndOfMonth() {
         try {
             System.out.println("🔄 Starting monthly FD interest credit process (end of month) at " + LocalDate.now());
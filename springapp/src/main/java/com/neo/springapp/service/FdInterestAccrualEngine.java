@@ -0,0 +1,337 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Paise;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Monthly interest accrual for all ACTIVE fixed deposits.
+ *
+ * FDs due for the month are streamed by keyset pagination in chunks of {@code app.fd-interest.chunk-size}
+ * and chunks run on {@code app.fd-interest.workers} threads. Within a chunk, interest is computed over
+ * primitive paise arrays, then the account credits (one per account, in account-number order so parallel
+ * chunks never deadlock), the transaction rows, the FD counters and the (FD, month) idempotency keys in
+ * {@code fd_interest_accruals} are each written with one JDBC batch, and the chunk commits as a whole.
+ * FDs that already have a key for the month are skipped, so a rerun after a crash is safe.
+ */
+@Service
+@Slf4j
+public class FdInterestAccrualEngine {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String SELECT_DUE_FDS =
+            "SELECT id, account_number, fd_account_number, principal_amount, interest_rate FROM fixed_deposits " +
+            "WHERE status = 'ACTIVE' AND id > ? " +
+            "AND (maturity_date IS NULL OR maturity_date >= ?) " +
+            "AND (last_interest_credit_date IS NULL OR last_interest_credit_date < ?) " +
+            "ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int workers;
+
+    public FdInterestAccrualEngine(JdbcTemplate jdbcTemplate,
+                                   NamedParameterJdbcTemplate namedJdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.fd-interest.chunk-size:500}") int chunkSize,
+                                   @Value("${app.fd-interest.workers:2}") int workers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.workers = Math.max(1, workers);
+    }
+
+    /** Monthly interest in paise: principal * annual rate / 12, rounded HALF_UP to the paisa. */
+    public static long monthlyInterestPaise(Double principalAmount, Double annualRatePercent) {
+        return Paise.applyRate(Paise.ofRupees(principalAmount), Paise.basisPoints(annualRatePercent), 12);
+    }
+
+    /**
+     * Credit this month's interest to every due FD.
+     *
+     * @return successCount, failureCount, errors (first 100) and throughput
+     */
+    public Map<String, Object> accrue(YearMonth month) {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        String monthKey = month.toString();
+        Accrual totals = new Accrual();
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "fd-interest-accrual");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(workers * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        boolean aborted = false;
+        try {
+            long afterId = 0L;
+            while (true) {
+                List<FdRow> page = jdbcTemplate.query(SELECT_DUE_FDS,
+                        (rs, i) -> new FdRow(rs.getLong(1), rs.getString(2), rs.getString(3),
+                                rs.getObject(4, Double.class), rs.getObject(5, Double.class)),
+                        afterId, Date.valueOf(today), Date.valueOf(month.atDay(1)), chunkSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).id;
+                inFlight.acquire();
+                futures.add(pool.submit(() -> {
+                    try {
+                        totals.add(chunkTransaction.execute(status -> accrueChunk(page, monthKey, today)));
+                    } catch (Exception e) {
+                        log.error("FD interest chunk [{}..{}] rolled back: {}", page.get(0).id,
+                                page.get(page.size() - 1).id, e.getMessage());
+                        totals.chunkFailed(page, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborted = true;
+        } catch (Exception e) {
+            log.error("FD interest accrual for {} aborted", monthKey, e);
+            aborted = true;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        int processed = totals.success + totals.failure;
+        double perSecond = elapsedMs == 0 ? processed : processed * 1000.0 / elapsedMs;
+        log.info("FD interest {}: {} credited ({}), {} failed in {} ms ({}/s)", monthKey, totals.success,
+                Paise.format(totals.interestPaise), totals.failure, elapsedMs, String.format("%.1f", perSecond));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", !aborted);
+        response.put("message", "Processed monthly interest for " + totals.success + " FDs"
+                + (aborted ? " (run aborted; rerun to continue)" : ""));
+        response.put("month", monthKey);
+        response.put("successCount", totals.success);
+        response.put("failureCount", totals.failure);
+        response.put("alreadyCredited", totals.alreadyCredited);
+        response.put("interestCredited", Paise.toRupees(totals.interestPaise));
+        response.put("errors", totals.errors);
+        response.put("elapsedMs", elapsedMs);
+        response.put("fdsPerSecond", Math.round(perSecond * 10) / 10.0);
+        return response;
+    }
+
+    private Accrual accrueChunk(List<FdRow> page, String monthKey, LocalDate today) {
+        Accrual result = new Accrual();
+        List<FdRow> due = withoutAccrualKey(page, monthKey, result);
+        int n = due.size();
+        if (n == 0) {
+            return result;
+        }
+
+        // Interest for the whole chunk in one pass over primitive arrays
+        long[] interest = new long[n];
+        boolean[] computable = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            FdRow fd = due.get(i);
+            if (fd.principal != null && fd.rate != null) {
+                interest[i] = monthlyInterestPaise(fd.principal, fd.rate);
+                computable[i] = true;
+            }
+        }
+
+        // One credit per account, taken in account-number order
+        TreeMap<String, Long> creditByAccount = new TreeMap<>();
+        for (int i = 0; i < n; i++) {
+            FdRow fd = due.get(i);
+            if (!computable[i]) {
+                result.fail(fd, "Principal or interest rate missing");
+            } else if (fd.accountNumber == null) {
+                result.fail(fd, "FD has no linked account");
+            } else {
+                creditByAccount.merge(fd.accountNumber, interest[i], Paise::add);
+            }
+        }
+        List<String> accounts = new ArrayList<>(creditByAccount.keySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "UPDATE accounts SET balance = COALESCE(balance, 0) + ?, last_updated = ? " +
+                "WHERE account_number = ? AND UPPER(status) = 'ACTIVE'",
+                accounts, accounts.size(), (ps, account) -> {
+                    ps.setBigDecimal(1, Paise.toBigDecimal(creditByAccount.get(account)));
+                    ps.setTimestamp(2, now);
+                    ps.setString(3, account);
+                });
+        Map<String, Long> balances = balancesOf(accounts);
+
+        // Balance after each FD's credit: replay the account's credits in FD order up to its final balance
+        Map<String, Long> runningBalance = new HashMap<>();
+        for (Map.Entry<String, Long> balance : balances.entrySet()) {
+            runningBalance.put(balance.getKey(), Paise.subtract(balance.getValue(), creditByAccount.get(balance.getKey())));
+        }
+        List<Integer> posted = new ArrayList<>(n);
+        long[] balanceAfter = new long[n];
+        for (int i = 0; i < n; i++) {
+            FdRow fd = due.get(i);
+            if (!computable[i] || fd.accountNumber == null) {
+                continue;
+            }
+            Long before = runningBalance.get(fd.accountNumber);
+            if (before == null) {
+                result.fail(fd, "Account not found or not active: " + fd.accountNumber);
+                continue;
+            }
+            balanceAfter[i] = Paise.add(before, interest[i]);
+            runningBalance.put(fd.accountNumber, balanceAfter[i]);
+            posted.add(i);
+        }
+        if (posted.isEmpty()) {
+            return result;
+        }
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO transactions (transaction_id, merchant, amount, type, description, balance, date, status, account_number) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                posted, posted.size(), (ps, i) -> {
+                    FdRow fd = due.get(i);
+                    ps.setString(1, "TXN" + System.currentTimeMillis());
+                    ps.setString(2, "FD Monthly Interest");
+                    ps.setBigDecimal(3, Paise.toBigDecimal(interest[i]));
+                    ps.setString(4, "Credit");
+                    ps.setString(5, "FD Monthly Interest - " + fd.fdAccountNumber + " | Interest Rate: " + fd.rate + "%");
+                    ps.setBigDecimal(6, Paise.toBigDecimal(balanceAfter[i]));
+                    ps.setTimestamp(7, now);
+                    ps.setString(8, "Completed");
+                    ps.setString(9, fd.accountNumber);
+                });
+        jdbcTemplate.batchUpdate(
+                "UPDATE fixed_deposits SET last_interest_credit_date = ?, " +
+                "months_interest_credited = COALESCE(months_interest_credited, 0) + 1, " +
+                "total_interest_credited = COALESCE(total_interest_credited, 0) + ?, updated_at = ? WHERE id = ?",
+                posted, posted.size(), (ps, i) -> {
+                    ps.setDate(1, Date.valueOf(today));
+                    ps.setDouble(2, Paise.toRupees(interest[i]));
+                    ps.setTimestamp(3, now);
+                    ps.setLong(4, due.get(i).id);
+                });
+        // Unique (fd_id, accrual_month): a concurrent or repeated credit fails here and rolls the chunk back
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO fd_interest_accruals (fd_id, accrual_month, account_number, amount, credited_at) " +
+                "VALUES (?, ?, ?, ?, ?)",
+                posted, posted.size(), (ps, i) -> {
+                    FdRow fd = due.get(i);
+                    ps.setLong(1, fd.id);
+                    ps.setString(2, monthKey);
+                    ps.setString(3, fd.accountNumber);
+                    ps.setBigDecimal(4, Paise.toBigDecimal(interest[i]));
+                    ps.setTimestamp(5, now);
+                });
+        for (int i : posted) {
+            result.success++;
+            result.interestPaise = Paise.add(result.interestPaise, interest[i]);
+        }
+        return result;
+    }
+
+    private List<FdRow> withoutAccrualKey(List<FdRow> page, String monthKey, Accrual result) {
+        List<Long> ids = new ArrayList<>(page.size());
+        for (FdRow fd : page) {
+            ids.add(fd.id);
+        }
+        Set<Long> keyed = new HashSet<>(namedJdbcTemplate.queryForList(
+                "SELECT fd_id FROM fd_interest_accruals WHERE accrual_month = :month AND fd_id IN (:ids)",
+                new MapSqlParameterSource("month", monthKey).addValue("ids", ids), Long.class));
+        if (keyed.isEmpty()) {
+            return page;
+        }
+        List<FdRow> due = new ArrayList<>(page.size() - keyed.size());
+        for (FdRow fd : page) {
+            if (keyed.contains(fd.id)) {
+                result.alreadyCredited++;
+            } else {
+                due.add(fd);
+            }
+        }
+        return due;
+    }
+
+    private Map<String, Long> balancesOf(List<String> accounts) {
+        Map<String, Long> balances = new HashMap<>();
+        if (accounts.isEmpty()) {
+            return balances;
+        }
+        namedJdbcTemplate.query(
+                "SELECT account_number, balance FROM accounts WHERE account_number IN (:accounts) AND UPPER(status) = 'ACTIVE'",
+                new MapSqlParameterSource("accounts", accounts),
+                rs -> {
+                    balances.put(rs.getString(1), Paise.ofRupees(rs.getBigDecimal(2)));
+                });
+        return balances;
+    }
+
+    private record FdRow(long id, String accountNumber, String fdAccountNumber, Double principal, Double rate) {
+    }
+
+    /** Per-chunk result; merged into the run totals under the lock. */
+    private static final class Accrual {
+        int success;
+        int failure;
+        int alreadyCredited;
+        long interestPaise;
+        final List<String> errors = new ArrayList<>();
+
+        void fail(FdRow fd, String reason) {
+            failure++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("FD " + fd.fdAccountNumber + ": " + reason);
+            }
+        }
+
+        synchronized void add(Accrual chunk) {
+            success += chunk.success;
+            failure += chunk.failure;
+            alreadyCredited += chunk.alreadyCredited;
+            interestPaise = Paise.add(interestPaise, chunk.interestPaise);
+            for (String error : chunk.errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(error);
+                }
+            }
+        }
+
+        synchronized void chunkFailed(List<FdRow> page, Exception e) {
+            for (FdRow fd : page) {
+                fail(fd, "Chunk rolled back: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.neo.springapp.service;
 
+import com.neo.springapp.model.FdInterestAccrual;
 import com.neo.springapp.model.FixedDeposit;
+import com.neo.springapp.model.Paise;
 import com.neo.springapp.model.Account;
 import com.neo.springapp.model.Transaction;
+import com.neo.springapp.repository.FdInterestAccrualRepository;
 import com.neo.springapp.repository.FixedDepositRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -10,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -34,6 +38,12 @@ public class FixedDepositService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private FdInterestAccrualRepository fdInterestAccrualRepository;
+
+    @Autowired
+    private FdInterestAccrualEngine fdInterestAccrualEngine;
+
     private static final String OTP_REASON_FD_FORECLOSURE = "FD (Fixed Deposit) Withdrawal / Foreclosure";
 
     /**
@@ -542,10 +552,17 @@ public class FixedDepositService {
                 return response;
             }
 
+            String accrualMonth = YearMonth.from(today).toString();
+            if (fdInterestAccrualRepository.existsByFdIdAndAccrualMonth(fdId, accrualMonth)) {
+                response.put("success", false);
+                response.put("message", "Interest already credited for this month");
+                return response;
+            }
+
             // Calculate monthly interest
-            // Monthly interest = (Principal * Annual Rate) / 12
-            Double monthlyInterest = (fixedDeposit.getPrincipalAmount() * fixedDeposit.getInterestRate()) / (12 * 100);
-            monthlyInterest = Math.round(monthlyInterest * 100.0) / 100.0;
+            // Monthly interest = (Principal * Annual Rate) / 12, exact to the paisa
+            Double monthlyInterest = Paise.toRupees(FdInterestAccrualEngine.monthlyInterestPaise(
+                fixedDeposit.getPrincipalAmount(), fixedDeposit.getInterestRate()));
 
             // Credit interest to user account
             Double newBalance = accountService.creditBalance(fixedDeposit.getAccountNumber(), monthlyInterest);
@@ -575,6 +592,7 @@ public class FixedDepositService {
             fixedDeposit.setTotalInterestCredited(fixedDeposit.getTotalInterestCredited() + monthlyInterest);
 
             FixedDeposit savedFD = fixedDepositRepository.save(fixedDeposit);
+            fdInterestAccrualRepository.save(new FdInterestAccrual(fdId, accrualMonth, fixedDeposit.getAccountNumber(), monthlyInterest));
 
             response.put("success", true);
             response.put("message", "Monthly interest credited successfully");
@@ -592,38 +610,11 @@ public class FixedDepositService {
 
     /**
      * Process monthly interest credit for all active FDs
-     * This should be called by a scheduled task every month
+     * This should be called by a scheduled task every month. Runs in committed chunks
+     * (see FdInterestAccrualEngine); FDs already credited this month are skipped.
      */
-    @Transactional
     public Map<String, Object> processAllMonthlyInterestCredits() {
-        Map<String, Object> response = new HashMap<>();
-        List<FixedDeposit> activeFDs = fixedDepositRepository.findByStatus("ACTIVE");
-        int successCount = 0;
-        int failureCount = 0;
-        List<String> errors = new java.util.ArrayList<>();
-
-        for (FixedDeposit fd : activeFDs) {
-            // Skip if FD has matured
-            if (fd.getMaturityDate() != null && fd.getMaturityDate().isBefore(LocalDate.now())) {
-                continue;
-            }
-
-            Map<String, Object> result = processMonthlyInterestCredit(fd.getId());
-            if ((Boolean) result.get("success")) {
-                successCount++;
-            } else {
-                failureCount++;
-                errors.add("FD " + fd.getFdAccountNumber() + ": " + result.get("message"));
-            }
-        }
-
-        response.put("success", true);
-        response.put("message", "Processed monthly interest for " + successCount + " FDs");
-        response.put("successCount", successCount);
-        response.put("failureCount", failureCount);
-        response.put("errors", errors);
-        
-        return response;
+        return fdInterestAccrualEngine.accrue(YearMonth.now());
     }
 
     /**
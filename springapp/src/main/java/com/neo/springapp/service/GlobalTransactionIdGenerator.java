@@ -2,69 +2,120 @@ package com.neo.springapp.service;
 
 import com.neo.springapp.model.GlobalTransactionSequence;
 import com.neo.springapp.repository.GlobalTransactionSequenceRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Service to generate globally incrementing transaction IDs
- * 
+ *
  * This ensures that every transaction across all types and accounts
- * receives a unique, sequentially incrementing ID.
- * 
- * Example: User A Transaction 1 = ID 1, User B Transaction 1 = ID 2, User A Transaction 2 = ID 3, etc.
+ * receives a unique, increasing ID.
+ *
+ * IDs are allocated hi/lo style: each node reserves a block of
+ * {@code app.transaction-id.block-size} IDs with a single UPDATE on the
+ * sequence row and then hands them out lock-free from memory. The DB row is
+ * therefore a high-water mark, not the last issued ID. IDs are unique across
+ * nodes, but with more than one node they are only ordered within a block, and
+ * the unused remainder of a block is lost on shutdown (see {@link #getGapReport()}).
+ *
+ * Reserving needs its own connection. The pool is only a few connections, so a caller
+ * that is already inside a transaction never reserves inline: the next block is prefetched
+ * on a background thread as soon as the current one is first drawn from, and such callers
+ * only wait for it (bounded by {@code app.transaction-id.prefetch-wait-ms}) if it is still
+ * in flight when the current block runs out. Callers outside a transaction reserve inline only
+ * when no prefetch is in flight; otherwise they wait for it as well, so blocks are installed in the
+ * order they were reserved and IDs stay increasing. Nobody waits while holding the refill lock.
  */
 @Service
 @Slf4j
 public class GlobalTransactionIdGenerator {
 
+    private static final int MAX_TRACKED_GAPS = 100;
+
     private final GlobalTransactionSequenceRepository sequenceRepository;
+    private final TransactionTemplate reserveTransaction;
+    private final long blockSize;
+    private final long prefetchWaitMs;
+
+    private final AtomicReference<IdBlock> currentBlock = new AtomicReference<>(IdBlock.EMPTY);
+    private final Object refillLock = new Object();
+    private final AtomicReference<CompletableFuture<IdBlock>> prefetch = new AtomicReference<>();
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "txn-id-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Long sequenceRowId;
 
-    public GlobalTransactionIdGenerator(GlobalTransactionSequenceRepository sequenceRepository) {
+    private final AtomicLong blocksReserved = new AtomicLong();
+    private final AtomicLong idsReserved = new AtomicLong();
+    private final AtomicLong idsIssued = new AtomicLong();
+    private final Deque<long[]> abandonedRanges = new ArrayDeque<>();
+
+    public GlobalTransactionIdGenerator(GlobalTransactionSequenceRepository sequenceRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${app.transaction-id.block-size:50}") long blockSize,
+                                        @Value("${app.transaction-id.prefetch-wait-ms:10000}") long prefetchWaitMs) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("app.transaction-id.block-size must be >= 1");
+        }
         this.sequenceRepository = sequenceRepository;
+        this.reserveTransaction = new TransactionTemplate(transactionManager);
+        // Reserve in our own short transaction so the row lock is not held for the caller's whole posting
+        this.reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.prefetchWaitMs = prefetchWaitMs;
     }
 
     /**
      * Generate the next global transaction ID
-     * Thread-safe operation using database-level locking
-     * 
-     * @return the next sequential transaction number
+     * Lock-free on the fast path; only the thread that exhausts a block goes to the database
+     *
+     * @return the next transaction number
      */
-    @Transactional
-    public synchronized Long getNextTransactionId() {
-        try {
-            // Get the current sequence (there should be only one record)
-            GlobalTransactionSequence sequence = sequenceRepository.getSequence();
-            
-            if (sequence == null) {
-                // Initialize sequence if it doesn't exist
-                sequence = new GlobalTransactionSequence();
-                sequence.setCurrentSequence(1L);
-                sequence = sequenceRepository.save(sequence);
-                log.info("Initialized global transaction sequence");
-                return 1L;
+    public Long getNextTransactionId() {
+        while (true) {
+            IdBlock block = currentBlock.get();
+            long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                if (id == block.prefetchAt) {
+                    startPrefetch();
+                }
+                idsIssued.incrementAndGet();
+                log.debug("Generated transaction ID: {}", id);
+                return id;
             }
-
-            // Get current sequence and increment
-            Long nextId = sequence.getCurrentSequence();
-            sequence.setCurrentSequence(nextId + 1);
-            sequenceRepository.save(sequence);
-            
-            log.debug("Generated transaction ID: {}", nextId);
-            return nextId;
-        } catch (Exception e) {
-            log.error("Error generating transaction ID", e);
-            throw new RuntimeException("Failed to generate transaction ID", e);
+            refill(block);
         }
     }
 
     /**
      * Generate formatted transaction ID with prefix
      * Format: TXN-<sequence-number>
-     * 
+     *
      * @return formatted transaction ID like TXN-1, TXN-2, TXN-3, etc.
      */
-    @Transactional
     public String getNextFormattedTransactionId() {
         Long id = getNextTransactionId();
         return String.format("TXN-%010d", id); // 10-digit number with leading zeros
@@ -73,21 +124,20 @@ public class GlobalTransactionIdGenerator {
     /**
      * Generate prefix-based transaction ID
      * Format: <prefix>-<sequence-number>
-     * 
+     *
      * @param prefix the prefix for the transaction (e.g., "BILL", "TRF", "SAL", "CC")
      * @return formatted transaction ID like BILL-0000000001, TRF-0000000002, etc.
      */
-    @Transactional
     public String getNextFormattedTransactionId(String prefix) {
         Long id = getNextTransactionId();
         return String.format("%s-%010d", prefix, id);
     }
 
     /**
-     * Get the current sequence number without incrementing
+     * Get the current sequence high-water mark without incrementing
      * Useful for display/logging purposes
-     * 
-     * @return current sequence number
+     *
+     * @return first ID not yet reserved by any node
      */
     public Long getCurrentSequence() {
         GlobalTransactionSequence sequence = sequenceRepository.getSequence();
@@ -100,17 +150,231 @@ public class GlobalTransactionIdGenerator {
     /**
      * Initialize sequence to a specific value
      * WARNING: Only use if you know what you're doing (e.g., migrating from an existing system)
-     * 
+     * Other nodes keep issuing from the blocks they already hold.
+     *
      * @param startValue the starting value for the sequence
      */
     @Transactional
     public void initializeSequence(Long startValue) {
-        GlobalTransactionSequence sequence = sequenceRepository.getSequence();
-        if (sequence == null) {
-            sequence = new GlobalTransactionSequence();
+        synchronized (refillLock) {
+            GlobalTransactionSequence sequence = sequenceRepository.getSequence();
+            if (sequence == null) {
+                sequence = new GlobalTransactionSequence();
+            }
+            sequence.setCurrentSequence(startValue);
+            sequence = sequenceRepository.save(sequence);
+            sequenceRowId = sequence.getId();
+            abandon(currentBlock.getAndSet(IdBlock.EMPTY));
+            discardPrefetch();
         }
-        sequence.setCurrentSequence(startValue);
-        sequenceRepository.save(sequence);
         log.warn("Transaction sequence initialized to: {}", startValue);
     }
+
+    /**
+     * Report on reserved-but-unissued IDs. Gaps are expected with block allocation:
+     * they come from blocks abandoned on shutdown or re-initialization.
+     *
+     * @return block size, counters, the live block and the most recent abandoned ranges
+     */
+    public Map<String, Object> getGapReport() {
+        IdBlock block = currentBlock.get();
+        long nextInBlock = Math.min(block.next.get(), block.end);
+        List<Map<String, Long>> gaps = new ArrayList<>();
+        synchronized (abandonedRanges) {
+            for (long[] range : abandonedRanges) {
+                Map<String, Long> gap = new HashMap<>();
+                gap.put("from", range[0]);
+                gap.put("to", range[1] - 1);
+                gaps.add(gap);
+            }
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("blockSize", blockSize);
+        report.put("blocksReserved", blocksReserved.get());
+        report.put("idsReserved", idsReserved.get());
+        report.put("idsIssued", idsIssued.get());
+        report.put("currentBlockStart", block.start);
+        report.put("currentBlockEnd", block.end - 1);
+        report.put("remainingInCurrentBlock", block.end - nextInBlock);
+        report.put("abandonedRanges", gaps);
+        report.put("abandonedIds", gaps.stream().mapToLong(g -> g.get("to") - g.get("from") + 1).sum());
+        return report;
+    }
+
+    @PreDestroy
+    public void releaseCurrentBlock() {
+        prefetchExecutor.shutdown();
+        synchronized (refillLock) {
+            long[] range = abandon(currentBlock.getAndSet(IdBlock.EMPTY));
+            if (range != null) {
+                log.info("Abandoning unissued transaction IDs [{}..{}] on shutdown", range[0], range[1] - 1);
+            }
+            discardPrefetch();
+        }
+        // Let an in-flight prefetch finish so its block is recorded as abandoned
+        try {
+            if (!prefetchExecutor.awaitTermination(prefetchWaitMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Transaction ID prefetch still running at shutdown; its block is not in the gap report");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void refill(IdBlock exhausted) {
+        CompletableFuture<IdBlock> inFlight;
+        synchronized (refillLock) {
+            // Another thread may have refilled while we waited for the lock
+            if (currentBlock.get() != exhausted) {
+                return;
+            }
+            IdBlock next = null;
+            CompletableFuture<IdBlock> pending = prefetch.get();
+            boolean prefetchInFlight = pending != null && !pending.isDone();
+            if (pending != null && pending.isDone()) {
+                prefetch.compareAndSet(pending, null);
+                try {
+                    next = pending.join();
+                } catch (Exception e) {
+                    log.warn("Prefetch of transaction ID block failed, retrying", e);
+                }
+            }
+            // An inline reservation made while a prefetch is in flight could land above the prefetched
+            // block and be installed before it
+            if (next == null && !prefetchInFlight && !TransactionSynchronizationManager.isActualTransactionActive()) {
+                try {
+                    next = reserveInNewTransaction();
+                } catch (Exception e) {
+                    log.error("Error reserving transaction ID block", e);
+                    throw new RuntimeException("Failed to generate transaction ID", e);
+                }
+            }
+            if (next != null) {
+                currentBlock.set(next);
+                return;
+            }
+            // Either a prefetch is already in flight, or we hold a pooled connection and the prefetch
+            // thread should take another one
+            startPrefetch();
+            inFlight = prefetch.get();
+        }
+        if (inFlight == null) {
+            return;
+        }
+        // Wait outside the lock, so callers holding connections never queue up behind this one;
+        // the next pass through refill() installs the block
+        try {
+            inFlight.get(prefetchWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for a transaction ID block", e);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Timed out after " + prefetchWaitMs + " ms waiting for a transaction ID block", e);
+        } catch (Exception e) {
+            prefetch.compareAndSet(inFlight, null);
+            log.error("Error reserving transaction ID block", e);
+            throw new RuntimeException("Failed to generate transaction ID", e);
+        }
+    }
+
+    private void startPrefetch() {
+        CompletableFuture<IdBlock> future = new CompletableFuture<>();
+        if (!prefetch.compareAndSet(null, future)) {
+            return;
+        }
+        try {
+            prefetchExecutor.execute(() -> {
+                try {
+                    future.complete(reserveInNewTransaction());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (Exception rejected) {
+            // Shutting down
+            future.completeExceptionally(rejected);
+        }
+    }
+
+    // A prefetched block is reserved in the database whether or not it is used, so record it as
+    // abandoned now or, if the reservation is still running, as soon as it completes
+    private void discardPrefetch() {
+        CompletableFuture<IdBlock> pending = prefetch.getAndSet(null);
+        if (pending != null) {
+            pending.thenAccept(block -> {
+                long[] range = abandon(block);
+                if (range != null) {
+                    log.info("Abandoning prefetched transaction IDs [{}..{}]", range[0], range[1] - 1);
+                }
+            });
+        }
+    }
+
+    private IdBlock reserveInNewTransaction() {
+        long start = reserveTransaction.execute(status -> reserveBlock());
+        blocksReserved.incrementAndGet();
+        idsReserved.addAndGet(blockSize);
+        log.debug("Reserved transaction ID block [{}..{}]", start, start + blockSize - 1);
+        return new IdBlock(start, start + blockSize);
+    }
+
+    private long reserveBlock() {
+        Long rowId = sequenceRowId;
+        if (rowId == null) {
+            GlobalTransactionSequence sequence = sequenceRepository.getSequence();
+            if (sequence == null) {
+                // Initialize sequence if it doesn't exist
+                sequence = new GlobalTransactionSequence();
+                sequence.setCurrentSequence(1L);
+                sequence = sequenceRepository.saveAndFlush(sequence);
+                log.info("Initialized global transaction sequence");
+            }
+            rowId = sequence.getId();
+            sequenceRowId = rowId;
+        }
+
+        if (sequenceRepository.advanceSequence(rowId, blockSize) != 1) {
+            sequenceRowId = null;
+            throw new IllegalStateException("Global transaction sequence row " + rowId + " not found");
+        }
+        Long highWaterMark = sequenceRepository.findCurrentSequenceById(rowId);
+        return highWaterMark - blockSize;
+    }
+
+    private long[] abandon(IdBlock block) {
+        long from = Math.min(block.next.get(), block.end);
+        if (from >= block.end) {
+            return null;
+        }
+        long[] range = {from, block.end};
+        synchronized (abandonedRanges) {
+            if (abandonedRanges.size() == MAX_TRACKED_GAPS) {
+                abandonedRanges.removeFirst();
+            }
+            abandonedRanges.addLast(range);
+        }
+        return range;
+    }
+
+    /**
+     * A reserved range [start, end). {@code next} may run past {@code end} under
+     * contention; those values are simply discarded by the caller. The thread that
+     * draws {@code prefetchAt}, the first ID, starts reserving the following block.
+     */
+    private static final class IdBlock {
+        static final IdBlock EMPTY = new IdBlock(0L, 0L);
+
+        final long start;
+        final long end;
+        final long prefetchAt;
+        final AtomicLong next;
+
+        IdBlock(long start, long end) {
+            this.start = start;
+            this.end = end;
+            this.prefetchAt = end > start ? start : -1L;
+            this.next = new AtomicLong(start);
+        }
+    }
 }
@@ -0,0 +1,230 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.HouseAccountShard;
+import com.neo.springapp.model.Paise;
+import com.neo.springapp.repository.HouseAccountShardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sharded sub-ledger for house accounts (the branch/NeoBank deposit account that receives every charge).
+ *
+ * Credits are spread over {@code app.house-account.shards} shadow rows, picked by hash of the
+ * paying account (or round-robin when there is none), so concurrent charges no longer queue on
+ * the single accounts row. Pending shard amounts are included in {@link #getEffectiveBalance(String)}
+ * on every read and folded into the real balance every {@code app.house-account.fold-interval-ms}
+ * and before any debit of the house account. With one shard, credits go straight to the account.
+ *
+ * Shard rows are created by the scheduled fold (which holds no other connection) rather than inside
+ * a charge's transaction; until they exist, credits fall back to the account row. Balance reads that
+ * go through {@link AccountService#getBalanceByAccountNumber(String)} see the effective balance of
+ * any account that has shards.
+ */
+@Service
+@Slf4j
+public class HouseAccountLedgerService {
+
+    private final HouseAccountShardRepository shardRepository;
+    private final BalancePostingService balancePostingService;
+    private final TransactionTemplate foldTransaction;
+    private final int shardCount;
+
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private final Set<String> accountsAwaitingShards = ConcurrentHashMap.newKeySet();
+    // Accounts with shard rows; loaded on first use and refreshed by every fold sweep
+    private volatile Set<String> houseAccounts;
+
+    public HouseAccountLedgerService(HouseAccountShardRepository shardRepository,
+                                     BalancePostingService balancePostingService,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.house-account.shards:8}") int shardCount) {
+        this.shardRepository = shardRepository;
+        this.balancePostingService = balancePostingService;
+        this.foldTransaction = new TransactionTemplate(transactionManager);
+        this.shardCount = Math.max(1, shardCount);
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Credit a house account through one of its shards.
+     *
+     * @param houseAccountNumber the deposit account being credited
+     * @param amount             amount in rupees
+     * @param routingKey         usually the debited customer account; null spreads round-robin
+     * @return the effective house balance after the credit, or null if the account does not exist
+     */
+    @Transactional
+    public Double credit(String houseAccountNumber, double amount, String routingKey) {
+        if (shardCount == 1) {
+            return balancePostingService.credit(BalancePostingService.SAVINGS, houseAccountNumber, amount);
+        }
+        int shard = shardFor(routingKey);
+        if (shardRepository.addToShard(houseAccountNumber, shard, amount, LocalDateTime.now()) == 0) {
+            // Shards not created yet (first charge, or shard count raised) - credit directly this time
+            accountsAwaitingShards.add(houseAccountNumber);
+            return balancePostingService.credit(BalancePostingService.SAVINGS, houseAccountNumber, amount);
+        }
+        return getEffectiveBalance(houseAccountNumber);
+    }
+
+    /** Start collecting house credits for a batch chunk; post them with {@link #post(PendingCredits)}. */
+    public PendingCredits newPendingCredits() {
+        return new PendingCredits();
+    }
+
+    /**
+     * Post a chunk's collected credits: one update per shard, accounts and shards in ascending order, so
+     * parallel chunks never take the same shard rows in opposite orders. Call it after the chunk's debits,
+     * inside the chunk's transaction, so the shard locks are held only until the chunk commits.
+     */
+    @Transactional
+    public void post(PendingCredits credits) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, TreeMap<Integer, Long>> account : credits.byAccount.entrySet()) {
+            String houseAccountNumber = account.getKey();
+            long direct = 0;
+            for (Map.Entry<Integer, Long> shard : account.getValue().entrySet()) {
+                double amount = Paise.toRupees(shard.getValue());
+                if (shardCount == 1 || shardRepository.addToShard(houseAccountNumber, shard.getKey(), amount, now) == 0) {
+                    direct = Paise.add(direct, shard.getValue());
+                }
+            }
+            if (direct != 0) {
+                if (shardCount > 1) {
+                    accountsAwaitingShards.add(houseAccountNumber);
+                }
+                if (balancePostingService.creditPaise(BalancePostingService.SAVINGS, houseAccountNumber, direct)
+                        == BalancePostingService.NOT_POSTED) {
+                    throw new IllegalStateException("House account " + houseAccountNumber + " not found");
+                }
+            }
+        }
+        credits.byAccount.clear();
+    }
+
+    /** Whether the account has shard rows, i.e. its real balance may lag its effective balance. */
+    public boolean isHouseAccount(String accountNumber) {
+        Set<String> known = houseAccounts;
+        if (known == null) {
+            known = Set.copyOf(shardRepository.findHouseAccountNumbers());
+            houseAccounts = known;
+        }
+        return accountNumber != null && known.contains(accountNumber);
+    }
+
+    /**
+     * Real balance plus credits still waiting in the shards, read in a single statement so the two
+     * parts always come from the same snapshot.
+     */
+    @Transactional(readOnly = true)
+    public Double getEffectiveBalance(String houseAccountNumber) {
+        BigDecimal balance = shardRepository.findEffectiveBalance(houseAccountNumber);
+        return balance == null ? null : Paise.toRupees(Paise.ofRupees(balance));
+    }
+
+    /**
+     * Move all pending shard credits into the real balance. Call before debiting a house account.
+     *
+     * @return the real balance after folding, or null if the account does not exist
+     */
+    @Transactional
+    public Double fold(String houseAccountNumber) {
+        List<HouseAccountShard> shards = shardRepository.findForFold(houseAccountNumber);
+        long pending = 0;
+        for (HouseAccountShard shard : shards) {
+            pending = Paise.add(pending, Paise.ofRupees(shard.getPendingAmount()));
+        }
+        if (pending == 0) {
+            return balancePostingService.currentBalance(BalancePostingService.SAVINGS, houseAccountNumber);
+        }
+        Double balance = balancePostingService.credit(BalancePostingService.SAVINGS, houseAccountNumber, Paise.toRupees(pending));
+        if (balance == null) {
+            log.warn("House account {} not found; keeping {} pending in shards", houseAccountNumber, Paise.format(pending));
+            return null;
+        }
+        shardRepository.resetPending(houseAccountNumber, LocalDateTime.now());
+        log.debug("Folded {} from {} shards into house account {}", Paise.format(pending), shards.size(), houseAccountNumber);
+        return balance;
+    }
+
+    @Scheduled(fixedDelayString = "${app.house-account.fold-interval-ms:60000}")
+    public void foldAll() {
+        for (String accountNumber : accountsAwaitingShards) {
+            try {
+                createMissingShards(accountNumber);
+                accountsAwaitingShards.remove(accountNumber);
+            } catch (Exception e) {
+                // Left in the set, so the next sweep tries again; the other accounts still get their shards and folds
+                log.error("Failed to create house account shards for {}", accountNumber, e);
+            }
+        }
+        List<String> accountNumbers = shardRepository.findHouseAccountNumbers();
+        houseAccounts = Set.copyOf(accountNumbers);
+        for (String accountNumber : accountNumbers) {
+            try {
+                foldTransaction.execute(status -> fold(accountNumber));
+            } catch (Exception e) {
+                log.error("Failed to fold house account shards for {}", accountNumber, e);
+            }
+        }
+    }
+
+    private int shardFor(String routingKey) {
+        return routingKey != null
+                ? Math.floorMod(routingKey.hashCode(), shardCount)
+                : Math.floorMod(roundRobin.getAndIncrement(), shardCount);
+    }
+
+    // Each insert commits on its own (repository save), so a shard created concurrently by another node is simply skipped
+    private void createMissingShards(String houseAccountNumber) {
+        List<Integer> existing = shardRepository.findShardIndexes(houseAccountNumber);
+        for (int i = 0; i < shardCount; i++) {
+            if (existing.contains(i)) {
+                continue;
+            }
+            try {
+                shardRepository.save(new HouseAccountShard(houseAccountNumber, i));
+            } catch (DataIntegrityViolationException alreadyCreated) {
+                log.debug("House account shard {}#{} was created concurrently", houseAccountNumber, i);
+            }
+        }
+    }
+
+    /** House credits collected in memory over one batch chunk, keyed by account and shard. Not thread-safe. */
+    public final class PendingCredits {
+
+        private final TreeMap<String, TreeMap<Integer, Long>> byAccount = new TreeMap<>();
+
+        private PendingCredits() {
+        }
+
+        /** Collect a credit routed like {@link #credit(String, double, String)} would route it. */
+        public void add(String houseAccountNumber, double amount, String routingKey) {
+            int shard = shardCount == 1 ? 0 : shardFor(routingKey);
+            byAccount.computeIfAbsent(houseAccountNumber, k -> new TreeMap<>())
+                    .merge(shard, Paise.ofRupees(amount), Paise::add);
+        }
+
+        public boolean isEmpty() {
+            return byAccount.isEmpty();
+        }
+    }
+}
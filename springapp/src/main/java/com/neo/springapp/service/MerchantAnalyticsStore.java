@@ -0,0 +1,445 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Paise;
+import com.neo.springapp.model.PgRefund;
+import com.neo.springapp.model.PgTransaction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-merchant payment gateway analytics kept in memory: lifetime success/failure/flagged counts,
+ * volume, fees and refunds, hourly buckets for the last {@link #HOURS} hours, daily buckets for the last
+ * {@link #DAYS} days and a ring of the {@code app.pg.analytics.recent-size} newest transactions.
+ *
+ * A merchant's rollup is loaded with a few grouped queries the first time its dashboard is read and is
+ * then kept current by {@link #recordTransaction} and {@link #recordRefund}, which apply once the
+ * surrounding transaction commits. The load reads everything from one snapshot and fixes an id
+ * high-water mark for transactions and one for refunds. IDENTITY ids do not commit in order, so a row
+ * at or below a mark may still have been in flight when the rollup loaded: such a row is skipped only
+ * if the load counted it (the ids of rows created within {@code app.pg.analytics.in-flight-seconds}
+ * before the load are kept for that check) or if it is older than that window. Rollups not read or updated for {@code app.pg.analytics.idle-minutes}
+ * are dropped and reloaded on the next read, and at most {@code app.pg.analytics.max-merchants} are kept.
+ */
+@Service
+@Slf4j
+public class MerchantAnalyticsStore {
+
+    static final int HOURS = 24;
+    static final int DAYS = 30;
+
+    private static final int HOUR_SLOTS = 48;
+    private static final int DAY_SLOTS = 32;
+    private static final int STRIPES = 64;
+    private static final long MINUTE_MS = 60_000L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTx;
+    private final int maxMerchants;
+    private final int recentSize;
+    private final long idleMillis;
+    private final long inFlightSeconds;
+    private final ConcurrentHashMap<String, MerchantRollup> rollups = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+
+    public MerchantAnalyticsStore(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.pg.analytics.max-merchants:10000}") int maxMerchants,
+                                  @Value("${app.pg.analytics.recent-size:20}") int recentSize,
+                                  @Value("${app.pg.analytics.idle-minutes:60}") long idleMinutes,
+                                  @Value("${app.pg.analytics.in-flight-seconds:300}") long inFlightSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Own read-only transaction, so every load query sees the same snapshot
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTx.setReadOnly(true);
+        this.maxMerchants = Math.max(1, maxMerchants);
+        this.recentSize = Math.max(1, recentSize);
+        this.idleMillis = Math.max(1, idleMinutes) * MINUTE_MS;
+        this.inFlightSeconds = Math.max(1, inFlightSeconds);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /** Count a newly saved PG transaction once its transaction commits. */
+    public void recordTransaction(PgTransaction txn) {
+        if (txn == null || txn.getMerchantId() == null || txn.getId() == null) {
+            return;
+        }
+        Recent recent = Recent.of(txn);
+        long amountPaise = Paise.ofRupees(txn.getAmount());
+        long feePaise = Paise.ofRupees(txn.getFee());
+        afterCommit(() -> {
+            synchronized (stripeFor(recent.merchantId())) {
+                MerchantRollup rollup = rollups.get(recent.merchantId());
+                if (rollup != null && rollup.transactions.admit(recent.id(), recent.createdAt())) {
+                    rollup.add(recent.status(), 1, amountPaise, feePaise, recent.createdAt());
+                    rollup.push(recent);
+                }
+            }
+        });
+    }
+
+    /** Add a newly saved refund against one of the merchant's transactions once its transaction commits. */
+    public void recordRefund(PgRefund refund) {
+        if (refund == null || refund.getMerchantId() == null || refund.getId() == null) {
+            return;
+        }
+        String merchantId = refund.getMerchantId();
+        long refundId = refund.getId();
+        LocalDateTime createdAt = refund.getCreatedAt() != null ? refund.getCreatedAt() : LocalDateTime.now();
+        long refundPaise = Paise.ofRupees(refund.getAmount());
+        afterCommit(() -> {
+            synchronized (stripeFor(merchantId)) {
+                MerchantRollup rollup = rollups.get(merchantId);
+                if (rollup != null && rollup.refunds.admit(refundId, createdAt)) {
+                    rollup.refundPaise = Paise.add(rollup.refundPaise, refundPaise);
+                    rollup.lastUsedMillis = System.currentTimeMillis();
+                }
+            }
+        });
+    }
+
+    /**
+     * Dashboard figures for a merchant: totals, {@code hourly} (last 24 hours) and {@code daily}
+     * (last 30 days) series, oldest first, and the newest transactions in {@code recentTransactions}.
+     */
+    public Map<String, Object> getAnalytics(String merchantId) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean added = false;
+        Map<String, Object> analytics;
+        synchronized (stripeFor(merchantId)) {
+            MerchantRollup rollup = rollups.get(merchantId);
+            if (rollup == null) {
+                rollup = load(merchantId, now);
+                rollups.put(merchantId, rollup);
+                added = true;
+            }
+            rollup.lastUsedMillis = System.currentTimeMillis();
+            analytics = rollup.toMap(now);
+        }
+        if (added) {
+            evictIfFull();
+        }
+        return analytics;
+    }
+
+    public int getTrackedMerchantCount() {
+        return rollups.size();
+    }
+
+    /** Drop rollups nobody has read or updated lately; they are reloaded from the table on demand. */
+    @Scheduled(initialDelayString = "${app.pg.analytics.sweep-interval-ms:300000}",
+               fixedDelayString = "${app.pg.analytics.sweep-interval-ms:300000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        for (String merchantId : rollups.keySet()) {
+            synchronized (stripeFor(merchantId)) {
+                MerchantRollup rollup = rollups.get(merchantId);
+                if (rollup != null && rollup.lastUsedMillis < cutoff) {
+                    rollups.remove(merchantId);
+                } else if (rollup != null) {
+                    rollup.transactions.forgetBefore(LocalDateTime.now().minusSeconds(inFlightSeconds));
+                    rollup.refunds.forgetBefore(LocalDateTime.now().minusSeconds(inFlightSeconds));
+                }
+            }
+        }
+    }
+
+    private MerchantRollup load(String merchantId, LocalDateTime now) {
+        return snapshotTx.execute(status -> loadSnapshot(merchantId, now));
+    }
+
+    private MerchantRollup loadSnapshot(String merchantId, LocalDateTime now) {
+        LocalDateTime inFlightSince = now.minusSeconds(inFlightSeconds);
+        MerchantRollup rollup = new MerchantRollup(recentSize,
+                new IdFence(jdbcTemplate.queryForObject(
+                        "SELECT COALESCE(MAX(id), 0) FROM pg_transactions WHERE merchant_id = ?", Long.class, merchantId),
+                        inFlightSince),
+                new IdFence(jdbcTemplate.queryForObject(
+                        "SELECT COALESCE(MAX(id), 0) FROM pg_refunds WHERE merchant_id = ?", Long.class, merchantId),
+                        inFlightSince));
+        long highWaterId = rollup.transactions.mark;
+
+        // Rows the load counts that a late commit callback could still report
+        jdbcTemplate.query(
+                "SELECT id, created_at FROM pg_transactions WHERE merchant_id = ? AND id <= ? AND created_at >= ?",
+                rs -> {
+                    rollup.transactions.counted(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime());
+                },
+                merchantId, highWaterId, Timestamp.valueOf(inFlightSince));
+        jdbcTemplate.query(
+                "SELECT id, created_at FROM pg_refunds WHERE merchant_id = ? AND id <= ? AND created_at >= ?",
+                rs -> {
+                    rollup.refunds.counted(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime());
+                },
+                merchantId, rollup.refunds.mark, Timestamp.valueOf(inFlightSince));
+
+        jdbcTemplate.query(
+                "SELECT COALESCE(SUM(CASE WHEN status = 'PROCESSED' THEN amount ELSE 0 END), 0) " +
+                "FROM pg_refunds WHERE merchant_id = ? AND id <= ?",
+                rs -> {
+                    rollup.refundPaise = Paise.ofRupees(rs.getBigDecimal(1));
+                },
+                merchantId, rollup.refunds.mark);
+
+        jdbcTemplate.query(
+                "SELECT status, COUNT(*), COALESCE(SUM(amount), 0), COALESCE(SUM(fee), 0) " +
+                "FROM pg_transactions WHERE merchant_id = ? AND id <= ? GROUP BY status",
+                rs -> {
+                    String status = rs.getString(1);
+                    int count = rs.getInt(2);
+                    rollup.addTotals(status, count, Paise.ofRupees(rs.getBigDecimal(3)), Paise.ofRupees(rs.getBigDecimal(4)));
+                },
+                merchantId, highWaterId);
+
+        LocalDateTime since = now.toLocalDate().minusDays(DAYS - 1).atStartOfDay();
+        jdbcTemplate.query(
+                "SELECT status, CAST(created_at AS DATE), HOUR(created_at), COUNT(*), COALESCE(SUM(amount), 0), COALESCE(SUM(fee), 0) " +
+                "FROM pg_transactions WHERE merchant_id = ? AND id <= ? AND created_at >= ? " +
+                "GROUP BY status, CAST(created_at AS DATE), HOUR(created_at)",
+                rs -> {
+                    LocalDateTime hour = rs.getDate(2).toLocalDate().atTime(rs.getInt(3), 0);
+                    rollup.addBuckets(rs.getString(1), rs.getInt(4), Paise.ofRupees(rs.getBigDecimal(5)),
+                            Paise.ofRupees(rs.getBigDecimal(6)), hour);
+                },
+                merchantId, highWaterId, Timestamp.valueOf(since));
+
+        List<Recent> newest = jdbcTemplate.query(
+                "SELECT id, transaction_id, order_id, merchant_id, amount, status, payment_method, payer_name, " +
+                "fraud_flagged, risk_score, created_at FROM pg_transactions WHERE merchant_id = ? AND id <= ? " +
+                "ORDER BY created_at DESC, id DESC LIMIT ?",
+                (rs, i) -> new Recent(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getBigDecimal(5), rs.getString(6), rs.getString(7), rs.getString(8),
+                        rs.getBoolean(9), rs.getInt(10),
+                        rs.getTimestamp(11) != null ? rs.getTimestamp(11).toLocalDateTime() : null),
+                merchantId, highWaterId, recentSize);
+        for (int i = newest.size() - 1; i >= 0; i--) {
+            rollup.push(newest.get(i));
+        }
+        return rollup;
+    }
+
+    private void afterCommit(Runnable work) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    work.run();
+                }
+            });
+        } else {
+            work.run();
+        }
+    }
+
+    // Drop the least recently used tenth once the store is full
+    private void evictIfFull() {
+        if (StoreEviction.evictIfFull(rollups, maxMerchants, r -> r.lastUsedMillis, this::stripeFor, null) > 0) {
+            log.debug("Evicted merchant analytics rollups; {} tracked", rollups.size());
+        }
+    }
+
+    private Object stripeFor(String merchantId) {
+        return stripes[(merchantId.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    /** A transaction as shown in the recent list. */
+    public record Recent(long id, String transactionId, String orderId, String merchantId, BigDecimal amount,
+                         String status, String paymentMethod, String payerName, boolean fraudFlagged,
+                         int riskScore, LocalDateTime createdAt) {
+
+        static Recent of(PgTransaction txn) {
+            return new Recent(txn.getId(), txn.getTransactionId(), txn.getOrderId(), txn.getMerchantId(),
+                    txn.getAmount(), txn.getStatus(), txn.getPaymentMethod(), txn.getPayerName(),
+                    Boolean.TRUE.equals(txn.getFraudFlagged()), txn.getRiskScore() != null ? txn.getRiskScore() : 0,
+                    txn.getCreatedAt() != null ? txn.getCreatedAt() : LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Decides whether a committed row still has to be counted. The mark is the highest id the load saw
+     * and never moves: ids above it are new, ids at or below it are new only if the load did not count
+     * them, which is tracked for rows created since {@code inFlightSince}.
+     */
+    private static final class IdFence {
+        final long mark;
+        final LocalDateTime inFlightSince;
+        // Ids counted by the load or applied since, with their creation time
+        private final Map<Long, LocalDateTime> seen = new HashMap<>();
+
+        IdFence(Long mark, LocalDateTime inFlightSince) {
+            this.mark = mark != null ? mark : 0;
+            this.inFlightSince = inFlightSince;
+        }
+
+        void counted(long id, LocalDateTime createdAt) {
+            seen.put(id, createdAt);
+        }
+
+        boolean admit(long id, LocalDateTime createdAt) {
+            if (id <= mark && createdAt.isBefore(inFlightSince)) {
+                return false; // committed long before the load, so it was counted
+            }
+            return seen.putIfAbsent(id, createdAt) == null;
+        }
+
+        // A row's commit callback runs right after its commit, so old entries cannot come round again
+        void forgetBefore(LocalDateTime cutoff) {
+            seen.values().removeIf(createdAt -> createdAt.isBefore(cutoff));
+        }
+    }
+
+    /** Counts and amounts for one status group; volume and fees only count successful payments. */
+    private static final class Bucket {
+        long key;
+        long success;
+        long failed;
+        long volumePaise;
+        long feePaise;
+
+        void add(String status, long count, long amountPaise, long feePaise) {
+            if ("SUCCESS".equals(status)) {
+                success += count;
+                volumePaise = Paise.add(volumePaise, amountPaise);
+                this.feePaise = Paise.add(this.feePaise, feePaise);
+            } else if ("FAILED".equals(status)) {
+                failed += count;
+            }
+        }
+
+        Map<String, Object> toMap(String label) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("period", label);
+            map.put("successfulTransactions", success);
+            map.put("failedTransactions", failed);
+            map.put("volume", Paise.toBigDecimal(volumePaise));
+            map.put("fees", Paise.toBigDecimal(feePaise));
+            return map;
+        }
+    }
+
+    /** One merchant's figures; only touched under the merchant's stripe lock. */
+    private static final class MerchantRollup {
+
+        final Bucket totals = new Bucket();
+        long flagged;
+        long refundPaise;
+        final IdFence transactions;
+        final IdFence refunds;
+        volatile long lastUsedMillis = System.currentTimeMillis();
+
+        final Bucket[] hours = new Bucket[HOUR_SLOTS];
+        final Bucket[] days = new Bucket[DAY_SLOTS];
+        final Recent[] recent;
+        int recentHead;
+        int recentCount;
+
+        MerchantRollup(int recentSize, IdFence transactions, IdFence refunds) {
+            recent = new Recent[recentSize];
+            this.transactions = transactions;
+            this.refunds = refunds;
+        }
+
+        void add(String status, long count, long amountPaise, long feePaise, LocalDateTime at) {
+            addTotals(status, count, amountPaise, feePaise);
+            addBuckets(status, count, amountPaise, feePaise, at);
+            lastUsedMillis = System.currentTimeMillis();
+        }
+
+        void addTotals(String status, long count, long amountPaise, long feePaise) {
+            totals.add(status, count, amountPaise, feePaise);
+            if ("FLAGGED".equals(status)) {
+                flagged += count;
+            }
+        }
+
+        void addBuckets(String status, long count, long amountPaise, long feePaise, LocalDateTime at) {
+            long day = at.toLocalDate().toEpochDay();
+            slot(hours, day * 24 + at.getHour()).add(status, count, amountPaise, feePaise);
+            slot(days, day).add(status, count, amountPaise, feePaise);
+        }
+
+        void push(Recent txn) {
+            recent[recentHead] = txn;
+            recentHead = (recentHead + 1) % recent.length;
+            recentCount = Math.min(recentCount + 1, recent.length);
+        }
+
+        // The ring slot for a period, reset when it still holds an older period
+        private static Bucket slot(Bucket[] ring, long key) {
+            int index = (int) Math.floorMod(key, (long) ring.length);
+            Bucket bucket = ring[index];
+            if (bucket == null || bucket.key < key) {
+                bucket = new Bucket();
+                bucket.key = key;
+                ring[index] = bucket;
+            } else if (bucket.key > key) {
+                return new Bucket(); // older than the ring; counted in the totals only
+            }
+            return bucket;
+        }
+
+        private static List<Map<String, Object>> series(Bucket[] ring, long fromKey, long toKey, boolean hourly) {
+            List<Map<String, Object>> series = new ArrayList<>();
+            for (long key = fromKey; key <= toKey; key++) {
+                Bucket bucket = ring[(int) Math.floorMod(key, (long) ring.length)];
+                if (bucket == null || bucket.key != key) {
+                    bucket = new Bucket();
+                }
+                String label = hourly
+                        ? LocalDate.ofEpochDay(Math.floorDiv(key, 24)).atTime((int) Math.floorMod(key, 24L), 0).toString()
+                        : LocalDate.ofEpochDay(key).toString();
+                series.add(bucket.toMap(label));
+            }
+            return series;
+        }
+
+        Map<String, Object> toMap(LocalDateTime now) {
+            long today = now.toLocalDate().toEpochDay();
+            long hour = today * 24 + now.getHour();
+            List<Recent> newest = new ArrayList<>(recentCount);
+            List<Recent> fraudAlerts = new ArrayList<>();
+            for (int i = 1; i <= recentCount; i++) {
+                Recent txn = recent[Math.floorMod(recentHead - i, recent.length)];
+                newest.add(txn);
+                if (txn.fraudFlagged() || "FLAGGED".equals(txn.status())) {
+                    fraudAlerts.add(txn);
+                }
+            }
+
+            Map<String, Object> map = new HashMap<>();
+            map.put("totalVolume", Paise.toBigDecimal(totals.volumePaise));
+            map.put("successfulTransactions", totals.success);
+            map.put("failedTransactions", totals.failed);
+            map.put("flaggedTransactions", flagged);
+            map.put("totalFees", Paise.toBigDecimal(totals.feePaise));
+            map.put("totalRefunded", Paise.toBigDecimal(refundPaise));
+            map.put("hourly", series(hours, hour - HOURS + 1, hour, true));
+            map.put("daily", series(days, today - DAYS + 1, today, false));
+            map.put("recentTransactions", newest);
+            map.put("fraudAlerts", fraudAlerts);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.neo.springapp.service;
+
+import com.itextpdf.html2pdf.ConverterProperties;
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.AreaBreak;
+import com.itextpdf.layout.element.IBlockElement;
+import com.itextpdf.layout.element.IElement;
+import com.neo.springapp.model.Transaction;
+import com.neo.springapp.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes an account passbook as a PDF straight to an output stream, one printed page at a time.
+ *
+ * Transactions are read oldest first in keyset pages of {@code app.passbook.rows-per-page} rows
+ * (account number, then date and id after the last row written), each page is rendered from the
+ * passbook templates and added to an iText document that flushes finished pages to the stream.
+ * Only one page of transactions is held at a time, so a current account with tens of thousands of
+ * entries costs the same memory as a short one, and the database connection is held only while a
+ * page is fetched. Every page opens with the balance brought forward from the previous page and
+ * closes with the balance carried forward; the last page carries the period summary.
+ */
+@Service
+public class PassbookStatementService {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final LocalDateTime OPEN_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime OPEN_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final String EMPTY_ROW = "<tr><td colspan=\"6\" class=\"no-txn-msg\">No transactions found for this period.</td></tr>";
+
+    private final TransactionRepository transactionRepository;
+    private final int rowsPerPage;
+
+    private final PdfTemplate styleTemplate = PdfTemplate.load("passbook-style.html");
+    private final PdfTemplate frontTemplate = PdfTemplate.load("passbook-front.html");
+    private final PdfTemplate pageTemplate = PdfTemplate.load("passbook-page.html");
+    private final PdfTemplate rowTemplate = PdfTemplate.load("passbook-row.html");
+    private final PdfTemplate summaryTemplate = PdfTemplate.load("passbook-summary.html");
+    private final String style = styleTemplate.render(Map.of());
+
+    public PassbookStatementService(TransactionRepository transactionRepository,
+                                    @Value("${app.passbook.rows-per-page:25}") int rowsPerPage) {
+        this.transactionRepository = transactionRepository;
+        this.rowsPerPage = Math.max(1, rowsPerPage);
+    }
+
+    /**
+     * Streams the passbook for {@code accountInfo} (the map PassbookController assembles per account
+     * type) covering transactions dated from {@code from} up to and including {@code to}; either
+     * bound may be null for an open range. The stream is left open.
+     */
+    public void writePassbook(Map<String, Object> accountInfo, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        String accountNumber = safeStr(accountInfo.get("accountNumber"));
+        LocalDateTime start = from != null ? from.atStartOfDay() : OPEN_START;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : OPEN_END;
+        double accountBalance = accountInfo.get("balance") != null ? Double.parseDouble(String.valueOf(accountInfo.get("balance"))) : 0.0;
+
+        ConverterProperties properties = PdfService.converterProperties();
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        PdfDocument pdf = new PdfDocument(writer);
+        Document document = new Document(pdf, PageSize.A4, true);
+        document.setMargins(0, 0, 0, 0);
+        document.setFontProvider(properties.getFontProvider());
+        try {
+            add(document, frontTemplate.render(frontSlots(accountInfo, accountNumber)), properties);
+
+            Map<String, Object> page = new HashMap<>();
+            page.put("style", style);
+            page.put("accountNumber", PdfService.escapeHtml(accountNumber));
+            page.put("name", PdfService.escapeHtml(safeStr(accountInfo.get("name"))));
+            page.put("branchName", PdfService.escapeHtml(safeStr(accountInfo.getOrDefault("branchName", "NeoBank Main Branch"))));
+            page.put("period", (from != null ? from.format(DATE) : "Account opening") + " to " + (to != null ? to.format(DATE) : LocalDate.now().format(DATE)));
+            page.put("balance", String.format("%,.2f", accountBalance));
+
+            List<Transaction> rows = fetchPage(accountNumber, start, 0L, end);
+            double openingBalance = openingBalance(accountNumber, from != null ? start : null, rows, accountBalance);
+            double running = openingBalance;
+            double totalCredit = 0.0;
+            double totalDebit = 0.0;
+            long count = 0;
+            int pageNumber = 0;
+            Map<String, Object> row = new HashMap<>();
+
+            do {
+                pageNumber++;
+                double broughtForward = running;
+                StringBuilder rowHtml = new StringBuilder(rows.size() * 320);
+                for (int i = 0; i < rows.size(); i++) {
+                    Transaction txn = rows.get(i);
+                    double amount = txn.getAmount() != null ? txn.getAmount() : 0.0;
+                    boolean credit = isCredit(txn);
+                    if (credit) {
+                        totalCredit += amount;
+                        running += amount;
+                    } else {
+                        totalDebit += amount;
+                        running -= amount;
+                    }
+                    if (txn.getBalance() != null) {
+                        running = txn.getBalance();
+                    }
+                    String particulars = txn.getDescription() != null ? txn.getDescription()
+                        : (txn.getMerchant() != null ? txn.getMerchant() : "");
+                    row.put("rowClass", i % 2 == 1 ? " class=\"even-row\"" : "");
+                    row.put("date", txn.getDate() != null ? txn.getDate().format(DATE) : "N/A");
+                    row.put("particulars", PdfService.escapeHtml(particulars));
+                    row.put("reference", PdfService.escapeHtml(txn.getTransactionId() != null ? txn.getTransactionId() : ""));
+                    row.put("debit", credit ? "" : String.format("%,.2f", amount));
+                    row.put("credit", credit ? String.format("%,.2f", amount) : "");
+                    row.put("balance", String.format("%,.2f", running));
+                    rowTemplate.renderTo(rowHtml, row);
+                }
+                count += rows.size();
+
+                List<Transaction> next = List.of();
+                if (rows.size() == rowsPerPage) {
+                    Transaction last = rows.get(rows.size() - 1);
+                    next = fetchPage(accountNumber, last.getDate(), last.getId(), end);
+                }
+                boolean lastPage = next.isEmpty();
+
+                page.put("pageNumber", pageNumber);
+                page.put("rows", rows.isEmpty() ? EMPTY_ROW : rowHtml);
+                page.put("broughtForward", String.format("%,.2f", broughtForward));
+                page.put("closingLabel", lastPage ? "Closing Balance" : "Carried Forward");
+                page.put("carriedForward", String.format("%,.2f", running));
+                page.put("closing", lastPage ? summaryTemplate.render(Map.of(
+                    "openingBalance", String.format("%,.2f", openingBalance),
+                    "totalCredit", String.format("%,.2f", totalCredit),
+                    "totalDebit", String.format("%,.2f", totalDebit),
+                    "transactionCount", count,
+                    "closingBalance", String.format("%,.2f", running),
+                    "netAmount", String.format("%,.2f", totalCredit - totalDebit),
+                    "year", java.time.Year.now())) : "");
+
+                document.add(new AreaBreak());
+                add(document, pageTemplate.render(page), properties);
+                rows = next;
+            } while (!rows.isEmpty());
+        } finally {
+            document.close();
+        }
+    }
+
+    private List<Transaction> fetchPage(String accountNumber, LocalDateTime afterDate, Long afterId, LocalDateTime end) {
+        return transactionRepository.findPassbookPage(accountNumber, afterDate, afterId, end, PageRequest.of(0, rowsPerPage));
+    }
+
+    /**
+     * Balance before the first row of the period: the balance after the last transaction before it,
+     * otherwise worked back from the first row, otherwise the account's current balance.
+     */
+    private double openingBalance(String accountNumber, LocalDateTime start, List<Transaction> firstPage, double accountBalance) {
+        if (start != null) {
+            List<Transaction> before = transactionRepository.findLatestBefore(accountNumber, start, PageRequest.of(0, 1));
+            if (!before.isEmpty() && before.get(0).getBalance() != null) {
+                return before.get(0).getBalance();
+            }
+        }
+        if (!firstPage.isEmpty() && firstPage.get(0).getBalance() != null) {
+            Transaction first = firstPage.get(0);
+            double amount = first.getAmount() != null ? first.getAmount() : 0.0;
+            return isCredit(first) ? first.getBalance() - amount : first.getBalance() + amount;
+        }
+        return accountBalance;
+    }
+
+    private static boolean isCredit(Transaction txn) {
+        return "Credit".equalsIgnoreCase(txn.getType())
+            || "Deposit".equalsIgnoreCase(txn.getType())
+            || "Loan Credit".equalsIgnoreCase(txn.getType());
+    }
+
+    private Map<String, Object> frontSlots(Map<String, Object> accountInfo, String accountNumber) {
+        String aadharNumber = safeStr(accountInfo.get("aadharNumber"));
+        Map<String, Object> slots = new HashMap<>();
+        slots.put("style", style);
+        slots.put("issueDate", LocalDate.now().format(DATE));
+        slots.put("accountNumber", PdfService.escapeHtml(accountNumber));
+        slots.put("customerId", PdfService.escapeHtml(safeStr(accountInfo.get("customerId"))));
+        slots.put("name", PdfService.escapeHtml(safeStr(accountInfo.get("name"))));
+        slots.put("address", PdfService.escapeHtml(safeStr(accountInfo.get("address"))));
+        slots.put("phone", PdfService.escapeHtml(safeStr(accountInfo.get("phone"))));
+        slots.put("accountType", PdfService.escapeHtml(safeStr(accountInfo.getOrDefault("accountType", "Savings"))));
+        slots.put("branchName", PdfService.escapeHtml(safeStr(accountInfo.getOrDefault("branchName", "NeoBank Main Branch"))));
+        slots.put("branchCode", PdfService.escapeHtml(safeStr(accountInfo.getOrDefault("branchCode", "0001"))));
+        slots.put("ifscCode", PdfService.escapeHtml(safeStr(accountInfo.getOrDefault("ifscCode", "NEOB0001234"))));
+        slots.put("pan", PdfService.escapeHtml(safeStr(accountInfo.get("pan"))));
+        slots.put("modeOfOperation", PdfService.escapeHtml(safeStr(accountInfo.getOrDefault("modeOfOperation", "SINGLE"))));
+        slots.put("occupation", PdfService.escapeHtml(safeStr(accountInfo.getOrDefault("occupation", ""))));
+        // Mask Aadhar: show only last 4
+        slots.put("maskedAadhar", PdfService.escapeHtml(aadharNumber.length() > 4
+            ? "XXXX XXXX " + aadharNumber.substring(aadharNumber.length() - 4)
+            : aadharNumber));
+        slots.put("passbookNumber", PdfService.escapeHtml("PB" + accountNumber));
+        slots.put("ledgerNo", PdfService.escapeHtml("LN" + (accountNumber.length() > 4 ? accountNumber.substring(accountNumber.length() - 4) : accountNumber)));
+        return slots;
+    }
+
+    private static void add(Document document, String html, ConverterProperties properties) {
+        for (IElement element : HtmlConverter.convertToElements(html, properties)) {
+            if (element instanceof AreaBreak areaBreak) {
+                document.add(areaBreak);
+            } else if (element instanceof IBlockElement block) {
+                document.add(block);
+            }
+        }
+    }
+
+    private static String safeStr(Object val) {
+        if (val == null) return "N/A";
+        String s = String.valueOf(val);
+        return s.isEmpty() ? "N/A" : s;
+    }
+}
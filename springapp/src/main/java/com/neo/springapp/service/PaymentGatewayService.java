@@ -2,11 +2,15 @@ package com.neo.springapp.service;
 
 import com.neo.springapp.model.*;
 import com.neo.springapp.repository.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
@@ -33,9 +37,15 @@ public class PaymentGatewayService {
     private final TransactionService transactionService;
     private final PgPaymentLinkRepository paymentLinkRepository;
     private final UserRepository userRepository;
-
-    private static final BigDecimal PLATFORM_FEE_RATE = new BigDecimal("0.02"); // 2%
-    private static final BigDecimal GST_RATE = new BigDecimal("0.18"); // 18% on fee
+    private final BalancePostingService balancePostingService;
+    private final PaymentPushService paymentPushService;
+    private final UpiDirectory upiDirectory;
+    private final MerchantAnalyticsStore merchantAnalytics;
+    // Opt-in; by default captures are left unsettled for PgSettlementEngine's batched cycle
+    private final boolean instantSettlement;
+
+    private static final long PLATFORM_FEE_BPS = 200; // 2%, in basis points
+    private static final long GST_BPS = 1800; // 18% on fee, in basis points
     private static final String HMAC_ALGO = "HmacSHA256";
 
     public PaymentGatewayService(
@@ -52,7 +62,12 @@ public class PaymentGatewayService {
             SalaryAccountRepository salaryAccountRepository,
             TransactionService transactionService,
             PgPaymentLinkRepository paymentLinkRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            BalancePostingService balancePostingService,
+            PaymentPushService paymentPushService,
+            UpiDirectory upiDirectory,
+            MerchantAnalyticsStore merchantAnalytics,
+            @Value("${app.pg.settlement.instant:false}") boolean instantSettlement) {
         this.merchantRepository = merchantRepository;
         this.orderRepository = orderRepository;
         this.transactionRepository = transactionRepository;
@@ -67,6 +82,11 @@ public class PaymentGatewayService {
         this.transactionService = transactionService;
         this.paymentLinkRepository = paymentLinkRepository;
         this.userRepository = userRepository;
+        this.balancePostingService = balancePostingService;
+        this.paymentPushService = paymentPushService;
+        this.upiDirectory = upiDirectory;
+        this.merchantAnalytics = merchantAnalytics;
+        this.instantSettlement = instantSettlement;
     }
 
     // ==================== MERCHANT OPERATIONS ====================
@@ -250,11 +270,8 @@ public class PaymentGatewayService {
         PgMerchant merchant = merchantRepository.findByMerchantId(order.getMerchantId())
                 .orElseThrow(() -> new RuntimeException("Merchant not found"));
 
-        // 3. Calculate fees
+        // 3. Amount; fee and GST are applied to the transaction in step 5
         BigDecimal amount = order.getAmount();
-        BigDecimal fee = amount.multiply(PLATFORM_FEE_RATE).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal tax = fee.multiply(GST_RATE).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal netAmount = amount.subtract(fee).subtract(tax);
 
         // 4. Fraud check
         int riskScore = calculateRiskScore(payerAccount, amount);
@@ -266,10 +283,8 @@ public class PaymentGatewayService {
         txn.setMerchantId(order.getMerchantId());
         txn.setPayerAccount(payerAccount);
         txn.setPayerName(payerName);
-        txn.setAmount(amount);
-        txn.setFee(fee);
-        txn.setTax(tax);
-        txn.setNetAmount(netAmount);
+        applyCharges(txn, amount);
+        BigDecimal netAmount = txn.getNetAmount();
         txn.setPaymentMethod(paymentMethod);
         txn.setRiskScore(riskScore);
         txn.setFraudFlagged(fraudFlagged);
@@ -284,37 +299,37 @@ public class PaymentGatewayService {
             throw new RuntimeException("Transaction flagged for review. Risk score: " + riskScore);
         }
 
-        // 6. Validate payer balance (for account-based payments) - supports ALL account types
+        // 6. Resolve payer account (for account-based payments) - supports ALL account types
         if (payerAccount != null && !payerAccount.isEmpty()) {
-            Double payerBalance = null;
-            String accountType = "UNKNOWN";
+            String accountType = null;
+            String userName = payerName;
 
             // Check regular (savings) accounts
             Account account = accountRepository.findByAccountNumber(payerAccount);
             if (account != null) {
-                payerBalance = account.getBalance();
-                accountType = "SAVINGS";
+                accountType = BalancePostingService.SAVINGS;
+                if (userName == null) userName = account.getName();
             }
 
             // Check current accounts
-            if (payerBalance == null) {
+            if (accountType == null) {
                 Optional<CurrentAccount> currentOpt = currentAccountRepository.findByAccountNumber(payerAccount);
                 if (currentOpt.isPresent()) {
-                    payerBalance = currentOpt.get().getBalance();
-                    accountType = "CURRENT";
+                    accountType = BalancePostingService.CURRENT;
+                    if (userName == null) userName = currentOpt.get().getOwnerName();
                 }
             }
 
             // Check salary accounts
-            if (payerBalance == null) {
+            if (accountType == null) {
                 SalaryAccount salAcc = salaryAccountRepository.findByAccountNumber(payerAccount);
                 if (salAcc != null) {
-                    payerBalance = salAcc.getBalance();
-                    accountType = "SALARY";
+                    accountType = BalancePostingService.SALARY;
+                    if (userName == null) userName = salAcc.getEmployeeName();
                 }
             }
 
-            if (payerBalance == null) {
+            if (accountType == null) {
                 txn.setStatus("FAILED");
                 txn.setErrorCode("INVALID_ACCOUNT");
                 txn.setErrorDescription("Payer account not found");
@@ -323,7 +338,10 @@ public class PaymentGatewayService {
                 orderRepository.save(order);
                 throw new RuntimeException("Payer account not found");
             }
-            if (payerBalance < amount.doubleValue()) {
+
+            // 7. Deduct from payer - conditional on sufficient balance, in one statement
+            Double newBalance = balancePostingService.debit(accountType, payerAccount, amount.doubleValue());
+            if (newBalance == null) {
                 txn.setStatus("FAILED");
                 txn.setErrorCode("INSUFFICIENT_FUNDS");
                 txn.setErrorDescription("Insufficient balance");
@@ -333,47 +351,18 @@ public class PaymentGatewayService {
                 throw new RuntimeException("Insufficient balance");
             }
 
-            // 7. Deduct from payer - from the correct account type
-            Double newBalance = null;
-            String userName = payerName;
-            switch (accountType) {
-                case "SAVINGS":
-                    Account acc = accountRepository.findByAccountNumber(payerAccount);
-                    acc.setBalance(acc.getBalance() - amount.doubleValue());
-                    accountRepository.save(acc);
-                    newBalance = acc.getBalance();
-                    if (userName == null) userName = acc.getName();
-                    break;
-                case "CURRENT":
-                    CurrentAccount ca = currentAccountRepository.findByAccountNumber(payerAccount).get();
-                    ca.setBalance(ca.getBalance() - amount.doubleValue());
-                    currentAccountRepository.save(ca);
-                    newBalance = ca.getBalance();
-                    if (userName == null) userName = ca.getOwnerName();
-                    break;
-                case "SALARY":
-                    SalaryAccount sa = salaryAccountRepository.findByAccountNumber(payerAccount);
-                    sa.setBalance(sa.getBalance() - amount.doubleValue());
-                    salaryAccountRepository.save(sa);
-                    newBalance = sa.getBalance();
-                    if (userName == null) userName = sa.getEmployeeName();
-                    break;
-            }
-
             // 7a. Record transaction in user's transaction history
-            if (newBalance != null) {
-                Transaction userTxn = new Transaction();
-                userTxn.setAccountNumber(payerAccount);
-                userTxn.setUserName(userName);
-                userTxn.setAmount(amount.doubleValue());
-                userTxn.setType("Debit");
-                userTxn.setDescription("PG Payment - " + paymentMethod + " - Order: " + orderId + " - Merchant: " + order.getMerchantId());
-                userTxn.setBalance(newBalance);
-                userTxn.setDate(LocalDateTime.now());
-                userTxn.setStatus("Completed");
-                userTxn.setMerchant(order.getMerchantId());
-                transactionService.saveTransaction(userTxn);
-            }
+            Transaction userTxn = new Transaction();
+            userTxn.setAccountNumber(payerAccount);
+            userTxn.setUserName(userName);
+            userTxn.setAmount(amount.doubleValue());
+            userTxn.setType("Debit");
+            userTxn.setDescription("PG Payment - " + paymentMethod + " - Order: " + orderId + " - Merchant: " + order.getMerchantId());
+            userTxn.setBalance(newBalance);
+            userTxn.setDate(LocalDateTime.now());
+            userTxn.setStatus("Completed");
+            userTxn.setMerchant(order.getMerchantId());
+            transactionService.saveTransaction(userTxn);
         }
 
         // 8. Generate signature
@@ -383,6 +372,7 @@ public class PaymentGatewayService {
         txn.setStatus("SUCCESS");
 
         PgTransaction savedTxn = transactionRepository.save(txn);
+        merchantAnalytics.recordTransaction(savedTxn);
 
         // 9. Update order status
         order.setStatus("PAID");
@@ -393,46 +383,26 @@ public class PaymentGatewayService {
         merchant.setTotalVolume(merchant.getTotalVolume().add(amount));
         merchantRepository.save(merchant);
 
-        // 11. Auto-settle: credit merchant account & record transaction in real-time
+        // 11. Auto-settle: credit merchant account & record transaction in real-time (unless batched)
         String creditAccount = merchant.getLinkedAccountNumber();
         if (creditAccount == null || creditAccount.isEmpty()) {
             creditAccount = merchant.getAccountNumber();
         }
-        if (creditAccount != null && !creditAccount.isEmpty()) {
+        // The merchant hears about the capture now in either mode; in batch mode the payout follows with the cycle
+        Object pushed = savedTxn;
+        if (instantSettlement && creditAccount != null && !creditAccount.isEmpty()) {
             Double merchantBalanceBefore = null;
             Double merchantBalanceAfter = null;
             String merchantAccName = merchant.getBusinessName();
             boolean credited = false;
 
-            Optional<CurrentAccount> merchantCaOpt = currentAccountRepository.findByAccountNumber(creditAccount);
-            if (merchantCaOpt.isPresent()) {
-                CurrentAccount mca = merchantCaOpt.get();
-                merchantBalanceBefore = mca.getBalance();
-                mca.setBalance(mca.getBalance() + netAmount.doubleValue());
-                currentAccountRepository.save(mca);
-                merchantBalanceAfter = mca.getBalance();
-                merchantAccName = mca.getOwnerName();
-                credited = true;
-            }
-            if (!credited) {
-                Account merchantAcc = accountRepository.findByAccountNumber(creditAccount);
-                if (merchantAcc != null) {
-                    merchantBalanceBefore = merchantAcc.getBalance();
-                    merchantAcc.setBalance(merchantAcc.getBalance() + netAmount.doubleValue());
-                    accountRepository.save(merchantAcc);
-                    merchantBalanceAfter = merchantAcc.getBalance();
-                    merchantAccName = merchantAcc.getName();
-                    credited = true;
-                }
-            }
-            if (!credited) {
-                SalaryAccount merchantSa = salaryAccountRepository.findByAccountNumber(creditAccount);
-                if (merchantSa != null) {
-                    merchantBalanceBefore = merchantSa.getBalance();
-                    merchantSa.setBalance(merchantSa.getBalance() + netAmount.doubleValue());
-                    salaryAccountRepository.save(merchantSa);
-                    merchantBalanceAfter = merchantSa.getBalance();
-                    merchantAccName = merchantSa.getEmployeeName();
+            String[] merchantAcc = balancePostingService.resolveAccount(creditAccount);
+            if (merchantAcc != null) {
+                merchantAccName = merchantAcc[1];
+                merchantBalanceAfter = balancePostingService.credit(merchantAcc[0], creditAccount, netAmount.doubleValue());
+                if (merchantBalanceAfter != null) {
+                    merchantBalanceBefore = Paise.toRupees(Paise.subtract(Paise.ofRupees(merchantBalanceAfter),
+                            Paise.ofRupees(netAmount)));
                     credited = true;
                 }
             }
@@ -457,8 +427,8 @@ public class PaymentGatewayService {
                 ledger.setTransactionId(savedTxn.getTransactionId());
                 ledger.setOrderId(orderId);
                 ledger.setGrossAmount(amount);
-                ledger.setFeeAmount(fee);
-                ledger.setTaxAmount(tax);
+                ledger.setFeeAmount(savedTxn.getFee());
+                ledger.setTaxAmount(savedTxn.getTax());
                 ledger.setNetAmount(netAmount);
                 ledger.setCreditAccount(creditAccount);
                 ledger.setCreditStatus("CREDITED");
@@ -472,12 +442,28 @@ public class PaymentGatewayService {
                 savedTxn.setSettled(true);
                 savedTxn.setSettledAt(LocalDateTime.now());
                 transactionRepository.save(savedTxn);
+                pushed = merchantTxn;
             }
         }
+        if (creditAccount != null && !creditAccount.isEmpty()) {
+            paymentPushService.paymentReceived("PAYMENT_GATEWAY", creditAccount, savedTxn.getTransactionId(),
+                    netAmount, payerName, null, pushed);
+        }
 
         return savedTxn;
     }
 
+    // Sets amount, the platform fee, GST on the fee and the merchant's net; computed on long paise
+    private static void applyCharges(PgTransaction txn, BigDecimal amount) {
+        long amountPaise = Paise.ofRupees(amount);
+        long feePaise = Paise.applyRate(amountPaise, PLATFORM_FEE_BPS);
+        long taxPaise = Paise.applyRate(feePaise, GST_BPS);
+        txn.setAmount(amount);
+        txn.setFee(Paise.toBigDecimal(feePaise));
+        txn.setTax(Paise.toBigDecimal(taxPaise));
+        txn.setNetAmount(Paise.toBigDecimal(amountPaise - feePaise - taxPaise));
+    }
+
     // ==================== REFUND OPERATIONS ====================
 
     @Transactional
@@ -515,65 +501,72 @@ public class PaymentGatewayService {
 
         PgRefund savedRefund = refundRepository.save(refund);
 
-        // Credit back to payer account - supports ALL account types
-        Double refundNewBalance = null;
-        String refundUserName = txn.getPayerName();
-        if (txn.getPayerAccount() != null) {
-            boolean credited = false;
-            Account account = accountRepository.findByAccountNumber(txn.getPayerAccount());
-            if (account != null) {
-                account.setBalance(account.getBalance() + refundAmount.doubleValue());
-                accountRepository.save(account);
-                refundNewBalance = account.getBalance();
-                if (refundUserName == null) refundUserName = account.getName();
-                credited = true;
-            }
-            if (!credited) {
-                Optional<CurrentAccount> caOpt = currentAccountRepository.findByAccountNumber(txn.getPayerAccount());
-                if (caOpt.isPresent()) {
-                    CurrentAccount ca = caOpt.get();
-                    ca.setBalance(ca.getBalance() + refundAmount.doubleValue());
-                    currentAccountRepository.save(ca);
-                    refundNewBalance = ca.getBalance();
-                    if (refundUserName == null) refundUserName = ca.getOwnerName();
-                    credited = true;
-                }
-            }
-            if (!credited) {
-                SalaryAccount sa = salaryAccountRepository.findByAccountNumber(txn.getPayerAccount());
-                if (sa != null) {
-                    sa.setBalance(sa.getBalance() + refundAmount.doubleValue());
-                    salaryAccountRepository.save(sa);
-                    refundNewBalance = sa.getBalance();
-                    if (refundUserName == null) refundUserName = sa.getEmployeeName();
-                }
-            }
+        // Record the refund on the capture with a targeted update; saving txn would write back a stale settled
+        // flag. Before settlement the cycle nets the refund from the merchant's payout; after it (instant
+        // settlement, or a cycle that already ran) the merchant repays it from the settlement account.
+        LocalDateTime now = LocalDateTime.now();
+        if (transactionRepository.addRefundIfUnsettled(txn.getId(), refundAmount, now) == 0) {
+            transactionRepository.addRefund(txn.getId(), refundAmount, now);
+            recoverRefundFromMerchant(txn, refundAmount, refundType, reason);
         }
 
-        // Record refund transaction in user's transaction history
-        if (refundNewBalance != null && txn.getPayerAccount() != null) {
-            Transaction refundTxn = new Transaction();
-            refundTxn.setAccountNumber(txn.getPayerAccount());
-            refundTxn.setUserName(refundUserName);
-            refundTxn.setAmount(refundAmount.doubleValue());
-            refundTxn.setType("Credit");
-            refundTxn.setDescription("PG Refund - " + refundType + " - Order: " + txn.getOrderId() + " - Reason: " + reason);
-            refundTxn.setBalance(refundNewBalance);
-            refundTxn.setDate(LocalDateTime.now());
-            refundTxn.setStatus("Completed");
-            refundTxn.setMerchant(txn.getMerchantId());
-            transactionService.saveTransaction(refundTxn);
+        // Credit back to payer account - supports ALL account types
+        String[] payer = txn.getPayerAccount() != null ? balancePostingService.resolveAccount(txn.getPayerAccount()) : null;
+        if (payer != null) {
+            Double refundNewBalance = balancePostingService.credit(payer[0], txn.getPayerAccount(), refundAmount.doubleValue());
+
+            // Record refund transaction in user's transaction history
+            if (refundNewBalance != null) {
+                Transaction refundTxn = new Transaction();
+                refundTxn.setAccountNumber(txn.getPayerAccount());
+                refundTxn.setUserName(txn.getPayerName() != null ? txn.getPayerName() : payer[1]);
+                refundTxn.setAmount(refundAmount.doubleValue());
+                refundTxn.setType("Credit");
+                refundTxn.setDescription("PG Refund - " + refundType + " - Order: " + txn.getOrderId() + " - Reason: " + reason);
+                refundTxn.setBalance(refundNewBalance);
+                refundTxn.setDate(now);
+                refundTxn.setStatus("Completed");
+                refundTxn.setMerchant(txn.getMerchantId());
+                transactionService.saveTransaction(refundTxn);
+            }
         }
 
-        // Update transaction refund status
-        BigDecimal totalRefunded = alreadyRefunded.add(refundAmount);
-        txn.setRefundedAmount(totalRefunded);
-        txn.setRefundStatus(totalRefunded.compareTo(txn.getAmount()) >= 0 ? "FULL" : "PARTIAL");
-        transactionRepository.save(txn);
+        merchantAnalytics.recordRefund(savedRefund);
 
         return savedRefund;
     }
 
+    // Debits a refund of an already settled capture from the account the settlement credited
+    private void recoverRefundFromMerchant(PgTransaction txn, BigDecimal refundAmount, String refundType, String reason) {
+        String debitAccount = settlementLedgerRepository.findByTransactionId(txn.getTransactionId()).stream()
+                .map(PgSettlementLedger::getCreditAccount)
+                .findFirst()
+                .orElseGet(() -> merchantRepository.findByMerchantId(txn.getMerchantId())
+                        .map(m -> m.getLinkedAccountNumber() != null && !m.getLinkedAccountNumber().isEmpty()
+                                ? m.getLinkedAccountNumber() : m.getAccountNumber())
+                        .orElse(null));
+        String[] account = debitAccount != null ? balancePostingService.resolveAccount(debitAccount) : null;
+        if (account == null) {
+            throw new RuntimeException("Merchant settlement account not found; cannot refund a settled transaction");
+        }
+        Double merchantBalance = balancePostingService.debit(account[0], debitAccount, refundAmount.doubleValue());
+        if (merchantBalance == null) {
+            throw new RuntimeException("Merchant settlement account has insufficient balance for this refund");
+        }
+
+        Transaction merchantTxn = new Transaction();
+        merchantTxn.setAccountNumber(debitAccount);
+        merchantTxn.setUserName(account[1]);
+        merchantTxn.setAmount(refundAmount.doubleValue());
+        merchantTxn.setType("Debit");
+        merchantTxn.setDescription("PG Refund Recovery - " + refundType + " - Order: " + txn.getOrderId() + " - Reason: " + reason);
+        merchantTxn.setBalance(merchantBalance);
+        merchantTxn.setDate(LocalDateTime.now());
+        merchantTxn.setStatus("Completed");
+        merchantTxn.setMerchant(txn.getMerchantId());
+        transactionService.saveTransaction(merchantTxn);
+    }
+
     public List<PgRefund> getRefundsByMerchant(String merchantId) {
         return refundRepository.findByMerchantIdOrderByCreatedAtDesc(merchantId);
     }
@@ -584,15 +577,17 @@ public class PaymentGatewayService {
 
     // ==================== ANALYTICS ====================
 
+    // Served from the in-memory rollup; the full history is paged through getMerchantTransactionsPage
     public Map<String, Object> getMerchantAnalytics(String merchantId) {
-        Map<String, Object> analytics = new HashMap<>();
-        analytics.put("totalVolume", transactionRepository.getTotalVolumeByMerchantId(merchantId));
-        analytics.put("successfulTransactions", transactionRepository.countSuccessfulByMerchantId(merchantId));
-        analytics.put("failedTransactions", transactionRepository.countFailedByMerchantId(merchantId));
-        analytics.put("totalFees", transactionRepository.getTotalFeesByMerchantId(merchantId));
-        analytics.put("recentTransactions", transactionRepository.findByMerchantIdOrderByCreatedAtDesc(merchantId));
-        analytics.put("fraudAlerts", transactionRepository.findByFraudFlaggedTrue());
-        return analytics;
+        return merchantAnalytics.getAnalytics(merchantId);
+    }
+
+    public Page<PgTransaction> getMerchantTransactionsPage(String merchantId, String status, int page, int size) {
+        Pageable pageable = PageRequest.of(page, Math.min(Math.max(size, 1), 100), Sort.by(Sort.Direction.DESC, "createdAt"));
+        if (status != null && !status.isEmpty()) {
+            return transactionRepository.findByMerchantIdAndStatus(merchantId, status, pageable);
+        }
+        return transactionRepository.findByMerchantId(merchantId, pageable);
     }
 
     public List<PgTransaction> getTransactionsByMerchant(String merchantId) {
@@ -992,12 +987,6 @@ public class PaymentGatewayService {
             return result;
         }
 
-        if (Boolean.TRUE.equals(txn.getSettled())) {
-            result.put("success", false);
-            result.put("message", "Transaction already settled");
-            return result;
-        }
-
         PgMerchant merchant = merchantRepository.findByMerchantId(txn.getMerchantId())
                 .orElseThrow(() -> new RuntimeException("Merchant not found"));
 
@@ -1014,44 +1003,27 @@ public class PaymentGatewayService {
         BigDecimal netAmount = txn.getNetAmount();
 
         // Try current account first, then regular account, then salary account
-        Double balanceBefore = null;
-        Double balanceAfter = null;
-        boolean credited = false;
-
-        Optional<CurrentAccount> currentOpt = currentAccountRepository.findByAccountNumber(creditAccount);
-        if (currentOpt.isPresent()) {
-            CurrentAccount ca = currentOpt.get();
-            balanceBefore = ca.getBalance();
-            ca.setBalance(ca.getBalance() + netAmount.doubleValue());
-            currentAccountRepository.save(ca);
-            balanceAfter = ca.getBalance();
-            credited = true;
-        } else {
-            Account acc = accountRepository.findByAccountNumber(creditAccount);
-            if (acc != null) {
-                balanceBefore = acc.getBalance();
-                acc.setBalance(acc.getBalance() + netAmount.doubleValue());
-                accountRepository.save(acc);
-                balanceAfter = acc.getBalance();
-                credited = true;
-            } else {
-                SalaryAccount sa = salaryAccountRepository.findByAccountNumber(creditAccount);
-                if (sa != null) {
-                    balanceBefore = sa.getBalance();
-                    sa.setBalance(sa.getBalance() + netAmount.doubleValue());
-                    salaryAccountRepository.save(sa);
-                    balanceAfter = sa.getBalance();
-                    credited = true;
-                }
-            }
+        String[] account = balancePostingService.resolveAccount(creditAccount);
+        if (account == null) {
+            result.put("success", false);
+            result.put("message", "Credit account not found");
+            return result;
         }
 
-        if (!credited) {
+        // Claim the capture before crediting, so a concurrent manual or batched settlement cannot credit it twice
+        if (transactionRepository.markSettled(txn.getId(), LocalDateTime.now()) == 0) {
             result.put("success", false);
-            result.put("message", "Credit account not found");
+            result.put("message", "Transaction already settled");
             return result;
         }
 
+        Double balanceAfter = balancePostingService.credit(account[0], creditAccount, netAmount.doubleValue());
+        if (balanceAfter == null) {
+            // Rolls back the claim above
+            throw new RuntimeException("Credit account " + creditAccount + " not found");
+        }
+        Double balanceBefore = Paise.toRupees(Paise.subtract(Paise.ofRupees(balanceAfter), Paise.ofRupees(netAmount)));
+
         // Create settlement ledger entry
         PgSettlementLedger ledger = new PgSettlementLedger();
         ledger.setMerchantId(txn.getMerchantId());
@@ -1069,10 +1041,8 @@ public class PaymentGatewayService {
         ledger.setReferenceNote("PG Settlement for " + txn.getOrderId() + " | TXN: " + transactionId);
         settlementLedgerRepository.save(ledger);
 
-        // Mark transaction as settled
-        txn.setSettled(true);
-        txn.setSettledAt(LocalDateTime.now());
-        transactionRepository.save(txn);
+        paymentPushService.paymentReceived("PG_SETTLEMENT", creditAccount, null, transactionId, netAmount,
+                txn.getPayerName(), null, null, ledger);
 
         result.put("success", true);
         result.put("ledger", ledger);
@@ -1127,9 +1097,6 @@ public class PaymentGatewayService {
         String txnRef       = (String) request.getOrDefault("txnRef", "");
 
         BigDecimal amount = order.getAmount();
-        BigDecimal fee    = amount.multiply(PLATFORM_FEE_RATE).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal tax    = fee.multiply(GST_RATE).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal netAmount = amount.subtract(fee).subtract(tax);
 
         // Create PG transaction record (no balance debit — already done by UPI payment)
         PgTransaction txn = new PgTransaction();
@@ -1137,10 +1104,7 @@ public class PaymentGatewayService {
         txn.setMerchantId(order.getMerchantId());
         txn.setPayerAccount(payerAccount);
         txn.setPayerName(payerName);
-        txn.setAmount(amount);
-        txn.setFee(fee);
-        txn.setTax(tax);
-        txn.setNetAmount(netAmount);
+        applyCharges(txn, amount);
         txn.setPaymentMethod(paymentMethod);
         txn.setStatus("SUCCESS");
         txn.setRiskScore(0);
@@ -1151,6 +1115,7 @@ public class PaymentGatewayService {
             txn.setSignatureVerified(true);
         }
         PgTransaction savedTxn = transactionRepository.save(txn);
+        merchantAnalytics.recordTransaction(savedTxn);
 
         // Mark order PAID
         order.setStatus("PAID");
@@ -1379,7 +1344,7 @@ public class PaymentGatewayService {
     // ==================== PAYMENT LINKS ====================
 
     /**
-     * Verify any UPI ID across CurrentAccount, SalaryAccount, and Savings (User) tables.
+     * Verify any UPI ID across Savings (User), SalaryAccount and CurrentAccount, via the UPI directory.
      */
     public Map<String, Object> verifyAnyUpiId(String upiId) {
         Map<String, Object> result = new HashMap<>();
@@ -1388,57 +1353,20 @@ public class PaymentGatewayService {
             result.put("error", "UPI ID cannot be empty");
             return result;
         }
-        String id = upiId.trim().toLowerCase();
-
-        // Check savings accounts (User table)
-        Optional<com.neo.springapp.model.User> userOpt = userRepository.findByUpiId(id);
-        if (userOpt.isPresent()) {
-            com.neo.springapp.model.User u = userOpt.get();
-            if (!Boolean.TRUE.equals(u.getUpiEnabled())) {
+        Optional<UpiDirectory.Entry> entry = upiDirectory.resolve(upiId);
+        if (entry.isPresent()) {
+            UpiDirectory.Entry e = entry.get();
+            if (!e.active()) {
                 result.put("verified", false);
-                result.put("error", "UPI is disabled for this account");
+                result.put("error", e.inactiveReason());
                 return result;
             }
-            String name = (u.getAccount() != null && u.getAccount().getName() != null)
-                    ? u.getAccount().getName() : u.getUsername();
             result.put("verified", true);
             result.put("valid", true);
-            result.put("name", name);
-            result.put("accountHolderName", name);
-            result.put("accountNumber", u.getAccountNumber());
-            result.put("accountType", "SAVINGS");
-            return result;
-        }
-
-        // Check current accounts
-        Optional<CurrentAccount> caOpt = currentAccountRepository.findByUpiId(id);
-        if (caOpt.isPresent()) {
-            CurrentAccount ca = caOpt.get();
-            if (!"ACTIVE".equals(ca.getStatus()) || !Boolean.TRUE.equals(ca.getUpiEnabled())) {
-                result.put("verified", false);
-                result.put("error", "UPI not active for this account");
-                return result;
-            }
-            String name = ca.getBusinessName() != null ? ca.getBusinessName() : ca.getOwnerName();
-            result.put("verified", true);
-            result.put("name", name);
-            result.put("accountNumber", ca.getAccountNumber());
-            result.put("accountType", "CURRENT");
-            return result;
-        }
-
-        // Check salary accounts
-        SalaryAccount sa = salaryAccountRepository.findByUpiId(id);
-        if (sa != null) {
-            if (!Boolean.TRUE.equals(sa.getUpiEnabled())) {
-                result.put("verified", false);
-                result.put("error", "UPI not enabled for this account");
-                return result;
-            }
-            result.put("verified", true);
-            result.put("name", sa.getEmployeeName());
-            result.put("accountNumber", sa.getAccountNumber());
-            result.put("accountType", "SALARY");
+            result.put("name", e.name());
+            result.put("accountHolderName", e.name());
+            result.put("accountNumber", e.accountNumber());
+            result.put("accountType", e.accountType());
             return result;
         }
 
@@ -1548,7 +1476,6 @@ public class PaymentGatewayService {
         }
 
         // Locate payer account and verify PIN
-        Double payerBalance = null;
         String payerName    = null;
         String accountType  = null;
         String payerEmail   = null;
@@ -1579,7 +1506,6 @@ public class PaymentGatewayService {
                 result.put("error", "Savings account not linked");
                 return result;
             }
-            payerBalance = savingsAcc.getBalance();
             payerName    = savingsAcc.getName();
             accountType  = "SAVINGS";
             payerEmail   = savingsUser.getEmail();
@@ -1603,7 +1529,6 @@ public class PaymentGatewayService {
                 result.put("error", "Invalid UPI PIN");
                 return result;
             }
-            payerBalance = salAcc.getBalance();
             payerName    = salAcc.getEmployeeName();
             accountType  = "SALARY";
             payerEmail   = salAcc.getEmail();
@@ -1629,7 +1554,6 @@ public class PaymentGatewayService {
                     result.put("error", "Invalid UPI PIN");
                     return result;
                 }
-                payerBalance = ca.getBalance();
                 payerName    = ca.getOwnerName();
                 accountType  = "CURRENT";
                 payerEmail   = ca.getEmail();
@@ -1642,30 +1566,15 @@ public class PaymentGatewayService {
             return result;
         }
 
-        if (payerBalance == null || payerBalance < amount.doubleValue()) {
+        // Deduct balance - conditional on sufficient funds, in one statement, so concurrent payments cannot overdraw
+        String debitAccount = "SAVINGS".equals(accountType) ? savingsUser.getAccount().getAccountNumber() : payerAccountNumber;
+        Double newBalance = balancePostingService.debit(accountType, debitAccount, amount.doubleValue());
+        if (newBalance == null) {
             result.put("success", false);
             result.put("error", "Insufficient balance");
             return result;
         }
 
-        // Deduct balance
-        Double newBalance = null;
-        if ("SAVINGS".equals(accountType)) {
-            com.neo.springapp.model.Account savingsAcc = savingsUser.getAccount();
-            savingsAcc.setBalance(savingsAcc.getBalance() - amount.doubleValue());
-            accountRepository.save(savingsAcc);
-            newBalance = savingsAcc.getBalance();
-        } else if ("SALARY".equals(accountType)) {
-            salAcc.setBalance(salAcc.getBalance() - amount.doubleValue());
-            salaryAccountRepository.save(salAcc);
-            newBalance = salAcc.getBalance();
-        } else {
-            CurrentAccount ca = currentAccountRepository.findByAccountNumber(payerAccountNumber).get();
-            ca.setBalance(ca.getBalance() - amount.doubleValue());
-            currentAccountRepository.save(ca);
-            newBalance = ca.getBalance();
-        }
-
         // Record in user transaction history
         String txnRef = "PLK" + System.currentTimeMillis();
         Transaction userTxn = new Transaction();
@@ -1681,24 +1590,20 @@ public class PaymentGatewayService {
         transactionService.saveTransaction(userTxn);
 
         // Create PG transaction
-        BigDecimal fee = amount.multiply(PLATFORM_FEE_RATE).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal tax = fee.multiply(GST_RATE).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal netAmount = amount.subtract(fee).subtract(tax);
 
         PgTransaction pgTxn = new PgTransaction();
         pgTxn.setOrderId(link.getOrderId() != null ? link.getOrderId() : link.getLinkId());
         pgTxn.setMerchantId(link.getMerchantId());
         pgTxn.setPayerAccount(payerAccountNumber);
         pgTxn.setPayerName(payerName);
-        pgTxn.setAmount(amount);
-        pgTxn.setFee(fee);
-        pgTxn.setTax(tax);
-        pgTxn.setNetAmount(netAmount);
+        applyCharges(pgTxn, amount);
+        BigDecimal netAmount = pgTxn.getNetAmount();
         pgTxn.setPaymentMethod("UPI_LINK");
         pgTxn.setStatus("SUCCESS");
         pgTxn.setRiskScore(0);
         pgTxn.setFraudFlagged(false);
         PgTransaction savedTxn = transactionRepository.save(pgTxn);
+        merchantAnalytics.recordTransaction(savedTxn);
 
         // Update merchant volume & credit merchant settlement account
         PgMerchant merchant = merchantRepository.findByMerchantId(link.getMerchantId()).orElse(null);
@@ -1711,41 +1616,20 @@ public class PaymentGatewayService {
             if (creditAccount == null || creditAccount.isEmpty()) {
                 creditAccount = merchant.getAccountNumber();
             }
-            if (creditAccount != null && !creditAccount.isEmpty()) {
+            Object pushed = savedTxn;
+            if (instantSettlement && creditAccount != null && !creditAccount.isEmpty()) {
                 Double merchantBalanceBefore = null;
                 Double merchantBalanceAfter = null;
                 String merchantAccName = merchant.getBusinessName();
                 boolean credited = false;
 
-                Optional<CurrentAccount> merchantCaOpt = currentAccountRepository.findByAccountNumber(creditAccount);
-                if (merchantCaOpt.isPresent()) {
-                    CurrentAccount mca = merchantCaOpt.get();
-                    merchantBalanceBefore = mca.getBalance();
-                    mca.setBalance(mca.getBalance() + netAmount.doubleValue());
-                    currentAccountRepository.save(mca);
-                    merchantBalanceAfter = mca.getBalance();
-                    merchantAccName = mca.getOwnerName();
-                    credited = true;
-                }
-                if (!credited) {
-                    Account merchantAcc = accountRepository.findByAccountNumber(creditAccount);
-                    if (merchantAcc != null) {
-                        merchantBalanceBefore = merchantAcc.getBalance();
-                        merchantAcc.setBalance(merchantAcc.getBalance() + netAmount.doubleValue());
-                        accountRepository.save(merchantAcc);
-                        merchantBalanceAfter = merchantAcc.getBalance();
-                        merchantAccName = merchantAcc.getName();
-                        credited = true;
-                    }
-                }
-                if (!credited) {
-                    SalaryAccount merchantSa = salaryAccountRepository.findByAccountNumber(creditAccount);
-                    if (merchantSa != null) {
-                        merchantBalanceBefore = merchantSa.getBalance();
-                        merchantSa.setBalance(merchantSa.getBalance() + netAmount.doubleValue());
-                        salaryAccountRepository.save(merchantSa);
-                        merchantBalanceAfter = merchantSa.getBalance();
-                        merchantAccName = merchantSa.getEmployeeName();
+                String[] merchantAcc = balancePostingService.resolveAccount(creditAccount);
+                if (merchantAcc != null) {
+                    merchantAccName = merchantAcc[1];
+                    merchantBalanceAfter = balancePostingService.credit(merchantAcc[0], creditAccount, netAmount.doubleValue());
+                    if (merchantBalanceAfter != null) {
+                        merchantBalanceBefore = Paise.toRupees(Paise.subtract(Paise.ofRupees(merchantBalanceAfter),
+                                Paise.ofRupees(netAmount)));
                         credited = true;
                     }
                 }
@@ -1770,8 +1654,8 @@ public class PaymentGatewayService {
                     ledger.setTransactionId(savedTxn.getTransactionId());
                     ledger.setOrderId(link.getOrderId() != null ? link.getOrderId() : link.getLinkId());
                     ledger.setGrossAmount(amount);
-                    ledger.setFeeAmount(fee);
-                    ledger.setTaxAmount(tax);
+                    ledger.setFeeAmount(savedTxn.getFee());
+                    ledger.setTaxAmount(savedTxn.getTax());
                     ledger.setNetAmount(netAmount);
                     ledger.setCreditAccount(creditAccount);
                     ledger.setCreditStatus("CREDITED");
@@ -1785,8 +1669,13 @@ public class PaymentGatewayService {
                     savedTxn.setSettled(true);
                     savedTxn.setSettledAt(LocalDateTime.now());
                     transactionRepository.save(savedTxn);
+                    pushed = merchantTxn;
                 }
             }
+            if (creditAccount != null && !creditAccount.isEmpty()) {
+                paymentPushService.paymentReceived("PAYMENT_GATEWAY", creditAccount, savedTxn.getTransactionId(),
+                        netAmount, payerName, null, pushed);
+            }
         }
 
         // Mark link as PAID
@@ -1848,8 +1737,8 @@ public class PaymentGatewayService {
         // Item & amount breakdown
         invoice.put("description", link.getDescription());
         invoice.put("grossAmount", amount);
-        invoice.put("platformFee", fee);
-        invoice.put("gst", tax);
+        invoice.put("platformFee", savedTxn.getFee());
+        invoice.put("gst", savedTxn.getTax());
         invoice.put("netAmount", netAmount);
         invoice.put("currency", "INR");
         invoice.put("status", "PAID");
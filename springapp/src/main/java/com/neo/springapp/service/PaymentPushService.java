@@ -0,0 +1,113 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.SoundboxDevice;
+import com.neo.springapp.repository.SoundboxDeviceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Real-time "money received" push over the STOMP broker set up in {@code WebSocketConfig}.
+ *
+ * Every completed credit is published to {@code /topic/accounts/{accountNumber}/payments}, which the
+ * UPI receive screen and merchant dashboards subscribe to, and, when the account has a soundbox, to
+ * {@code /topic/devices/{deviceId}/payments} with the text to announce. Events go out after the
+ * posting transaction commits, so a subscriber never hears about money that was rolled back.
+ * The broker is in-memory per instance; a client that reconnects catches up through the existing
+ * latest-transactions endpoints.
+ */
+@Service
+@Slf4j
+public class PaymentPushService {
+
+    public static final String ACCOUNT_TOPIC = "/topic/accounts/%s/payments";
+    public static final String DEVICE_TOPIC = "/topic/devices/%s/payments";
+
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+    private final SoundboxDeviceRepository soundboxDeviceRepository;
+
+    public PaymentPushService(ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+                              SoundboxDeviceRepository soundboxDeviceRepository) {
+        this.messagingTemplate = messagingTemplate;
+        this.soundboxDeviceRepository = soundboxDeviceRepository;
+    }
+
+    /**
+     * Publish a credit to the account's topic and to its soundbox, if it has an active one.
+     *
+     * @param source      UPI, SOUNDBOX, PAYMENT_GATEWAY or PG_SETTLEMENT
+     * @param reference   the transaction reference the client can match against its history
+     * @param transaction the transaction record, sent as-is so clients can merge it into their list
+     */
+    public void paymentReceived(String source, String accountNumber, String reference, BigDecimal amount,
+                                String payerName, String payerUpi, Object transaction) {
+        if (accountNumber == null) {
+            return;
+        }
+        Optional<SoundboxDevice> device = soundboxDeviceRepository.findByAccountNumber(accountNumber);
+        String deviceId = device.filter(d -> "ACTIVE".equals(d.getStatus())).map(SoundboxDevice::getDeviceId).orElse(null);
+        boolean announce = deviceId != null && Boolean.TRUE.equals(device.get().getVoiceEnabled());
+        String voiceMessage = announce ? "Received " + amount.intValue() + " rupees in NeoBank Current Account" : null;
+        paymentReceived(source, accountNumber, deviceId, reference, amount, payerName, payerUpi, voiceMessage, transaction);
+    }
+
+    /**
+     * Publish a credit when the caller already knows the soundbox; {@code voiceMessage} is only set
+     * when the device should speak.
+     */
+    public void paymentReceived(String source, String accountNumber, String deviceId, String reference,
+                                BigDecimal amount, String payerName, String payerUpi, String voiceMessage,
+                                Object transaction) {
+        if (accountNumber == null) {
+            return;
+        }
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "PAYMENT_RECEIVED");
+        event.put("source", source);
+        event.put("accountNumber", accountNumber);
+        event.put("reference", reference);
+        event.put("amount", amount);
+        event.put("payerName", payerName);
+        event.put("payerUpi", payerUpi);
+        event.put("deviceId", deviceId);
+        event.put("announce", voiceMessage != null);
+        event.put("voiceMessage", voiceMessage);
+        event.put("transaction", transaction);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(accountNumber, deviceId, event);
+                }
+            });
+        } else {
+            publish(accountNumber, deviceId, event);
+        }
+    }
+
+    private void publish(String accountNumber, String deviceId, Map<String, Object> event) {
+        SimpMessagingTemplate template = messagingTemplate.getIfAvailable();
+        if (template == null) {
+            return;
+        }
+        event.put("publishedAt", System.currentTimeMillis());
+        try {
+            template.convertAndSend(String.format(ACCOUNT_TOPIC, accountNumber), event);
+            if (deviceId != null) {
+                template.convertAndSend(String.format(DEVICE_TOPIC, deviceId), event);
+            }
+        } catch (RuntimeException e) {
+            // The payment itself is done; clients fall back to the latest-transactions endpoints
+            log.warn("Payment push for account {} failed: {}", accountNumber, e.getMessage());
+        }
+    }
+}
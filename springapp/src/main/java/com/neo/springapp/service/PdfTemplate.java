@@ -0,0 +1,109 @@
+package com.neo.springapp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTML document layout compiled once into literal chunks and named {@code {{slot}}} positions,
+ * so rendering a document is a single pass that copies the chunks and inserts the slot values.
+ *
+ * Templates live under {@code src/main/resources/pdf-templates}. While compiling, each source line
+ * is stripped of its indentation and the line breaks are dropped, so the files can be laid out
+ * readably without changing the markup handed to the PDF converter. Slot values are inserted as-is
+ * (callers pass already formatted text or pre-rendered fragments); {@code null} renders as "null",
+ * exactly as {@code StringBuilder.append} would.
+ */
+public final class PdfTemplate {
+
+    private static final String RESOURCE_DIR = "pdf-templates/";
+
+    private final String name;
+    private final String[] literals;
+    private final String[] slots;
+    private final int literalLength;
+
+    private PdfTemplate(String name, String[] literals, String[] slots) {
+        this.name = name;
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Loads and compiles {@code pdf-templates/<fileName>} from the classpath.
+     */
+    public static PdfTemplate load(String fileName) {
+        String resource = RESOURCE_DIR + fileName;
+        try (InputStream in = PdfTemplate.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("PDF template not found: " + resource);
+            }
+            return compile(fileName, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read PDF template: " + resource, e);
+        }
+    }
+
+    public static PdfTemplate compile(String name, String source) {
+        StringBuilder flattened = new StringBuilder(source.length());
+        for (String line : source.split("\r?\n")) {
+            flattened.append(line.strip());
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int open = flattened.indexOf("{{", pos);
+            if (open < 0) {
+                break;
+            }
+            int close = flattened.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed slot in PDF template " + name + " at offset " + open);
+            }
+            String slot = flattened.substring(open + 2, close).strip();
+            if (slot.isEmpty()) {
+                throw new IllegalArgumentException("Empty slot in PDF template " + name + " at offset " + open);
+            }
+            literals.add(flattened.substring(pos, open));
+            slots.add(slot);
+            pos = close + 2;
+        }
+        literals.add(flattened.substring(pos));
+        return new PdfTemplate(name, literals.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    public String render(Map<String, ?> values) {
+        StringBuilder out = new StringBuilder(literalLength + slots.length * 16);
+        renderTo(out, values);
+        return out.toString();
+    }
+
+    /**
+     * Appends the rendered document to {@code out}; used for repeated fragments such as table rows.
+     */
+    public void renderTo(StringBuilder out, Map<String, ?> values) {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            Object value = values.get(slots[i]);
+            if (value == null && !values.containsKey(slots[i])) {
+                throw new IllegalArgumentException("No value for slot '" + slots[i] + "' in PDF template " + name);
+            }
+            out.append(value);
+        }
+        out.append(literals[slots.length]);
+    }
+
+    public List<String> getSlots() {
+        return List.of(slots);
+    }
+}
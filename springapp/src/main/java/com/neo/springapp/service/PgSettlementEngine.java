@@ -0,0 +1,392 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.CurrentAccount;
+import com.neo.springapp.model.Paise;
+import com.neo.springapp.model.PgSettlementBatch;
+import com.neo.springapp.model.Transaction;
+import com.neo.springapp.repository.AccountRepository;
+import com.neo.springapp.repository.CurrentAccountRepository;
+import com.neo.springapp.repository.PgSettlementBatchRepository;
+import com.neo.springapp.repository.SalaryAccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Payment gateway settlement cycles (T+0 / T+1).
+ *
+ * A cycle for {@code cycleDate} settles every captured (SUCCESS, unsettled) transaction created before
+ * the cutoff: the start of {@code cycleDate} for T+1 ({@code app.pg.settlement.delay-days=1}), the end of
+ * it for T+0. Merchants with such transactions are streamed by keyset pagination in pages of
+ * {@code app.pg.settlement.chunk-size} and settled on {@code app.pg.settlement.workers} threads, each
+ * merchant in its own transaction: gross, fee, GST and refunds are summed in paise, the merchant's
+ * receiving account gets one credit for the net, one history entry is written, and the transactions are
+ * marked and given ledger rows with one batched statement each. The unique (merchant, cycle date) batch
+ * key makes a rerun after a crash, or a second node, skip merchants already paid for the cycle; their
+ * later captures go into the next cycle. Settlement cost follows the number of merchants, not payments.
+ * The merchant's transactions are read FOR UPDATE, so a refund recorded concurrently either commits first
+ * and is netted here, or waits and then finds the capture settled (see {@code PaymentGatewayService}).
+ * Each credited merchant gets a push on its account topic once its transaction commits.
+ *
+ * The scheduled run settles the cycle for the day it fires on, so T+0 only covers the day's captures when
+ * {@code app.pg.settlement.cron} fires at the end of the day (e.g. {@code 0 55 23 * * ?}); with the default
+ * 02:00 cron, captures after 02:00 wait for the next day's cycle.
+ */
+@Service
+@Slf4j
+public class PgSettlementEngine {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final DateTimeFormatter BATCH_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String UNSETTLED = "status = 'SUCCESS' AND (settled = FALSE OR settled IS NULL) AND created_at < ?";
+
+    private static final String SELECT_DUE_MERCHANTS =
+            "SELECT DISTINCT merchant_id FROM pg_transactions WHERE " + UNSETTLED + " AND merchant_id > ? " +
+            "ORDER BY merchant_id LIMIT ?";
+
+    private static final String SELECT_MERCHANT_TRANSACTIONS =
+            "SELECT id, transaction_id, order_id, amount, fee, tax, net_amount, refunded_amount FROM pg_transactions " +
+            "WHERE merchant_id = ? AND " + UNSETTLED + " ORDER BY id FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate merchantTransaction;
+    private final PgSettlementBatchRepository batchRepository;
+    private final CurrentAccountRepository currentAccountRepository;
+    private final AccountRepository accountRepository;
+    private final SalaryAccountRepository salaryAccountRepository;
+    private final BalancePostingService balancePostingService;
+    private final TransactionService transactionService;
+    private final PaymentPushService paymentPushService;
+    private final int chunkSize;
+    private final int workers;
+    private final int delayDays;
+
+    public PgSettlementEngine(JdbcTemplate jdbcTemplate,
+                              NamedParameterJdbcTemplate namedJdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              PgSettlementBatchRepository batchRepository,
+                              CurrentAccountRepository currentAccountRepository,
+                              AccountRepository accountRepository,
+                              SalaryAccountRepository salaryAccountRepository,
+                              BalancePostingService balancePostingService,
+                              TransactionService transactionService,
+                              PaymentPushService paymentPushService,
+                              @Value("${app.pg.settlement.chunk-size:200}") int chunkSize,
+                              @Value("${app.pg.settlement.workers:2}") int workers,
+                              @Value("${app.pg.settlement.delay-days:1}") int delayDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.merchantTransaction = new TransactionTemplate(transactionManager);
+        this.batchRepository = batchRepository;
+        this.currentAccountRepository = currentAccountRepository;
+        this.accountRepository = accountRepository;
+        this.salaryAccountRepository = salaryAccountRepository;
+        this.balancePostingService = balancePostingService;
+        this.transactionService = transactionService;
+        this.paymentPushService = paymentPushService;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.workers = Math.max(1, workers);
+        this.delayDays = Math.max(0, delayDays);
+    }
+
+    @Scheduled(cron = "${app.pg.settlement.cron:0 0 2 * * ?}")
+    public void runDaily() {
+        try {
+            Map<String, Object> result = runCycle(LocalDate.now());
+            log.info("PG settlement cycle: {}", result);
+        } catch (RuntimeException e) {
+            log.warn("PG settlement cycle stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Settle every merchant with captured, unsettled transactions from before the cycle's cutoff.
+     *
+     * @return merchantsSettled, transactionsSettled, netSettled, alreadySettled, failureCount, errors (first 100)
+     *         and merchantsPerSecond
+     */
+    public Map<String, Object> runCycle(LocalDate cycleDate) {
+        long started = System.nanoTime();
+        LocalDateTime cutoff = cycleDate.plusDays(1L - delayDays).atStartOfDay();
+        Timestamp capturedBefore = Timestamp.valueOf(cutoff);
+        Cycle totals = new Cycle();
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "pg-settlement");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(workers * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        boolean aborted = false;
+        try {
+            String afterMerchant = "";
+            while (true) {
+                List<String> page = jdbcTemplate.queryForList(SELECT_DUE_MERCHANTS, String.class,
+                        capturedBefore, afterMerchant, chunkSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                afterMerchant = page.get(page.size() - 1);
+                inFlight.acquire();
+                futures.add(pool.submit(() -> {
+                    try {
+                        for (String merchantId : page) {
+                            settleOne(merchantId, cycleDate, cutoff, totals);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+                if (page.size() < chunkSize) {
+                    break;
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborted = true;
+        } catch (Exception e) {
+            log.error("PG settlement cycle for {} aborted", cycleDate, e);
+            aborted = true;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        double perSecond = elapsedMs == 0 ? totals.merchants : totals.merchants * 1000.0 / elapsedMs;
+        log.info("PG settlement {} (T+{}): {} merchants, {} transactions, net {}, {} already settled, {} failed in {} ms ({}/s)",
+                cycleDate, delayDays, totals.merchants, totals.transactions, Paise.format(totals.netPaise),
+                totals.alreadySettled, totals.failure, elapsedMs, String.format("%.1f", perSecond));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", !aborted);
+        response.put("message", "Settled " + totals.merchants + " merchants"
+                + (aborted ? " (run aborted; rerun to continue)" : ""));
+        response.put("cycleDate", cycleDate.toString());
+        response.put("cutoff", cutoff.toString());
+        response.put("merchantsSettled", totals.merchants);
+        response.put("transactionsSettled", totals.transactions);
+        response.put("netSettled", Paise.toRupees(totals.netPaise));
+        response.put("alreadySettled", totals.alreadySettled);
+        response.put("failureCount", totals.failure);
+        response.put("errors", totals.errors);
+        response.put("elapsedMs", elapsedMs);
+        response.put("merchantsPerSecond", Math.round(perSecond * 10) / 10.0);
+        return response;
+    }
+
+    private void settleOne(String merchantId, LocalDate cycleDate, LocalDateTime cutoff, Cycle totals) {
+        try {
+            totals.add(merchantTransaction.execute(status -> settleMerchant(merchantId, cycleDate, cutoff)));
+        } catch (Exception e) {
+            // Rolled back as a whole; the merchant is picked up again by the next run of this cycle
+            log.error("PG settlement for merchant {} on {} rolled back: {}", merchantId, cycleDate, e.getMessage());
+            totals.failed(merchantId, e);
+        }
+    }
+
+    private Cycle settleMerchant(String merchantId, LocalDate cycleDate, LocalDateTime cutoff) {
+        Cycle result = new Cycle();
+        if (batchRepository.existsByMerchantIdAndCycleDate(merchantId, cycleDate)) {
+            result.alreadySettled = 1;
+            return result;
+        }
+        Map<String, Object> merchant = jdbcTemplate.queryForMap(
+                "SELECT linked_account_number, account_number, business_name FROM pg_merchants WHERE merchant_id = ?", merchantId);
+        String creditAccount = (String) merchant.get("linked_account_number");
+        if (creditAccount == null || creditAccount.isEmpty()) {
+            creditAccount = (String) merchant.get("account_number");
+        }
+        if (creditAccount == null || creditAccount.isEmpty()) {
+            throw new IllegalStateException("No linked account found for merchant");
+        }
+
+        List<TxnRow> rows = jdbcTemplate.query(SELECT_MERCHANT_TRANSACTIONS,
+                (rs, i) -> {
+                    long gross = Paise.ofRupees(rs.getBigDecimal(4));
+                    long fee = Paise.ofRupees(rs.getBigDecimal(5));
+                    long tax = Paise.ofRupees(rs.getBigDecimal(6));
+                    long net = rs.getBigDecimal(7) != null ? Paise.ofRupees(rs.getBigDecimal(7)) : gross - fee - tax;
+                    long refunded = Paise.ofRupees(rs.getBigDecimal(8));
+                    return new TxnRow(rs.getLong(1), rs.getString(2), rs.getString(3), gross, fee, tax, refunded,
+                            Math.max(0L, net - refunded));
+                },
+                merchantId, Timestamp.valueOf(cutoff));
+        if (rows.isEmpty()) {
+            return result;
+        }
+        long gross = 0, fee = 0, tax = 0, refunded = 0, net = 0;
+        for (TxnRow row : rows) {
+            gross = Paise.add(gross, row.gross);
+            fee = Paise.add(fee, row.fee);
+            tax = Paise.add(tax, row.tax);
+            refunded = Paise.add(refunded, row.refunded);
+            net = Paise.add(net, row.payable);
+        }
+
+        String[] account = balancePostingService.resolveAccount(creditAccount);
+        if (account == null) {
+            throw new IllegalStateException("Credit account " + creditAccount + " not found");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String batchId = "PGSB" + cycleDate.format(BATCH_DATE) + "-" + merchantId;
+
+        // Unique (merchant, cycle date): a concurrent settlement of this merchant fails here and rolls back
+        PgSettlementBatch batch = new PgSettlementBatch();
+        batch.setBatchId(batchId);
+        batch.setMerchantId(merchantId);
+        batch.setCycleDate(cycleDate);
+        batch.setCutoff(cutoff);
+        batch.setCreditAccount(creditAccount);
+        batch.setAccountType(account[0]);
+        batch.setTransactionCount(rows.size());
+        batch.setGrossAmount(Paise.toBigDecimal(gross));
+        batch.setFeeAmount(Paise.toBigDecimal(fee));
+        batch.setTaxAmount(Paise.toBigDecimal(tax));
+        batch.setRefundAmount(Paise.toBigDecimal(refunded));
+        batch.setNetAmount(Paise.toBigDecimal(net));
+        batch.setCreditedAt(now);
+        batchRepository.saveAndFlush(batch);
+
+        long balanceAfter;
+        if (net > 0) {
+            balanceAfter = balancePostingService.creditPaise(account[0], creditAccount, net);
+            if (balanceAfter == BalancePostingService.NOT_POSTED) {
+                throw new IllegalStateException("Credit account " + creditAccount + " not found");
+            }
+
+            Transaction merchantTxn = new Transaction();
+            merchantTxn.setAccountNumber(creditAccount);
+            merchantTxn.setUserName(account[1] != null ? account[1] : (String) merchant.get("business_name"));
+            merchantTxn.setAmount(Paise.toRupees(net));
+            merchantTxn.setType("Credit");
+            merchantTxn.setDescription("PG Settlement - " + cycleDate + " - " + rows.size() + " payments | Batch: " + batchId);
+            merchantTxn.setBalance(Paise.toRupees(balanceAfter));
+            merchantTxn.setDate(now);
+            merchantTxn.setStatus("Completed");
+            merchantTxn.setMerchant(merchantId);
+            transactionService.saveTransaction(merchantTxn);
+
+            // Published after this merchant's transaction commits; no soundbox announcement for a payout
+            paymentPushService.paymentReceived("PG_SETTLEMENT", creditAccount, null, batchId, Paise.toBigDecimal(net),
+                    null, null, null, merchantTxn);
+        } else {
+            balanceAfter = Paise.ofRupees(resolveBalance(account[0], creditAccount));
+        }
+        batch.setBalanceAfter(Paise.toBigDecimal(balanceAfter));
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (TxnRow row : rows) {
+            ids.add(row.id);
+        }
+        int marked = namedJdbcTemplate.update(
+                "UPDATE pg_transactions SET settled = TRUE, settled_at = :now, settlement_batch_id = :batchId " +
+                "WHERE id IN (:ids) AND (settled = FALSE OR settled IS NULL)",
+                new MapSqlParameterSource("now", Timestamp.valueOf(now)).addValue("batchId", batchId).addValue("ids", ids));
+        if (marked != rows.size()) {
+            throw new IllegalStateException("Transactions of this merchant were settled concurrently");
+        }
+
+        // Ledger rows carry the running balance as if each payment had been credited in turn
+        long[] balanceBefore = new long[rows.size()];
+        long running = Paise.subtract(balanceAfter, net);
+        for (int i = 0; i < rows.size(); i++) {
+            balanceBefore[i] = running;
+            running = Paise.add(running, rows.get(i).payable);
+        }
+        List<Integer> indexes = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            indexes.add(i);
+        }
+        String creditTo = creditAccount;
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO pg_settlement_ledger (ledger_id, merchant_id, transaction_id, order_id, gross_amount, " +
+                "fee_amount, tax_amount, net_amount, credit_account, credit_status, credited_at, balance_before, " +
+                "balance_after, reference_note, created_at, batch_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'CREDITED', ?, ?, ?, ?, ?, ?)",
+                indexes, indexes.size(), (ps, i) -> {
+                    TxnRow row = rows.get(i);
+                    ps.setString(1, batchId + "-" + (i + 1));
+                    ps.setString(2, merchantId);
+                    ps.setString(3, row.transactionId);
+                    ps.setString(4, row.orderId != null ? row.orderId : "");
+                    ps.setBigDecimal(5, Paise.toBigDecimal(row.gross));
+                    ps.setBigDecimal(6, Paise.toBigDecimal(row.fee));
+                    ps.setBigDecimal(7, Paise.toBigDecimal(row.tax));
+                    ps.setBigDecimal(8, Paise.toBigDecimal(row.payable));
+                    ps.setString(9, creditTo);
+                    ps.setTimestamp(10, Timestamp.valueOf(now));
+                    ps.setBigDecimal(11, Paise.toBigDecimal(balanceBefore[i]));
+                    ps.setBigDecimal(12, Paise.toBigDecimal(Paise.add(balanceBefore[i], row.payable)));
+                    ps.setString(13, "PG Settlement " + batchId + " for " + row.orderId + " | TXN: " + row.transactionId);
+                    ps.setTimestamp(14, Timestamp.valueOf(now));
+                    ps.setString(15, batchId);
+                });
+
+        result.merchants = 1;
+        result.transactions = rows.size();
+        result.netPaise = net;
+        return result;
+    }
+
+    private Double resolveBalance(String accountType, String accountNumber) {
+        return switch (accountType) {
+            case BalancePostingService.CURRENT -> currentAccountRepository.findByAccountNumber(accountNumber)
+                    .map(CurrentAccount::getBalance).orElse(null);
+            case BalancePostingService.SAVINGS -> accountRepository.findByAccountNumber(accountNumber).getBalance();
+            default -> salaryAccountRepository.findByAccountNumber(accountNumber).getBalance();
+        };
+    }
+
+    private record TxnRow(long id, String transactionId, String orderId, long gross, long fee, long tax,
+                          long refunded, long payable) {
+    }
+
+    /** Per-merchant result; merged into the run totals under the lock. */
+    private static final class Cycle {
+        int merchants;
+        int transactions;
+        long netPaise;
+        int alreadySettled;
+        int failure;
+        final List<String> errors = new ArrayList<>();
+
+        synchronized void add(Cycle merchant) {
+            merchants += merchant.merchants;
+            transactions += merchant.transactions;
+            netPaise = Paise.add(netPaise, merchant.netPaise);
+            alreadySettled += merchant.alreadySettled;
+        }
+
+        synchronized void failed(String merchantId, Exception e) {
+            failure++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Merchant " + merchantId + " rolled back: " + e.getMessage());
+            }
+        }
+    }
+}
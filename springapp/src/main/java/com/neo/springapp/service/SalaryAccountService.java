@@ -69,6 +69,12 @@ public class SalaryAccountService {
     @Autowired
     private SalaryCardLimitHistoryRepository salaryCardLimitHistoryRepository;
 
+    @Autowired
+    private UpiVelocityWindowStore velocityStore;
+
+    @Autowired
+    private UpiDirectory upiDirectory;
+
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(10);
 
     // ─── Account CRUD ──────────────────────────────────────────
@@ -226,6 +232,7 @@ public class SalaryAccountService {
         acc.setUpiEnabled(false);
         acc.setUpdatedAt(LocalDateTime.now());
         salaryAccountRepository.save(acc);
+        upiDirectory.invalidateAccount(acc.getAccountNumber());
 
         result.put("success", true);
         result.put("message", "Salary account closed successfully at " + acc.getClosedAt());
@@ -918,6 +925,7 @@ public class SalaryAccountService {
         acc.setUpiEnabled(true);
         acc.setUpdatedAt(LocalDateTime.now());
         salaryAccountRepository.save(acc);
+        upiDirectory.invalidateAccount(acc.getAccountNumber());
 
         result.put("success", true);
         result.put("message", "UPI enabled successfully! Your UPI ID: " + upiId);
@@ -962,6 +970,23 @@ public class SalaryAccountService {
         txn.setTransactionRef("UPI" + System.currentTimeMillis());
         txn.setCreatedAt(LocalDateTime.now());
         upiTransactionRepository.save(txn);
+        long now = System.currentTimeMillis();
+        // AI Fraud Detection — flag rapid-fire payments (3+ in 5 minutes, this one included;
+        // the store only counts it once it commits)
+        int recentCount = velocityStore.velocity(acc.getAccountNumber(), 5, now).count() + 1;
+        velocityStore.record(acc.getAccountNumber(), amount, now);
+        if (recentCount >= 3) {
+            SalaryFraudAlert alert = new SalaryFraudAlert();
+            alert.setSalaryAccountId(accountId);
+            alert.setAccountNumber(acc.getAccountNumber());
+            alert.setAlertType("RAPID_UPI_PAYMENTS");
+            alert.setSeverity("MEDIUM");
+            alert.setDescription(recentCount + " UPI payments in the last 5 minutes, latest Rs." + amount + " to " + recipientUpi);
+            alert.setAmount(amount);
+            alert.setResolved(false);
+            alert.setCreatedAt(LocalDateTime.now());
+            fraudAlertRepository.save(alert);
+        }
 
         // AI Fraud Detection — flag large transactions
         if (amount > 50000) {
@@ -15,10 +15,11 @@ import java.util.*;
 public class SavingsUpiService {
 
     @Autowired private UserRepository userRepository;
-    @Autowired private AccountRepository accountRepository;
     @Autowired private SavingsUpiTransactionRepository savingsUpiTxnRepo;
-    @Autowired private SalaryAccountRepository salaryAccountRepository;
-    @Autowired private CurrentAccountRepository currentAccountRepository;
+    @Autowired private BalancePostingService balancePostingService;
+    @Autowired private PaymentPushService paymentPushService;
+    @Autowired private UpiVelocityWindowStore velocityStore;
+    @Autowired private UpiDirectory upiDirectory;
 
     private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(10);
 
@@ -51,6 +52,7 @@ public class SavingsUpiService {
         }
         user.setUpiEnabled(true);
         userRepository.save(user);
+        upiDirectory.invalidateAccount(accountNumber);
         res.put("success", true);
         res.put("upiId", user.getUpiId());
         res.put("upiEnabled", true);
@@ -66,6 +68,7 @@ public class SavingsUpiService {
         boolean newState = !Boolean.TRUE.equals(user.getUpiEnabled());
         user.setUpiEnabled(newState);
         userRepository.save(user);
+        upiDirectory.invalidateAccount(accountNumber);
         res.put("success", true);
         res.put("upiEnabled", newState);
         res.put("message", newState ? "UPI enabled" : "UPI disabled");
@@ -112,55 +115,22 @@ public class SavingsUpiService {
         return res;
     }
 
-    // ── Verify UPI ID (any account type: savings/salary/current) ─────────────
+    // ── Verify UPI ID (any account type: savings/salary/current, via the cached directory) ──
     public Map<String, Object> verifyUpiId(String rawUpiId) {
         Map<String, Object> res = new HashMap<>();
         if (rawUpiId == null || rawUpiId.trim().isEmpty()) {
             res.put("verified", false); res.put("error", "UPI ID cannot be empty"); return res;
         }
-        String upiId = rawUpiId.trim().toLowerCase();
-
-        // Savings accounts
-        Optional<User> userOpt = userRepository.findByUpiId(upiId);
-        if (userOpt.isPresent()) {
-            User u = userOpt.get();
-            if (!Boolean.TRUE.equals(u.getUpiEnabled())) {
-                res.put("verified", false); res.put("error", "UPI is disabled for this account"); return res;
+        Optional<UpiDirectory.Entry> entry = upiDirectory.resolve(rawUpiId);
+        if (entry.isPresent()) {
+            UpiDirectory.Entry e = entry.get();
+            if (!e.active()) {
+                res.put("verified", false); res.put("error", e.inactiveReason()); return res;
             }
-            String name = (u.getAccount() != null && u.getAccount().getName() != null)
-                    ? u.getAccount().getName() : u.getUsername();
             res.put("verified", true);
-            res.put("name", name);
-            res.put("accountNumber", u.getAccountNumber());
-            res.put("accountType", "SAVINGS");
-            return res;
-        }
-
-        // Salary accounts
-        SalaryAccount sa = salaryAccountRepository.findByUpiId(upiId);
-        if (sa != null) {
-            if (!Boolean.TRUE.equals(sa.getUpiEnabled())) {
-                res.put("verified", false); res.put("error", "UPI not enabled for this account"); return res;
-            }
-            res.put("verified", true);
-            res.put("name", sa.getEmployeeName());
-            res.put("accountNumber", sa.getAccountNumber());
-            res.put("accountType", "SALARY");
-            return res;
-        }
-
-        // Current accounts
-        Optional<CurrentAccount> caOpt = currentAccountRepository.findByUpiId(upiId);
-        if (caOpt.isPresent()) {
-            CurrentAccount ca = caOpt.get();
-            if (!"ACTIVE".equals(ca.getStatus()) || !Boolean.TRUE.equals(ca.getUpiEnabled())) {
-                res.put("verified", false); res.put("error", "UPI not active for this account"); return res;
-            }
-            String name = ca.getBusinessName() != null ? ca.getBusinessName() : ca.getOwnerName();
-            res.put("verified", true);
-            res.put("name", name);
-            res.put("accountNumber", ca.getAccountNumber());
-            res.put("accountType", "CURRENT");
+            res.put("name", e.name());
+            res.put("accountNumber", e.accountNumber());
+            res.put("accountType", e.accountType());
             return res;
         }
 
@@ -206,10 +176,8 @@ public class SavingsUpiService {
         int riskScore = 0;
         if (amount.compareTo(new BigDecimal("50000")) > 0) riskScore += 40;
         if (amount.compareTo(new BigDecimal("10000")) > 0) riskScore += 20;
-        LocalDateTime fiveMinAgo = LocalDateTime.now().minusMinutes(5);
-        long recentCount = savingsUpiTxnRepo
-                .findBySenderAccountOrderByCreatedAtDesc(senderAccountNumber)
-                .stream().filter(t -> t.getCreatedAt().isAfter(fiveMinAgo)).count();
+        long now = System.currentTimeMillis();
+        int recentCount = velocityStore.velocity(senderAccountNumber, 5, now).count();
         if (recentCount >= 3) riskScore += 30;
 
         // Verify receiver UPI ID
@@ -246,20 +214,25 @@ public class SavingsUpiService {
         if (flagged) {
             txn.setStatus("FLAGGED");
             savingsUpiTxnRepo.save(txn);
+            velocityStore.record(senderAccountNumber, amount, now);
             res.put("success", false);
             res.put("error", "Transaction flagged for review (risk score: " + riskScore + "). Contact support.");
             return res;
         }
 
-        // Deduct from sender
-        senderAcc.setBalance(senderAcc.getBalance() - amount.doubleValue());
-        accountRepository.save(senderAcc);
+        // Deduct from sender (atomic; the balance check above is only a fast pre-check)
+        if (balancePostingService.debit(BalancePostingService.SAVINGS, senderAccountNumber, amount.doubleValue()) == null) {
+            res.put("success", false); res.put("error", "Insufficient balance"); return res;
+        }
 
         // Credit receiver
-        creditReceiver(receiverType, receiverAccount, rUpi, amount);
+        creditReceiver(receiverType, receiverAccount, amount);
 
         txn.setStatus("SUCCESS");
         savingsUpiTxnRepo.save(txn);
+        velocityStore.record(senderAccountNumber, amount, now);
+        paymentPushService.paymentReceived("UPI", receiverAccount, txnRef, amount,
+                senderAcc.getName(), sender.getUpiId(), txn);
 
         res.put("success", true);
         res.put("transactionRef", txnRef);
@@ -270,29 +243,9 @@ public class SavingsUpiService {
         return res;
     }
 
-    private void creditReceiver(String accountType, String accountNumber, String upiId, BigDecimal amount) {
-        switch (accountType) {
-            case "SAVINGS" -> {
-                User receiver = userRepository.findByAccountNumber(accountNumber).orElse(null);
-                if (receiver != null && receiver.getAccount() != null) {
-                    Account acc = receiver.getAccount();
-                    acc.setBalance((acc.getBalance() == null ? 0 : acc.getBalance()) + amount.doubleValue());
-                    accountRepository.save(acc);
-                }
-            }
-            case "SALARY" -> {
-                SalaryAccount sa = salaryAccountRepository.findByUpiId(upiId);
-                if (sa != null) {
-                    sa.setBalance((sa.getBalance() == null ? 0 : sa.getBalance()) + amount.doubleValue());
-                    salaryAccountRepository.save(sa);
-                }
-            }
-            case "CURRENT" -> {
-                currentAccountRepository.findByUpiId(upiId).ifPresent(ca -> {
-                    ca.setBalance((ca.getBalance() == null ? 0 : ca.getBalance()) + amount.doubleValue());
-                    currentAccountRepository.save(ca);
-                });
-            }
+    private void creditReceiver(String accountType, String accountNumber, BigDecimal amount) {
+        if (balancePostingService.credit(accountType, accountNumber, amount.doubleValue()) == null) {
+            throw new RuntimeException("Receiver account not found: " + accountNumber);
         }
     }
 
@@ -350,6 +303,7 @@ public class SavingsUpiService {
         if (user == null) { res.put("success", false); res.put("error", "User not found"); return res; }
         user.setUpiEnabled(enable);
         userRepository.save(user);
+        upiDirectory.invalidateAccount(accountNumber);
         res.put("success", true);
         res.put("upiEnabled", enable);
         res.put("message", "UPI " + (enable ? "enabled" : "blocked") + " for " + accountNumber);
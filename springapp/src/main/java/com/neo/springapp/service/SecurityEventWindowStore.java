@@ -0,0 +1,232 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.AiSecurityEvent;
+import com.neo.springapp.repository.AiSecurityEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory sliding-window counters of recent AI security events, per source entity.
+ *
+ * Each entity keeps, per event type, a ring of {@link #RING_MINUTES} per-minute buckets plus its last
+ * {@link #RECENT_LOCATIONS} located events, so brute-force, rapid-fire and impossible-travel checks
+ * read no event history. Entities are guarded by striped locks. The store is rebuilt from the last
+ * {@link #RETENTION_MINUTES} minutes of events on startup; entities idle longer than that are swept,
+ * and at most {@code app.security.window.max-entities} are kept.
+ */
+@Service
+@Slf4j
+public class SecurityEventWindowStore {
+
+    /** Longest window answered by {@link #count}; events older than this are forgotten. */
+    static final int RETENTION_MINUTES = 120;
+
+    private static final int RING_MINUTES = 128;
+    private static final int RECENT_LOCATIONS = 5;
+    private static final int STRIPES = 64;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    private static final long MINUTE_MS = 60_000L;
+    private static final AiSecurityEvent.EventType[] TYPES = AiSecurityEvent.EventType.values();
+
+    private final AiSecurityEventRepository eventRepository;
+    private final int maxEntities;
+    private final ConcurrentHashMap<String, EntityWindow> windows = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+
+    public SecurityEventWindowStore(AiSecurityEventRepository eventRepository,
+                                    @Value("${app.security.window.max-entities:50000}") int maxEntities) {
+        this.eventRepository = eventRepository;
+        this.maxEntities = Math.max(1, maxEntities);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /** A located event, as remembered for geo-anomaly checks. */
+    public record RecentLocation(String location, long atMillis) {
+    }
+
+    public void record(String entityId, AiSecurityEvent.EventType type, String location, long atMillis) {
+        if (entityId == null || type == null) {
+            return;
+        }
+        boolean added;
+        synchronized (stripeFor(entityId)) {
+            EntityWindow window = windows.get(entityId);
+            added = window == null;
+            if (added) {
+                window = new EntityWindow();
+                windows.put(entityId, window);
+            }
+            window.record(type.ordinal(), location, atMillis);
+        }
+        if (added) {
+            evictIfFull();
+        }
+    }
+
+    /**
+     * Events of the given types recorded for the entity in the last {@code minutes} minutes
+     * (at most {@link #RETENTION_MINUTES}). Counts whole minute buckets: the current minute and the
+     * {@code minutes - 1} before it.
+     */
+    public int count(String entityId, int minutes, long nowMillis, AiSecurityEvent.EventType... types) {
+        if (entityId == null || minutes <= 0) {
+            return 0;
+        }
+        long toMinute = Math.floorDiv(nowMillis, MINUTE_MS);
+        long fromMinute = toMinute - Math.min(minutes, RETENTION_MINUTES) + 1;
+        synchronized (stripeFor(entityId)) {
+            EntityWindow window = windows.get(entityId);
+            if (window == null) {
+                return 0;
+            }
+            int total = 0;
+            for (AiSecurityEvent.EventType type : types) {
+                total += window.count(type.ordinal(), fromMinute, toMinute);
+            }
+            return total;
+        }
+    }
+
+    /** The entity's located events at or after {@code sinceMillis}, newest first. */
+    public List<RecentLocation> recentLocations(String entityId, long sinceMillis) {
+        List<RecentLocation> result = new ArrayList<>(RECENT_LOCATIONS);
+        if (entityId == null) {
+            return result;
+        }
+        synchronized (stripeFor(entityId)) {
+            EntityWindow window = windows.get(entityId);
+            if (window != null) {
+                window.collectLocations(sinceMillis, result);
+            }
+        }
+        return result;
+    }
+
+    public int getTrackedEntityCount() {
+        return windows.size();
+    }
+
+    /** Replay the retention window from the database so counters survive a restart. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now().minusMinutes(RETENTION_MINUTES);
+        ZoneId zone = ZoneId.systemDefault();
+        long afterId = 0;
+        int replayed = 0;
+        try {
+            while (true) {
+                List<Object[]> page = eventRepository.findWindowEventsSince(since, afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+                for (Object[] row : page) {
+                    afterId = (Long) row[0];
+                    LocalDateTime createdAt = (LocalDateTime) row[4];
+                    if (createdAt != null) {
+                        record((String) row[1], (AiSecurityEvent.EventType) row[2], (String) row[3],
+                                createdAt.atZone(zone).toInstant().toEpochMilli());
+                        replayed++;
+                    }
+                }
+                if (page.size() < REBUILD_PAGE_SIZE) {
+                    break;
+                }
+            }
+            log.info("Security event windows rebuilt from {} events ({} entities)", replayed, windows.size());
+        } catch (Exception e) {
+            // Detection still works; it just starts without the last two hours of history
+            log.warn("Could not rebuild security event windows: {}", e.getMessage());
+        }
+    }
+
+    /** Drop entities with nothing left inside the retention window. */
+    @Scheduled(initialDelayString = "${app.security.window.sweep-interval-ms:300000}",
+               fixedDelayString = "${app.security.window.sweep-interval-ms:300000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - (RETENTION_MINUTES + 1) * MINUTE_MS;
+        StoreEviction.evictBefore(windows, cutoff, w -> w.lastEventMillis, this::stripeFor, null);
+    }
+
+    // Drop the least recently active tenth once the store is full
+    private void evictIfFull() {
+        if (StoreEviction.evictIfFull(windows, maxEntities, w -> w.lastEventMillis, this::stripeFor, null) > 0) {
+            log.debug("Evicted security event windows; {} tracked", windows.size());
+        }
+    }
+
+    private Object stripeFor(String entityId) {
+        return stripes[(entityId.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    /** Per-entity state; only touched under the entity's stripe lock. */
+    private static final class EntityWindow {
+
+        // Rings are allocated per event type on first use; most entities only ever see one or two types
+        private final int[][] counts = new int[TYPES.length][];
+        private final long[][] minutes = new long[TYPES.length][];
+
+        private final String[] locations = new String[RECENT_LOCATIONS];
+        private final long[] locationTimes = new long[RECENT_LOCATIONS];
+        private int locationHead;
+
+        private volatile long lastEventMillis;
+
+        void record(int type, String location, long atMillis) {
+            if (counts[type] == null) {
+                counts[type] = new int[RING_MINUTES];
+                minutes[type] = new long[RING_MINUTES];
+            }
+            long minute = Math.floorDiv(atMillis, MINUTE_MS);
+            int slot = (int) Math.floorMod(minute, (long) RING_MINUTES);
+            if (minutes[type][slot] != minute) {
+                if (minutes[type][slot] > minute) {
+                    return; // older than the ring
+                }
+                minutes[type][slot] = minute;
+                counts[type][slot] = 0;
+            }
+            counts[type][slot]++;
+            if (location != null && !location.isEmpty()) {
+                locationHead = (locationHead + 1) % RECENT_LOCATIONS;
+                locations[locationHead] = location;
+                locationTimes[locationHead] = atMillis;
+            }
+            lastEventMillis = Math.max(lastEventMillis, atMillis);
+        }
+
+        int count(int type, long fromMinute, long toMinute) {
+            int[] ring = counts[type];
+            if (ring == null) {
+                return 0;
+            }
+            int total = 0;
+            for (int slot = 0; slot < RING_MINUTES; slot++) {
+                long minute = minutes[type][slot];
+                if (minute >= fromMinute && minute <= toMinute) {
+                    total += ring[slot];
+                }
+            }
+            return total;
+        }
+
+        void collectLocations(long sinceMillis, List<RecentLocation> into) {
+            for (int i = 0; i < RECENT_LOCATIONS; i++) {
+                int slot = Math.floorMod(locationHead - i, RECENT_LOCATIONS);
+                if (locations[slot] != null && locationTimes[slot] >= sinceMillis) {
+                    into.add(new RecentLocation(locations[slot], locationTimes[slot]));
+                }
+            }
+            into.sort((a, b) -> Long.compare(b.atMillis(), a.atMillis()));
+        }
+    }
+}
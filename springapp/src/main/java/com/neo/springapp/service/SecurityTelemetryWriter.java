@@ -0,0 +1,556 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.AiSecurityEvent;
+import com.neo.springapp.model.AiThreatScore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind pipeline for AI security telemetry.
+ *
+ * The login and payment paths hand security events, known-device sightings and threat-score
+ * observations to this writer instead of writing them in the request's transaction. Events go to a
+ * bounded queue; device sightings and threat-score observations are coalesced per device / entity,
+ * so a burst of logins costs one UPDATE per device and one read-modify-write per entity. A single
+ * background thread flushes everything every {@code app.security.telemetry.flush-interval-ms} (or as
+ * soon as a batch fills) in one transaction using JDBC batches.
+ *
+ * Backpressure: when the event queue or the device map is full the caller writes its own item
+ * synchronously, so nothing is dropped. Threat scores are a read-modify-write, so a caller that finds
+ * their map full triggers a flush and waits up to {@code app.security.telemetry.offer-timeout-ms} for
+ * room; if there is still none it applies its observation under the flusher's lock, never alongside a
+ * flush that could overwrite it. A flush that fails because the database is unavailable is
+ * merged back and retried on the next cycle. A flush that fails on a row's own data (a null enum, an
+ * over-long column, a constraint violation) is rewritten one item at a time, so the rest of the batch
+ * commits; the bad items are logged and counted in {@code droppedItems} instead of being retried.
+ * On shutdown the writer stops the flusher and drains everything still pending, retrying once; if
+ * that fails too, each item is written on its own and whatever still fails is counted in an error log.
+ * Readers of these tables may therefore lag the request by up to one flush interval.
+ */
+@Service
+@Slf4j
+public class SecurityTelemetryWriter {
+
+    private static final double EMA_ALPHA = 0.3;
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO ai_security_events (event_type, channel, severity, risk_score, source_entity_id, " +
+            "source_entity_type, title, description, details_json, client_ip, location, device_fingerprint, " +
+            "user_agent, session_id, ai_model_version, ai_confidence, status, action_taken, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String TOUCH_DEVICE_SQL =
+            "UPDATE ai_device_fingerprints SET login_count = COALESCE(login_count, 0) + ?, last_seen_at = ?, " +
+            "ip_address = COALESCE(?, ip_address) WHERE entity_id = ? AND device_hash = ?";
+
+    private static final String SELECT_THREAT_SQL =
+            "SELECT id, entity_id, entity_type, login_risk_score, transaction_risk_score, behavioral_risk_score, " +
+            "device_risk_score, network_risk_score, total_events FROM ai_threat_scores " +
+            "WHERE entity_id IN (:entityIds) ORDER BY id";
+
+    private static final String UPDATE_THREAT_SQL =
+            "UPDATE ai_threat_scores SET login_risk_score = ?, transaction_risk_score = ?, behavioral_risk_score = ?, " +
+            "overall_risk_score = ?, risk_level = ?, risk_factors = ?, last_activity = ?, total_events = ?, " +
+            "last_evaluated_at = ?, updated_at = ? WHERE id = ?";
+
+    private static final String INSERT_THREAT_SQL =
+            "INSERT INTO ai_threat_scores (entity_id, entity_type, login_risk_score, transaction_risk_score, " +
+            "behavioral_risk_score, device_risk_score, network_risk_score, overall_risk_score, risk_level, " +
+            "risk_factors, last_activity, total_events, false_positives, confirmed_threats, is_watchlisted, " +
+            "last_evaluated_at, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, 0, 0, ?, ?, ?, ?, ?, 0, 0, false, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final int maxPendingEntities;
+
+    private final BlockingQueue<AiSecurityEvent> events;
+    private final ConcurrentHashMap<DeviceKey, DeviceTouch> deviceTouches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<EntityKey, ThreatObservations> threatObservations = new ConcurrentHashMap<>();
+    // Items from a failed flush, written first on the next one
+    private final List<AiSecurityEvent> carriedEvents = new ArrayList<>();
+
+    // Signalled after each flush drains the threat map, waking callers waiting for room in it
+    private final Object threatCapacity = new Object();
+
+    private final AtomicLong droppedItems = new AtomicLong();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private volatile boolean closed;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "security-telemetry-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public SecurityTelemetryWriter(JdbcTemplate jdbcTemplate,
+                                   NamedParameterJdbcTemplate namedJdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.security.telemetry.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${app.security.telemetry.batch-size:500}") int batchSize,
+                                   @Value("${app.security.telemetry.flush-interval-ms:250}") long flushIntervalMs,
+                                   @Value("${app.security.telemetry.offer-timeout-ms:50}") long offerTimeoutMs,
+                                   @Value("${app.security.telemetry.max-pending-entities:10000}") int maxPendingEntities) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.events = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.offerTimeoutMs = Math.max(0, offerTimeoutMs);
+        this.maxPendingEntities = Math.max(1, maxPendingEntities);
+        long interval = Math.max(10, flushIntervalMs);
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /** Queue a security event for insertion. */
+    public void submitEvent(AiSecurityEvent event) {
+        boolean queued = false;
+        if (!closed) {
+            try {
+                queued = events.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!queued) {
+            // Queue full or shutting down: write it on the caller's connection
+            insertEvents(List.of(event));
+            return;
+        }
+        if (events.size() >= batchSize) {
+            requestFlush();
+        }
+    }
+
+    /** Record another login from a known device: bumps loginCount and lastSeenAt on the next flush. */
+    public void touchDevice(String entityId, String deviceHash, String ipAddress) {
+        DeviceKey key = new DeviceKey(entityId, deviceHash);
+        LocalDateTime now = LocalDateTime.now();
+        if (closed || (deviceTouches.size() >= maxPendingEntities && !deviceTouches.containsKey(key))) {
+            DeviceTouch touch = new DeviceTouch();
+            touch.add(now, ipAddress);
+            touchDevices(Map.of(key, touch));
+            return;
+        }
+        deviceTouches.compute(key, (k, touch) -> {
+            DeviceTouch merged = touch != null ? touch : new DeviceTouch();
+            merged.add(now, ipAddress);
+            return merged;
+        });
+    }
+
+    /**
+     * Record a risk observation for an entity's threat score. Observations are applied in order as
+     * exponential moving averages on the stored dimension scores when flushed.
+     */
+    public void observeThreat(String entityId, String entityType, String dimension, double score, List<String> factors) {
+        EntityKey key = new EntityKey(entityId, entityType);
+        String riskFactors = String.join("; ", factors);
+        if (closed || (isThreatMapFull(key) && !awaitThreatCapacity(key))) {
+            ThreatObservations single = new ThreatObservations();
+            single.add(dimension, score, riskFactors);
+            applyThreatObservationNow(key, single);
+            return;
+        }
+        threatObservations.compute(key, (k, pending) -> {
+            ThreatObservations merged = pending != null ? pending : new ThreatObservations();
+            merged.add(dimension, score, riskFactors);
+            return merged;
+        });
+    }
+
+    private boolean isThreatMapFull(EntityKey key) {
+        return threatObservations.size() >= maxPendingEntities && !threatObservations.containsKey(key);
+    }
+
+    // Ask for a flush and wait until it makes room; false if the map is still full after the offer timeout
+    private boolean awaitThreatCapacity(EntityKey key) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        synchronized (threatCapacity) {
+            while (isThreatMapFull(key)) {
+                long remaining = deadline - System.nanoTime();
+                if (closed || remaining <= 0) {
+                    return false;
+                }
+                requestFlush();
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(threatCapacity, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return !closed;
+    }
+
+    // Same monitor as flush(), so this read-modify-write and the flusher's never interleave on a row
+    private synchronized void applyThreatObservationNow(EntityKey key, ThreatObservations observations) {
+        transactionTemplate.executeWithoutResult(status -> applyThreatObservations(Map.of(key, observations)));
+    }
+
+    public Map<String, Object> getBacklog() {
+        Map<String, Object> backlog = new HashMap<>();
+        backlog.put("queuedEvents", events.size());
+        backlog.put("pendingDevices", deviceTouches.size());
+        backlog.put("pendingThreatScores", threatObservations.size());
+        backlog.put("droppedItems", droppedItems.get());
+        return backlog;
+    }
+
+    /** Write everything pending now. Runs on the flusher thread; also used on shutdown and in tests. */
+    public synchronized void flush() {
+        flushRequested.set(false);
+        while (true) {
+            List<AiSecurityEvent> eventBatch = new ArrayList<>(carriedEvents);
+            carriedEvents.clear();
+            events.drainTo(eventBatch, Math.max(0, batchSize - eventBatch.size()));
+            Map<DeviceKey, DeviceTouch> deviceBatch = drain(deviceTouches);
+            Map<EntityKey, ThreatObservations> threatBatch = drain(threatObservations);
+            synchronized (threatCapacity) {
+                threatCapacity.notifyAll();
+            }
+            if (eventBatch.isEmpty() && deviceBatch.isEmpty() && threatBatch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    insertEvents(eventBatch);
+                    touchDevices(deviceBatch);
+                    applyThreatObservations(threatBatch);
+                });
+            } catch (RuntimeException e) {
+                if (!isBadRow(e)) {
+                    carryBack(eventBatch, deviceBatch, threatBatch);
+                    throw e;
+                }
+                // Retrying the batch as a whole would fail on the same row every cycle
+                log.warn("Security telemetry batch rejected, writing items one by one: {}", e.getMessage());
+                writeOneByOne(eventBatch, deviceBatch, threatBatch);
+            }
+            if (events.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            try {
+                flush();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Final security telemetry flush failed (attempt {}): {}", attempt, e.getMessage());
+            }
+        }
+        spillPending();
+    }
+
+    // Last resort on shutdown: write every pending item in its own statement
+    private synchronized void spillPending() {
+        List<AiSecurityEvent> eventBatch = new ArrayList<>(carriedEvents);
+        carriedEvents.clear();
+        events.drainTo(eventBatch);
+        long droppedBefore = droppedItems.get();
+        try {
+            writeOneByOne(eventBatch, drain(deviceTouches), drain(threatObservations));
+        } catch (RuntimeException e) {
+            log.error("Security telemetry lost on shutdown: {} events, {} devices, {} threat scores: {}",
+                    carriedEvents.size(), deviceTouches.size(), threatObservations.size(), e.getMessage());
+        }
+        if (droppedItems.get() > droppedBefore) {
+            log.error("Security telemetry dropped on shutdown: {} items", droppedItems.get() - droppedBefore);
+        }
+    }
+
+    /**
+     * Write each item in its own statement. An item rejected for its own data is logged and dropped;
+     * any other failure carries the unwritten items back for the next flush and is rethrown.
+     */
+    private void writeOneByOne(List<AiSecurityEvent> eventBatch, Map<DeviceKey, DeviceTouch> deviceBatch,
+                               Map<EntityKey, ThreatObservations> threatBatch) {
+        Map<DeviceKey, DeviceTouch> devicesLeft = new HashMap<>(deviceBatch);
+        Map<EntityKey, ThreatObservations> threatsLeft = new HashMap<>(threatBatch);
+        int next = 0;
+        try {
+            for (; next < eventBatch.size(); next++) {
+                AiSecurityEvent event = eventBatch.get(next);
+                writeOrDrop(() -> insertEvents(List.of(event)), "event", event.getSourceEntityId());
+            }
+            for (Map.Entry<DeviceKey, DeviceTouch> entry : deviceBatch.entrySet()) {
+                writeOrDrop(() -> touchDevices(Map.of(entry.getKey(), entry.getValue())),
+                        "device sighting", entry.getKey().entityId());
+                devicesLeft.remove(entry.getKey());
+            }
+            for (Map.Entry<EntityKey, ThreatObservations> entry : threatBatch.entrySet()) {
+                writeOrDrop(() -> transactionTemplate.executeWithoutResult(status ->
+                                applyThreatObservations(Map.of(entry.getKey(), entry.getValue()))),
+                        "threat score", entry.getKey().entityId());
+                threatsLeft.remove(entry.getKey());
+            }
+        } catch (RuntimeException e) {
+            carryBack(eventBatch.subList(next, eventBatch.size()), devicesLeft, threatsLeft);
+            throw e;
+        }
+    }
+
+    private void writeOrDrop(Runnable write, String item, String entityId) {
+        try {
+            write.run();
+        } catch (RuntimeException e) {
+            if (!isBadRow(e)) {
+                throw e;
+            }
+            droppedItems.incrementAndGet();
+            log.error("Dropped security telemetry {} for {}: {}", item, entityId, e.getMessage());
+        }
+    }
+
+    private void carryBack(List<AiSecurityEvent> eventBatch, Map<DeviceKey, DeviceTouch> deviceBatch,
+                           Map<EntityKey, ThreatObservations> threatBatch) {
+        carriedEvents.addAll(eventBatch);
+        deviceBatch.forEach((k, v) -> deviceTouches.merge(k, v, DeviceTouch::mergeNewer));
+        threatBatch.forEach((k, v) -> threatObservations.merge(k, v, ThreatObservations::appendNewer));
+    }
+
+    // A failure caused by the data being written rather than by the database being unavailable
+    private static boolean isBadRow(RuntimeException e) {
+        if (e instanceof DataAccessException) {
+            return e instanceof NonTransientDataAccessException && !(e instanceof DataAccessResourceFailureException);
+        }
+        return !(e instanceof TransactionException);
+    }
+
+    private void requestFlush() {
+        if (!closed && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Security telemetry flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private static <K, V> Map<K, V> drain(ConcurrentHashMap<K, V> pending) {
+        Map<K, V> batch = new HashMap<>();
+        for (K key : pending.keySet()) {
+            V value = pending.remove(key);
+            if (value != null) {
+                batch.put(key, value);
+            }
+        }
+        return batch;
+    }
+
+    private void insertEvents(List<AiSecurityEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, batch, batch.size(), (ps, e) -> {
+            ps.setString(1, e.getEventType().name());
+            ps.setString(2, e.getChannel().name());
+            ps.setString(3, e.getSeverity().name());
+            ps.setObject(4, e.getRiskScore());
+            ps.setString(5, e.getSourceEntityId());
+            ps.setString(6, e.getSourceEntityType());
+            ps.setString(7, e.getTitle());
+            ps.setString(8, e.getDescription());
+            ps.setString(9, e.getDetailsJson());
+            ps.setString(10, e.getClientIp());
+            ps.setString(11, e.getLocation());
+            ps.setString(12, e.getDeviceFingerprint());
+            ps.setString(13, e.getUserAgent());
+            ps.setString(14, e.getSessionId());
+            ps.setString(15, e.getAiModelVersion());
+            ps.setObject(16, e.getAiConfidence());
+            ps.setString(17, e.getStatus().name());
+            ps.setString(18, e.getActionTaken() != null ? e.getActionTaken().name() : null);
+            ps.setTimestamp(19, Timestamp.valueOf(e.getCreatedAt()));
+        });
+    }
+
+    private void touchDevices(Map<DeviceKey, DeviceTouch> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<DeviceKey, DeviceTouch>> rows = new ArrayList<>(batch.entrySet());
+        jdbcTemplate.batchUpdate(TOUCH_DEVICE_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue().logins);
+            ps.setTimestamp(2, Timestamp.valueOf(row.getValue().lastSeenAt));
+            ps.setString(3, row.getValue().ipAddress);
+            ps.setString(4, row.getKey().entityId());
+            ps.setString(5, row.getKey().deviceHash());
+        });
+    }
+
+    private void applyThreatObservations(Map<EntityKey, ThreatObservations> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<String> entityIds = new HashSet<>();
+        batch.keySet().forEach(k -> entityIds.add(k.entityId()));
+        Map<EntityKey, double[]> stored = new HashMap<>();
+        Map<EntityKey, Long> storedIds = new HashMap<>();
+        Map<EntityKey, Integer> storedEvents = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_THREAT_SQL, new MapSqlParameterSource("entityIds", entityIds), rs -> {
+            EntityKey key = new EntityKey(rs.getString("entity_id"), rs.getString("entity_type"));
+            if (batch.containsKey(key) && !storedIds.containsKey(key)) {
+                storedIds.put(key, rs.getLong("id"));
+                storedEvents.put(key, rs.getInt("total_events"));
+                stored.put(key, new double[]{
+                        rs.getDouble("login_risk_score"), rs.getDouble("transaction_risk_score"),
+                        rs.getDouble("behavioral_risk_score"), rs.getDouble("device_risk_score"),
+                        rs.getDouble("network_risk_score")});
+            }
+        });
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (Map.Entry<EntityKey, ThreatObservations> entry : batch.entrySet()) {
+            EntityKey key = entry.getKey();
+            ThreatObservations observations = entry.getValue();
+            double[] scores = stored.getOrDefault(key, new double[5]);
+            observations.applyTo(scores);
+            double composite = scores[0] * 0.3 + scores[1] * 0.35 + scores[2] * 0.2 + scores[3] * 0.1 + scores[4] * 0.05;
+            double overall = Math.max(0, Math.min(100, composite));
+            String level = riskLevel(composite);
+            int totalEvents = storedEvents.getOrDefault(key, 0) + observations.size();
+            String lastActivity = observations.lastDimension + " analysis";
+            Long id = storedIds.get(key);
+            if (id != null) {
+                updates.add(new Object[]{scores[0], scores[1], scores[2], overall, level, observations.lastFactors,
+                        lastActivity, totalEvents, now, now, id});
+            } else {
+                inserts.add(new Object[]{key.entityId(), key.entityType(), scores[0], scores[1], scores[2], overall,
+                        level, observations.lastFactors, lastActivity, totalEvents, now, now, now});
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_THREAT_SQL, updates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_THREAT_SQL, inserts);
+        }
+    }
+
+    // Same bands as AiSecurityService's risk levels
+    private static String riskLevel(double score) {
+        if (score >= 85.0) return AiThreatScore.RiskLevel.CRITICAL.name();
+        if (score >= 70.0) return AiThreatScore.RiskLevel.HIGH.name();
+        if (score >= 40) return AiThreatScore.RiskLevel.MEDIUM.name();
+        return AiThreatScore.RiskLevel.LOW.name();
+    }
+
+    private record DeviceKey(String entityId, String deviceHash) {
+    }
+
+    private record EntityKey(String entityId, String entityType) {
+    }
+
+    private static final class DeviceTouch {
+        private int logins;
+        private LocalDateTime lastSeenAt;
+        private String ipAddress;
+
+        void add(LocalDateTime seenAt, String ip) {
+            logins++;
+            lastSeenAt = seenAt;
+            if (ip != null) {
+                ipAddress = ip;
+            }
+        }
+
+        // 'newer' holds sightings recorded after 'this' was drained
+        static DeviceTouch mergeNewer(DeviceTouch newer, DeviceTouch older) {
+            newer.logins += older.logins;
+            if (newer.ipAddress == null) {
+                newer.ipAddress = older.ipAddress;
+            }
+            return newer;
+        }
+    }
+
+    private static final class ThreatObservations {
+        private final List<String> dimensions = new ArrayList<>(2);
+        private final List<Double> scores = new ArrayList<>(2);
+        private String lastDimension;
+        private String lastFactors;
+
+        void add(String dimension, double score, String factors) {
+            dimensions.add(dimension);
+            scores.add(score);
+            lastDimension = dimension;
+            lastFactors = factors;
+        }
+
+        int size() {
+            return scores.size();
+        }
+
+        // scores: login, transaction, behavioral, device, network
+        void applyTo(double[] stored) {
+            for (int i = 0; i < scores.size(); i++) {
+                int slot = switch (dimensions.get(i)) {
+                    case "login" -> 0;
+                    case "transaction" -> 1;
+                    case "behavioral" -> 2;
+                    default -> -1;
+                };
+                if (slot >= 0) {
+                    double old = stored[slot];
+                    stored[slot] = old == 0 ? scores.get(i) : EMA_ALPHA * scores.get(i) + (1 - EMA_ALPHA) * old;
+                }
+            }
+        }
+
+        // 'newer' holds observations recorded after 'older' was drained; replay older ones first
+        static ThreatObservations appendNewer(ThreatObservations newer, ThreatObservations older) {
+            ThreatObservations merged = new ThreatObservations();
+            for (int i = 0; i < older.size(); i++) {
+                merged.add(older.dimensions.get(i), older.scores.get(i), older.lastFactors);
+            }
+            for (int i = 0; i < newer.size(); i++) {
+                merged.add(newer.dimensions.get(i), newer.scores.get(i), newer.lastFactors);
+            }
+            return merged;
+        }
+    }
+}
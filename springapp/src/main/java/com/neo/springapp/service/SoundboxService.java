@@ -14,6 +14,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -26,15 +27,18 @@ public class SoundboxService {
     private final SoundboxRequestRepository requestRepository;
     private final SoundboxTransactionRepository transactionRepository;
     private final CurrentAccountRepository currentAccountRepository;
+    private final PaymentPushService paymentPushService;
 
     public SoundboxService(SoundboxDeviceRepository deviceRepository,
                            SoundboxRequestRepository requestRepository,
                            SoundboxTransactionRepository transactionRepository,
-                           CurrentAccountRepository currentAccountRepository) {
+                           CurrentAccountRepository currentAccountRepository,
+                           PaymentPushService paymentPushService) {
         this.deviceRepository = deviceRepository;
         this.requestRepository = requestRepository;
         this.transactionRepository = transactionRepository;
         this.currentAccountRepository = currentAccountRepository;
+        this.paymentPushService = paymentPushService;
     }
 
     // ==================== Soundbox Request Operations ====================
@@ -277,6 +281,10 @@ public class SoundboxService {
 
         transaction.setStatus("SUCCESS");
         transactionRepository.save(transaction);
+        // The device already resolved above; announce only what the device will actually speak
+        paymentPushService.paymentReceived("SOUNDBOX", transaction.getAccountNumber(), transaction.getDeviceId(),
+                transaction.getTxnId(), BigDecimal.valueOf(transaction.getAmount()), transaction.getPayerName(),
+                transaction.getPayerUpi(), Boolean.TRUE.equals(transaction.getVoicePlayed()) ? voiceMessage : null, transaction);
 
         result.put("success", true);
         result.put("transaction", transaction);
@@ -0,0 +1,497 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.SalaryAccount;
+import com.neo.springapp.model.SalaryNormalTransaction;
+import com.neo.springapp.model.ScheduledPayment;
+import com.neo.springapp.model.StandingInstructionExecution;
+import com.neo.springapp.model.SubscriptionPayment;
+import com.neo.springapp.model.Transaction;
+import com.neo.springapp.repository.SalaryAccountRepository;
+import com.neo.springapp.repository.SalaryNormalTransactionRepository;
+import com.neo.springapp.repository.ScheduledPaymentRepository;
+import com.neo.springapp.repository.StandingInstructionExecutionRepository;
+import com.neo.springapp.repository.SubscriptionPaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executes due standing instructions: scheduled payments from savings accounts and auto-debit
+ * subscriptions from salary accounts.
+ *
+ * Due rows are found through the (status, due date) index, oldest day first, in chunks of
+ * {@code app.standing-instructions.chunk-size}. Each chunk is leased to this instance with one
+ * conditional UPDATE (leaseOwner/leaseUntil), so several app instances poll the same tables without
+ * running an instruction twice, and leased chunks run on {@code app.standing-instructions.workers}
+ * threads. Every installment is its own transaction: the debit through {@link BalancePostingService},
+ * the transaction rows, the (instruction, due date) key in {@code standing_instruction_executions}
+ * and the advanced next date commit together, and the lease is released in the same commit. An
+ * installment rolled back by a transient database error keeps its lease until it expires, which is the
+ * retry delay. Any other rejection (an inactive account, a missing amount) is recorded like insufficient
+ * funds in a second transaction: a FAILED execution with the reason, then the instruction is advanced,
+ * or suspended when its own data cannot be run.
+ */
+@Service
+@Slf4j
+public class StandingInstructionExecutor {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    // Leaves room for the "skipped:" prefix within the 255-character failureReason columns
+    private static final int MAX_REASON_LENGTH = 200;
+
+    private final ScheduledPaymentRepository scheduledPaymentRepository;
+    private final SubscriptionPaymentRepository subscriptionPaymentRepository;
+    private final StandingInstructionExecutionRepository executionRepository;
+    private final SalaryAccountRepository salaryAccountRepository;
+    private final SalaryNormalTransactionRepository salaryTransactionRepository;
+    private final BalancePostingService balancePostingService;
+    private final TransactionService transactionService;
+    private final ScheduledPaymentService scheduledPaymentService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int workers;
+    private final long leaseMs;
+    private final String owner = "si-" + UUID.randomUUID();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public StandingInstructionExecutor(ScheduledPaymentRepository scheduledPaymentRepository,
+                                       SubscriptionPaymentRepository subscriptionPaymentRepository,
+                                       StandingInstructionExecutionRepository executionRepository,
+                                       SalaryAccountRepository salaryAccountRepository,
+                                       SalaryNormalTransactionRepository salaryTransactionRepository,
+                                       BalancePostingService balancePostingService,
+                                       TransactionService transactionService,
+                                       ScheduledPaymentService scheduledPaymentService,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${app.standing-instructions.chunk-size:100}") int chunkSize,
+                                       @Value("${app.standing-instructions.workers:2}") int workers,
+                                       @Value("${app.standing-instructions.lease-ms:300000}") long leaseMs) {
+        this.scheduledPaymentRepository = scheduledPaymentRepository;
+        this.subscriptionPaymentRepository = subscriptionPaymentRepository;
+        this.executionRepository = executionRepository;
+        this.salaryAccountRepository = salaryAccountRepository;
+        this.salaryTransactionRepository = salaryTransactionRepository;
+        this.balancePostingService = balancePostingService;
+        this.transactionService = transactionService;
+        this.scheduledPaymentService = scheduledPaymentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.workers = Math.max(1, workers);
+        this.leaseMs = Math.max(1000, leaseMs);
+    }
+
+    @Scheduled(initialDelayString = "${app.standing-instructions.poll-interval-ms:60000}",
+               fixedDelayString = "${app.standing-instructions.poll-interval-ms:60000}")
+    public void executeDue() {
+        try {
+            Map<String, Object> result = execute(LocalDate.now());
+            if ((Integer) result.getOrDefault("executedCount", 0) + (Integer) result.getOrDefault("failedCount", 0) > 0) {
+                log.info("Standing instructions executed: {}", result);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Standing instruction run stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Run every standing instruction due on or before {@code today}. An instruction several
+     * installments behind is caught up one installment at a time within the same run.
+     *
+     * @return executedCount, failedCount (skipped for insufficient funds or rejected), alreadyExecuted, errorCount and errors (first 100)
+     */
+    public Map<String, Object> execute(LocalDate today) {
+        Map<String, Object> response = new HashMap<>();
+        if (!running.compareAndSet(false, true)) {
+            response.put("success", false);
+            response.put("message", "A standing instruction run is already in progress");
+            return response;
+        }
+        long started = System.currentTimeMillis();
+        Run totals = new Run();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "standing-instructions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(workers * 2);
+        boolean aborted = false;
+        try {
+            // Instructions several installments behind come due again once their chunk commits, so
+            // keep going in rounds until a round advances nothing
+            int advanced;
+            do {
+                int before = totals.advanced();
+                List<Future<?>> futures = new ArrayList<>();
+                for (String type : List.of(StandingInstructionExecution.SCHEDULED_PAYMENT, StandingInstructionExecution.SUBSCRIPTION)) {
+                    while (true) {
+                        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+                        List<Long> due = StandingInstructionExecution.SUBSCRIPTION.equals(type)
+                                ? subscriptionPaymentRepository.findDueIds(today, now, PageRequest.of(0, chunkSize))
+                                : scheduledPaymentRepository.findDueIds(today, now, PageRequest.of(0, chunkSize));
+                        if (due.isEmpty()) {
+                            break;
+                        }
+                        // Rows another instance leased first drop out of the next page
+                        List<Long> leased = lease(type, due, now);
+                        if (leased.isEmpty()) {
+                            continue;
+                        }
+                        inFlight.acquire();
+                        futures.add(pool.submit(() -> {
+                            try {
+                                for (Long id : leased) {
+                                    runInstallment(type, id, today, totals);
+                                }
+                            } finally {
+                                inFlight.release();
+                            }
+                        }));
+                    }
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                advanced = totals.advanced() - before;
+            } while (advanced > 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborted = true;
+        } catch (Exception e) {
+            log.error("Standing instruction run for {} aborted", today, e);
+            aborted = true;
+        } finally {
+            pool.shutdownNow();
+            running.set(false);
+        }
+
+        response.put("success", !aborted);
+        response.put("message", "Executed " + totals.executed + " standing instruction installments"
+                + (aborted ? " (run aborted; the next poll continues)" : ""));
+        response.put("date", today.toString());
+        response.put("executedCount", totals.executed);
+        response.put("failedCount", totals.failed);
+        response.put("alreadyExecuted", totals.alreadyExecuted);
+        response.put("errorCount", totals.errorCount);
+        response.put("errors", totals.errors);
+        response.put("elapsedMs", System.currentTimeMillis() - started);
+        return response;
+    }
+
+    private List<Long> lease(String type, List<Long> due, LocalDateTime now) {
+        LocalDateTime leaseUntil = now.plus(leaseMs, ChronoUnit.MILLIS);
+        return transactionTemplate.execute(status -> {
+            if (StandingInstructionExecution.SUBSCRIPTION.equals(type)) {
+                subscriptionPaymentRepository.lease(due, owner, now, leaseUntil);
+                return subscriptionPaymentRepository.findLeasedIds(due, owner, leaseUntil);
+            }
+            scheduledPaymentRepository.lease(due, owner, now, leaseUntil);
+            return scheduledPaymentRepository.findLeasedIds(due, owner, leaseUntil);
+        });
+    }
+
+    private void runInstallment(String type, Long id, LocalDate today, Run totals) {
+        try {
+            Outcome outcome = transactionTemplate.execute(status -> StandingInstructionExecution.SUBSCRIPTION.equals(type)
+                    ? billSubscription(id, today)
+                    : payScheduledPayment(id, today));
+            totals.add(outcome);
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                // The lease stays until it expires, so the installment is retried by a later poll
+                log.warn("Standing instruction {} #{} rolled back: {}", type, id, e.getMessage());
+                totals.error(type + " #" + id + ": " + e.getMessage());
+                return;
+            }
+            reject(type, id, today, reasonOf(e), totals);
+        }
+    }
+
+    // Retrying the same installment would only hit the same rejection, so record it and move the instruction on
+    private void reject(String type, Long id, LocalDate today, String reason, Run totals) {
+        try {
+            Outcome outcome = transactionTemplate.execute(status -> StandingInstructionExecution.SUBSCRIPTION.equals(type)
+                    ? rejectSubscription(id, today, reason)
+                    : rejectScheduledPayment(id, today, reason));
+            log.warn("Standing instruction {} #{} rejected: {}", type, id, reason);
+            totals.add(outcome);
+        } catch (RuntimeException e) {
+            log.warn("Standing instruction {} #{} rejected ({}) but could not be recorded: {}", type, id, reason, e.getMessage());
+            totals.error(type + " #" + id + ": " + reason);
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private static String reasonOf(RuntimeException e) {
+        String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason;
+    }
+
+    private Outcome payScheduledPayment(Long id, LocalDate today) {
+        ScheduledPayment payment = scheduledPaymentRepository.findById(id).orElse(null);
+        if (payment == null || !owner.equals(payment.getLeaseOwner()) || !"ACTIVE".equals(payment.getStatus())) {
+            return Outcome.SKIPPED;
+        }
+        LocalDate due = payment.getNextPaymentDate();
+        Outcome outcome = Outcome.SKIPPED;
+        if (due.isAfter(today)) {
+            // Another path moved the date on since the row was leased
+        } else if (payment.getEndDate() != null && due.isAfter(payment.getEndDate())) {
+            payment.setStatus("COMPLETED");
+        } else if (executionRepository.existsByInstructionTypeAndInstructionIdAndDueDate(
+                StandingInstructionExecution.SCHEDULED_PAYMENT, id, due)) {
+            outcome = Outcome.ALREADY_EXECUTED;
+        } else {
+            StandingInstructionExecution execution = new StandingInstructionExecution(
+                    StandingInstructionExecution.SCHEDULED_PAYMENT, id, due, payment.getAccountNumber(), payment.getAmount());
+            Double balance = balancePostingService.debit(BalancePostingService.SAVINGS, payment.getAccountNumber(), payment.getAmount());
+            if (balance == null) {
+                execution.setStatus("FAILED");
+                execution.setFailureReason("Insufficient balance");
+                payment.setFailureReason("Installment due " + due + " skipped: insufficient balance");
+                outcome = Outcome.FAILED;
+            } else {
+                Transaction debit = new Transaction();
+                debit.setMerchant(payment.getRecipientName());
+                debit.setAmount(payment.getAmount());
+                debit.setType("Debit");
+                debit.setDescription("Scheduled " + payment.getPaymentType() + " payment to " + payment.getRecipientName()
+                        + " (" + payment.getRecipientAccountNumber() + ") due " + due);
+                debit.setBalance(balance);
+                debit.setDate(LocalDateTime.now());
+                debit.setAccountNumber(payment.getAccountNumber());
+                debit.setRecipientAccountNumber(payment.getRecipientAccountNumber());
+                debit.setRecipientName(payment.getRecipientName());
+                debit.setIfscCode(payment.getRecipientIfsc());
+                debit = transactionService.saveTransaction(debit);
+
+                // Recipients without a savings account here are external beneficiaries
+                Double recipientBalance = balancePostingService.credit(BalancePostingService.SAVINGS,
+                        payment.getRecipientAccountNumber(), payment.getAmount());
+                if (recipientBalance != null) {
+                    Transaction credit = new Transaction();
+                    credit.setMerchant(payment.getAccountNumber());
+                    credit.setAmount(payment.getAmount());
+                    credit.setType("Credit");
+                    credit.setDescription("Scheduled " + payment.getPaymentType() + " payment from " + payment.getAccountNumber());
+                    credit.setBalance(recipientBalance);
+                    credit.setDate(LocalDateTime.now());
+                    credit.setAccountNumber(payment.getRecipientAccountNumber());
+                    credit.setSourceAccountNumber(payment.getAccountNumber());
+                    transactionService.saveTransaction(credit);
+                }
+
+                execution.setStatus("SUCCESS");
+                execution.setTransactionId(debit.getTransactionId());
+                payment.setLastPaymentDate(due);
+                payment.setCompletedPayments((payment.getCompletedPayments() == null ? 0 : payment.getCompletedPayments()) + 1);
+                payment.setTotalAmountPaid((payment.getTotalAmountPaid() == null ? 0.0 : payment.getTotalAmountPaid()) + payment.getAmount());
+                payment.setFailureReason(null);
+                outcome = Outcome.EXECUTED;
+            }
+            // Unique (instruction, due date): a second debit of the same installment fails here and rolls back
+            executionRepository.saveAndFlush(execution);
+        }
+
+        if (outcome != Outcome.SKIPPED) {
+            advance(payment, due);
+        }
+        payment.setLeaseOwner(null);
+        payment.setLeaseUntil(null);
+        scheduledPaymentRepository.save(payment);
+        return outcome;
+    }
+
+    private Outcome billSubscription(Long id, LocalDate today) {
+        SubscriptionPayment subscription = subscriptionPaymentRepository.findById(id).orElse(null);
+        if (subscription == null || !owner.equals(subscription.getLeaseOwner()) || !"ACTIVE".equals(subscription.getStatus())) {
+            return Outcome.SKIPPED;
+        }
+        LocalDate due = subscription.getNextBillingDate();
+        Outcome outcome = Outcome.SKIPPED;
+        if (due.isAfter(today) || !subscription.isAutoDebit()) {
+            // Rescheduled or switched to manual payment since the row was leased
+        } else if (subscription.getEndDate() != null && due.isAfter(subscription.getEndDate())) {
+            subscription.setStatus("EXPIRED");
+        } else if (executionRepository.existsByInstructionTypeAndInstructionIdAndDueDate(
+                StandingInstructionExecution.SUBSCRIPTION, id, due)) {
+            outcome = Outcome.ALREADY_EXECUTED;
+        } else {
+            String accountNumber = subscription.getSalaryAccountNumber();
+            StandingInstructionExecution execution = new StandingInstructionExecution(
+                    StandingInstructionExecution.SUBSCRIPTION, id, due, accountNumber, subscription.getAmount());
+            Double balance = balancePostingService.debit(BalancePostingService.SALARY, accountNumber, subscription.getAmount());
+            if (balance == null) {
+                execution.setStatus("FAILED");
+                execution.setFailureReason("Insufficient balance");
+                subscription.setFailureReason("Billing due " + due + " skipped: insufficient balance");
+                outcome = Outcome.FAILED;
+            } else {
+                SalaryAccount account = salaryAccountRepository.findByAccountNumber(accountNumber);
+                SalaryNormalTransaction txn = new SalaryNormalTransaction();
+                txn.setSalaryAccountId(account.getId());
+                txn.setAccountNumber(accountNumber);
+                txn.setType("Subscription");
+                txn.setAmount(subscription.getAmount());
+                txn.setRecipientAccount(subscription.getMerchantId());
+                txn.setRemark(subscription.getSubscriptionName() + " subscription - " + subscription.getFrequency() + " billing due " + due);
+                txn.setPreviousBalance(balance + subscription.getAmount());
+                txn.setNewBalance(balance);
+                txn.setStatus("Success");
+                salaryTransactionRepository.save(txn);
+
+                execution.setStatus("SUCCESS");
+                subscription.setLastBillingDate(due);
+                subscription.setBillingCyclesCompleted((subscription.getBillingCyclesCompleted() == null ? 0 : subscription.getBillingCyclesCompleted()) + 1);
+                subscription.setTotalAmountPaid((subscription.getTotalAmountPaid() == null ? 0.0 : subscription.getTotalAmountPaid()) + subscription.getAmount());
+                subscription.setFailureReason(null);
+                outcome = Outcome.EXECUTED;
+            }
+            executionRepository.saveAndFlush(execution);
+        }
+
+        if (outcome != Outcome.SKIPPED) {
+            advance(subscription, due);
+        }
+        subscription.setLeaseOwner(null);
+        subscription.setLeaseUntil(null);
+        subscriptionPaymentRepository.save(subscription);
+        return outcome;
+    }
+
+    private void advance(ScheduledPayment payment, LocalDate due) {
+        LocalDate next = scheduledPaymentService.calculateNextPaymentDate(due, payment.getFrequency());
+        payment.setNextPaymentDate(next);
+        boolean allPaid = payment.getTotalPayments() != null && payment.getCompletedPayments() != null
+                && payment.getCompletedPayments() >= payment.getTotalPayments();
+        if (allPaid || (payment.getEndDate() != null && next.isAfter(payment.getEndDate()))) {
+            payment.setStatus("COMPLETED");
+        }
+    }
+
+    private void advance(SubscriptionPayment subscription, LocalDate due) {
+        LocalDate next = scheduledPaymentService.calculateNextPaymentDate(due, subscription.getFrequency());
+        subscription.setNextBillingDate(next);
+        if (subscription.getEndDate() != null && next.isAfter(subscription.getEndDate())) {
+            subscription.setStatus("EXPIRED");
+        }
+    }
+
+    private Outcome rejectScheduledPayment(Long id, LocalDate today, String reason) {
+        ScheduledPayment payment = scheduledPaymentRepository.findById(id).orElse(null);
+        if (payment == null || !owner.equals(payment.getLeaseOwner()) || !"ACTIVE".equals(payment.getStatus())) {
+            return Outcome.SKIPPED;
+        }
+        LocalDate due = payment.getNextPaymentDate();
+        Outcome outcome = recordFailure(StandingInstructionExecution.SCHEDULED_PAYMENT, id, due,
+                payment.getAccountNumber(), payment.getAmount(), reason);
+        if (due == null || payment.getAmount() == null || payment.getFrequency() == null) {
+            // Nothing to advance from, or every later installment would be rejected the same way
+            payment.setStatus("FAILED");
+            payment.setFailureReason("Suspended: " + reason);
+        } else {
+            payment.setFailureReason("Installment due " + due + " skipped: " + reason);
+            if (!due.isAfter(today)) {
+                advance(payment, due);
+            }
+        }
+        payment.setLeaseOwner(null);
+        payment.setLeaseUntil(null);
+        scheduledPaymentRepository.save(payment);
+        return outcome;
+    }
+
+    private Outcome rejectSubscription(Long id, LocalDate today, String reason) {
+        SubscriptionPayment subscription = subscriptionPaymentRepository.findById(id).orElse(null);
+        if (subscription == null || !owner.equals(subscription.getLeaseOwner()) || !"ACTIVE".equals(subscription.getStatus())) {
+            return Outcome.SKIPPED;
+        }
+        LocalDate due = subscription.getNextBillingDate();
+        Outcome outcome = recordFailure(StandingInstructionExecution.SUBSCRIPTION, id, due,
+                subscription.getSalaryAccountNumber(), subscription.getAmount(), reason);
+        if (due == null || subscription.getAmount() == null || subscription.getFrequency() == null) {
+            subscription.setStatus("PAUSED");
+            subscription.setFailureReason("Suspended: " + reason);
+        } else {
+            subscription.setFailureReason("Billing due " + due + " skipped: " + reason);
+            if (!due.isAfter(today)) {
+                advance(subscription, due);
+            }
+        }
+        subscription.setLeaseOwner(null);
+        subscription.setLeaseUntil(null);
+        subscriptionPaymentRepository.save(subscription);
+        return outcome;
+    }
+
+    // A FAILED execution keyed like a successful one, unless the installment already has a row
+    private Outcome recordFailure(String type, Long id, LocalDate due, String accountNumber, Double amount, String reason) {
+        if (due == null) {
+            return Outcome.FAILED;
+        }
+        if (executionRepository.existsByInstructionTypeAndInstructionIdAndDueDate(type, id, due)) {
+            return Outcome.ALREADY_EXECUTED;
+        }
+        StandingInstructionExecution execution = new StandingInstructionExecution(type, id, due, accountNumber, amount);
+        execution.setStatus("FAILED");
+        execution.setFailureReason(reason);
+        executionRepository.saveAndFlush(execution);
+        return Outcome.FAILED;
+    }
+
+    private enum Outcome { EXECUTED, FAILED, ALREADY_EXECUTED, SKIPPED }
+
+    /** Run totals, updated by the worker threads. */
+    private static final class Run {
+        int executed;
+        int failed;
+        int alreadyExecuted;
+        int errorCount;
+        final List<String> errors = new ArrayList<>();
+
+        synchronized void add(Outcome outcome) {
+            switch (outcome) {
+                case EXECUTED -> executed++;
+                case FAILED -> failed++;
+                case ALREADY_EXECUTED -> alreadyExecuted++;
+                default -> { }
+            }
+        }
+
+        synchronized int advanced() {
+            return executed + failed + alreadyExecuted;
+        }
+
+        synchronized void error(String error) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.neo.springapp.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Size and idle eviction for the in-memory per-key stores (fraud profiles, security event windows,
+ * UPI velocity windows, the UPI directory and merchant analytics rollups).
+ *
+ * Each entry is ranked by a timestamp its store chooses (last use, last event, load time). Stores that
+ * guard their entries with striped locks pass the lock for a key, and every removal re-checks the
+ * entry's timestamp under that lock, so an entry updated meanwhile is kept.
+ */
+final class StoreEviction {
+
+    private StoreEviction() {
+    }
+
+    /**
+     * Once {@code entries} holds more than {@code maxEntries}, remove the overflow plus a tenth of
+     * {@code maxEntries}, oldest timestamp first, so the next few inserts do not evict again.
+     *
+     * @param lockFor the key's lock, or null when the store has none
+     * @param onEvict called with each removed value, outside the lock; may be null
+     * @return the number of entries removed
+     */
+    static <K, V> int evictIfFull(ConcurrentHashMap<K, V> entries, int maxEntries, ToLongFunction<V> timestamp,
+                                  Function<K, Object> lockFor, Consumer<V> onEvict) {
+        if (entries.size() <= maxEntries) {
+            return 0;
+        }
+        int toRemove = entries.size() - maxEntries + maxEntries / 10;
+        long cutoff = entries.values().stream()
+                .mapToLong(timestamp)
+                .sorted()
+                .skip(Math.max(0, toRemove - 1))
+                .findFirst()
+                .orElse(Long.MAX_VALUE);
+        return removeAtOrBefore(entries, cutoff, toRemove, timestamp, lockFor, onEvict);
+    }
+
+    /** Remove every entry whose timestamp is before {@code cutoff}. */
+    static <K, V> int evictBefore(ConcurrentHashMap<K, V> entries, long cutoff, ToLongFunction<V> timestamp,
+                                  Function<K, Object> lockFor, Consumer<V> onEvict) {
+        return removeAtOrBefore(entries, cutoff - 1, Integer.MAX_VALUE, timestamp, lockFor, onEvict);
+    }
+
+    private static <K, V> int removeAtOrBefore(ConcurrentHashMap<K, V> entries, long cutoff, int limit,
+                                               ToLongFunction<V> timestamp, Function<K, Object> lockFor,
+                                               Consumer<V> onEvict) {
+        int removed = 0;
+        for (K key : entries.keySet()) {
+            if (removed >= limit) {
+                break;
+            }
+            V evicted;
+            if (lockFor == null) {
+                evicted = removeIfAtOrBefore(entries, key, cutoff, timestamp);
+            } else {
+                synchronized (lockFor.apply(key)) {
+                    evicted = removeIfAtOrBefore(entries, key, cutoff, timestamp);
+                }
+            }
+            if (evicted != null) {
+                removed++;
+                if (onEvict != null) {
+                    onEvict.accept(evicted);
+                }
+            }
+        }
+        return removed;
+    }
+
+    private static <K, V> V removeIfAtOrBefore(ConcurrentHashMap<K, V> entries, K key, long cutoff,
+                                               ToLongFunction<V> timestamp) {
+        V value = entries.get(key);
+        if (value != null && timestamp.applyAsLong(value) <= cutoff && entries.remove(key, value)) {
+            return value;
+        }
+        return null;
+    }
+}
@@ -15,9 +15,12 @@ import java.util.List;
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
+    private final AccountProfileService accountProfileService;
 
-    public TransactionService(TransactionRepository transactionRepository) {
+    public TransactionService(TransactionRepository transactionRepository,
+                              AccountProfileService accountProfileService) {
         this.transactionRepository = transactionRepository;
+        this.accountProfileService = accountProfileService;
     }
 
     // Save new transaction
@@ -28,14 +31,25 @@ public class TransactionService {
 
     // Create transfer transaction
     public Transaction createTransferTransaction(String accountNumber, String description, Double amount, String type, Double balance) {
+        return createTransferTransaction(accountNumber, description, amount, type, balance, null);
+    }
+
+    // Create transfer transaction naming the recipient; a debit makes the recipient known to fraud scoring
+    public Transaction createTransferTransaction(String accountNumber, String description, Double amount, String type,
+                                                 Double balance, String recipientAccountNumber) {
         Transaction transaction = new Transaction();
         transaction.setAccountNumber(accountNumber);
         transaction.setDescription(description);
         transaction.setAmount(amount);
         transaction.setType(type);
         transaction.setBalance(balance);
+        transaction.setRecipientAccountNumber(recipientAccountNumber);
         transaction.setDate(LocalDateTime.now());
-        return saveTransaction(transaction);
+        Transaction saved = saveTransaction(transaction);
+        if ("Debit".equals(type)) {
+            accountProfileService.recordRecipient(accountNumber, recipientAccountNumber);
+        }
+        return saved;
     }
 
     // Get all transactions with pagination and sorting
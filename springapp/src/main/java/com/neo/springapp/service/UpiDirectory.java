@@ -0,0 +1,216 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.CurrentAccount;
+import com.neo.springapp.model.SalaryAccount;
+import com.neo.springapp.model.User;
+import com.neo.springapp.repository.CurrentAccountRepository;
+import com.neo.springapp.repository.SalaryAccountRepository;
+import com.neo.springapp.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UPI ID directory: resolves a VPA to its account across the savings, salary and current account
+ * tables, in that order, and caches the result.
+ *
+ * A hit costs one map lookup instead of up to three table probes. Entries expire after
+ * {@code app.upi.directory.ttl-seconds} and at most {@code app.upi.directory.max-entries} are kept.
+ * UPI setup, toggle and account status changes call {@link #invalidateAccount}, which drops the entry
+ * at once and again after the surrounding transaction commits; a reverse index from account number to
+ * its cached IDs keeps that proportional to the account's own IDs. Unknown IDs are not cached, so a newly
+ * created VPA resolves right away. Hits, misses and size are published as {@code upi.directory.*} metrics.
+ */
+@Service
+@Slf4j
+public class UpiDirectory {
+
+    private final UserRepository userRepository;
+    private final SalaryAccountRepository salaryAccountRepository;
+    private final CurrentAccountRepository currentAccountRepository;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Account number -> UPI IDs cached for it; entries are added and invalidated under this map's bin lock
+    private final ConcurrentHashMap<String, Set<String>> idsByAccount = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a lookup that raced with one does not cache what it read
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public UpiDirectory(UserRepository userRepository,
+                        SalaryAccountRepository salaryAccountRepository,
+                        CurrentAccountRepository currentAccountRepository,
+                        ObjectProvider<MeterRegistry> meterRegistry,
+                        @Value("${app.upi.directory.max-entries:100000}") int maxEntries,
+                        @Value("${app.upi.directory.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.salaryAccountRepository = salaryAccountRepository;
+        this.currentAccountRepository = currentAccountRepository;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = Math.max(1, ttlSeconds) * 1000L;
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            registry.gauge("upi.directory.size", entries, Map::size);
+            registry.gauge("upi.directory.hits", hits, AtomicLong::get);
+            registry.gauge("upi.directory.misses", misses, AtomicLong::get);
+            registry.gauge("upi.directory.hit_ratio", this, UpiDirectory::hitRatio);
+        }
+    }
+
+    /**
+     * A resolved UPI ID. {@code active} is false when the ID exists but cannot receive money, with
+     * {@code inactiveReason} saying why.
+     */
+    public record Entry(String upiId, String accountType, String accountNumber, String name,
+                        boolean active, String inactiveReason, long loadedAtMillis) {
+    }
+
+    /** Resolve a UPI ID (trimmed, case-insensitive); empty when no account has it. */
+    public Optional<Entry> resolve(String rawUpiId) {
+        if (rawUpiId == null || rawUpiId.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        String upiId = rawUpiId.trim().toLowerCase();
+        long now = System.currentTimeMillis();
+        Entry cached = entries.get(upiId);
+        if (cached != null && now - cached.loadedAtMillis() < ttlMillis) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+        misses.incrementAndGet();
+        long seen = generation.get();
+        Entry loaded = load(upiId, now);
+        if (loaded == null) {
+            unindex(entries.remove(upiId));
+            return Optional.empty();
+        }
+        if (loaded.accountNumber() == null) {
+            return Optional.of(loaded);
+        }
+        Entry[] previous = new Entry[1];
+        boolean[] stored = new boolean[1];
+        idsByAccount.compute(loaded.accountNumber(), (account, ids) -> {
+            // Checked under the account's bin lock, so an invalidation either sees this entry or stops it
+            if (generation.get() != seen) {
+                return ids;
+            }
+            Set<String> indexed = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            indexed.add(upiId);
+            previous[0] = entries.put(upiId, loaded);
+            stored[0] = true;
+            return indexed;
+        });
+        if (stored[0]) {
+            if (previous[0] == null) {
+                evictIfFull();
+            } else if (!loaded.accountNumber().equals(previous[0].accountNumber())) {
+                unindex(previous[0]); // the ID moved to another account
+            }
+        }
+        return Optional.of(loaded);
+    }
+
+    /** Forget every UPI ID of the account, now and once the current transaction commits. */
+    public void invalidateAccount(String accountNumber) {
+        if (accountNumber == null) {
+            return;
+        }
+        removeAccount(accountNumber);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeAccount(accountNumber);
+                }
+            });
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("accounts", idsByAccount.size());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("hitRatio", Math.round(hitRatio() * 1000) / 1000.0);
+        return stats;
+    }
+
+    private double hitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    private void removeAccount(String accountNumber) {
+        generation.incrementAndGet();
+        idsByAccount.computeIfPresent(accountNumber, (account, ids) -> {
+            for (String upiId : ids) {
+                entries.computeIfPresent(upiId, (id, e) -> account.equals(e.accountNumber()) ? null : e);
+            }
+            return null;
+        });
+    }
+
+    // Drop a removed entry's ID from its account's index
+    private void unindex(Entry removed) {
+        if (removed == null || removed.accountNumber() == null) {
+            return;
+        }
+        idsByAccount.computeIfPresent(removed.accountNumber(), (account, ids) -> {
+            Entry current = entries.get(removed.upiId());
+            if (current == null || !account.equals(current.accountNumber())) {
+                ids.remove(removed.upiId());
+            }
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private Entry load(String upiId, long now) {
+        Optional<User> userOpt = userRepository.findByUpiId(upiId);
+        if (userOpt.isPresent()) {
+            User u = userOpt.get();
+            String name = (u.getAccount() != null && u.getAccount().getName() != null)
+                    ? u.getAccount().getName() : u.getUsername();
+            boolean active = Boolean.TRUE.equals(u.getUpiEnabled());
+            return new Entry(upiId, BalancePostingService.SAVINGS, u.getAccountNumber(), name, active,
+                    active ? null : "UPI is disabled for this account", now);
+        }
+
+        SalaryAccount sa = salaryAccountRepository.findByUpiId(upiId);
+        if (sa != null) {
+            boolean active = Boolean.TRUE.equals(sa.getUpiEnabled());
+            return new Entry(upiId, BalancePostingService.SALARY, sa.getAccountNumber(), sa.getEmployeeName(), active,
+                    active ? null : "UPI not enabled for this account", now);
+        }
+
+        Optional<CurrentAccount> caOpt = currentAccountRepository.findByUpiId(upiId);
+        if (caOpt.isPresent()) {
+            CurrentAccount ca = caOpt.get();
+            String name = ca.getBusinessName() != null ? ca.getBusinessName() : ca.getOwnerName();
+            boolean active = "ACTIVE".equals(ca.getStatus()) && Boolean.TRUE.equals(ca.getUpiEnabled());
+            return new Entry(upiId, BalancePostingService.CURRENT, ca.getAccountNumber(), name, active,
+                    active ? null : "UPI not active for this account", now);
+        }
+        return null;
+    }
+
+    // Drop the oldest-loaded tenth once the directory is full
+    private void evictIfFull() {
+        if (StoreEviction.evictIfFull(entries, maxEntries, Entry::loadedAtMillis, null, this::unindex) > 0) {
+            log.debug("Evicted UPI directory entries; {} cached", entries.size());
+        }
+    }
+}
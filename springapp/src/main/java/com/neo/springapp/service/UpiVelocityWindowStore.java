@@ -0,0 +1,235 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Paise;
+import com.neo.springapp.repository.CurrentAccountUpiPaymentRepository;
+import com.neo.springapp.repository.SalaryUpiTransactionRepository;
+import com.neo.springapp.repository.SavingsUpiTransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory sliding-window UPI velocity per paying account, shared by the savings, salary and
+ * current account UPI flows.
+ *
+ * Each sender keeps a ring of {@link #RING_MINUTES} per-minute buckets holding the number of outgoing
+ * payments and their total in paise, so "how many / how much in the last N minutes" is a fixed-size
+ * scan instead of a read of the sender's history. Payments made inside a transaction are counted once
+ * it commits, so rolled-back payments never count. Senders are guarded by striped locks. The store is
+ * rebuilt from the last {@link #RETENTION_MINUTES} minutes of UPI records on startup; senders idle
+ * longer than that are swept, and at most {@code app.upi.velocity.max-senders} are kept.
+ */
+@Service
+@Slf4j
+public class UpiVelocityWindowStore {
+
+    /** Longest window answered by {@link #velocity}; payments older than this are forgotten. */
+    static final int RETENTION_MINUTES = 60;
+
+    private static final int RING_MINUTES = 64;
+    private static final int STRIPES = 64;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    private static final long MINUTE_MS = 60_000L;
+
+    private final SavingsUpiTransactionRepository savingsUpiRepository;
+    private final SalaryUpiTransactionRepository salaryUpiRepository;
+    private final CurrentAccountUpiPaymentRepository currentUpiRepository;
+    private final int maxSenders;
+    private final ConcurrentHashMap<String, SenderWindow> windows = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+
+    public UpiVelocityWindowStore(SavingsUpiTransactionRepository savingsUpiRepository,
+                                  SalaryUpiTransactionRepository salaryUpiRepository,
+                                  CurrentAccountUpiPaymentRepository currentUpiRepository,
+                                  @Value("${app.upi.velocity.max-senders:100000}") int maxSenders) {
+        this.savingsUpiRepository = savingsUpiRepository;
+        this.salaryUpiRepository = salaryUpiRepository;
+        this.currentUpiRepository = currentUpiRepository;
+        this.maxSenders = Math.max(1, maxSenders);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /** Payments and amount sent by an account inside a window. */
+    public record Velocity(int count, long amountPaise) {
+
+        public double amount() {
+            return Paise.toRupees(amountPaise);
+        }
+    }
+
+    public void record(String accountNumber, BigDecimal amount, long atMillis) {
+        record(accountNumber, Paise.ofRupees(amount), atMillis);
+    }
+
+    public void record(String accountNumber, Double amount, long atMillis) {
+        record(accountNumber, Paise.ofRupees(amount), atMillis);
+    }
+
+    /** Record an outgoing payment (or payment attempt) by {@code accountNumber} once its transaction commits. */
+    public void record(String accountNumber, long amountPaise, long atMillis) {
+        if (accountNumber == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(accountNumber, amountPaise, atMillis);
+                }
+            });
+        } else {
+            apply(accountNumber, amountPaise, atMillis);
+        }
+    }
+
+    private void apply(String accountNumber, long amountPaise, long atMillis) {
+        boolean added;
+        synchronized (stripeFor(accountNumber)) {
+            SenderWindow window = windows.get(accountNumber);
+            added = window == null;
+            if (added) {
+                window = new SenderWindow();
+                windows.put(accountNumber, window);
+            }
+            window.record(amountPaise, atMillis);
+        }
+        if (added) {
+            evictIfFull();
+        }
+    }
+
+    /**
+     * Payments recorded for the account in the last {@code minutes} minutes (at most
+     * {@link #RETENTION_MINUTES}). Counts whole minute buckets: the current minute and the
+     * {@code minutes - 1} before it.
+     */
+    public Velocity velocity(String accountNumber, int minutes, long nowMillis) {
+        if (accountNumber == null || minutes <= 0) {
+            return new Velocity(0, 0L);
+        }
+        long toMinute = Math.floorDiv(nowMillis, MINUTE_MS);
+        long fromMinute = toMinute - Math.min(minutes, RETENTION_MINUTES) + 1;
+        synchronized (stripeFor(accountNumber)) {
+            SenderWindow window = windows.get(accountNumber);
+            return window == null ? new Velocity(0, 0L) : window.sum(fromMinute, toMinute);
+        }
+    }
+
+    public int getTrackedSenderCount() {
+        return windows.size();
+    }
+
+    /** Replay the retention window from the UPI tables so velocity checks survive a restart. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now().minusMinutes(RETENTION_MINUTES);
+        try {
+            int replayed = replay(since, savingsUpiRepository::findVelocityRowsSince)
+                    + replay(since, salaryUpiRepository::findVelocityRowsSince)
+                    + replay(since, currentUpiRepository::findVelocityRowsSince);
+            log.info("UPI velocity windows rebuilt from {} payments ({} senders)", replayed, windows.size());
+        } catch (Exception e) {
+            // Checks still work; they just start without the last hour of history
+            log.warn("Could not rebuild UPI velocity windows: {}", e.getMessage());
+        }
+    }
+
+    // Rows are (id, senderAccountNumber, amount, createdAt), keyset-paged by id
+    private int replay(LocalDateTime since, PageQuery query) {
+        ZoneId zone = ZoneId.systemDefault();
+        long afterId = 0;
+        int replayed = 0;
+        while (true) {
+            List<Object[]> page = query.apply(since, afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+            for (Object[] row : page) {
+                afterId = (Long) row[0];
+                LocalDateTime createdAt = (LocalDateTime) row[3];
+                if (createdAt != null) {
+                    long paise = row[2] instanceof BigDecimal amount ? Paise.ofRupees(amount) : Paise.ofRupees((Double) row[2]);
+                    record((String) row[1], paise, createdAt.atZone(zone).toInstant().toEpochMilli());
+                    replayed++;
+                }
+            }
+            if (page.size() < REBUILD_PAGE_SIZE) {
+                return replayed;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageQuery {
+        List<Object[]> apply(LocalDateTime since, Long afterId, Pageable pageable);
+    }
+
+    /** Drop senders with nothing left inside the retention window. */
+    @Scheduled(initialDelayString = "${app.upi.velocity.sweep-interval-ms:300000}",
+               fixedDelayString = "${app.upi.velocity.sweep-interval-ms:300000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - (RETENTION_MINUTES + 1) * MINUTE_MS;
+        StoreEviction.evictBefore(windows, cutoff, w -> w.lastPaymentMillis, this::stripeFor, null);
+    }
+
+    // Drop the least recently active tenth once the store is full
+    private void evictIfFull() {
+        if (StoreEviction.evictIfFull(windows, maxSenders, w -> w.lastPaymentMillis, this::stripeFor, null) > 0) {
+            log.debug("Evicted UPI velocity windows; {} tracked", windows.size());
+        }
+    }
+
+    private Object stripeFor(String accountNumber) {
+        return stripes[(accountNumber.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    /** Per-sender state; only touched under the sender's stripe lock. */
+    private static final class SenderWindow {
+
+        private final long[] minutes = new long[RING_MINUTES];
+        private final int[] counts = new int[RING_MINUTES];
+        private final long[] amounts = new long[RING_MINUTES];
+
+        private volatile long lastPaymentMillis;
+
+        void record(long amountPaise, long atMillis) {
+            long minute = Math.floorDiv(atMillis, MINUTE_MS);
+            int slot = (int) Math.floorMod(minute, (long) RING_MINUTES);
+            if (minutes[slot] != minute) {
+                if (minutes[slot] > minute) {
+                    return; // older than the ring
+                }
+                minutes[slot] = minute;
+                counts[slot] = 0;
+                amounts[slot] = 0L;
+            }
+            counts[slot]++;
+            amounts[slot] = Paise.add(amounts[slot], amountPaise);
+            lastPaymentMillis = Math.max(lastPaymentMillis, atMillis);
+        }
+
+        Velocity sum(long fromMinute, long toMinute) {
+            int count = 0;
+            long amount = 0L;
+            for (int slot = 0; slot < RING_MINUTES; slot++) {
+                if (minutes[slot] >= fromMinute && minutes[slot] <= toMinute) {
+                    count += counts[slot];
+                    amount = Paise.add(amount, amounts[slot]);
+                }
+            }
+            return new Velocity(count, amount);
+        }
+    }
+}
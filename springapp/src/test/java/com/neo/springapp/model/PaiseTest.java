@@ -0,0 +1,51 @@
+package com.neo.springapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaiseTest {
+
+    @Test
+    void applyRateMatchesBigDecimalHalfUpForGatewayFees() {
+        BigDecimal feeRate = new BigDecimal("0.02");
+        BigDecimal gstRate = new BigDecimal("0.18");
+        for (long amountPaise = 1; amountPaise <= 200_000; amountPaise += 7) {
+            BigDecimal amount = BigDecimal.valueOf(amountPaise, 2);
+            BigDecimal fee = amount.multiply(feeRate).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal tax = fee.multiply(gstRate).setScale(2, RoundingMode.HALF_UP);
+
+            long feePaise = Paise.applyRate(amountPaise, 200);
+            long taxPaise = Paise.applyRate(feePaise, 1800);
+
+            assertEquals(fee, Paise.toBigDecimal(feePaise));
+            assertEquals(tax, Paise.toBigDecimal(taxPaise));
+        }
+    }
+
+    @Test
+    void monthlyRateMatchesBigDecimalHalfUpForFdInterest() {
+        BigDecimal monthsTimesPercent = new BigDecimal("1200");
+        for (long principalPaise = 100_000; principalPaise <= 50_000_000; principalPaise += 99_991) {
+            for (String rate : new String[]{"4.0", "6.5", "7.25", "8.0"}) {
+                BigDecimal expected = BigDecimal.valueOf(principalPaise, 2).multiply(new BigDecimal(rate))
+                        .divide(monthsTimesPercent, 2, RoundingMode.HALF_UP);
+                long interest = Paise.applyRate(principalPaise, Paise.basisPoints(Double.parseDouble(rate)), 12);
+                assertEquals(expected, Paise.toBigDecimal(interest));
+            }
+        }
+    }
+
+    @Test
+    void convertsAndFormatsRupees() {
+        assertEquals(1999L, Paise.ofRupees(19.99));
+        assertEquals(30L, Paise.ofRupees(0.1 + 0.2));
+        assertEquals(12345L, Paise.ofRupees(new BigDecimal("123.45")));
+        assertEquals("123.45", Paise.format(12345L));
+        assertEquals("-0.05", Paise.format(-5L));
+        assertThrows(ArithmeticException.class, () -> Paise.add(Long.MAX_VALUE, 1L));
+    }
+}
@@ -0,0 +1,56 @@
+package com.neo.springapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountActivityProfileTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+    private static final long DAY = 24 * HOUR;
+    private static final long NOW = 1_790_000_000_000L;
+
+    @Test
+    void rollingWindowsDropOldDebits() {
+        AccountActivityProfile profile = new AccountActivityProfile();
+        profile.recordDebit(10_000, NOW - 2 * HOUR);
+        profile.recordDebit(20_000, NOW - 30 * HOUR);
+        profile.recordDebit(40_000, NOW - 10 * DAY);
+        profile.recordDebit(80_000, NOW - 100 * DAY); // older than the ring
+
+        assertEquals(10_000, profile.debitsLast24h(NOW));
+        assertEquals(30_000, profile.debitsLastDays(7, NOW));
+        assertEquals(70_000, profile.debitsLastDays(90, NOW));
+        assertEquals(0, profile.debitsLast24h(NOW + 2 * DAY));
+    }
+
+    @Test
+    void welfordMatchesTwoPassMeanAndVariance() {
+        AccountActivityProfile profile = new AccountActivityProfile();
+        long[] amounts = {1_000, 2_500, 9_999, 50_000, 123, 7_777, 2_500};
+        double sum = 0;
+        for (long amount : amounts) {
+            profile.recordDebit(amount, NOW);
+            sum += amount;
+        }
+        double mean = sum / amounts.length;
+        double squares = 0;
+        for (long amount : amounts) {
+            squares += (amount - mean) * (amount - mean);
+        }
+        assertEquals(mean, profile.getMeanDebit(), 1e-9);
+        assertEquals(Math.sqrt(squares / (amounts.length - 1)), profile.getDebitStdDev(), 1e-9);
+    }
+
+    @Test
+    void remembersRecipientsAcrossGrowth() {
+        AccountActivityProfile profile = new AccountActivityProfile();
+        for (int i = 0; i < 500; i++) {
+            profile.addRecipient("ACC" + i);
+        }
+        for (int i = 0; i < 500; i++) {
+            assertTrue(profile.knowsRecipient("ACC" + i));
+        }
+        assertFalse(profile.knowsRecipient("ACC-unknown"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Transaction;
+import com.neo.springapp.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AccountProfileServiceTest {
+
+    @Autowired
+    private AccountProfileService accountProfileService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void recipientIsKnownOnlyAfterTheDebitCommitsAndSurvivesARestart() {
+        String sender = "PROFTEST0001";
+        String recipient = "PROFTEST0002";
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        assertFalse(accountProfileService.profileFor(sender).knowsRecipient(recipient));
+
+        tx.executeWithoutResult(status -> {
+            transactionService.createTransferTransaction(sender, "Transfer", 250.0, "Debit", 750.0, recipient);
+            assertFalse(accountProfileService.profileFor(sender).knowsRecipient(recipient));
+            status.setRollbackOnly();
+        });
+        assertFalse(accountProfileService.profileFor(sender).knowsRecipient(recipient));
+
+        tx.executeWithoutResult(status ->
+                transactionService.createTransferTransaction(sender, "Transfer", 250.0, "Debit", 750.0, recipient));
+        assertTrue(accountProfileService.profileFor(sender).knowsRecipient(recipient));
+
+        // A fresh cache (as after a restart) rebuilds the recipient from the saved transfer row
+        AccountProfileService restarted = new AccountProfileService(transactionRepository, 100);
+        assertTrue(restarted.profileFor(sender).knowsRecipient(recipient));
+    }
+
+    @Test
+    void debitCommittedWhileTheBaselineLoadsIsNotLost() {
+        TransactionRepository repository = mock(TransactionRepository.class);
+        AccountProfileService[] service = new AccountProfileService[1];
+        service[0] = new AccountProfileService(repository, 100);
+        // The debit commits after the baseline query's snapshot, before the profile is published
+        when(repository.findByAccountNumberAndDateBetweenOrderByDateDesc(eq("PROFTEST0003"), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    service[0].recordDebit("PROFTEST0003", 500.0);
+                    service[0].recordRecipient("PROFTEST0003", "PROFTEST0004");
+                    Page<Transaction> empty = new PageImpl<>(List.of());
+                    return empty;
+                });
+
+        AccountActivityProfile profile = service[0].profileFor("PROFTEST0003");
+
+        assertEquals(50_000L, profile.debitsLast24h(System.currentTimeMillis()));
+        assertTrue(profile.knowsRecipient("PROFTEST0004"));
+        service[0].recordDebit("PROFTEST0003", 100.0);
+        assertEquals(60_000L, service[0].profileFor("PROFTEST0003").debitsLast24h(System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,116 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Account;
+import com.neo.springapp.model.Loan;
+import com.neo.springapp.model.Transaction;
+import com.neo.springapp.repository.AccountRepository;
+import com.neo.springapp.repository.LoanRepository;
+import com.neo.springapp.repository.TransactionRepository;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.bulk-export.excel-sheet-rows=200")
+@ActiveProfiles("test")
+class AdminBulkExportServiceTest {
+
+    @Autowired
+    private AdminBulkExportService adminBulkExportService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void streamsEveryAccountAcrossBatches() throws Exception {
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < 105; i++) {
+            String suffix = String.format("%03d", i);
+            Account account = new Account();
+            account.setName("Export User " + suffix);
+            account.setAccountNumber("BULKEXP00" + suffix);
+            account.setAadharNumber("555500000" + suffix);
+            account.setPan("BULKE" + suffix + "Q");
+            account.setPhone("9555000" + suffix);
+            account.setBalance(100.0 + i);
+            accountRepository.save(account);
+            accountNumbers.add(account.getAccountNumber());
+        }
+        Loan loan = new Loan();
+        loan.setAccountNumber("BULKEXP00104");
+        loan.setType("Personal");
+        loan.setAmount(50_000.0);
+        loan.setStatus("Approved");
+        loanRepository.save(loan);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        adminBulkExportService.writeExcel(adminBulkExportService.sanitizeAccountNumbersForExcel(accountNumbers), "tester", out);
+
+        try (Workbook wb = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet summary = wb.getSheet("Users Summary");
+            assertEquals(3 + 105 - 1, summary.getLastRowNum()); // two meta rows + header + one row per account
+            assertEquals("BULKEXP00000", summary.getRow(3).getCell(0).getStringCellValue());
+            assertEquals("Export User 104", summary.getRow(107).getCell(1).getStringCellValue());
+            assertEquals(204.0, summary.getRow(107).getCell(3).getNumericCellValue());
+            assertEquals(1.0, summary.getRow(107).getCell(6).getNumericCellValue());
+
+            Sheet loans = wb.getSheet("Loans");
+            assertEquals(1, loans.getLastRowNum());
+            assertEquals("BULKEXP00104", loans.getRow(1).getCell(0).getStringCellValue());
+        }
+    }
+
+    @Test
+    void continuesAFullSheetOnANumberedSheet() throws Exception {
+        List<String> accountNumbers = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+        for (int i = 0; i < 5; i++) {
+            String accountNumber = "BULKROLL0" + i;
+            // The first account has more than the per-account cap; only its latest are exported
+            int count = i == 0 ? 55 : 50;
+            for (int n = 0; n < count; n++) {
+                Transaction txn = new Transaction();
+                txn.setAccountNumber(accountNumber);
+                txn.setType("Credit");
+                txn.setAmount((double) n);
+                txn.setDate(start.plusMinutes(n));
+                transactionRepository.save(txn);
+            }
+            accountNumbers.add(accountNumber);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        adminBulkExportService.writeExcel(accountNumbers, "tester", out);
+
+        try (Workbook wb = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet first = wb.getSheet("Transactions");
+            Sheet second = wb.getSheet("Transactions (2)");
+            assertNotNull(second);
+            assertNull(wb.getSheet("Transactions (3)"));
+            assertEquals(199, first.getLastRowNum()); // header + 199 of the 250 rows
+            assertEquals(51, second.getLastRowNum()); // header + the remaining 51
+            assertEquals("Account #", second.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("BULKROLL00", first.getRow(1).getCell(0).getStringCellValue());
+            assertEquals(54.0, first.getRow(1).getCell(3).getNumericCellValue());
+            assertEquals(5.0, first.getRow(50).getCell(3).getNumericCellValue());
+            assertEquals("BULKROLL04", second.getRow(51).getCell(0).getStringCellValue());
+        }
+    }
+}
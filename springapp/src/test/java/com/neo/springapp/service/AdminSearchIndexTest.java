@@ -0,0 +1,90 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Account;
+import com.neo.springapp.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AdminSearchIndexTest {
+
+    @Autowired
+    private AdminSearchIndex adminSearchIndex;
+
+    @Autowired
+    private AdminSearchService adminSearchService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void partialMatchesFollowEntityChanges() throws InterruptedException {
+        for (int i = 0; i < 100 && !adminSearchIndex.isReady(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(adminSearchIndex.isReady());
+
+        Account account = new Account();
+        account.setName("Zephyrine Quixbottom");
+        account.setAccountNumber("IDXSRCH00001");
+        account.setAadharNumber("888800001111");
+        account.setPan("IDXSR1234Q");
+        account.setPhone("9123400011");
+        account.setBalance(0.0);
+        account = accountRepository.save(account);
+
+        Map<String, Object> byName = adminSearchService.searchAll("phyrine");
+        List<Map<String, Object>> accounts = (List<Map<String, Object>>) byName.get("accounts");
+        assertEquals(1, accounts.size());
+        assertEquals("Name (Partial)", accounts.get(0).get("matchType"));
+
+        account.setName("Bartholomew Quixbottom");
+        accountRepository.save(account);
+
+        assertTrue(adminSearchIndex.candidates(AdminSearchIndex.DocType.ACCOUNT, "phyrine").isEmpty());
+        assertEquals(List.of(account.getId()), adminSearchIndex.candidates(AdminSearchIndex.DocType.ACCOUNT, "THOLOMEW"));
+        assertEquals(List.of(account.getId()), adminSearchIndex.candidates(AdminSearchIndex.DocType.ACCOUNT, "34000"));
+    }
+
+    @Test
+    void exactAndPrefixCandidatesComeFirstAndBalanceSavesKeepTheirPlace() throws InterruptedException {
+        for (int i = 0; i < 100 && !adminSearchIndex.isReady(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(adminSearchIndex.isReady());
+
+        Account substring = accountRepository.save(newAccount("Ulvaquorn Sten", "IDXSRCH00011", "888800002221", "IDXSR2221Q", "9123400021"));
+        Account laterSubstring = accountRepository.save(newAccount("Ulvaquorn Brell", "IDXSRCH00012", "888800002222", "IDXSR2222Q", "9123400022"));
+        Account prefix = accountRepository.save(newAccount("Vaquorn Mira", "IDXSRCH00013", "888800002223", "IDXSR2223Q", "9123400023"));
+        Account exact = accountRepository.save(newAccount("Vaquorn", "IDXSRCH00014", "888800002224", "IDXSR2224Q", "9123400024"));
+
+        assertEquals(List.of(exact.getId(), prefix.getId(), substring.getId(), laterSubstring.getId()),
+                adminSearchIndex.candidates(AdminSearchIndex.DocType.ACCOUNT, "vaquorn"));
+
+        // A balance-only save is not re-indexed, so the account keeps its position
+        substring.setBalance(500.0);
+        accountRepository.save(substring);
+        assertEquals(List.of(exact.getId(), prefix.getId(), substring.getId(), laterSubstring.getId()),
+                adminSearchIndex.candidates(AdminSearchIndex.DocType.ACCOUNT, "vaquorn"));
+    }
+
+    private static Account newAccount(String name, String accountNumber, String aadhar, String pan, String phone) {
+        Account account = new Account();
+        account.setName(name);
+        account.setAccountNumber(accountNumber);
+        account.setAadharNumber(aadhar);
+        account.setPan(pan);
+        account.setPhone(phone);
+        account.setBalance(0.0);
+        return account;
+    }
+}
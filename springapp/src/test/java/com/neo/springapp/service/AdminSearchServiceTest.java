@@ -0,0 +1,50 @@
+package com.neo.springapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AdminSearchServiceTest {
+
+    @Autowired
+    private AdminSearchService adminSearchService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fansOutEveryCategoryAndReportsTimings() {
+        Map<String, Object> results = adminSearchService.searchAll("nothing-matches-this");
+
+        assertEquals(true, results.get("success"));
+        Map<String, Long> timings = (Map<String, Long>) results.get("categoryTimingsMs");
+        assertEquals(26, timings.size());
+        assertEquals(List.of(), results.get("incompleteCategories"));
+        assertEquals(0, results.get("totalCount"));
+        for (String category : timings.keySet()) {
+            assertEquals(List.of(), results.get(category));
+        }
+        assertEquals(0, results.get("accountCount"));
+        assertEquals(0, results.get("accountApplicationCount"));
+    }
+
+    @Test
+    void streamsEachCategoryThenASummary() {
+        List<Map<String, Object>> events = new ArrayList<>();
+        List<Map<String, Object>> done = new ArrayList<>();
+
+        adminSearchService.searchAllStreaming("nothing-matches-this", events::add, done::add);
+
+        assertEquals(26, events.size());
+        assertTrue(events.stream().allMatch(e -> "OK".equals(e.get("status"))));
+        assertEquals(1, done.size());
+        assertEquals(0, done.get(0).get("totalCount"));
+    }
+}
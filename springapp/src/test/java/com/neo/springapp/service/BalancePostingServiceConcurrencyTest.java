@@ -0,0 +1,113 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Account;
+import com.neo.springapp.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BalancePostingServiceConcurrencyTest {
+
+    @Autowired
+    private BalancePostingService balancePostingService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private Account newAccount(String accountNumber, String suffix, double balance) {
+        Account account = new Account();
+        account.setName("Posting Test " + suffix);
+        account.setAccountNumber(accountNumber);
+        account.setAadharNumber("9999000000" + suffix);
+        account.setPan("POST" + suffix + "Z");
+        account.setPhone("90000000" + suffix);
+        account.setBalance(balance);
+        return accountRepository.save(account);
+    }
+
+    @Test
+    void tenThousandParallelDebitsAndCreditsLoseNoUpdates() throws Exception {
+        newAccount("STRESS000001", "01", 10_000.0);
+        int postings = 10_000;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Double>> work = new ArrayList<>(postings);
+        for (int i = 0; i < postings; i++) {
+            boolean debit = i % 2 == 0;
+            double amount = debit ? 1.0 : 2.0;
+            work.add(() -> debit
+                    ? balancePostingService.debit(BalancePostingService.SAVINGS, "STRESS000001", amount)
+                    : balancePostingService.credit(BalancePostingService.SAVINGS, "STRESS000001", amount));
+        }
+        for (Future<Double> result : pool.invokeAll(work)) {
+            assertNotNull(result.get());
+        }
+        pool.shutdown();
+
+        // 5,000 debits of 1 and 5,000 credits of 2
+        assertEquals(15_000.0, balancePostingService.currentBalance(BalancePostingService.SAVINGS, "STRESS000001"));
+    }
+
+    @Test
+    void parallelDebitsNeverOverdraw() throws Exception {
+        newAccount("STRESS000002", "02", 100.0);
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Void>> work = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            work.add(() -> {
+                if (balancePostingService.debit(BalancePostingService.SAVINGS, "STRESS000002", 1.0) != null) {
+                    accepted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        for (Future<Void> result : pool.invokeAll(work)) {
+            result.get();
+        }
+        pool.shutdown();
+
+        assertEquals(100, accepted.get());
+        assertEquals(0.0, balancePostingService.currentBalance(BalancePostingService.SAVINGS, "STRESS000002"));
+    }
+
+    @Test
+    void inactiveSavingsAccountIsRejected() {
+        Account account = newAccount("STRESS000003", "03", 500.0);
+        account.setStatus("CLOSED");
+        accountRepository.save(account);
+
+        assertThrows(RuntimeException.class,
+                () -> balancePostingService.debit(BalancePostingService.SAVINGS, "STRESS000003", 10.0));
+        assertNull(balancePostingService.debit(BalancePostingService.SAVINGS, "NO-SUCH-ACCOUNT", 10.0));
+    }
+
+    @Test
+    void paisePostingsStayExactOnTheDecimalColumn() {
+        newAccount("STRESS000004", "04", 0.0);
+        for (int i = 0; i < 1_000; i++) {
+            assertNotEquals(BalancePostingService.NOT_POSTED,
+                    balancePostingService.creditPaise(BalancePostingService.SAVINGS, "STRESS000004", 10));
+        }
+        // A thousand 0.10 credits summed in double would drift off 100.00
+        assertEquals(10_000L, balancePostingService.debitPaise(BalancePostingService.SAVINGS, "STRESS000004", 0));
+        assertEquals(7_001L, balancePostingService.debitPaise(BalancePostingService.SAVINGS, "STRESS000004", 2_999));
+        assertEquals(BalancePostingService.NOT_POSTED,
+                balancePostingService.debitPaise(BalancePostingService.SAVINGS, "STRESS000004", 7_002));
+        assertEquals(70.01, balancePostingService.currentBalance(BalancePostingService.SAVINGS, "STRESS000004"));
+        assertEquals(BalancePostingService.NOT_POSTED,
+                balancePostingService.creditPaise(BalancePostingService.SAVINGS, "NO-SUCH-ACCOUNT", 10));
+    }
+}
@@ -0,0 +1,144 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Account;
+import com.neo.springapp.model.HouseAccountShard;
+import com.neo.springapp.repository.AccountRepository;
+import com.neo.springapp.repository.HouseAccountShardRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.batch.charges.chunk-size=7")
+@ActiveProfiles("test")
+class ChargeBatchEngineTest {
+
+    @Autowired
+    private ChargeBatchEngine chargeBatchEngine;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalancePostingService balancePostingService;
+
+    @Autowired
+    private HouseAccountLedgerService houseAccountLedgerService;
+
+    @Autowired
+    private HouseAccountShardRepository shardRepository;
+
+    private void newAccounts(String prefix, int count) {
+        for (int i = 0; i < count; i++) {
+            String suffix = String.format("%02d", i);
+            Account account = new Account();
+            account.setName("Batch Test " + prefix + suffix);
+            account.setAccountNumber(prefix + suffix);
+            account.setAadharNumber("8888" + prefix.substring(prefix.length() - 4) + "00" + suffix);
+            account.setPan("BAT" + prefix.substring(prefix.length() - 4) + suffix);
+            account.setPhone("80" + prefix.substring(prefix.length() - 4) + "00" + suffix);
+            account.setBalance(1000.0);
+            accountRepository.save(account);
+        }
+    }
+
+    @Test
+    void chargesEveryAccountOnceAndSkipsCompletedPeriod() {
+        newAccounts("BATCHA0001", 30);
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        ChargeBatchEngine.AccountStep step = account -> {
+            calls.computeIfAbsent(account.getAccountNumber(), k -> new AtomicInteger()).incrementAndGet();
+            return ChargeBatchEngine.Outcome.SUCCESS;
+        };
+
+        Map<String, Object> first = chargeBatchEngine.run("TEST_ONCE", YearMonth.of(2026, 1), step);
+        assertEquals(ChargeBatchEngine.STATUS_COMPLETED, first.get("status"));
+        for (int i = 0; i < 30; i++) {
+            assertEquals(1, calls.get(String.format("BATCHA0001%02d", i)).get());
+        }
+
+        Map<String, Object> second = chargeBatchEngine.run("TEST_ONCE", YearMonth.of(2026, 1), step);
+        assertEquals(ChargeBatchEngine.STATUS_COMPLETED, second.get("status"));
+        assertTrue(calls.values().stream().allMatch(c -> c.get() == 1));
+    }
+
+    @Test
+    void resumeChargesOnlyAccountsOutsideCommittedChunks() {
+        newAccounts("BATCHB0002", 20);
+        Set<String> broken = ConcurrentHashMap.newKeySet();
+        broken.add("BATCHB000205");
+        // Charges go through the posting engine, so a rolled-back chunk leaves no trace
+        ChargeBatchEngine.AccountStep step = account -> {
+            if (!account.getAccountNumber().startsWith("BATCHB0002")) {
+                return ChargeBatchEngine.Outcome.SKIPPED;
+            }
+            balancePostingService.debit(BalancePostingService.SAVINGS, account.getAccountNumber(), 10.0);
+            if (broken.contains(account.getAccountNumber())) {
+                throw new IllegalStateException("simulated failure");
+            }
+            return ChargeBatchEngine.Outcome.SUCCESS;
+        };
+
+        Map<String, Object> first = chargeBatchEngine.run("TEST_RESUME", YearMonth.of(2026, 2), step);
+        assertEquals(ChargeBatchEngine.STATUS_INCOMPLETE, first.get("status"));
+        assertEquals(1000.0, balanceOf("BATCHB000205"));
+
+        broken.clear();
+        Map<String, Object> second = chargeBatchEngine.run("TEST_RESUME", YearMonth.of(2026, 2), step);
+        assertEquals(ChargeBatchEngine.STATUS_COMPLETED, second.get("status"));
+        assertEquals(2, second.get("attempts"));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(990.0, balanceOf(String.format("BATCHB0002%02d", i)));
+        }
+    }
+
+    @Test
+    void postsChunkHouseCreditsOncePerShard() {
+        newAccounts("BATCHC0003", 20);
+        newAccounts("BATCHH0004", 1);
+        String house = "BATCHH000400";
+        for (int i = 0; i < houseAccountLedgerService.getShardCount(); i++) {
+            shardRepository.save(new HouseAccountShard(house, i));
+        }
+        AtomicInteger chunks = new AtomicInteger();
+        ChargeBatchEngine.ChunkStepFactory steps = () -> new ChargeBatchEngine.ChunkStep() {
+            final HouseAccountLedgerService.PendingCredits credits = houseAccountLedgerService.newPendingCredits();
+
+            @Override
+            public ChargeBatchEngine.Outcome apply(Account account) {
+                if (!account.getAccountNumber().startsWith("BATCHC0003")) {
+                    return ChargeBatchEngine.Outcome.SKIPPED;
+                }
+                balancePostingService.debit(BalancePostingService.SAVINGS, account.getAccountNumber(), 10.0);
+                credits.add(house, 10.0, account.getAccountNumber());
+                return ChargeBatchEngine.Outcome.SUCCESS;
+            }
+
+            @Override
+            public void complete() {
+                chunks.incrementAndGet();
+                houseAccountLedgerService.post(credits);
+            }
+        };
+
+        Map<String, Object> result = chargeBatchEngine.runChunked("TEST_HOUSE", YearMonth.of(2026, 3), steps);
+        assertEquals(ChargeBatchEngine.STATUS_COMPLETED, result.get("status"));
+        assertTrue(chunks.get() >= 3);
+        // Credits sit in the shards until folded
+        assertEquals(1000.0, balanceOf(house));
+        assertEquals(1200.0, houseAccountLedgerService.getEffectiveBalance(house));
+        assertEquals(1200.0, houseAccountLedgerService.fold(house));
+    }
+
+    private Double balanceOf(String accountNumber) {
+        return balancePostingService.currentBalance(BalancePostingService.SAVINGS, accountNumber);
+    }
+}
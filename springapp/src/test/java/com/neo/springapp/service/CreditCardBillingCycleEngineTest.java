@@ -0,0 +1,125 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.CreditCard;
+import com.neo.springapp.model.CreditCardBill;
+import com.neo.springapp.model.CreditCardTransaction;
+import com.neo.springapp.repository.CreditCardBillRepository;
+import com.neo.springapp.repository.CreditCardRepository;
+import com.neo.springapp.repository.CreditCardTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.credit-card.billing.chunk-size=2")
+@ActiveProfiles("test")
+class CreditCardBillingCycleEngineTest {
+
+    @Autowired
+    private CreditCardBillingCycleEngine engine;
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Autowired
+    private CreditCardBillRepository billRepository;
+
+    @Autowired
+    private CreditCardTransactionRepository transactionRepository;
+
+    @Test
+    void billsEachDueCardOncePerCycle() {
+        LocalDate today = LocalDate.of(2031, 7, 1);
+        CreditCard statementToday = card("4000222233334441", "Active", 12_000.0, today.atStartOfDay());
+        CreditCard behind = card("4000222233334442", "Active", 0.0, LocalDate.of(2031, 6, 15).atStartOfDay());
+        CreditCard notYet = card("4000222233334443", "Active", 500.0, LocalDate.of(2031, 7, 15).atStartOfDay());
+        CreditCard blocked = card("4000222233334444", "Blocked", 500.0, today.atStartOfDay());
+        CreditCard unscheduled = card("4000222233334445", "Active", 800.0, null);
+        unscheduled.setApprovalDate(LocalDateTime.of(2031, 3, 10, 11, 0));
+        unscheduled = creditCardRepository.save(unscheduled);
+        CreditCard billedOnDemand = card("4000222233334446", "Active", 900.0, today.atStartOfDay());
+        CreditCardBill onDemand = new CreditCardBill();
+        onDemand.setCreditCardId(billedOnDemand.getId());
+        onDemand.setTotalAmount(900.0);
+        onDemand.setBillingCycle("2031-07");
+        billRepository.save(onDemand);
+
+        transaction(statementToday, "Purchase", 3_000.0, LocalDateTime.of(2031, 6, 5, 12, 0));
+        transaction(statementToday, "Fee", 100.0, LocalDateTime.of(2031, 6, 20, 9, 0));
+        transaction(statementToday, "Payment", 1_000.0, LocalDateTime.of(2031, 6, 25, 18, 30));
+        transaction(statementToday, "Purchase", 700.0, LocalDateTime.of(2031, 5, 20, 12, 0)); // previous cycle
+        transaction(statementToday, "Purchase", 250.0, LocalDateTime.of(2031, 7, 1, 10, 0)); // next cycle
+
+        Map<String, Object> first = engine.runCycle(today);
+        assertEquals(true, first.get("success"));
+        assertEquals(3, first.get("billsGenerated"));
+        assertEquals(1, first.get("alreadyBilled"));
+        assertEquals(1, first.get("cardsScheduled"));
+        assertEquals(0, first.get("failureCount"));
+
+        CreditCardBill bill = onlyBill(statementToday);
+        assertEquals("2031-07", bill.getBillingCycle());
+        assertEquals(12_000.0, bill.getTotalAmount());
+        assertEquals(600.0, bill.getMinimumDue());
+        assertEquals(3_100.0, bill.getPurchaseAmount());
+        assertEquals(1_000.0, bill.getPaymentAmount());
+        assertEquals(3, bill.getTransactionCount());
+        assertEquals(LocalDate.of(2031, 7, 22).atStartOfDay(), bill.getDueDate());
+        assertEquals("Generated", bill.getStatus());
+        assertEquals(LocalDate.of(2031, 8, 1).atStartOfDay(), nextBillingDate(statementToday));
+
+        assertEquals("2031-06", onlyBill(behind).getBillingCycle());
+        assertEquals(0, onlyBill(behind).getTransactionCount());
+        assertEquals(LocalDate.of(2031, 7, 15).atStartOfDay(), nextBillingDate(behind));
+        assertEquals("2031-06", onlyBill(unscheduled).getBillingCycle()); // approved on the 10th
+        assertEquals(LocalDate.of(2031, 7, 10).atStartOfDay(), nextBillingDate(unscheduled));
+        assertTrue(billRepository.findByCreditCardId(notYet.getId()).isEmpty());
+        assertTrue(billRepository.findByCreditCardId(blocked.getId()).isEmpty());
+        assertEquals(1, billRepository.findByCreditCardId(billedOnDemand.getId()).size());
+        assertEquals(LocalDate.of(2031, 8, 1).atStartOfDay(), nextBillingDate(billedOnDemand));
+
+        Map<String, Object> rerun = engine.runCycle(today);
+        assertEquals(0, rerun.get("billsGenerated"));
+        assertEquals(0, rerun.get("alreadyBilled"));
+        assertEquals(1, billRepository.findByCreditCardId(statementToday.getId()).size());
+    }
+
+    private CreditCard card(String cardNumber, String status, double balance, LocalDateTime nextBillingDate) {
+        CreditCard card = new CreditCard();
+        card.setCardNumber(cardNumber);
+        card.setAccountNumber("CCBILL" + cardNumber.substring(12));
+        card.setUserName("Statement Holder");
+        card.setStatus(status);
+        card.setApprovedLimit(50_000.0);
+        card.setCurrentBalance(balance);
+        card.setNextBillingDate(nextBillingDate);
+        return creditCardRepository.save(card);
+    }
+
+    private void transaction(CreditCard card, String type, double amount, LocalDateTime at) {
+        CreditCardTransaction transaction = new CreditCardTransaction();
+        transaction.setCreditCardId(card.getId());
+        transaction.setCardNumber(card.getCardNumber());
+        transaction.setTransactionType(type);
+        transaction.setAmount(amount);
+        transaction.setTransactionDate(at);
+        transactionRepository.save(transaction);
+    }
+
+    private CreditCardBill onlyBill(CreditCard card) {
+        List<CreditCardBill> bills = billRepository.findByCreditCardId(card.getId());
+        assertEquals(1, bills.size());
+        return bills.get(0);
+    }
+
+    private LocalDateTime nextBillingDate(CreditCard card) {
+        return creditCardRepository.findById(card.getId()).orElseThrow().getNextBillingDate();
+    }
+}
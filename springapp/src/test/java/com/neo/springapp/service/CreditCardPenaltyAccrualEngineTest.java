@@ -0,0 +1,99 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.CreditCard;
+import com.neo.springapp.model.CreditCardBill;
+import com.neo.springapp.repository.CreditCardBillRepository;
+import com.neo.springapp.repository.CreditCardPenaltyAccrualRepository;
+import com.neo.springapp.repository.CreditCardRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.credit-card.penalty.chunk-size=1")
+@ActiveProfiles("test")
+class CreditCardPenaltyAccrualEngineTest {
+
+    @Autowired
+    private CreditCardPenaltyAccrualEngine engine;
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Autowired
+    private CreditCardBillRepository billRepository;
+
+    @Autowired
+    private CreditCardPenaltyAccrualRepository accrualRepository;
+
+    @Test
+    void accruesPastDueBillsOncePerDay() {
+        LocalDate today = LocalDate.of(2031, 6, 15);
+        CreditCard overdueCard = card("4000111122223331");
+        CreditCard currentCard = card("4000111122223332");
+        CreditCardBill unpaid = bill(overdueCard, 10_000.0, null, today.minusDays(3), "Generated");
+        CreditCardBill partial = bill(overdueCard, 2_000.0, 500.0, today.minusDays(1), "Partial");
+        CreditCardBill notYetDue = bill(currentCard, 5_000.0, null, today.plusDays(5), "Generated");
+        CreditCardBill paid = bill(currentCard, 3_000.0, 3_000.0, today.minusDays(10), "Paid");
+
+        Map<String, Object> first = engine.accrue(today);
+        assertEquals(true, first.get("success"));
+        assertEquals(2, first.get("billsAccrued"));
+        assertEquals(2, first.get("newlyOverdue"));
+        assertEquals(630.0, first.get("penaltyAccrued")); // 2% of 10,000 for 3 days + 2% of 1,500 for 1 day
+        assertEquals(2, first.get("chunks"));
+
+        CreditCardBill unpaidAfter = billRepository.findById(unpaid.getId()).orElseThrow();
+        assertEquals("Overdue", unpaidAfter.getStatus());
+        assertEquals(600.0, unpaidAfter.getPenalty());
+        assertEquals(500.0, unpaidAfter.getFine());
+        assertEquals(10_000.0, unpaidAfter.getOverdueAmount());
+        assertEquals(today, unpaidAfter.getPenaltyAccruedThrough());
+        assertEquals(1_500.0, billRepository.findById(partial.getId()).orElseThrow().getOverdueAmount());
+        assertEquals("Generated", billRepository.findById(notYetDue.getId()).orElseThrow().getStatus());
+        assertNull(billRepository.findById(paid.getId()).orElseThrow().getPenalty());
+
+        CreditCard cardAfter = creditCardRepository.findById(overdueCard.getId()).orElseThrow();
+        assertEquals(11_500.0, cardAfter.getOverdueAmount());
+        assertEquals(630.0, cardAfter.getPenalty());
+        assertEquals(1_000.0, cardAfter.getFine());
+
+        assertEquals(0, engine.accrue(today).get("billsAccrued"));
+
+        Map<String, Object> nextDay = engine.accrue(today.plusDays(1));
+        assertEquals(2, nextDay.get("billsAccrued"));
+        assertEquals(0, nextDay.get("newlyOverdue"));
+        CreditCardBill unpaidNextDay = billRepository.findById(unpaid.getId()).orElseThrow();
+        assertEquals(800.0, unpaidNextDay.getPenalty());
+        assertEquals(500.0, unpaidNextDay.getFine());
+        assertEquals(2, accrualRepository.findByBillIdOrderByAccrualDateDesc(unpaid.getId()).size());
+        assertEquals(800.0 + 60.0, creditCardRepository.findById(overdueCard.getId()).orElseThrow().getPenalty());
+    }
+
+    private CreditCard card(String cardNumber) {
+        CreditCard card = new CreditCard();
+        card.setCardNumber(cardNumber);
+        card.setAccountNumber("CCPEN" + cardNumber.substring(12));
+        card.setUserName("Penalty Holder");
+        card.setApprovedLimit(50_000.0);
+        card.setCurrentBalance(0.0);
+        return creditCardRepository.save(card);
+    }
+
+    private CreditCardBill bill(CreditCard card, double total, Double paid, LocalDate dueDate, String status) {
+        CreditCardBill bill = new CreditCardBill();
+        bill.setCreditCardId(card.getId());
+        bill.setCardNumber(card.getCardNumber());
+        bill.setAccountNumber(card.getAccountNumber());
+        bill.setTotalAmount(total);
+        bill.setPaidAmount(paid);
+        bill.setDueDate(dueDate.atTime(10, 0));
+        bill.setStatus(status);
+        return billRepository.save(bill);
+    }
+}
@@ -0,0 +1,170 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Account;
+import com.neo.springapp.model.AccountLastCharge;
+import com.neo.springapp.model.Card;
+import com.neo.springapp.model.Transaction;
+import com.neo.springapp.repository.AccountLastChargeRepository;
+import com.neo.springapp.repository.AccountRepository;
+import com.neo.springapp.repository.CardRepository;
+import com.neo.springapp.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Debit card charge eligibility over 100k accounts: the set-based keyset query the batch uses now
+ * vs the old pass that looked up cards and the last charge transaction for every ACTIVE account.
+ * Timing only, so it is left out of the default test run: mvn test -Pbenchmark -Dtest=DebitCardEligibilityBenchmark
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DebitCardEligibilityBenchmark {
+
+    private static final int ACCOUNTS = 100_000;
+    private static final int SEED_CHUNK = 1_000;
+    private static final int PAGE_SIZE = 500;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountLastChargeRepository accountLastChargeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void setBasedEligibilityVersusPerAccountLookups() {
+        seed();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        LocalDateTime cutoff = LocalDateTime.now().minusMonths(6);
+
+        // Warm both paths once so neither pays for query plan compilation in the timed run
+        tx.execute(status -> perAccountPass(1));
+        tx.execute(status -> setBasedPass(cutoff, 1));
+
+        long started = System.nanoTime();
+        int perAccount = tx.execute(status -> perAccountPass(Integer.MAX_VALUE));
+        long perAccountNanos = System.nanoTime() - started;
+
+        started = System.nanoTime();
+        int setBased = tx.execute(status -> setBasedPass(cutoff, Integer.MAX_VALUE));
+        long setBasedNanos = System.nanoTime() - started;
+
+        // Both passes must pick the same accounts, or the timing compares different work
+        assertEquals(perAccount, setBased);
+        assertTrue(setBased >= ACCOUNTS / 4);
+        System.out.printf("debit card eligibility over %d accounts (%d due): per-account %d ms, set-based %d ms%n",
+                ACCOUNTS, setBased, perAccountNanos / 1_000_000, setBasedNanos / 1_000_000);
+    }
+
+    // The pre-change step: two queries per ACTIVE account to find its debit card and last charge
+    private int perAccountPass(int maxPages) {
+        int due = 0;
+        long afterId = 0L;
+        for (int page = 0; page < maxPages; page++) {
+            List<Long> ids = accountRepository.findIdsByStatusAfter("ACTIVE", afterId, PageRequest.of(0, PAGE_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+            for (Account acc : accountRepository.findAllById(ids)) {
+                List<Card> cards = cardRepository.findByAccountNumber(acc.getAccountNumber());
+                if (cards.stream().noneMatch(c -> "Debit".equalsIgnoreCase(c.getCardType()))) {
+                    continue;
+                }
+                List<Transaction> lastCharge = transactionRepository.findByAccountNumberAndDescriptionContainingOrderByDateDesc(
+                        acc.getAccountNumber(), "Debit Card Charges", PageRequest.of(0, 1));
+                if (!lastCharge.isEmpty() && ChronoUnit.MONTHS.between(lastCharge.get(0).getDate(), LocalDateTime.now()) < 6) {
+                    continue;
+                }
+                due++;
+            }
+        }
+        return due;
+    }
+
+    // The batch's id source now: one keyset query per page returns only the accounts that are due
+    private int setBasedPass(LocalDateTime cutoff, int maxPages) {
+        int due = 0;
+        long afterId = 0L;
+        for (int page = 0; page < maxPages; page++) {
+            List<Long> ids = accountLastChargeRepository.findDebitCardHolderIdsDueAfter(
+                    AccountLastCharge.DEBIT_CARD, cutoff, afterId, PageRequest.of(0, PAGE_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+            due += accountRepository.findAllById(ids).size();
+        }
+        return due;
+    }
+
+    // Half the accounts hold a debit card; half of those were charged two months ago and are not due
+    private void seed() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        LocalDateTime charged = LocalDateTime.now().minusMonths(2);
+        for (int from = 0; from < ACCOUNTS; from += SEED_CHUNK) {
+            int start = from;
+            tx.executeWithoutResult(status -> {
+                List<Account> accounts = new ArrayList<>();
+                List<Card> cards = new ArrayList<>();
+                List<Transaction> charges = new ArrayList<>();
+                List<AccountLastCharge> lastCharges = new ArrayList<>();
+                for (int i = start; i < start + SEED_CHUNK; i++) {
+                    String accountNumber = String.format("BENCHDC%07d", i);
+                    Account account = new Account();
+                    account.setName("Eligibility Benchmark " + i);
+                    account.setAccountNumber(accountNumber);
+                    account.setAadharNumber(String.format("8%011d", i));
+                    account.setPan(String.format("BNCH%06d", i));
+                    account.setPhone(String.format("6%09d", i));
+                    account.setBalance(5000.0);
+                    accounts.add(account);
+                    if (i % 2 != 0) {
+                        continue;
+                    }
+                    Card card = new Card();
+                    card.setCardNumber(String.format("4000%012d", i));
+                    card.setCardType("Debit");
+                    card.setAccountNumber(accountNumber);
+                    cards.add(card);
+                    if (i % 4 == 0) {
+                        Transaction charge = new Transaction();
+                        charge.setAccountNumber(accountNumber);
+                        charge.setDescription("Debit Card Charges (6 months) - Rs 200");
+                        charge.setType("Debit");
+                        charge.setAmount(200.0);
+                        charge.setDate(charged);
+                        charge.setStatus("Completed");
+                        charges.add(charge);
+                        lastCharges.add(new AccountLastCharge(accountNumber, AccountLastCharge.DEBIT_CARD, charged));
+                    }
+                }
+                accountRepository.saveAll(accounts);
+                cardRepository.saveAll(cards);
+                transactionRepository.saveAll(charges);
+                accountLastChargeRepository.saveAll(lastCharges);
+            });
+        }
+    }
+}
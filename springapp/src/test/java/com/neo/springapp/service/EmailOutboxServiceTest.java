@@ -0,0 +1,243 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.EmailOutboxMessage;
+import com.neo.springapp.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.username=bank@neobank.test",
+        "spring.mail.password=secret",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "spring.mail.properties.mail.smtp.starttls.required=false",
+        "app.email.outbox.poll-interval-ms=200",
+        "app.email.outbox.retry-base-ms=100",
+        "app.email.outbox.max-attempts=3",
+        "app.email.outbox.recipient-limit-per-minute=2"
+})
+@ActiveProfiles("test")
+class EmailOutboxServiceTest {
+
+    private static final FakeSmtpServer SMTP = FakeSmtpServer.start();
+
+    @DynamicPropertySource
+    static void smtpPort(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.port", SMTP::port);
+    }
+
+    @AfterAll
+    static void stopSmtp() throws IOException {
+        SMTP.close();
+    }
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Test
+    void queuedAttachmentIsDeliveredAndRetriedAfterServerRejection() throws Exception {
+        SMTP.rejectNext.set(1);
+        byte[] pdf = "%PDF-1.7 statement".getBytes(StandardCharsets.US_ASCII);
+
+        assertTrue(emailService.sendBankStatementEmail("statement@example.com", "1234567890", "John Doe", pdf));
+
+        String delivered = SMTP.await("statement@example.com");
+        assertNotNull(delivered, "statement never reached the SMTP stand-in");
+        assertTrue(delivered.contains("Bank_Statement_1234567890_"));
+        assertTrue(delivered.contains("application/pdf"));
+
+        EmailOutboxMessage row = waitForStatus("statement@example.com", "SENT").get(0);
+        assertEquals(2, row.getAttempts()); // rejected once, then delivered
+        assertNull(row.getAttachment());
+        assertNull(row.getBody());
+    }
+
+    @Test
+    void recipientRateLimitDefersNormalMailButNotOtp() throws Exception {
+        String to = "busy@example.com";
+        for (int i = 0; i < 3; i++) {
+            assertTrue(emailService.sendLoginNotificationEmail(to, "busy", "2026-01-0" + (i + 1) + " 10:00"));
+        }
+        assertTrue(emailService.sendOtpEmail(to, "482913"));
+
+        int otps = 0;
+        for (int i = 0; i < 3; i++) {
+            String delivered = SMTP.await(to);
+            assertNotNull(delivered, "expected three deliveries, got " + i);
+            if (delivered.contains("482913")) {
+                otps++;
+            }
+        }
+        assertEquals(1, otps);
+        assertNull(SMTP.received.poll(500, TimeUnit.MILLISECONDS), "third notification should wait for the next minute");
+
+        List<EmailOutboxMessage> deferred = outboxRepository.findAll().stream()
+                .filter(m -> to.equals(m.getRecipient()) && "PENDING".equals(m.getStatus()))
+                .toList();
+        assertEquals(1, deferred.size());
+        assertEquals(0, deferred.get(0).getAttempts());
+        assertTrue(deferred.get(0).getNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void batchEnqueuedMailIsDrained() throws Exception {
+        List<EmailOutboxMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            EmailOutboxMessage message = new EmailOutboxMessage();
+            message.setRecipient("batch" + i + "@example.com");
+            message.setSubject("NeoBank - EMI Payment Reminder");
+            message.setBody("Reminder " + i);
+            batch.add(message);
+        }
+        assertEquals(3, emailOutboxService.enqueueBatch(EmailOutboxMessage.LANE_NORMAL, batch));
+
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(SMTP.await("batch" + i + "@example.com"), "batch mail " + i + " not delivered");
+            assertEquals(1, waitForStatus("batch" + i + "@example.com", "SENT").size());
+        }
+    }
+
+    private List<EmailOutboxMessage> waitForStatus(String recipient, String status) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            List<EmailOutboxMessage> rows = outboxRepository.findAll().stream()
+                    .filter(m -> recipient.equals(m.getRecipient()) && status.equals(m.getStatus()))
+                    .toList();
+            if (!rows.isEmpty()) {
+                return rows;
+            }
+            Thread.sleep(100);
+        }
+        fail("no " + status + " outbox row for " + recipient);
+        return List.of();
+    }
+
+    /**
+     * Minimal local SMTP server: accepts any sender and recipient, no AUTH or STARTTLS, and keeps the
+     * raw DATA of every accepted message. {@code rejectNext} makes the next messages fail with 451.
+     */
+    static final class FakeSmtpServer implements AutoCloseable {
+        final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        final AtomicInteger rejectNext = new AtomicInteger();
+        private final ServerSocket server;
+
+        private FakeSmtpServer(ServerSocket server) {
+            this.server = server;
+        }
+
+        static FakeSmtpServer start() {
+            try {
+                FakeSmtpServer smtp = new FakeSmtpServer(new ServerSocket(0));
+                Thread acceptor = new Thread(smtp::acceptLoop, "fake-smtp");
+                acceptor.setDaemon(true);
+                acceptor.start();
+                return smtp;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        // Takes the first message for the recipient, leaving the others queued
+        String await(String recipient) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (System.currentTimeMillis() < deadline) {
+                for (String message : received) {
+                    if (message.contains(recipient) && received.remove(message)) {
+                        return message;
+                    }
+                }
+                Thread.sleep(50);
+            }
+            return null;
+        }
+
+        private void acceptLoop() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    Thread session = new Thread(() -> converse(socket), "fake-smtp-session");
+                    session.setDaemon(true);
+                    session.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void converse(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                OutputStream out = socket.getOutputStream();
+                reply(out, "220 localhost fake ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("EHLO")) {
+                        reply(out, "250-localhost\r\n250 8BITMIME");
+                    } else if (command.startsWith("DATA")) {
+                        reply(out, "354 end with <CRLF>.<CRLF>");
+                        StringBuilder data = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            data.append(line).append('\n');
+                        }
+                        if (rejectNext.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                            reply(out, "451 try again later");
+                        } else {
+                            received.add(data.toString());
+                            reply(out, "250 queued");
+                        }
+                    } else if (command.startsWith("QUIT")) {
+                        reply(out, "221 bye");
+                        return;
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException ignored) {
+                // client went away
+            }
+        }
+
+        private static void reply(OutputStream out, String response) throws IOException {
+            out.write((response + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+}
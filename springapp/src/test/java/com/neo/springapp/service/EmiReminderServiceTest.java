@@ -0,0 +1,100 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.EmiPayment;
+import com.neo.springapp.model.Loan;
+import com.neo.springapp.repository.EmiPaymentRepository;
+import com.neo.springapp.repository.LoanRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EmiReminderServiceTest {
+
+    @Autowired
+    private EmiPaymentRepository emiPaymentRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void groupsEmisPerBorrowerAcrossChunksAndRemindsOnce() {
+        LocalDate today = LocalDate.of(2031, 5, 1);
+        Loan solo = loan("LNREM1", "a-solo@example.com", "Asha");
+        Loan first = loan("LNREM2", "b-multi@example.com", "Bala");
+        Loan second = loan("LNREM3", "b-multi@example.com", "Bala");
+        EmiPayment soloEmi = emi(solo, 4, today.plusDays(2), "Pending");
+        EmiPayment firstEmi = emi(first, 7, today.plusDays(3), "Pending");
+        EmiPayment secondEmi = emi(second, 2, today.plusDays(6), "Pending");
+        emi(second, 3, today.plusDays(36), "Pending"); // outside the window
+        emi(first, 6, today.plusDays(1), "Paid");
+
+        // Two rows per page: the first page ends on Bala's first EMI, which must wait for the next page
+        EmiReminderService service = new EmiReminderService(emiPaymentRepository, emailOutboxService, emailService,
+                transactionManager, 7, 2);
+        Map<String, Object> result = service.sendReminders(today);
+        assertEquals(2, result.get("emails"));
+        assertEquals(3, result.get("emis"));
+        assertEquals(2, result.get("chunks"));
+
+        for (EmiPayment emi : List.of(soloEmi, firstEmi, secondEmi)) {
+            assertNotNull(emiPaymentRepository.findById(emi.getId()).orElseThrow().getReminderQueuedAt());
+        }
+        assertEquals(0, service.sendReminders(today).get("emis"));
+
+        List<Object[]> rows = List.of(
+                new Object[]{1L, 7, today.plusDays(3), 1500.0, "LNREM2", "b-multi@example.com", "Bala"},
+                new Object[]{2L, 2, today.plusDays(6), 820.5, "LNREM3", "b-multi@example.com", "Bala"});
+        String body = EmiReminderService.renderReminder(rows);
+        assertTrue(body.startsWith("Dear Bala,\n\nThis is a friendly reminder from NeoBank regarding your upcoming EMI payments."));
+        assertTrue(body.contains("Loan Account Number: LNREM2\nEMI Installment: #7\nDue Date: 04-05-2031\nEMI Amount: ₹1500.00"));
+        assertTrue(body.contains("Loan Account Number: LNREM3\nEMI Installment: #2\nDue Date: 07-05-2031\nEMI Amount: ₹820.50"));
+    }
+
+    private Loan loan(String loanAccountNumber, String email, String name) {
+        Loan loan = new Loan();
+        loan.setType("Personal");
+        loan.setAmount(50000.0);
+        loan.setTenure(12);
+        loan.setInterestRate(11.0);
+        loan.setStatus("Approved");
+        loan.setUserName(name);
+        loan.setUserEmail(email);
+        loan.setAccountNumber("SB" + loanAccountNumber);
+        loan.setLoanAccountNumber(loanAccountNumber);
+        return loanRepository.save(loan);
+    }
+
+    private EmiPayment emi(Loan loan, int number, LocalDate dueDate, String status) {
+        EmiPayment emi = new EmiPayment();
+        emi.setLoanId(loan.getId());
+        emi.setLoanAccountNumber(loan.getLoanAccountNumber());
+        emi.setAccountNumber(loan.getAccountNumber());
+        emi.setEmiNumber(number);
+        emi.setDueDate(dueDate);
+        emi.setPrincipalAmount(4000.0);
+        emi.setInterestAmount(450.0);
+        emi.setTotalAmount(4450.0);
+        emi.setRemainingPrincipal(20000.0);
+        emi.setStatus(status);
+        return emiPaymentRepository.save(emi);
+    }
+}
@@ -0,0 +1,91 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Account;
+import com.neo.springapp.model.FixedDeposit;
+import com.neo.springapp.repository.AccountRepository;
+import com.neo.springapp.repository.FdInterestAccrualRepository;
+import com.neo.springapp.repository.FixedDepositRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.fd-interest.chunk-size=3")
+@ActiveProfiles("test")
+class FdInterestAccrualEngineTest {
+
+    @Autowired
+    private FdInterestAccrualEngine fdInterestAccrualEngine;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private FixedDepositRepository fixedDepositRepository;
+
+    @Autowired
+    private FdInterestAccrualRepository fdInterestAccrualRepository;
+
+    @Autowired
+    private BalancePostingService balancePostingService;
+
+    private void newAccount(String accountNumber, String suffix, String status) {
+        Account account = new Account();
+        account.setName("FD Accrual " + suffix);
+        account.setAccountNumber(accountNumber);
+        account.setAadharNumber("7777000000" + suffix);
+        account.setPan("FDAC" + suffix + "Z");
+        account.setPhone("70000000" + suffix);
+        account.setBalance(1000.0);
+        account.setStatus(status);
+        accountRepository.save(account);
+    }
+
+    private void newFd(String accountNumber, double principal, double rate) {
+        FixedDeposit fd = new FixedDeposit();
+        fd.setAccountNumber(accountNumber);
+        fd.setPrincipalAmount(principal);
+        fd.setInterestRate(rate);
+        fd.setTenure(24);
+        fd.setStartDate(LocalDate.now().minusMonths(1));
+        fd.setMaturityDate(LocalDate.now().plusMonths(23));
+        fd.setStatus("ACTIVE");
+        fixedDepositRepository.save(fd);
+    }
+
+    @Test
+    void creditsEachFdOncePerMonthAcrossChunks() {
+        newAccount("FDACCR000001", "01", "ACTIVE");
+        newAccount("FDACCR000002", "02", "INACTIVE");
+        for (int i = 0; i < 7; i++) {
+            newFd("FDACCR000001", 100_000.0, 6.0); // 500.00 a month each
+        }
+        newFd("FDACCR000002", 100_000.0, 6.0);
+        YearMonth month = YearMonth.now();
+
+        Map<String, Object> first = fdInterestAccrualEngine.accrue(month);
+        assertEquals(true, first.get("success"));
+        assertEquals(1000.0 + 7 * 500.0, balanceOf("FDACCR000001"));
+        assertEquals(1000.0, balanceOf("FDACCR000002"));
+        assertTrue((Integer) first.get("failureCount") >= 1);
+
+        Map<String, Object> rerun = fdInterestAccrualEngine.accrue(month);
+        assertEquals(true, rerun.get("success"));
+        assertEquals(1000.0 + 7 * 500.0, balanceOf("FDACCR000001"));
+        assertTrue(fdInterestAccrualRepository.countByAccrualMonth(month.toString()) >= 7);
+        for (FixedDeposit fd : fixedDepositRepository.findByAccountNumber("FDACCR000001")) {
+            assertEquals(1, fd.getMonthsInterestCredited());
+            assertEquals(500.0, fd.getTotalInterestCredited());
+        }
+    }
+
+    private Double balanceOf(String accountNumber) {
+        return balancePostingService.currentBalance(BalancePostingService.SAVINGS, accountNumber);
+    }
+}
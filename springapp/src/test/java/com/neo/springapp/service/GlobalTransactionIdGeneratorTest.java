@@ -0,0 +1,152 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.GlobalTransactionSequence;
+import com.neo.springapp.repository.GlobalTransactionSequenceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GlobalTransactionIdGeneratorTest {
+
+    private final GlobalTransactionSequenceRepository repository = mock(GlobalTransactionSequenceRepository.class);
+    private final AtomicLong highWaterMark = new AtomicLong(1L);
+    private final AtomicInteger reservations = new AtomicInteger();
+    private final ThreadLocal<Long> lastAdvance = new ThreadLocal<>();
+
+    private GlobalTransactionIdGenerator newGenerator(long blockSize) {
+        GlobalTransactionSequence row = new GlobalTransactionSequence();
+        row.setId(7L);
+        when(repository.getSequence()).thenReturn(row);
+        // Reservations may now run on the prefetch thread too; the read-back sees this thread's own update, like a locked row
+        when(repository.advanceSequence(eq(7L), anyLong())).thenAnswer(inv -> {
+            reservations.incrementAndGet();
+            lastAdvance.set(highWaterMark.addAndGet(inv.getArgument(1)));
+            return 1;
+        });
+        when(repository.findCurrentSequenceById(7L)).thenAnswer(inv -> lastAdvance.get());
+        PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+        when(txManager.getTransaction(any())).thenReturn(null);
+        return new GlobalTransactionIdGenerator(repository, txManager, blockSize, 5_000);
+    }
+
+    @Test
+    void issuesSequentialIdsFromReservedBlocks() {
+        GlobalTransactionIdGenerator generator = newGenerator(10);
+
+        for (long expected = 1; expected <= 25; expected++) {
+            assertEquals(expected, generator.getNextTransactionId());
+        }
+        // The third block is in use, so the fourth may already be prefetched
+        assertTrue(reservations.get() >= 3 && reservations.get() <= 4);
+        assertEquals("TXN-0000000026", generator.getNextFormattedTransactionId());
+    }
+
+    @Test
+    void concurrentCallersNeverReceiveDuplicateIds() throws Exception {
+        GlobalTransactionIdGenerator generator = newGenerator(50);
+        int threads = 32;
+        int perThread = 2_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(generator.getNextTransactionId());
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, ids.size());
+        assertTrue(reservations.get() >= threads * perThread / 50);
+        assertTrue(reservations.get() <= threads * perThread / 50 + 1);
+    }
+
+    @Test
+    void gapReportShowsBlocksAbandonedOnShutdown() {
+        GlobalTransactionIdGenerator generator = newGenerator(20);
+        for (int i = 0; i < 5; i++) {
+            generator.getNextTransactionId();
+        }
+
+        generator.releaseCurrentBlock();
+        Map<String, Object> report = generator.getGapReport();
+
+        // The rest of the live block plus the whole prefetched block, even if it was still in flight
+        assertEquals(5L, report.get("idsIssued"));
+        assertEquals(40L, report.get("idsReserved"));
+        assertEquals(35L, report.get("abandonedIds"));
+    }
+
+    @Test
+    void callerOutsideTransactionWaitsForASlowPrefetchSoIdsKeepIncreasing() throws Exception {
+        GlobalTransactionIdGenerator generator = newGenerator(5);
+        // The prefetch reserves its block, then takes a while to hand it over
+        CountDownLatch prefetchReserved = new CountDownLatch(1);
+        when(repository.findCurrentSequenceById(7L)).thenAnswer(inv -> {
+            if (Thread.currentThread().getName().equals("txn-id-prefetch")) {
+                prefetchReserved.countDown();
+                Thread.sleep(200);
+            }
+            return lastAdvance.get();
+        });
+
+        long previous = 0;
+        for (int i = 0; i < 20; i++) {
+            long id = generator.getNextTransactionId();
+            if (i == 0) {
+                assertTrue(prefetchReserved.await(5, TimeUnit.SECONDS));
+            }
+            assertTrue(id > previous, "ID " + id + " issued after " + previous);
+            previous = id;
+        }
+        assertEquals(20L, previous);
+    }
+
+    @Test
+    void callerInsideTransactionWaitsForPrefetchWithoutHoldingRefillLock() throws Exception {
+        GlobalTransactionIdGenerator generator = newGenerator(5);
+        int threads = 8;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                TransactionSynchronizationManager.setActualTransactionActive(true);
+                try {
+                    for (int i = 0; i < 500; i++) {
+                        ids.add(generator.getNextTransactionId());
+                    }
+                } finally {
+                    TransactionSynchronizationManager.setActualTransactionActive(false);
+                }
+                return null;
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(threads * 500, ids.size());
+    }
+}
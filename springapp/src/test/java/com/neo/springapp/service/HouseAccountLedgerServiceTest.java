@@ -0,0 +1,150 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Account;
+import com.neo.springapp.model.HouseAccountShard;
+import com.neo.springapp.repository.AccountRepository;
+import com.neo.springapp.repository.HouseAccountShardRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class HouseAccountLedgerServiceTest {
+
+    @Autowired
+    private HouseAccountLedgerService houseAccountLedgerService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HouseAccountShardRepository shardRepository;
+
+    @Autowired
+    private BalancePostingService balancePostingService;
+
+    @Test
+    void creditsOnDifferentShardsDoNotWaitForEachOther() throws Exception {
+        String house = "HOUSECONC001";
+        Account account = new Account();
+        account.setName("House Ledger Test");
+        account.setAccountNumber(house);
+        account.setAadharNumber("777700001111");
+        account.setPan("HOUSE1234H");
+        account.setPhone("7012300011");
+        account.setBalance(1000.0);
+        accountRepository.save(account);
+
+        // The first credit finds no shards and goes to the account row; the sweep then creates them
+        houseAccountLedgerService.credit(house, 5.0, null);
+        houseAccountLedgerService.foldAll();
+        assertTrue(houseAccountLedgerService.isHouseAccount(house));
+
+        // Two routing keys that land on different shards
+        int shards = houseAccountLedgerService.getShardCount();
+        List<String> keys = new ArrayList<>();
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; keys.size() < 2; i++) {
+            String key = "PAYER" + i;
+            if (used.add(Math.floorMod(key.hashCode(), shards))) {
+                keys.add(key);
+            }
+        }
+
+        // Each credit holds its shard row lock until its transaction commits. Both transactions must
+        // reach the barrier with their credit done; credits queued on one row would time out here.
+        CyclicBarrier bothCredited = new CyclicBarrier(keys.size());
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ExecutorService pool = Executors.newFixedThreadPool(keys.size());
+        List<Future<?>> results = new ArrayList<>();
+        for (String key : keys) {
+            results.add(pool.submit(() -> tx.executeWithoutResult(status -> {
+                houseAccountLedgerService.credit(house, 100.0, key);
+                try {
+                    bothCredited.await(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Shard credits were serialized", e);
+                }
+            })));
+        }
+        for (Future<?> result : results) {
+            result.get(15, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Reads of the house balance include the pending shard credits
+        assertEquals(1205.0, houseAccountLedgerService.getEffectiveBalance(house));
+        assertEquals(1205.0, accountService.getBalanceByAccountNumber(house));
+        assertEquals(1205.0, houseAccountLedgerService.fold(house));
+    }
+
+    @Test
+    void concurrentShardCreditsAddUpToTheHouseBalance() throws Exception {
+        String house = "HOUSESUM008";
+        HouseAccountLedgerService sharded = new HouseAccountLedgerService(shardRepository, balancePostingService, transactionManager, 8);
+        houseAccount(house, "777700003333", "HOUSE3456H", "7012300033");
+        sharded.credit(house, 1.0, null);
+        sharded.foldAll();
+
+        // Three workers (the test pool has three connections), spread over the shards round-robin
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        List<Future<?>> results = new ArrayList<>();
+        for (int w = 0; w < 3; w++) {
+            results.add(pool.submit(() -> {
+                for (int i = 0; i < 40; i++) {
+                    tx.executeWithoutResult(status -> sharded.credit(house, 2.5, null));
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Nothing lost or counted twice: the house row plus what is pending in its shards is every credit
+        double pending = shardRepository.findAll().stream()
+                .filter(shard -> house.equals(shard.getAccountNumber()))
+                .mapToDouble(HouseAccountShard::getPendingAmount)
+                .sum();
+        double houseRow = accountService.getAccountByNumber(house).getBalance();
+        assertEquals(1301.0, houseRow + pending, 0.001);
+        assertEquals(1301.0, sharded.getEffectiveBalance(house));
+
+        assertEquals(1301.0, sharded.fold(house));
+        assertEquals(1301.0, sharded.getEffectiveBalance(house));
+    }
+
+    private void houseAccount(String accountNumber, String aadhar, String pan, String phone) {
+        Account account = new Account();
+        account.setName("House Ledger Test");
+        account.setAccountNumber(accountNumber);
+        account.setAadharNumber(aadhar);
+        account.setPan(pan);
+        account.setPhone(phone);
+        account.setBalance(1000.0);
+        accountRepository.save(account);
+    }
+}
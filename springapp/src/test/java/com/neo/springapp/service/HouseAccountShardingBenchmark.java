@@ -0,0 +1,112 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Account;
+import com.neo.springapp.repository.AccountRepository;
+import com.neo.springapp.repository.HouseAccountShardRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent house-account credits through one shard (the single house row) vs eight.
+ * Timing only, so it is left out of the default test run: mvn test -Pbenchmark -Dtest=HouseAccountShardingBenchmark
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class HouseAccountShardingBenchmark {
+
+    private static final int WORKERS = 3;
+    private static final int CREDITS_PER_WORKER = 40;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HouseAccountShardRepository shardRepository;
+
+    @Autowired
+    private BalancePostingService balancePostingService;
+
+    @Test
+    void oneShardVersusEight() throws Exception {
+        HouseAccountLedgerService single = new HouseAccountLedgerService(shardRepository, balancePostingService, transactionManager, 1);
+        HouseAccountLedgerService sharded = new HouseAccountLedgerService(shardRepository, balancePostingService, transactionManager, 8);
+        houseAccount("HOUSEBENCH01", "777700004444", "HOUSE4567H", "7012300044");
+        houseAccount("HOUSEBENCH08", "777700005555", "HOUSE5678H", "7012300055");
+        sharded.credit("HOUSEBENCH08", 1.0, null);
+        sharded.foldAll();
+
+        // One worker per connection in the test pool, each routed to its own shard
+        List<String> keys = new ArrayList<>();
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; keys.size() < WORKERS; i++) {
+            String key = "PAYER" + i;
+            if (used.add(Math.floorMod(key.hashCode(), 8))) {
+                keys.add(key);
+            }
+        }
+
+        long singleNanos = timeCredits(single, "HOUSEBENCH01", keys);
+        long shardedNanos = timeCredits(sharded, "HOUSEBENCH08", keys);
+
+        int credits = WORKERS * CREDITS_PER_WORKER;
+        System.out.printf("house credits: %d x %d workers, 1 shard %d ms (%.0f/s), 8 shards %d ms (%.0f/s)%n",
+                CREDITS_PER_WORKER, WORKERS,
+                singleNanos / 1_000_000, credits * 1e9 / singleNanos,
+                shardedNanos / 1_000_000, credits * 1e9 / shardedNanos);
+    }
+
+    // Each credit's transaction keeps its row lock for 5 ms, standing in for the rest of the charge's work
+    private long timeCredits(HouseAccountLedgerService ledger, String house, List<String> keys) throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ExecutorService pool = Executors.newFixedThreadPool(keys.size());
+        List<Future<?>> results = new ArrayList<>();
+        long started = System.nanoTime();
+        for (String key : keys) {
+            results.add(pool.submit(() -> {
+                for (int i = 0; i < CREDITS_PER_WORKER; i++) {
+                    tx.executeWithoutResult(status -> {
+                        ledger.credit(house, 1.0, key);
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - started;
+        pool.shutdown();
+        return elapsed;
+    }
+
+    private void houseAccount(String accountNumber, String aadhar, String pan, String phone) {
+        Account account = new Account();
+        account.setName("House Ledger Benchmark");
+        account.setAccountNumber(accountNumber);
+        account.setAadharNumber(aadhar);
+        account.setPan(pan);
+        account.setPhone(phone);
+        account.setBalance(1000.0);
+        accountRepository.save(account);
+    }
+}
@@ -0,0 +1,158 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.PgRefund;
+import com.neo.springapp.model.PgTransaction;
+import com.neo.springapp.repository.PgRefundRepository;
+import com.neo.springapp.repository.PgTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MerchantAnalyticsStoreTest {
+
+    @Autowired
+    private MerchantAnalyticsStore store;
+
+    @Autowired
+    private PaymentGatewayService paymentGatewayService;
+
+    @Autowired
+    private PgTransactionRepository transactionRepository;
+
+    @Autowired
+    private PgRefundRepository refundRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keepsRollupsCurrentAfterTheFirstLoad() {
+        LocalDateTime now = LocalDateTime.now();
+        PgTransaction loaded = save("PGTXNAN01", "SUCCESS", "1000.00", "20.00", now.minusDays(3));
+        save("PGTXNAN02", "SUCCESS", "500.00", "10.00", now);
+        save("PGTXNAN03", "FAILED", "300.00", "6.00", now);
+        PgRefund loadedRefund = refund("PGTXNAN01", "20.00");
+
+        Map<String, Object> first = store.getAnalytics("MIDAN0001");
+        assertEquals(new BigDecimal("1500.00"), first.get("totalVolume"));
+        assertEquals(2L, first.get("successfulTransactions"));
+        assertEquals(1L, first.get("failedTransactions"));
+        assertEquals(new BigDecimal("30.00"), first.get("totalFees"));
+        assertEquals(new BigDecimal("20.00"), first.get("totalRefunded"));
+        List<Map<String, Object>> daily = (List<Map<String, Object>>) first.get("daily");
+        assertEquals(MerchantAnalyticsStore.DAYS, daily.size());
+        assertEquals(1L, daily.get(MerchantAnalyticsStore.DAYS - 1).get("successfulTransactions"));
+        assertEquals(new BigDecimal("1000.00"), daily.get(MerchantAnalyticsStore.DAYS - 4).get("volume"));
+        List<Map<String, Object>> hourly = (List<Map<String, Object>>) first.get("hourly");
+        assertEquals(MerchantAnalyticsStore.HOURS, hourly.size());
+        assertEquals(1L, hourly.get(MerchantAnalyticsStore.HOURS - 1).get("failedTransactions"));
+        List<MerchantAnalyticsStore.Recent> recent = (List<MerchantAnalyticsStore.Recent>) first.get("recentTransactions");
+        assertEquals(3, recent.size());
+        assertEquals("PGTXNAN01", recent.get(2).transactionId());
+
+        // Applied once committed, newest first; rows already counted by the load are skipped
+        PgTransaction flagged = save("PGTXNAN04", "SUCCESS", "200.00", "4.00", now);
+        flagged.setFraudFlagged(true);
+        store.recordTransaction(flagged);
+        store.recordTransaction(loaded);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            store.recordTransaction(save("PGTXNAN05", "SUCCESS", "900.00", "18.00", now));
+            status.setRollbackOnly();
+        });
+        PgRefund newRefund = refund("PGTXNAN02", "50.00");
+        store.recordRefund(newRefund);
+        store.recordRefund(newRefund);
+        store.recordRefund(loadedRefund);
+
+        Map<String, Object> second = store.getAnalytics("MIDAN0001");
+        assertEquals(new BigDecimal("1700.00"), second.get("totalVolume"));
+        assertEquals(3L, second.get("successfulTransactions"));
+        assertEquals(new BigDecimal("34.00"), second.get("totalFees"));
+        assertEquals(new BigDecimal("70.00"), second.get("totalRefunded"));
+        recent = (List<MerchantAnalyticsStore.Recent>) second.get("recentTransactions");
+        assertEquals(4, recent.size());
+        assertEquals("PGTXNAN04", recent.get(0).transactionId());
+        List<MerchantAnalyticsStore.Recent> alerts = (List<MerchantAnalyticsStore.Recent>) second.get("fraudAlerts");
+        assertEquals(1, alerts.size());
+
+        Page<PgTransaction> page = paymentGatewayService.getMerchantTransactionsPage("MIDAN0001", null, 0, 2);
+        assertEquals(4, page.getTotalElements());
+        assertEquals(2, page.getContent().size());
+        assertEquals(1, paymentGatewayService.getMerchantTransactionsPage("MIDAN0001", "FAILED", 0, 10).getTotalElements());
+    }
+
+    private PgTransaction save(String transactionId, String status, String amount, String fee, LocalDateTime createdAt) {
+        return save("MIDAN0001", transactionId, status, amount, fee, createdAt);
+    }
+
+    private PgTransaction save(String merchantId, String transactionId, String status, String amount, String fee,
+                               LocalDateTime createdAt) {
+        PgTransaction txn = new PgTransaction();
+        txn.setTransactionId(transactionId);
+        txn.setOrderId("ORD" + transactionId);
+        txn.setMerchantId(merchantId);
+        txn.setAmount(new BigDecimal(amount));
+        txn.setFee(new BigDecimal(fee));
+        txn.setNetAmount(new BigDecimal(amount).subtract(new BigDecimal(fee)));
+        txn.setPaymentMethod("UPI");
+        txn.setStatus(status);
+        txn.setCreatedAt(createdAt);
+        return transactionRepository.save(txn);
+    }
+
+    @Test
+    void countsCapturesThatCommitOutOfOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        TransactionTemplate separate = new TransactionTemplate(transactionManager);
+        separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // The first capture gets its id before the dashboard loads but commits after it
+        PgTransaction[] slow = new PgTransaction[1];
+        tx.executeWithoutResult(status -> {
+            slow[0] = save("MIDAN0002", "PGTXNAO01", "SUCCESS", "100.00", "2.00", now);
+            store.recordTransaction(slow[0]);
+            separate.executeWithoutResult(s -> save("MIDAN0002", "PGTXNAO02", "SUCCESS", "200.00", "4.00", now));
+            assertEquals(new BigDecimal("200.00"), store.getAnalytics("MIDAN0002").get("totalVolume"));
+        });
+
+        // Two later captures whose commits arrive highest id first
+        tx.executeWithoutResult(status -> {
+            store.recordTransaction(save("MIDAN0002", "PGTXNAO03", "SUCCESS", "300.00", "6.00", now));
+            separate.executeWithoutResult(s ->
+                    store.recordTransaction(save("MIDAN0002", "PGTXNAO04", "SUCCESS", "400.00", "8.00", now)));
+        });
+        store.recordTransaction(slow[0]);
+
+        Map<String, Object> analytics = store.getAnalytics("MIDAN0002");
+        assertEquals(new BigDecimal("1000.00"), analytics.get("totalVolume"));
+        assertEquals(4L, analytics.get("successfulTransactions"));
+        assertEquals(new BigDecimal("20.00"), analytics.get("totalFees"));
+    }
+
+    private PgRefund refund(String transactionId, String amount) {
+        PgRefund refund = new PgRefund();
+        refund.setRefundId("PGREF" + transactionId);
+        refund.setTransactionId(transactionId);
+        refund.setOrderId("ORD" + transactionId);
+        refund.setMerchantId("MIDAN0001");
+        refund.setAmount(new BigDecimal(amount));
+        refund.setStatus("PROCESSED");
+        return refundRepository.save(refund);
+    }
+}
@@ -0,0 +1,89 @@
+package com.neo.springapp.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.neo.springapp.model.Transaction;
+import com.neo.springapp.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PassbookStatementServiceTest {
+
+    @Autowired
+    private PassbookStatementService passbookStatementService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void streamsPagesWithCarriedForwardBalancesAndDateSlices() throws Exception {
+        String accountNumber = "PBSTREAM0001";
+        LocalDateTime firstDay = LocalDate.of(2026, 1, 1).atTime(10, 0);
+        double balance = 1000.0;
+        List<Transaction> txns = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            boolean credit = i % 3 == 0;
+            balance += credit ? 100.0 : -10.0;
+            Transaction txn = new Transaction();
+            txn.setAccountNumber(accountNumber);
+            txn.setTransactionId("PBS" + i);
+            txn.setType(credit ? "Credit" : "Debit");
+            txn.setAmount(credit ? 100.0 : 10.0);
+            txn.setBalance(balance);
+            txn.setDescription("Entry " + i);
+            txn.setDate(firstDay.plusDays(i / 2));
+            txns.add(txn);
+        }
+        transactionRepository.saveAll(txns);
+
+        Map<String, Object> accountInfo = new HashMap<>();
+        accountInfo.put("accountNumber", accountNumber);
+        accountInfo.put("name", "Stream Holder");
+        accountInfo.put("balance", balance);
+
+        List<String> pages = render(accountInfo, null, null);
+        List<String> txnPages = pages.stream().filter(p -> p.contains("Brought Forward")).toList();
+        assertEquals(3, txnPages.size()); // 60 rows at 25 per page
+        assertTrue(txnPages.get(0).contains("Brought Forward 1,000.00"), txnPages.get(0));
+        assertTrue(txnPages.get(0).contains("Carried Forward"));
+        assertTrue(txnPages.get(2).contains("Closing Balance " + String.format("%,.2f", balance)));
+        assertTrue(txnPages.get(2).contains("Total Transactions: 60"));
+
+        // Jan 11-15 holds rows 20-29; the balance before it is the one after row 19
+        List<String> slice = render(accountInfo, LocalDate.of(2026, 1, 11), LocalDate.of(2026, 1, 15))
+            .stream().filter(p -> p.contains("Brought Forward")).toList();
+        assertEquals(1, slice.size());
+        assertTrue(slice.get(0).contains("Brought Forward " + String.format("%,.2f", txns.get(19).getBalance())), slice.get(0));
+        assertTrue(slice.get(0).contains("Entry 20") && slice.get(0).contains("Entry 29"));
+        assertFalse(slice.get(0).contains("Entry 30"));
+        assertTrue(slice.get(0).contains("Closing Balance " + String.format("%,.2f", txns.get(29).getBalance())));
+    }
+
+    private List<String> render(Map<String, Object> accountInfo, LocalDate from, LocalDate to) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        passbookStatementService.writePassbook(accountInfo, from, to, out);
+        List<String> pages = new ArrayList<>();
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+            for (int i = 1; i <= pdf.getNumberOfPages(); i++) {
+                pages.add(PdfTextExtractor.getTextFromPage(pdf.getPage(i)).replace('\n', ' '));
+            }
+        }
+        return pages;
+    }
+}
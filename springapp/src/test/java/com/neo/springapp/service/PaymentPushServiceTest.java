@@ -0,0 +1,141 @@
+package com.neo.springapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neo.springapp.model.CurrentAccount;
+import com.neo.springapp.model.SoundboxDevice;
+import com.neo.springapp.model.SoundboxTransaction;
+import com.neo.springapp.repository.CurrentAccountRepository;
+import com.neo.springapp.repository.SoundboxDeviceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentPushServiceTest {
+
+    @Autowired
+    private PaymentPushService paymentPushService;
+
+    @Autowired
+    private SoundboxService soundboxService;
+
+    @Autowired
+    private CurrentAccountRepository currentAccountRepository;
+
+    @Autowired
+    private SoundboxDeviceRepository deviceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("brokerChannel")
+    private SubscribableChannel brokerChannel;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Message<?>> published = new CopyOnWriteArrayList<>();
+    private final MessageHandler recorder = published::add;
+
+    @BeforeEach
+    void subscribe() {
+        brokerChannel.subscribe(recorder);
+    }
+
+    @AfterEach
+    void unsubscribe() {
+        brokerChannel.unsubscribe(recorder);
+    }
+
+    @Test
+    void soundboxPaymentIsPushedToAccountAndDeviceTopics() {
+        account("CAPUSH0001");
+        SoundboxDevice device = new SoundboxDevice();
+        device.setDeviceId("SBPUSH0001");
+        device.setAccountNumber("CAPUSH0001");
+        device.setStatus("ACTIVE");
+        deviceRepository.save(device);
+
+        SoundboxTransaction transaction = new SoundboxTransaction();
+        transaction.setTxnId("SBTXNPUSH0001");
+        transaction.setAccountNumber("CAPUSH0001");
+        transaction.setAmount(250.0);
+        transaction.setPayerName("Walk-in Customer");
+        assertEquals(true, soundboxService.processPayment(transaction).get("success"));
+
+        assertEquals(List.of("/topic/accounts/CAPUSH0001/payments", "/topic/devices/SBPUSH0001/payments"),
+                destinations());
+        Map<?, ?> event = payload(published.get(0));
+        assertEquals("PAYMENT_RECEIVED", event.get("type"));
+        assertEquals("SOUNDBOX", event.get("source"));
+        assertEquals("SBTXNPUSH0001", event.get("reference"));
+        assertEquals(true, event.get("announce"));
+        assertEquals("Received 250 rupees in NeoBank Current Account", event.get("voiceMessage"));
+    }
+
+    @Test
+    void publishesOnlyAfterCommit() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            paymentPushService.paymentReceived("UPI", "SAPUSH0001", "SUPIPUSH1", new BigDecimal("99.00"),
+                    "Payer", "payer@neo", null);
+            assertTrue(published.isEmpty());
+        });
+        assertEquals(List.of("/topic/accounts/SAPUSH0001/payments"), destinations());
+        assertNull(payload(published.get(0)).get("deviceId"));
+
+        published.clear();
+        tx.executeWithoutResult(status -> {
+            paymentPushService.paymentReceived("UPI", "SAPUSH0001", "SUPIPUSH2", new BigDecimal("10.00"),
+                    "Payer", "payer@neo", null);
+            status.setRollbackOnly();
+        });
+        assertTrue(published.isEmpty());
+    }
+
+    private void account(String accountNumber) {
+        CurrentAccount account = new CurrentAccount();
+        account.setAccountNumber(accountNumber);
+        account.setBusinessName("Push Stores");
+        account.setBusinessType("Proprietor");
+        account.setOwnerName("Push Owner");
+        account.setMobile("9000000" + accountNumber.substring(7));
+        account.setEmail(accountNumber.toLowerCase() + "@example.com");
+        account.setAadharNumber("1111222" + accountNumber.substring(5));
+        account.setPanNumber("PUSHP" + accountNumber.substring(6) + "X");
+        account.setStatus("ACTIVE");
+        account.setBalance(1_000.0);
+        currentAccountRepository.save(account);
+    }
+
+    private List<String> destinations() {
+        return published.stream().map(m -> SimpMessageHeaderAccessor.getDestination(m.getHeaders())).toList();
+    }
+
+    private Map<?, ?> payload(Message<?> message) {
+        try {
+            return objectMapper.readValue((byte[]) message.getPayload(), Map.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Cheque;
+import com.neo.springapp.model.EmiPayment;
+import com.neo.springapp.model.Loan;
+import com.neo.springapp.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfServiceTemplateTest {
+
+    @Test
+    void compiledTemplateFlattensLayoutAndFillsSlots() {
+        PdfTemplate template = PdfTemplate.compile("inline", """
+                <div class="row">
+                    <span>{{label}}:</span>
+                    <span>#{{number}} of {{total}}</span>
+                </div>
+                """);
+        assertEquals(List.of("label", "number", "total"), template.getSlots());
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("label", "EMI");
+        values.put("number", 3);
+        values.put("total", null);
+        assertEquals("<div class=\"row\"><span>EMI:</span><span>#3 of null</span></div>", template.render(values));
+
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of("label", "EMI")));
+        assertThrows(IllegalArgumentException.class, () -> PdfTemplate.compile("broken", "<p>{{open</p>"));
+    }
+
+    @Test
+    void receiptsRenderRepeatedlyWithSharedConverterSettings() throws Exception {
+        PdfService service = new PdfService();
+
+        EmiPayment emi = new EmiPayment();
+        emi.setId(7L);
+        emi.setEmiNumber(2);
+        emi.setDueDate(LocalDate.now());
+        emi.setPrincipalAmount(900.0);
+        emi.setInterestAmount(100.0);
+        emi.setTotalAmount(1000.0);
+        emi.setRemainingPrincipal(9100.0);
+        Loan loan = new Loan();
+        loan.setType("Personal");
+        loan.setTenure(12);
+        loan.setUserName("John Doe");
+
+        Cheque cheque = new Cheque();
+        cheque.setChequeNumber("000123");
+        cheque.setStatus("CANCELLED");
+
+        Transaction credit = new Transaction();
+        credit.setType("Credit");
+        credit.setAmount(500.0);
+        credit.setBalance(1500.0);
+        credit.setDate(LocalDateTime.now());
+
+        for (int i = 0; i < 3; i++) {
+            assertPdf(service.generateEmiReceipt(emi, loan));
+            assertPdf(service.generateChequePdf(cheque));
+            assertPdf(service.generateBankStatement("1234567890", "John Doe", null, 1500.0, List.of(credit)));
+            assertPdf(service.generateBankStatement("1234567890", null, null, null, List.of()));
+        }
+    }
+
+    private static void assertPdf(byte[] pdf) {
+        assertTrue(pdf.length > 500, "pdf too small: " + pdf.length);
+        assertTrue(new String(pdf, 0, 5).startsWith("%PDF"));
+    }
+}
@@ -0,0 +1,240 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.CurrentAccount;
+import com.neo.springapp.model.PgMerchant;
+import com.neo.springapp.model.PgSettlementBatch;
+import com.neo.springapp.model.PgSettlementLedger;
+import com.neo.springapp.model.PgTransaction;
+import com.neo.springapp.repository.CurrentAccountRepository;
+import com.neo.springapp.repository.PgMerchantRepository;
+import com.neo.springapp.repository.PgSettlementBatchRepository;
+import com.neo.springapp.repository.PgSettlementLedgerRepository;
+import com.neo.springapp.repository.PgTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.pg.settlement.chunk-size=1")
+@ActiveProfiles("test")
+class PgSettlementEngineTest {
+
+    @Autowired
+    private PgSettlementEngine engine;
+
+    @Autowired
+    private PgMerchantRepository merchantRepository;
+
+    @Autowired
+    private PgTransactionRepository transactionRepository;
+
+    @Autowired
+    private PgSettlementBatchRepository batchRepository;
+
+    @Autowired
+    private PgSettlementLedgerRepository ledgerRepository;
+
+    @Autowired
+    private CurrentAccountRepository currentAccountRepository;
+
+    @Autowired
+    private PaymentGatewayService paymentGatewayService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void creditsEachMerchantOncePerCycle() {
+        LocalDate cycleDate = LocalDate.of(2031, 3, 10);
+        account("CAPGS0001");
+        merchant("MIDPGS0001", "CAPGS0001");
+        merchant("MIDPGS0002", "CAPGS9999"); // no such account
+
+        capture("PGTXNS01", "MIDPGS0001", "1000.00", "0", LocalDateTime.of(2031, 3, 9, 10, 0));
+        capture("PGTXNS02", "MIDPGS0001", "500.00", "100.00", LocalDateTime.of(2031, 3, 9, 18, 0));
+        capture("PGTXNS03", "MIDPGS0001", "200.00", "0", LocalDateTime.of(2031, 3, 10, 9, 0)); // next cycle
+        PgTransaction failed = capture("PGTXNS04", "MIDPGS0001", "300.00", "0", LocalDateTime.of(2031, 3, 9, 11, 0));
+        failed.setStatus("FAILED");
+        transactionRepository.save(failed);
+        capture("PGTXNS05", "MIDPGS0002", "400.00", "0", LocalDateTime.of(2031, 3, 9, 12, 0));
+
+        Map<String, Object> first = engine.runCycle(cycleDate);
+        assertEquals(true, first.get("success"));
+        assertEquals(1, first.get("merchantsSettled"));
+        assertEquals(2, first.get("transactionsSettled"));
+        assertEquals(1364.60, first.get("netSettled"));
+        assertEquals(1, first.get("failureCount"));
+
+        PgSettlementBatch batch = batchRepository.findByBatchId("PGSB20310310-MIDPGS0001").orElseThrow();
+        assertEquals(2, batch.getTransactionCount());
+        assertEquals(new BigDecimal("1500.00"), batch.getGrossAmount());
+        assertEquals(new BigDecimal("30.00"), batch.getFeeAmount());
+        assertEquals(new BigDecimal("5.40"), batch.getTaxAmount());
+        assertEquals(new BigDecimal("100.00"), batch.getRefundAmount());
+        assertEquals(new BigDecimal("1364.60"), batch.getNetAmount());
+        assertEquals(new BigDecimal("2364.60"), batch.getBalanceAfter());
+        assertEquals(BalancePostingService.CURRENT, batch.getAccountType());
+        assertEquals(2364.60, balance("CAPGS0001"), 0.001);
+
+        assertSettled("PGTXNS01", batch.getBatchId());
+        assertSettled("PGTXNS02", batch.getBatchId());
+        assertFalse(Boolean.TRUE.equals(transactionRepository.findByTransactionId("PGTXNS03").orElseThrow().getSettled()));
+        assertFalse(Boolean.TRUE.equals(transactionRepository.findByTransactionId("PGTXNS04").orElseThrow().getSettled()));
+        assertFalse(Boolean.TRUE.equals(transactionRepository.findByTransactionId("PGTXNS05").orElseThrow().getSettled()));
+        assertFalse(batchRepository.existsByMerchantIdAndCycleDate("MIDPGS0002", cycleDate));
+
+        List<PgSettlementLedger> ledger = ledgerRepository.findByMerchantIdOrderByCreatedAtDesc("MIDPGS0001");
+        assertEquals(2, ledger.size());
+        assertTrue(ledger.stream().allMatch(l -> batch.getBatchId().equals(l.getBatchId())));
+        assertTrue(ledger.stream().anyMatch(l -> new BigDecimal("388.20").compareTo(l.getNetAmount()) == 0));
+
+        // A late capture for the same cycle does not credit the merchant a second time
+        capture("PGTXNS06", "MIDPGS0001", "50.00", "0", LocalDateTime.of(2031, 3, 9, 23, 0));
+        Map<String, Object> rerun = engine.runCycle(cycleDate);
+        assertEquals(0, rerun.get("merchantsSettled"));
+        assertEquals(1, rerun.get("alreadySettled"));
+        assertEquals(2364.60, balance("CAPGS0001"), 0.001);
+
+        Map<String, Object> nextDay = engine.runCycle(cycleDate.plusDays(1));
+        assertEquals(1, nextDay.get("merchantsSettled"));
+        assertEquals(2, nextDay.get("transactionsSettled"));
+        assertSettled("PGTXNS03", "PGSB20310311-MIDPGS0001");
+        assertSettled("PGTXNS06", "PGSB20310311-MIDPGS0001");
+    }
+
+    @Test
+    void refundLoadedBeforeSettlementDoesNotUnsettleTheCapture() {
+        LocalDate cycleDate = LocalDate.of(2031, 4, 10);
+        account("CAPGS0002");
+        merchant("MIDPGS0003", "CAPGS0002");
+        capture("PGTXNS07", "MIDPGS0003", "1000.00", "0", LocalDateTime.of(2031, 4, 9, 10, 0));
+
+        // The refund's transaction loads the capture, then the settlement cycle commits on its own threads
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            PgTransaction loaded = transactionRepository.findByTransactionId("PGTXNS07").orElseThrow();
+            assertFalse(Boolean.TRUE.equals(loaded.getSettled()));
+            assertEquals(1, engine.runCycle(cycleDate).get("transactionsSettled"));
+
+            Map<String, Object> request = new HashMap<>();
+            request.put("transactionId", "PGTXNS07");
+            request.put("amount", "100.00");
+            request.put("reason", "Damaged item");
+            paymentGatewayService.processRefund(request);
+        });
+
+        PgTransaction txn = transactionRepository.findByTransactionId("PGTXNS07").orElseThrow();
+        assertTrue(txn.getSettled());
+        assertEquals(0, new BigDecimal("100.00").compareTo(txn.getRefundedAmount()));
+        assertEquals("PARTIAL", txn.getRefundStatus());
+
+        Map<String, Object> nextDay = engine.runCycle(cycleDate.plusDays(1));
+        assertEquals(0, nextDay.get("transactionsSettled"));
+        // Paid out once (976.40), then the refund recovered from the merchant
+        assertEquals(1876.40, balance("CAPGS0002"), 0.001);
+    }
+
+    @Test
+    void refundsAreNettedBeforeSettlementAndRecoveredAfterIt() {
+        LocalDate cycleDate = LocalDate.of(2031, 5, 10);
+        account("CAPGS0004");
+        account("CAPGS0005"); // payer
+        merchant("MIDPGS0004", "CAPGS0004");
+        PgTransaction settled = capture("PGTXNS08", "MIDPGS0004", "1000.00", "0", LocalDateTime.of(2031, 5, 9, 10, 0));
+        settled.setPayerAccount("CAPGS0005");
+        transactionRepository.save(settled);
+        PgTransaction pending = capture("PGTXNS09", "MIDPGS0004", "500.00", "0", LocalDateTime.of(2031, 5, 10, 10, 0));
+        pending.setPayerAccount("CAPGS0005");
+        transactionRepository.save(pending);
+
+        assertEquals(1, engine.runCycle(cycleDate).get("transactionsSettled"));
+        assertEquals(1976.40, balance("CAPGS0004"), 0.001);
+
+        // After settlement the merchant repays the refund
+        paymentGatewayService.processRefund(refund("PGTXNS08", "100.00"));
+        assertEquals(1100.00, balance("CAPGS0005"), 0.001);
+        assertEquals(1876.40, balance("CAPGS0004"), 0.001);
+
+        // Before settlement the cycle nets it: 500 - 10 fee - 1.80 GST - 50 refunded
+        paymentGatewayService.processRefund(refund("PGTXNS09", "50.00"));
+        assertEquals(1150.00, balance("CAPGS0005"), 0.001);
+        assertEquals(1876.40, balance("CAPGS0004"), 0.001);
+        assertEquals(438.20, engine.runCycle(cycleDate.plusDays(1)).get("netSettled"));
+        assertEquals(2314.60, balance("CAPGS0004"), 0.001);
+    }
+
+    private Map<String, Object> refund(String transactionId, String amount) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("transactionId", transactionId);
+        request.put("amount", amount);
+        request.put("reason", "Returned");
+        return request;
+    }
+
+    private void assertSettled(String transactionId, String batchId) {
+        PgTransaction txn = transactionRepository.findByTransactionId(transactionId).orElseThrow();
+        assertTrue(txn.getSettled());
+        assertEquals(batchId, txn.getSettlementBatchId());
+    }
+
+    private double balance(String accountNumber) {
+        return currentAccountRepository.findByAccountNumber(accountNumber).orElseThrow().getBalance();
+    }
+
+    private void account(String accountNumber) {
+        CurrentAccount account = new CurrentAccount();
+        account.setAccountNumber(accountNumber);
+        account.setBusinessName("Settlement Traders");
+        account.setBusinessType("Proprietor");
+        account.setOwnerName("Settlement Owner");
+        account.setMobile("9000022222");
+        account.setEmail(accountNumber.toLowerCase() + "@example.com");
+        account.setAadharNumber("222233334444");
+        account.setPanNumber("SETPA0001X");
+        account.setStatus("ACTIVE");
+        account.setBalance(1000.0);
+        currentAccountRepository.save(account);
+    }
+
+    private void merchant(String merchantId, String linkedAccount) {
+        PgMerchant merchant = new PgMerchant();
+        merchant.setMerchantId(merchantId);
+        merchant.setBusinessName("Merchant " + merchantId);
+        merchant.setBusinessEmail(merchantId.toLowerCase() + "@example.com");
+        merchant.setApiKey("key_" + merchantId);
+        merchant.setSecretKey("secret_" + merchantId);
+        merchant.setLinkedAccountNumber(linkedAccount);
+        merchantRepository.save(merchant);
+    }
+
+    // 2% fee and 18% GST on it, as PaymentGatewayService charges
+    private PgTransaction capture(String transactionId, String merchantId, String amount, String refunded,
+                                  LocalDateTime createdAt) {
+        BigDecimal gross = new BigDecimal(amount);
+        BigDecimal fee = gross.multiply(new BigDecimal("0.02")).setScale(2);
+        BigDecimal tax = fee.multiply(new BigDecimal("0.18")).setScale(2);
+        PgTransaction txn = new PgTransaction();
+        txn.setTransactionId(transactionId);
+        txn.setOrderId("ORD" + transactionId);
+        txn.setMerchantId(merchantId);
+        txn.setAmount(gross);
+        txn.setFee(fee);
+        txn.setTax(tax);
+        txn.setNetAmount(gross.subtract(fee).subtract(tax));
+        txn.setRefundedAmount(new BigDecimal(refunded));
+        txn.setPaymentMethod("UPI");
+        txn.setStatus("SUCCESS");
+        txn.setCreatedAt(createdAt);
+        return transactionRepository.save(txn);
+    }
+}
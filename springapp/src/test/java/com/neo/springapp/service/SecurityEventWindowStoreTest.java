@@ -0,0 +1,66 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.AiSecurityEvent.EventType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecurityEventWindowStoreTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long NOW = 1_790_000_000_000L;
+
+    @Test
+    void countsOnlyRequestedTypesInsideTheWindow() {
+        SecurityEventWindowStore store = new SecurityEventWindowStore(null, 100);
+        store.record("u1", EventType.SUSPICIOUS_LOGIN, null, NOW - 2 * MINUTE);
+        store.record("u1", EventType.BRUTE_FORCE_ATTACK, null, NOW - 5 * MINUTE);
+        store.record("u1", EventType.SUSPICIOUS_LOGIN, null, NOW - 40 * MINUTE);
+        store.record("u1", EventType.NEW_DEVICE_DETECTED, null, NOW - MINUTE);
+        store.record("u2", EventType.SUSPICIOUS_LOGIN, null, NOW);
+
+        assertEquals(2, store.count("u1", 15, NOW, EventType.SUSPICIOUS_LOGIN, EventType.BRUTE_FORCE_ATTACK));
+        assertEquals(3, store.count("u1", 60, NOW, EventType.SUSPICIOUS_LOGIN, EventType.BRUTE_FORCE_ATTACK));
+        assertEquals(0, store.count("u1", 15, NOW + 3 * 60 * MINUTE, EventType.SUSPICIOUS_LOGIN));
+        assertEquals(0, store.count("nobody", 15, NOW, EventType.SUSPICIOUS_LOGIN));
+    }
+
+    @Test
+    void windowCoversExactlyTheRequestedNumberOfMinuteBuckets() {
+        SecurityEventWindowStore store = new SecurityEventWindowStore(null, 100);
+        long minuteStart = Math.floorDiv(NOW, MINUTE) * MINUTE;
+        // Last millisecond of the minute just outside a 15-minute window, and first of the oldest minute inside it
+        store.record("u1", EventType.BRUTE_FORCE_ATTACK, null, minuteStart - 14 * MINUTE - 1);
+        store.record("u1", EventType.BRUTE_FORCE_ATTACK, null, minuteStart - 14 * MINUTE);
+
+        assertEquals(1, store.count("u1", 15, NOW, EventType.BRUTE_FORCE_ATTACK));
+        assertEquals(2, store.count("u1", 16, NOW, EventType.BRUTE_FORCE_ATTACK));
+        assertEquals(0, store.count("u1", 1, NOW, EventType.BRUTE_FORCE_ATTACK));
+        assertEquals(1, store.count("u1", 1, minuteStart - 14 * MINUTE, EventType.BRUTE_FORCE_ATTACK));
+    }
+
+    @Test
+    void recentLocationsAreNewestFirstAndBounded() {
+        SecurityEventWindowStore store = new SecurityEventWindowStore(null, 100);
+        for (int i = 0; i < 8; i++) {
+            store.record("u1", EventType.NEW_DEVICE_DETECTED, "City" + i, NOW - (8 - i) * MINUTE);
+        }
+        List<SecurityEventWindowStore.RecentLocation> recent = store.recentLocations("u1", NOW - 60 * MINUTE);
+        assertEquals(5, recent.size());
+        assertEquals("City7", recent.get(0).location());
+        assertEquals(1, store.recentLocations("u1", NOW - MINUTE).size());
+    }
+
+    @Test
+    void evictsLeastRecentlyActiveEntitiesWhenFull() {
+        SecurityEventWindowStore store = new SecurityEventWindowStore(null, 10);
+        for (int i = 0; i < 11; i++) {
+            store.record("u" + i, EventType.SUSPICIOUS_LOGIN, null, NOW + i * MINUTE);
+        }
+        assertTrue(store.getTrackedEntityCount() <= 10);
+        assertEquals(0, store.count("u0", 120, NOW + 11 * MINUTE, EventType.SUSPICIOUS_LOGIN));
+        assertEquals(1, store.count("u10", 120, NOW + 11 * MINUTE, EventType.SUSPICIOUS_LOGIN));
+    }
+}
@@ -0,0 +1,142 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.AiDeviceFingerprint;
+import com.neo.springapp.model.AiSecurityEvent;
+import com.neo.springapp.model.AiThreatScore;
+import com.neo.springapp.repository.AiDeviceFingerprintRepository;
+import com.neo.springapp.repository.AiSecurityEventRepository;
+import com.neo.springapp.repository.AiThreatScoreRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.security.telemetry.flush-interval-ms=600000")
+@ActiveProfiles("test")
+class SecurityTelemetryWriterTest {
+
+    @Autowired
+    private AiSecurityService aiSecurityService;
+
+    @Autowired
+    private SecurityTelemetryWriter securityTelemetryWriter;
+
+    @Autowired
+    private AiSecurityEventRepository eventRepository;
+
+    @Autowired
+    private AiDeviceFingerprintRepository deviceFingerprintRepository;
+
+    @Autowired
+    private AiThreatScoreRepository threatScoreRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void coalescesDeviceAndThreatUpdatesUntilFlushed() {
+        String entityId = "telemetry-user-1";
+        for (int i = 0; i < 3; i++) {
+            aiSecurityService.analyzeLoginAttempt(entityId, "USER", "10.0.0.1", "JUnit/1.0", "laptop", "Pune", false);
+        }
+        assertTrue(threatScoreRepository.findByEntityIdAndEntityType(entityId, "USER").isEmpty());
+
+        securityTelemetryWriter.flush();
+
+        List<AiDeviceFingerprint> devices = deviceFingerprintRepository
+                .findByEntityIdAndEntityTypeOrderByLastSeenAtDesc(entityId, "USER");
+        assertEquals(1, devices.size());
+        assertEquals(3, devices.get(0).getLoginCount()); // registered once, then two coalesced sightings
+
+        AiThreatScore score = threatScoreRepository.findByEntityIdAndEntityType(entityId, "USER").orElseThrow();
+        assertEquals(3, score.getTotalEvents());
+        assertTrue(score.getLoginRiskScore() > 0);
+        assertEquals("login analysis", score.getLastActivity());
+
+        // one new-device event plus three failed-login events
+        assertEquals(4, eventRepository.findBySourceEntityIdOrderByCreatedAtDesc(entityId).size());
+        assertEquals(0, securityTelemetryWriter.getBacklog().get("queuedEvents"));
+    }
+
+    @Test
+    void flushCommitsTheRestOfABatchAroundABadEvent() {
+        SecurityTelemetryWriter writer = new SecurityTelemetryWriter(jdbcTemplate, namedJdbcTemplate,
+                transactionManager, 100, 500, 600000, 50, 100);
+        String entityId = "telemetry-user-3";
+        writer.submitEvent(event(entityId, AiSecurityEvent.EventType.SUSPICIOUS_LOGIN));
+        writer.submitEvent(event(entityId, null)); // cannot be bound, so the batch insert fails
+        writer.submitEvent(event(entityId, AiSecurityEvent.EventType.BRUTE_FORCE_ATTACK));
+        writer.observeThreat(entityId, "USER", "login", 40.0, List.of("new device"));
+
+        writer.flush();
+
+        assertEquals(2, eventRepository.findBySourceEntityIdOrderByCreatedAtDesc(entityId).size());
+        assertTrue(threatScoreRepository.findByEntityIdAndEntityType(entityId, "USER").isPresent());
+        assertEquals(1L, writer.getBacklog().get("droppedItems"));
+
+        // The bad event is not carried into later flushes
+        writer.submitEvent(event(entityId, AiSecurityEvent.EventType.SUSPICIOUS_LOGIN));
+        writer.flush();
+        assertEquals(3, eventRepository.findBySourceEntityIdOrderByCreatedAtDesc(entityId).size());
+        assertEquals(1L, writer.getBacklog().get("droppedItems"));
+        assertEquals(0, writer.getBacklog().get("queuedEvents"));
+        writer.shutdown();
+    }
+
+    @Test
+    void fullThreatMapWaitsForTheFlusherInsteadOfWritingDirectly() {
+        // Room for one pending entity; the scheduled flush never fires on its own
+        SecurityTelemetryWriter writer = new SecurityTelemetryWriter(jdbcTemplate, namedJdbcTemplate,
+                transactionManager, 100, 500, 600000, 5000, 1);
+        writer.observeThreat("telemetry-user-4", "USER", "login", 40.0, List.of("new device"));
+
+        // The map is full, so this observation asks the flusher to drain it and then takes the freed slot
+        writer.observeThreat("telemetry-user-5", "USER", "login", 60.0, List.of("new device"));
+
+        assertEquals(1, writer.getBacklog().get("pendingThreatScores"));
+        assertTrue(threatScoreRepository.findByEntityIdAndEntityType("telemetry-user-5", "USER").isEmpty());
+
+        writer.flush();
+        assertEquals(1, threatScoreRepository.findByEntityIdAndEntityType("telemetry-user-4", "USER").orElseThrow().getTotalEvents());
+        assertEquals(1, threatScoreRepository.findByEntityIdAndEntityType("telemetry-user-5", "USER").orElseThrow().getTotalEvents());
+        writer.shutdown();
+    }
+
+    @Test
+    void shutdownWritesGoodEventsAroundABadOne() {
+        SecurityTelemetryWriter writer = new SecurityTelemetryWriter(jdbcTemplate, namedJdbcTemplate,
+                transactionManager, 100, 500, 600000, 50, 100);
+        String entityId = "telemetry-user-2";
+        writer.submitEvent(event(entityId, AiSecurityEvent.EventType.SUSPICIOUS_LOGIN));
+        writer.submitEvent(event(entityId, null));
+        writer.submitEvent(event(entityId, AiSecurityEvent.EventType.BRUTE_FORCE_ATTACK));
+
+        writer.shutdown();
+
+        assertEquals(2, eventRepository.findBySourceEntityIdOrderByCreatedAtDesc(entityId).size());
+        assertEquals(0, writer.getBacklog().get("queuedEvents"));
+    }
+
+    private static AiSecurityEvent event(String entityId, AiSecurityEvent.EventType type) {
+        AiSecurityEvent event = new AiSecurityEvent();
+        event.setEventType(type);
+        event.setChannel(AiSecurityEvent.Channel.WEB);
+        event.setSourceEntityId(entityId);
+        event.setSourceEntityType("USER");
+        event.setTitle("Write-behind test");
+        return event;
+    }
+}
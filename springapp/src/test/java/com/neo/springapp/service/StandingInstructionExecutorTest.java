@@ -0,0 +1,195 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.Account;
+import com.neo.springapp.model.SalaryAccount;
+import com.neo.springapp.model.ScheduledPayment;
+import com.neo.springapp.model.StandingInstructionExecution;
+import com.neo.springapp.model.SubscriptionPayment;
+import com.neo.springapp.repository.AccountRepository;
+import com.neo.springapp.repository.SalaryAccountRepository;
+import com.neo.springapp.repository.ScheduledPaymentRepository;
+import com.neo.springapp.repository.StandingInstructionExecutionRepository;
+import com.neo.springapp.repository.SubscriptionPaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.standing-instructions.chunk-size=2")
+@ActiveProfiles("test")
+class StandingInstructionExecutorTest {
+
+    @Autowired
+    private StandingInstructionExecutor executor;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private SalaryAccountRepository salaryAccountRepository;
+
+    @Autowired
+    private ScheduledPaymentRepository scheduledPaymentRepository;
+
+    @Autowired
+    private SubscriptionPaymentRepository subscriptionPaymentRepository;
+
+    @Autowired
+    private StandingInstructionExecutionRepository executionRepository;
+
+    @Autowired
+    private BalancePostingService balancePostingService;
+
+    @Test
+    void executesEachDueInstallmentOnceAndRespectsLeases() {
+        LocalDate today = LocalDate.of(2031, 3, 10);
+        newAccount("SIEXEC000001", "01", 1000.0);
+        newAccount("SIEXEC000002", "02", 0.0);
+        newAccount("SIEXEC000003", "03", 50.0);
+        newSalaryAccount("SIEXSAL00001", 500.0);
+
+        // Two months behind: caught up installment by installment
+        ScheduledPayment rent = scheduled("SIEXEC000001", "SIEXEC000002", 300.0, "MONTHLY", LocalDate.of(2031, 1, 10));
+        ScheduledPayment underfunded = scheduled("SIEXEC000003", "SIEXEC000002", 200.0, "WEEKLY", LocalDate.of(2031, 3, 5));
+        ScheduledPayment keyed = scheduled("SIEXEC000003", "SIEXEC000002", 20.0, "DAILY", today);
+        executionRepository.save(new StandingInstructionExecution(StandingInstructionExecution.SCHEDULED_PAYMENT,
+                keyed.getId(), today, "SIEXEC000003", 20.0));
+        ScheduledPayment leasedElsewhere = scheduled("SIEXEC000001", "SIEXEC000002", 10.0, "MONTHLY", today);
+        leasedElsewhere.setLeaseOwner("si-other-instance");
+        leasedElsewhere.setLeaseUntil(LocalDateTime.now().plusHours(1));
+        scheduledPaymentRepository.save(leasedElsewhere);
+
+        SubscriptionPayment gym = new SubscriptionPayment();
+        gym.setEmployeeId("EMP-SIEX");
+        gym.setEmployeeName("SI Executor");
+        gym.setSalaryAccountNumber("SIEXSAL00001");
+        gym.setSubscriptionName("Gym");
+        gym.setSubscriptionCategory("HEALTH");
+        gym.setAmount(199.0);
+        gym.setFrequency("MONTHLY");
+        gym.setStartDate(LocalDate.of(2030, 12, 1));
+        gym.setNextBillingDate(LocalDate.of(2031, 3, 1));
+        gym.setEndDate(LocalDate.of(2031, 3, 20));
+        gym = subscriptionPaymentRepository.save(gym);
+
+        Map<String, Object> first = executor.execute(today);
+        assertEquals(true, first.get("success"));
+        assertEquals(4, first.get("executedCount"));
+        assertEquals(1, first.get("failedCount"));
+        assertEquals(1, first.get("alreadyExecuted"));
+        assertEquals(0, first.get("errorCount"));
+
+        assertEquals(100.0, balanceOf(BalancePostingService.SAVINGS, "SIEXEC000001"));
+        assertEquals(900.0, balanceOf(BalancePostingService.SAVINGS, "SIEXEC000002"));
+        assertEquals(50.0, balanceOf(BalancePostingService.SAVINGS, "SIEXEC000003"));
+        assertEquals(301.0, balanceOf(BalancePostingService.SALARY, "SIEXSAL00001"));
+
+        ScheduledPayment rentAfter = scheduledPaymentRepository.findById(rent.getId()).orElseThrow();
+        assertEquals(LocalDate.of(2031, 4, 10), rentAfter.getNextPaymentDate());
+        assertEquals(today, rentAfter.getLastPaymentDate());
+        assertEquals(3, rentAfter.getCompletedPayments());
+        assertNull(rentAfter.getLeaseOwner());
+
+        ScheduledPayment underfundedAfter = scheduledPaymentRepository.findById(underfunded.getId()).orElseThrow();
+        assertEquals("ACTIVE", underfundedAfter.getStatus());
+        assertEquals(LocalDate.of(2031, 3, 12), underfundedAfter.getNextPaymentDate());
+        assertNotNull(underfundedAfter.getFailureReason());
+
+        assertEquals(today.plusDays(1), scheduledPaymentRepository.findById(keyed.getId()).orElseThrow().getNextPaymentDate());
+        assertEquals(today, scheduledPaymentRepository.findById(leasedElsewhere.getId()).orElseThrow().getNextPaymentDate());
+
+        SubscriptionPayment gymAfter = subscriptionPaymentRepository.findById(gym.getId()).orElseThrow();
+        assertEquals("EXPIRED", gymAfter.getStatus());
+        assertEquals(1, gymAfter.getBillingCyclesCompleted());
+
+        Map<String, Object> rerun = executor.execute(today);
+        assertEquals(0, rerun.get("executedCount"));
+        assertEquals(0, rerun.get("failedCount"));
+        assertEquals(100.0, balanceOf(BalancePostingService.SAVINGS, "SIEXEC000001"));
+        assertEquals(3, executionRepository.findByInstructionTypeAndInstructionIdOrderByDueDateDesc(
+                StandingInstructionExecution.SCHEDULED_PAYMENT, rent.getId()).size());
+    }
+
+    @Test
+    void recordsRejectedInstallmentsInsteadOfRetryingThem() {
+        LocalDate today = LocalDate.of(2031, 5, 10);
+        newAccount("SIEXEC000011", "11", 1000.0);
+        newAccount("SIEXEC000012", "12", 0.0);
+        Account frozen = accountRepository.findByAccountNumber("SIEXEC000011");
+        frozen.setStatus("FROZEN");
+        accountRepository.save(frozen);
+
+        ScheduledPayment fromFrozen = scheduled("SIEXEC000011", "SIEXEC000012", 100.0, "MONTHLY", today);
+        ScheduledPayment noAmount = scheduled("SIEXEC000012", "SIEXEC000011", 100.0, "MONTHLY", today);
+        noAmount.setAmount(null);
+        scheduledPaymentRepository.save(noAmount);
+
+        Map<String, Object> result = executor.execute(today);
+        assertEquals(true, result.get("success"));
+        assertEquals(0, result.get("executedCount"));
+        assertEquals(2, result.get("failedCount"));
+        assertEquals(0, result.get("errorCount"));
+        assertEquals(1000.0, balanceOf(BalancePostingService.SAVINGS, "SIEXEC000011"));
+
+        ScheduledPayment frozenAfter = scheduledPaymentRepository.findById(fromFrozen.getId()).orElseThrow();
+        assertEquals("ACTIVE", frozenAfter.getStatus());
+        assertEquals(today.plusMonths(1), frozenAfter.getNextPaymentDate());
+        assertNull(frozenAfter.getLeaseOwner());
+        StandingInstructionExecution failed = executionRepository.findByInstructionTypeAndInstructionIdOrderByDueDateDesc(
+                StandingInstructionExecution.SCHEDULED_PAYMENT, fromFrozen.getId()).get(0);
+        assertEquals("FAILED", failed.getStatus());
+        assertTrue(failed.getFailureReason().contains("not active"));
+
+        ScheduledPayment noAmountAfter = scheduledPaymentRepository.findById(noAmount.getId()).orElseThrow();
+        assertEquals("FAILED", noAmountAfter.getStatus());
+        assertNull(noAmountAfter.getLeaseOwner());
+
+        Map<String, Object> rerun = executor.execute(today);
+        assertEquals(0, rerun.get("failedCount"));
+        assertEquals(0, rerun.get("errorCount"));
+    }
+
+    private void newAccount(String accountNumber, String suffix, double balance) {
+        Account account = new Account();
+        account.setName("SI Executor " + suffix);
+        account.setAccountNumber(accountNumber);
+        account.setAadharNumber("6666000000" + suffix);
+        account.setPan("SIEX" + suffix + "Z");
+        account.setPhone("60000000" + suffix);
+        account.setBalance(balance);
+        account.setStatus("ACTIVE");
+        accountRepository.save(account);
+    }
+
+    private void newSalaryAccount(String accountNumber, double balance) {
+        SalaryAccount account = new SalaryAccount();
+        account.setEmployeeName("SI Executor");
+        account.setAccountNumber(accountNumber);
+        account.setCustomerId("CUST-" + accountNumber);
+        account.setBalance(balance);
+        salaryAccountRepository.save(account);
+    }
+
+    private ScheduledPayment scheduled(String from, String to, double amount, String frequency, LocalDate next) {
+        ScheduledPayment payment = new ScheduledPayment();
+        payment.setAccountNumber(from);
+        payment.setRecipientAccountNumber(to);
+        payment.setRecipientName("SI Recipient");
+        payment.setAmount(amount);
+        payment.setPaymentType("RENT");
+        payment.setFrequency(frequency);
+        payment.setStartDate(next);
+        payment.setNextPaymentDate(next);
+        return scheduledPaymentRepository.save(payment);
+    }
+
+    private Double balanceOf(String type, String accountNumber) {
+        return balancePostingService.currentBalance(type, accountNumber);
+    }
+}
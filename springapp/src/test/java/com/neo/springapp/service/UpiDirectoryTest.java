@@ -0,0 +1,97 @@
+package com.neo.springapp.service;
+
+import com.neo.springapp.model.CurrentAccount;
+import com.neo.springapp.repository.CurrentAccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UpiDirectoryTest {
+
+    @Autowired
+    private UpiDirectory upiDirectory;
+
+    @Autowired
+    private CurrentAccountUpiService currentAccountUpiService;
+
+    @Autowired
+    private SavingsUpiService savingsUpiService;
+
+    @Autowired
+    private CurrentAccountRepository currentAccountRepository;
+
+    @Test
+    void cachesResolvedIdsUntilTheAccountChanges() {
+        saveAccount("CADIR0001", "Directory Traders", "9000011111", "111122223333", "DIRPA0001X");
+        currentAccountUpiService.setupUpiId("CADIR0001", "traders@neobank");
+
+        long hitsBefore = (Long) upiDirectory.getStats().get("hits");
+        Optional<UpiDirectory.Entry> first = upiDirectory.resolve(" Traders@NeoBank ");
+        assertTrue(first.isPresent());
+        assertEquals("CURRENT", first.get().accountType());
+        assertEquals("CADIR0001", first.get().accountNumber());
+        assertEquals("Directory Traders", first.get().name());
+        assertTrue(first.get().active());
+        assertSame(first.get(), upiDirectory.resolve("traders@neobank").orElseThrow());
+        assertEquals(hitsBefore + 1, upiDirectory.getStats().get("hits"));
+
+        Map<String, Object> verified = savingsUpiService.verifyUpiId("traders@neobank");
+        assertEquals(true, verified.get("verified"));
+        assertEquals("CADIR0001", verified.get("accountNumber"));
+
+        currentAccountUpiService.toggleUpi("CADIR0001");
+        UpiDirectory.Entry disabled = upiDirectory.resolve("traders@neobank").orElseThrow();
+        assertFalse(disabled.active());
+        Map<String, Object> rejected = savingsUpiService.verifyUpiId("traders@neobank");
+        assertEquals(false, rejected.get("verified"));
+        assertEquals("UPI not active for this account", rejected.get("error"));
+
+        currentAccountUpiService.toggleUpi("CADIR0001");
+        currentAccountUpiService.updateUpiId("CADIR0001", "shop@neobank");
+        assertTrue(upiDirectory.resolve("traders@neobank").isEmpty());
+        assertTrue(upiDirectory.resolve("shop@neobank").orElseThrow().active());
+        assertTrue(upiDirectory.resolve("nobody@neobank").isEmpty());
+    }
+
+    @Test
+    void invalidatingAnAccountDropsOnlyItsOwnIds() {
+        saveAccount("CADIR0002", "Index Stores", "9000022222", "111122224444", "DIRPA0002X");
+        saveAccount("CADIR0003", "Other Stores", "9000033333", "111122225555", "DIRPA0003X");
+        currentAccountUpiService.setupUpiId("CADIR0002", "index@neobank");
+        currentAccountUpiService.setupUpiId("CADIR0003", "other@neobank");
+        UpiDirectory.Entry index = upiDirectory.resolve("index@neobank").orElseThrow();
+        UpiDirectory.Entry other = upiDirectory.resolve("other@neobank").orElseThrow();
+        int accountsBefore = (Integer) upiDirectory.getStats().get("accounts");
+
+        upiDirectory.invalidateAccount("CADIR0002");
+
+        assertEquals(accountsBefore - 1, upiDirectory.getStats().get("accounts"));
+        assertSame(other, upiDirectory.resolve("other@neobank").orElseThrow());
+        UpiDirectory.Entry reloaded = upiDirectory.resolve("index@neobank").orElseThrow();
+        assertNotSame(index, reloaded);
+        assertEquals("CADIR0002", reloaded.accountNumber());
+        assertEquals(accountsBefore, upiDirectory.getStats().get("accounts"));
+    }
+
+    private void saveAccount(String accountNumber, String businessName, String mobile, String aadhar, String pan) {
+        CurrentAccount account = new CurrentAccount();
+        account.setAccountNumber(accountNumber);
+        account.setBusinessName(businessName);
+        account.setBusinessType("Proprietor");
+        account.setOwnerName("Directory Owner");
+        account.setMobile(mobile);
+        account.setEmail(accountNumber.toLowerCase() + "@example.com");
+        account.setAadharNumber(aadhar);
+        account.setPanNumber(pan);
+        account.setStatus("ACTIVE");
+        currentAccountRepository.save(account);
+    }
+}
@@ -0,0 +1,86 @@
+package com.neo.springapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpiVelocityWindowStoreTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long NOW = 1_790_000_000_000L;
+
+    @Test
+    void sumsCountAndAmountInsideTheWindow() {
+        UpiVelocityWindowStore store = new UpiVelocityWindowStore(null, null, null, 100);
+        store.record("SA1", new BigDecimal("100.50"), NOW - MINUTE);
+        store.record("SA1", 200.0, NOW - 3 * MINUTE);
+        store.record("SA1", 1_000.0, NOW - 30 * MINUTE);
+        store.record("SA1", 5.0, NOW - 59 * MINUTE);
+        store.record("SA1", 5.0, NOW - 200 * MINUTE); // older than the retention window
+        store.record("CA2", 9_999.0, NOW);
+
+        UpiVelocityWindowStore.Velocity fiveMinutes = store.velocity("SA1", 5, NOW);
+        assertEquals(2, fiveMinutes.count());
+        assertEquals(300.50, fiveMinutes.amount());
+        assertEquals(30_050L, fiveMinutes.amountPaise());
+        assertEquals(4, store.velocity("SA1", 60, NOW).count());
+        assertEquals(4, store.velocity("SA1", 600, NOW).count());
+        assertEquals(0, store.velocity("SA1", 5, NOW + 2 * 60 * MINUTE).count());
+        assertEquals(0, store.velocity("nobody", 5, NOW).count());
+        assertEquals(0, store.velocity(null, 5, NOW).count());
+    }
+
+    @Test
+    void windowCoversExactlyTheRequestedNumberOfMinuteBuckets() {
+        UpiVelocityWindowStore store = new UpiVelocityWindowStore(null, null, null, 100);
+        long minuteStart = Math.floorDiv(NOW, MINUTE) * MINUTE;
+        // Last millisecond of the minute just outside a 5-minute window, and first of the oldest minute inside it
+        store.record("SA1", 10.0, minuteStart - 4 * MINUTE - 1);
+        store.record("SA1", 20.0, minuteStart - 4 * MINUTE);
+
+        assertEquals(1, store.velocity("SA1", 5, NOW).count());
+        assertEquals(2_000L, store.velocity("SA1", 5, NOW).amountPaise());
+        assertEquals(2, store.velocity("SA1", 6, NOW).count());
+        assertEquals(0, store.velocity("SA1", 1, NOW).count());
+        assertEquals(0, store.velocity("SA1", 0, NOW).count());
+        assertEquals(1, store.velocity("SA1", 1, minuteStart - 4 * MINUTE).count());
+    }
+
+    @Test
+    void evictsLeastRecentlyActiveSendersWhenFull() {
+        UpiVelocityWindowStore store = new UpiVelocityWindowStore(null, null, null, 10);
+        for (int i = 0; i < 11; i++) {
+            store.record("SA" + i, 10.0, NOW + i * MINUTE);
+        }
+        assertTrue(store.getTrackedSenderCount() <= 10);
+        assertEquals(0, store.velocity("SA0", 60, NOW + 11 * MINUTE).count());
+        assertEquals(1, store.velocity("SA10", 60, NOW + 11 * MINUTE).count());
+    }
+
+    @Test
+    void paymentsInsideATransactionCountOnlyOnceCommitted() {
+        UpiVelocityWindowStore store = new UpiVelocityWindowStore(null, null, null, 100);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.record("SA1", 100.0, NOW);
+            assertEquals(0, store.velocity("SA1", 5, NOW).count());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization(); // rolled back
+        }
+        assertEquals(0, store.velocity("SA1", 5, NOW).count());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.record("SA1", 100.0, NOW);
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1, store.velocity("SA1", 5, NOW).count());
+    }
+}